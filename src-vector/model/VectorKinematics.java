@@ -0,0 +1,122 @@
+package model;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link Kinematics} that moves the on-segment slots of a range several at a
+ * time with the incubating Vector API.
+ * <p>
+ * Each lane does what {@link FleetState#moveNormal} does for a slot on its
+ * segment, with the same float operations in the same order, so the result
+ * is bit-for-bit the same: the velocity is adjusted for the distance left,
+ * the distance flown is subtracted, the position is stepped back from the
+ * waypoint along the segment's direction, the segment's heading is taken and
+ * the battery is drained. Bookkeeping that only a few slots need per tick
+ * (moving on to the next waypoint, a drone whose battery ran out, slots off
+ * their segment, the tail of the range that does not fill a vector) is left
+ * to the scalar code.
+ * <p>
+ * This class needs {@code --add-modules jdk.incubator.vector} to compile and
+ * to run, so it is kept out of the default source tree; {@link Kinematics}
+ * loads it by name when it is on the class path.
+ *
+ * @author Yusuf Shakhpaz
+ */
+final class VectorKinematics extends Kinematics {
+
+    /** The widest float vector the hardware supports. */
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /** Distance below which a slow approach may not drop under the least moving velocity. */
+    private static final float STALL_DISTANCE = 0.001f;
+
+    /**
+     * Creates the vector implementation. Called by name from {@link Kinematics}.
+     */
+    VectorKinematics() {
+        // Stateless.
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    void move(final FleetState theFleet, final boolean[] theMoving, final int theFrom, final int theTo,
+              final float theDeltaTime, final float[] theScratch) {
+        int bound = theFrom + SPECIES.loopBound(theTo - theFrom);
+        for (int slot = theFrom; slot < bound; slot += SPECIES.length()) {
+            long belowGround = moveLanes(theFleet, theMoving, slot, theDeltaTime);
+            for (int lane = 0; lane < SPECIES.length(); lane++) {
+                if (theMoving[slot + lane]) {
+                    theFleet.finishMove(slot + lane, (belowGround >>> lane & 1) != 0, theDeltaTime, theScratch);
+                }
+            }
+        }
+        super.move(theFleet, theMoving, bound, theTo, theDeltaTime, theScratch);
+    }
+
+    /**
+     * Moves the flagged, on-segment slots of one vector's worth of slots.
+     *
+     * @return a bit per lane, set if the ground clamp raised the lane's altitude.
+     */
+    private static long moveLanes(final FleetState theFleet, final boolean[] theMoving, final int theSlot,
+                                  final float theDeltaTime) {
+        FloatVector remaining = FloatVector.fromArray(SPECIES, theFleet.myRemaining, theSlot);
+        VectorMask<Float> lanes = VectorMask.fromArray(SPECIES, theMoving, theSlot)
+                .and(remaining.compare(VectorOperators.NE, FleetState.OFF_SEGMENT));
+        if (!lanes.anyTrue()) {
+            return 0;
+        }
+
+        // Velocity, as in NavigationSystem.approachVelocity; kept as is on the waypoint itself.
+        FloatVector velocity = FloatVector.fromArray(SPECIES, theFleet.myVelocities, theSlot);
+        FloatVector slower = velocity.sub(NavigationSystem.ACCELERATION_STEP).max(0);
+        slower = slower.blend(NavigationSystem.MIN_VELOCITY_TO_MOVE,
+                remaining.compare(VectorOperators.GT, STALL_DISTANCE)
+                        .and(slower.compare(VectorOperators.LT, NavigationSystem.MIN_VELOCITY_TO_MOVE)));
+        FloatVector faster = velocity.add(NavigationSystem.ACCELERATION_STEP).min(NavigationSystem.MAX_VELOCITY);
+        FloatVector approach = faster.blend(slower,
+                remaining.compare(VectorOperators.LT, NavigationSystem.SLOW_DOWN_DISTANCE));
+        VectorMask<Float> away = remaining.compare(VectorOperators.GE, NavigationSystem.ARRIVAL_EPSILON);
+        velocity = velocity.blend(approach, away);
+
+        // Distance left after this step; zero once the waypoint is reached.
+        FloatVector left = remaining.sub(velocity.mul(theDeltaTime)).blend(0, away.not());
+        left = left.blend(0, left.compare(VectorOperators.LE, 0));
+
+        FloatVector longitude = FloatVector.fromArray(SPECIES, theFleet.myTargetLongitudes, theSlot)
+                .sub(FloatVector.fromArray(SPECIES, theFleet.myDirectionLongitudes, theSlot).mul(left));
+        FloatVector latitude = FloatVector.fromArray(SPECIES, theFleet.myTargetLatitudes, theSlot)
+                .sub(FloatVector.fromArray(SPECIES, theFleet.myDirectionLatitudes, theSlot).mul(left));
+        FloatVector altitude = FloatVector.fromArray(SPECIES, theFleet.myTargetAltitudes, theSlot)
+                .sub(FloatVector.fromArray(SPECIES, theFleet.myDirectionAltitudes, theSlot).mul(left));
+        // A lane is only pulled off its segment if it dips below the ground, not if it flies along it.
+        VectorMask<Float> belowGround = altitude.compare(VectorOperators.LT, 0).and(lanes);
+        altitude = altitude.max(0);
+
+        FloatVector segmentHeading = FloatVector.fromArray(SPECIES, theFleet.mySegmentHeadings, theSlot);
+        // Only NaN differs from itself.
+        FloatVector heading = segmentHeading.blend(FloatVector.fromArray(SPECIES, theFleet.myHeadings, theSlot),
+                segmentHeading.compare(VectorOperators.NE, segmentHeading));
+
+        // Battery, as in BatterySystem.drainFor and FleetState.drain.
+        FloatVector drain = velocity.abs().mul(BatterySystem.SPEED_DRAIN_RATE).mul(theDeltaTime)
+                .add(BatterySystem.BASE_DRAIN_RATE * theDeltaTime);
+        FloatVector battery = FloatVector.fromArray(SPECIES, theFleet.myBatteries, theSlot).sub(drain).max(0);
+
+        left.intoArray(theFleet.myRemaining, theSlot, lanes);
+        velocity.intoArray(theFleet.myVelocities, theSlot, lanes);
+        longitude.intoArray(theFleet.myLongitudes, theSlot, lanes);
+        latitude.intoArray(theFleet.myLatitudes, theSlot, lanes);
+        altitude.intoArray(theFleet.myAltitudes, theSlot, lanes);
+        heading.intoArray(theFleet.myHeadings, theSlot, lanes);
+        battery.intoArray(theFleet.myBatteries, theSlot, lanes);
+        return belowGround.toLong();
+    }
+}
@@ -0,0 +1,66 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+
+/**
+ * A command line benchmark that measures simulation tick time as the fleet
+ * grows, which is dominated by the collision phase at large drone counts.
+ * <p>
+ * The fleet is grown in place to each requested size, a few warm-up ticks are
+ * run, and then the mean wall time of {@link TelemetryGenerator#processAllDrones}
+ * is printed. Drone counts can be passed as arguments; the default is
+ * 1,000, 10,000 and 100,000 drones.
+ *
+ * @author Yusuf
+ */
+public class CollisionBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /** Ticks run before timing starts at each fleet size. */
+    private static final int WARMUP_TICKS = 3;
+
+    /** Ticks timed at each fleet size. */
+    private static final int MEASURED_TICKS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone counts, in increasing order.
+     */
+    public static void main(String[] theArgs) {
+        int[] sizes = {1_000, 10_000, 100_000};
+        if (theArgs.length > 0) {
+            sizes = new int[theArgs.length];
+            for (int i = 0; i < theArgs.length; i++) {
+                sizes[i] = Integer.parseInt(theArgs[i]);
+            }
+        }
+
+        RouteGenerator routeGenerator = new RouteGenerator();
+        DroneGenerator droneGenerator = new DroneGenerator();
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+
+        System.out.println("drones,meanTickMs");
+        for (int size : sizes) {
+            while (gen.getMyDrones().size() < size) {
+                ArrayList<RoutePoint> route = routeGenerator.generateRoute();
+                gen.addDrone(droneGenerator.createDrone(gen.getFleet(), route));
+            }
+
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                gen.processAllDrones(DELTA_TIME);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                gen.processAllDrones(DELTA_TIME);
+            }
+            double meanMs = (System.nanoTime() - start) / 1e6 / MEASURED_TICKS;
+            System.out.printf("%d,%.2f%n", size, meanMs);
+        }
+    }
+}
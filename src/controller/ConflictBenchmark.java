@@ -0,0 +1,88 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+
+/**
+ * A command line benchmark that measures how long conflict prediction (see
+ * {@link ConflictDetector}) takes per tick as the fleet grows.
+ * <p>
+ * The fleet is grown in place to each requested size and a new detector with
+ * the default separation and horizon is warmed up on it. Each measured tick
+ * advances the fleet with {@link TelemetryGenerator#tick(float)} and then
+ * times {@link ConflictDetector#update}, so only the prediction is timed.
+ * The output lists the mean update time, and the mean number of conflicts
+ * and of new conflicts per tick. Drone counts can be passed as arguments;
+ * the default is 1,000, 10,000 and 100,000 drones.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class ConflictBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /** Ticks run before timing starts at each fleet size. */
+    private static final int WARMUP_TICKS = 10;
+
+    /** Ticks timed at each fleet size. */
+    private static final int MEASURED_TICKS = 10;
+
+    /** Seed used for routes and the fleet's random streams. */
+    private static final long SEED = 360L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone counts, in increasing order.
+     */
+    public static void main(String[] theArgs) {
+        int[] sizes = {1_000, 10_000, 100_000};
+        if (theArgs.length > 0) {
+            sizes = new int[theArgs.length];
+            for (int i = 0; i < theArgs.length; i++) {
+                sizes[i] = Integer.parseInt(theArgs[i]);
+            }
+        }
+
+        RouteGenerator routeGenerator = new RouteGenerator(SEED);
+        DroneGenerator droneGenerator = new DroneGenerator();
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        gen.setClock(new SimulatedClock(0, (long) (DELTA_TIME * 1000)));
+        gen.setSeed(SEED);
+
+        System.out.println("drones,meanUpdateMs,conflicts,newConflicts");
+        for (int size : sizes) {
+            while (gen.getFleet().size() < size) {
+                ArrayList<RoutePoint> route = routeGenerator.generateRoute();
+                droneGenerator.createDrone(gen.getFleet(), route);
+            }
+
+            ConflictDetector conflicts = new ConflictDetector();
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                gen.tick(DELTA_TIME);
+                conflicts.update(gen.getFleet(), DELTA_TIME);
+            }
+
+            long elapsed = 0;
+            long found = 0;
+            long fresh = 0;
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                gen.tick(DELTA_TIME);
+                long start = System.nanoTime();
+                int count = conflicts.update(gen.getFleet(), DELTA_TIME);
+                elapsed += System.nanoTime() - start;
+                found += count;
+                for (int c = 0; c < count; c++) {
+                    if (conflicts.isNew(c)) {
+                        fresh++;
+                    }
+                }
+            }
+            System.out.printf("%d,%.2f,%d,%d%n", size, elapsed / 1e6 / MEASURED_TICKS,
+                    found / MEASURED_TICKS, fresh / MEASURED_TICKS);
+        }
+        gen.setClock(WallClock.INSTANCE);
+    }
+}
@@ -2,7 +2,17 @@ package controller;
 
 import model.*;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -24,7 +34,7 @@ import javax.swing.*;
  * <p>The simulation operates by:</p>
  * <ul>
  * <li>Generating drones with automatically produced flight routes.</li>
- * <li>Processing telemetry updates at a fixed interval.</li>
+ * <li>Processing telemetry updates at a fixed rate (see {@link TickScheduler}).</li>
  * <li>Detecting anomalies based on changes in telemetry.</li>
  * <li>Triggering alert sounds and logging anomaly reports.</li>
  * <li>Updating the UI in real time to reflect drone states.</li>
@@ -35,6 +45,46 @@ import javax.swing.*;
  * automatically on exit.
  * </p>
  *
+ * <p>
+ * Passing {@code --scalable} lifts the {@value #MAX_DRONE_COUNT} drone limit
+ * for airspaces of tens of thousands of drones and switches each tick to
+ * batched detection, database writes and UI updates.
+ * </p>
+ *
+ * <p>
+ * Every tick also predicts which drones will lose separation within the next
+ * few seconds (see {@link ConflictDetector}) and reports each new conflict.
+ * Pass {@code --no-conflicts} to turn the prediction off, for example for very
+ * large scalable fleets.
+ * </p>
+ *
+ * <p>
+ * With {@code --checkpoint PATH} the simulation is saved to PATH every
+ * {@value #STATS_INTERVAL} seconds and on exit (see {@link CheckpointWriter}),
+ * and a later start with the same option continues it: the drone count
+ * dialog is skipped and the saved drones resume where they were, with their
+ * routes, batteries and random streams.
+ * </p>
+ *
+ * <p>
+ * With {@code --lod N} drones that are off screen, not selected and far from
+ * every other drone are stepped in N-tick windows (see {@link LevelOfDetail})
+ * and skip detection and drawing while they are left behind. Zooming or
+ * panning the map, selecting a drone, an anomaly or a predicted conflict
+ * brings a drone back to full rate at the next tick.
+ * </p>
+ *
+ * <p>
+ * With {@code --bus N} the simulation thread only moves the drones and
+ * predicts conflicts. Each tick is handed over a {@link TelemetryBus} of N
+ * ticks to detection, persistence, alerting and drawing, which run on
+ * threads of their own, so a slow database write or a blocked alert does
+ * not hold up the physics. Drawing drops ticks when it falls behind; the
+ * others see every tick, and the simulation only waits for them when one
+ * falls N ticks behind. Their lag is printed every {@value #STATS_INTERVAL}
+ * seconds and on exit.
+ * </p>
+ *
  * @author Natan Artemiev
  * @version 11/30/2025
  */
@@ -46,9 +96,6 @@ public class DroneMonitorApp {
      */
     private static final boolean MY_DEV_MODE = false;
 
-    /** The route generator used to create flight paths for the drones. */
-    private static final RouteGenerator myRouteGenerator = new RouteGenerator();
-
     /** The drone generator used to instantiate drone objects. */
     private static final DroneGenerator myDroneGenerator = new DroneGenerator();
 
@@ -63,9 +110,21 @@ public class DroneMonitorApp {
      */
    private static final double MY_DELTA_TIME = MY_UPDATE_TIME / 1000.0;
 
-    /** Maximum number of drones allowed in the simulation. */
+    /** Most ticks the scheduler runs back to back to catch up after an overrun. */
+    private static final int MAX_CATCH_UP_BURST = 4;
+
+    /** Seconds between checks of the tick scheduler's statistics. */
+    private static final long STATS_INTERVAL = 60;
+
+    /** Maximum number of drones allowed in the simulation, unless it runs in scalable mode. */
     private static final int MAX_DRONE_COUNT = 200;
 
+    /** Ticks between checkpoints, one every {@value #STATS_INTERVAL} seconds. */
+    private static final long CHECKPOINT_TICKS = STATS_INTERVAL * 1000 / MY_UPDATE_TIME;
+
+    /** Alert played when a drone crashes; crashed drones leave the simulation. */
+    static final String CRASH_ALERT = "crash";
+
     /**
      * The main entry point for the program. Initializes the UI and creates drones. Initializes the TelemetryGenerator
      * in order to update each drone. Listens for a change of state in the model and updates the view.
@@ -73,11 +132,19 @@ public class DroneMonitorApp {
      * @param theArgs - The command line arguments passed into the program.
      */
     static void main(String[] theArgs) {
-        String input = JOptionPane.showInputDialog("Enter the number of drones for the simulation.");
-
-        int myDroneCount = validateInput(input);
-
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        boolean scalable = Arrays.asList(theArgs).contains("--scalable");
+
+        //A checkpoint saved by an earlier run replaces the drone count dialog.
+        Path checkpointPath = parseCheckpoint(theArgs);
+        FleetCheckpoint restored = readCheckpoint(checkpointPath);
+
+        int myDroneCount;
+        if (restored != null) {
+            myDroneCount = restored.size();
+        } else {
+            String input = JOptionPane.showInputDialog("Enter the number of drones for the simulation.");
+            myDroneCount = validateInput(input, scalable);
+        }
 
         MonitorDashboard view = MonitorDashboard.getInstance(); //Initialize the UI.
 
@@ -88,20 +155,35 @@ public class DroneMonitorApp {
          *  % = 100 (percentage steps) / [15 (seconds) * 2 (updates/sec) * MY_DRONE_COUNT]
          *  % = 10 / (3.0 * MY_DRONE_COUNT)
          */
-        float MY_ANOMALY_PERCENT = 10.0f / (3.0f * myDroneCount);
+        float MY_ANOMALY_PERCENT = restored != null ? restored.getAnomalyPercent() : 10.0f / (3.0f * myDroneCount);
 
         //Initialize telemetry generator
         TelemetryGenerator gen = TelemetryGenerator.getInstance(MY_ANOMALY_PERCENT);
-
-        //Generate Drones
-        for (int i = 0; i < myDroneCount; i++) {
-            ArrayList<RoutePoint> theRoute = myRouteGenerator.generateRoute();
-            DroneInterface drone = myDroneGenerator.createDrone(theRoute);
-            gen.addDrone(drone);
+        gen.setParallelism(parseThreads(theArgs, scalable));
+
+        //A master seed makes routes, anomalies and report IDs repeatable.
+        SimulationSeed seed = parseSeed(theArgs);
+        RouteGenerator routeGenerator = seed == null ? new RouteGenerator() : new RouteGenerator(seed.getRouteSeed());
+
+        //Generate Drones, or bring back the saved ones
+        if (restored != null) {
+            restored.restore(gen);
+        } else {
+            for (int i = 0; i < myDroneCount; i++) {
+                ArrayList<RoutePoint> theRoute = routeGenerator.generateRoute();
+                DroneInterface drone = myDroneGenerator.createDrone(gen.getFleet(), theRoute);
+                gen.addDrone(drone);
+            }
+            if (seed != null) {
+                gen.setSeed(seed.getFleetSeed());
+            }
         }
 
         //Initialize AnomalyDetector
-        AnomalyDetector detector = new AnomalyDetector();
+        AnomalyDetector detector = seed == null ? new AnomalyDetector() : new AnomalyDetector(seed.getReportSeed());
+
+        //Initialize the conflict prediction, unless it was turned off
+        ConflictDetector conflicts = Arrays.asList(theArgs).contains("--no-conflicts") ? null : new ConflictDetector();
 
         //Initialize AnomalyDatabase
         AnomalyDatabase anomalyDTBS = new AnomalyDatabase();
@@ -120,47 +202,52 @@ public class DroneMonitorApp {
          *   <li>Plays alert sound effects based on anomaly type.</li>
          *   <li>Removes drones from the simulation when they suffer critical failures.</li>
          * </ul>
+         * <p>
+         * When the scheduler is behind and degrading, drones are not redrawn
+         * for that tick; anomalies are still logged and shown.
+         * </p>
          */
-        Runnable simulateNextStep = () -> {
+        TickScheduler.TickTask simulateNextStep = degraded -> {
             try {
                 //Get Previous and Current telemetry of all drones.
-                Map<DroneInterface, TelemetryRecord[]> droneTelemetry = gen.processAllDrones((float) MY_DELTA_TIME);
+                TelemetryBatch batch = gen.processAllDrones((float) MY_DELTA_TIME);
+                TelemetryColumns current = batch.getCurrent();
+
+                //Warn about drones that are predicted to lose separation.
+                if (conflicts != null) {
+                    List<AnomalyReport> conflictReports = new ArrayList<>();
+                    predictConflicts(gen, conflicts, detector, conflictReports);
+                    for (AnomalyReport report : conflictReports) {
+                        AlertPlayer.INSTANCE.addSoundToQueue(alertFor(report.anomalyType()));
+                        anomalyDTBS.insertReport(report);
+                        javax.swing.SwingUtilities.invokeLater(() -> {
+                                view.addLogEntry(report.simpleReport(), report.detailedReport());
+                        });
+                    }
+                }
 
                 //For each drone
-                for (Map.Entry<DroneInterface, TelemetryRecord[]> entry : droneTelemetry.entrySet()) {
+                List<DroneInterface> crashed = new ArrayList<>();
+                for (int entry = 0; entry < batch.size(); entry++) {
                     boolean removeDrone = false;
-                    DroneInterface drone = entry.getKey();
-                    TelemetryRecord[] recordPair = entry.getValue();
-
-                    //Get previous Telemetry
-                    TelemetryRecord myBeforeTelemetryRecord = recordPair[0];
-
-                    //Get Current Telemetry
-                    TelemetryRecord myCurrentTelemetryRecord = recordPair[1];
+                    int id = current.getId(entry);
 
                     //Send previous and current telemetry to anomaly detector for analysis
-                    AnomalyReport anomaly = detector.detect(myBeforeTelemetryRecord, myCurrentTelemetryRecord);
+                    AnomalyReport anomaly = detector.detect(batch, entry);
 
                     //If anomaly is not null.
                     if (anomaly != null) {
-                        String anomalyString = anomaly.anomalyType();
-                        if (anomalyString.contains("Failure") || anomalyString.contains("Ground")) { //BATTERY_FAIL OR HIT_GROUND (2/9)
-                            AlertPlayer.INSTANCE.addSoundToQueue("crash");
-                            float[] loc = {myCurrentTelemetryRecord.longitude(), myCurrentTelemetryRecord.latitude()};
-                            view. drawDrone(drone.getId(), loc, telemetryToString(myCurrentTelemetryRecord));
-                            view.markDroneDead(drone.getId());
-                            gen.removeDrone(drone);
+                        if (gen.getLevelOfDetail() != null) {
+                            gen.getLevelOfDetail().promote(id);
+                        }
+                        String alert = alertFor(anomaly.anomalyType());
+                        AlertPlayer.INSTANCE.addSoundToQueue(alert);
+                        if (alert.equals(CRASH_ALERT)) {
+                            float[] loc = {current.getLongitude(entry), current.getLatitude(entry)};
+                            view. drawDrone(id, loc, telemetryToString(current, entry));
+                            view.markDroneDead(id);
+                            crashed.add(gen.getFleet().getDrone(batch.getSlot(entry)));
                             removeDrone = true;
-                        } else if (anomalyString.contains("Out of Bounds")) { //OUT_OF_BOUNDS (1/9)
-                            AlertPlayer.INSTANCE.addSoundToQueue("out-of-bounds");
-                        } else if (anomalyString.contains("Battery")) { //BATTERY_DRAIN  and BATTERY_WARNING anomalies (2/9)
-                            AlertPlayer.INSTANCE.addSoundToQueue("battery");
-                        } else if (anomalyString.contains("Acceleration")
-                                || anomalyString.contains("Speed")
-                                || anomalyString.contains("Altitude")) { //ACCELERATION and SPEED anomalies (3/9)
-                            AlertPlayer.INSTANCE.addSoundToQueue("acceleration");
-                        } else  { //SPOOFING and OFF_COURSE anomalies (1/9)
-                            AlertPlayer.INSTANCE.addSoundToQueue("spoof");
                         }
 
                         //Add anomaly to database.
@@ -173,23 +260,27 @@ public class DroneMonitorApp {
                     }
 
                     // Check if drone died naturally (battery = 0)
-                    if (!removeDrone && !drone.isAlive()) {
-                        view.markDroneDead(drone.getId());
+                    if (!removeDrone && batch.isRemoved(entry)) {
+                        view.markDroneDead(id);
                     }
 
-                    //If the drone hasn't been removed...
-                    if (!removeDrone) {
+                    //If the drone hasn't been removed and drawing isn't being shed...
+                    if (!removeDrone && !degraded) {
                         //Get drone location to pass to view
-                        float[] location = {myCurrentTelemetryRecord.longitude(),
-                                myCurrentTelemetryRecord.latitude()};
+                        float[] location = {current.getLongitude(entry), current.getLatitude(entry)};
 
                         //Get telemetry as a String to pass to view
-                        String theTelemetry = telemetryToString(myCurrentTelemetryRecord);
+                        String theTelemetry = telemetryToString(current, entry);
 
                         //Draw the drone on the view
-                        view.drawDrone(drone.getId(), location, theTelemetry);
+                        view.drawDrone(id, location, theTelemetry);
                     }
                 }
+
+                // Removing shifts later slots, so wait until the batch has been read.
+                for (DroneInterface drone : crashed) {
+                    gen.removeDrone(drone);
+                }
             }
             catch (Exception e) {
                 System.err.println("Fatal error in simulation loop (main loop will continue)");
@@ -197,26 +288,77 @@ public class DroneMonitorApp {
             }
         };
 
-        scheduler.scheduleWithFixedDelay(simulateNextStep, 0, MY_UPDATE_TIME, TimeUnit.MILLISECONDS);
+        int busCapacity = parseBus(theArgs);
+        if (busCapacity > 0 && scalable) {
+            throw new IllegalArgumentException("--bus cannot be combined with --scalable.");
+        }
+        TelemetryBus bus = busCapacity > 0 ? new TelemetryBus(busCapacity) : null;
+
+        TickScheduler.TickTask step;
+        if (bus != null) {
+            AnomalyDetector conflictReporter = seed == null
+                    ? new AnomalyDetector() : new AnomalyDetector(~seed.getReportSeed());
+            step = busStep(gen, bus, detector, conflicts, conflictReporter, anomalyDTBS, view);
+            bus.start();
+        } else {
+            step = scalable ? scalableStep(gen, detector, conflicts, anomalyDTBS, view) : simulateNextStep;
+        }
+        int detailWindow = parseLevelOfDetail(theArgs);
+        if (detailWindow > 0) {
+            gen.setLevelOfDetail(new LevelOfDetail(detailWindow));
+            step = observing(step, gen.getLevelOfDetail(), view);
+        }
+        CheckpointWriter checkpoints = checkpointPath == null ? null : new CheckpointWriter();
+        TickScheduler scheduler = new TickScheduler(MY_UPDATE_TIME, parsePolicy(theArgs), MAX_CATCH_UP_BURST,
+                checkpoints == null ? step : checkpointing(step, gen, checkpoints, checkpointPath));
+        scheduler.start();
+
+        //Report tick latency whenever the simulation is running over its budget, and the bus consumers' lag.
+        ScheduledExecutorService statsReporter = Executors.newSingleThreadScheduledExecutor();
+        long[] lastOverruns = {0};
+        statsReporter.scheduleAtFixedRate(() -> {
+            TickScheduler.TickStats stats = scheduler.getStats();
+            if (stats.overBudget() || stats.overruns() > lastOverruns[0]) {
+                System.out.println("Simulation over tick budget: " + stats);
+            }
+            lastOverruns[0] = stats.overruns();
+            if (bus != null) {
+                printBus(bus);
+            }
+        }, STATS_INTERVAL, STATS_INTERVAL, TimeUnit.SECONDS);
 
         /*
-         * Shuts down the scheduled executor service when the program terminates.
+         * Stops the tick scheduler when the program terminates.
          * <p>
-         * This method attempts a graceful shutdown and falls back to forcibly
-         * terminating the scheduler if the timeout elapses. It is attached to
-         * the JVM shutdown hook so cleanup occurs even during unexpected exits.
+         * This method waits up to ten seconds for the tick in progress to
+         * finish. It is attached to the JVM shutdown hook so cleanup occurs
+         * even during unexpected exits.
          * </p>
          */
         Runnable shutdownScheduler = () -> {
-            scheduler.shutdown();
+            statsReporter.shutdownNow();
             try {
-                if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
+                scheduler.stop(TimeUnit.SECONDS.toMillis(10));
             } catch (InterruptedException e) {
-                scheduler.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+            System.out.println("Tick scheduler: " + scheduler.getStats());
+            if (bus != null) {
+                //Let the consumers finish the ticks already published.
+                bus.close();
+                printBus(bus);
+            }
+            if (gen.getLevelOfDetail() != null) {
+                System.out.printf("Level of detail: %.0f%% of drone updates saved%n",
+                        gen.getLevelOfDetail().getSavedFraction() * 100);
+            }
+
+            //No tick is running any more, so the fleet can be captured here.
+            if (checkpoints != null) {
+                System.out.println("Saving checkpoint to " + checkpointPath + "...");
+                checkpoints.save(gen, checkpointPath);
+                checkpoints.close();
+            }
 
             System.out.println("Closing database connection...");
             anomalyDTBS.close();
@@ -232,6 +374,364 @@ public class DroneMonitorApp {
         }
     }
 
+    /**
+     * Creates the tick task for bus mode and adds its consumers to the bus.
+     * <p>
+     * The task only moves the drones, predicts conflicts and publishes the
+     * tick with the conflict reports. Four consumers do the rest:
+     * </p>
+     * <ul>
+     *   <li>detection runs the anomaly detector and adds its reports to the tick;</li>
+     *   <li>persistence writes the tick's reports to the database in one transaction;</li>
+     *   <li>alerts queues each alert sound once and adds the log entries;</li>
+     *   <li>drawing draws the drones, and is the only consumer allowed to drop ticks.</li>
+     * </ul>
+     * <p>
+     * The fleet and the level-of-detail policy belong to the simulation
+     * thread, so detection passes the drones to promote and the crashed
+     * drones to remove back through queues that the task drains before the
+     * next tick. A crashed drone is reported once even if it is still in the
+     * fleet for a few more ticks.
+     * </p>
+     *
+     * @param theGen the telemetry generator.
+     * @param theBus the bus, not yet started.
+     * @param theDetector the anomaly detector, used only by detection.
+     * @param theConflicts the conflict prediction, or null if it is turned off.
+     * @param theConflictReporter the detector that writes conflict reports on the simulation thread.
+     * @param theDatabase the anomaly database.
+     * @param theView the dashboard.
+     * @return the tick task.
+     */
+    private static TickScheduler.TickTask busStep(final TelemetryGenerator theGen,
+                                                  final TelemetryBus theBus,
+                                                  final AnomalyDetector theDetector,
+                                                  final ConflictDetector theConflicts,
+                                                  final AnomalyDetector theConflictReporter,
+                                                  final AnomalyDatabase theDatabase,
+                                                  final MonitorDashboard theView) {
+        Queue<Integer> promoted = new ConcurrentLinkedQueue<>();
+        Queue<Integer> crashed = new ConcurrentLinkedQueue<>();
+        BitSet reportedCrashes = new BitSet();
+
+        TelemetryBus.Consumer detection = theBus.addConsumer("detection", true, (batch, reports, sequence) -> {
+            TelemetryColumns current = batch.getCurrent();
+            for (int entry = 0; entry < batch.size(); entry++) {
+                int id = current.getId(entry);
+                if (reportedCrashes.get(id)) {
+                    continue;
+                }
+                AnomalyReport anomaly = theDetector.detect(batch, entry);
+                if (anomaly != null) {
+                    reports.add(anomaly);
+                    promoted.add(id);
+                    if (alertFor(anomaly.anomalyType()).equals(CRASH_ALERT)) {
+                        reportedCrashes.set(id);
+                        crashed.add(id);
+                    }
+                }
+            }
+        });
+
+        theBus.addConsumer("persistence", true, (batch, reports, sequence) -> {
+            if (!reports.isEmpty()) {
+                theDatabase.insertReports(reports);
+            }
+        }, detection);
+
+        Set<String> alerts = new LinkedHashSet<>();
+        theBus.addConsumer("alerts", true, (batch, reports, sequence) -> {
+            if (reports.isEmpty()) {
+                return;
+            }
+            alerts.clear();
+            for (AnomalyReport report : reports) {
+                alerts.add(alertFor(report.anomalyType()));
+            }
+            for (String alert : alerts) {
+                AlertPlayer.INSTANCE.addSoundToQueue(alert);
+            }
+            List<AnomalyReport> logged = List.copyOf(reports);
+            SwingUtilities.invokeLater(() -> {
+                for (AnomalyReport report : logged) {
+                    theView.addLogEntry(report.simpleReport(), report.detailedReport());
+                }
+            });
+        }, detection);
+
+        theBus.addConsumer("drawing", false, (batch, reports, sequence) -> {
+            TelemetryColumns current = batch.getCurrent();
+            for (int entry = 0; entry < batch.size(); entry++) {
+                int id = current.getId(entry);
+                float[] location = {current.getLongitude(entry), current.getLatitude(entry)};
+                theView.drawDrone(id, location, telemetryToString(current, entry));
+                if (batch.isRemoved(entry)) {
+                    theView.markDroneDead(id);
+                }
+            }
+            for (AnomalyReport report : reports) {
+                if (alertFor(report.anomalyType()).equals(CRASH_ALERT)) {
+                    theView.markDroneDead(report.droneId());
+                }
+            }
+        }, detection);
+
+        List<AnomalyReport> conflictReports = new ArrayList<>();
+        return degraded -> {
+            try {
+                LevelOfDetail detail = theGen.getLevelOfDetail();
+                for (Integer id = promoted.poll(); id != null; id = promoted.poll()) {
+                    if (detail != null) {
+                        detail.promote(id);
+                    }
+                }
+                for (Integer id = crashed.poll(); id != null; id = crashed.poll()) {
+                    FleetState fleet = theGen.getFleet();
+                    for (int slot = 0; slot < fleet.size(); slot++) {
+                        if (fleet.getDrone(slot).getId() == id) {
+                            theGen.removeDrone(fleet.getDrone(slot));
+                            break;
+                        }
+                    }
+                }
+
+                TelemetryBatch batch = theGen.processAllDrones((float) MY_DELTA_TIME);
+                conflictReports.clear();
+                if (theConflicts != null) {
+                    predictConflicts(theGen, theConflicts, theConflictReporter, conflictReports);
+                }
+                theBus.publish(batch, conflictReports);
+            } catch (Exception e) {
+                System.err.println("Fatal error in simulation loop (main loop will continue)");
+                e.printStackTrace();
+            }
+        };
+    }
+
+    /**
+     * Prints how far each consumer of the telemetry bus is behind.
+     *
+     * @param theBus the bus.
+     */
+    private static void printBus(final TelemetryBus theBus) {
+        System.out.println("Telemetry bus: " + theBus.getPublished() + " ticks, producer waited "
+                + theBus.getProducerWaits() + " times");
+        for (TelemetryBus.Consumer consumer : theBus.getConsumers()) {
+            System.out.println("  " + consumer);
+        }
+    }
+
+    /**
+     * Creates the tick task for scalable mode.
+     * <p>
+     * Does the same work as the standard task, but batches everything that costs per
+     * call: anomaly reports are written to the database in one transaction,
+     * log entries are added in one UI update, each alert sound is queued at
+     * most once, and the whole fleet is drawn with a single
+     * {@link MonitorDashboard#drawFleet} call. The telemetry panel is not
+     * filled in this mode. Drones the level-of-detail policy left behind are
+     * not in the tick's batch, so they stay drawn where they last reported.
+     * </p>
+     *
+     * @param theGen the telemetry generator.
+     * @param theDetector the anomaly detector.
+     * @param theConflicts the conflict prediction, or null if it is turned off.
+     * @param theDatabase the anomaly database.
+     * @param theView the dashboard.
+     * @return the tick task.
+     */
+    private static TickScheduler.TickTask scalableStep(final TelemetryGenerator theGen,
+                                                       final AnomalyDetector theDetector,
+                                                       final ConflictDetector theConflicts,
+                                                       final AnomalyDatabase theDatabase,
+                                                       final MonitorDashboard theView) {
+        List<AnomalyReport> reports = new ArrayList<>();
+        List<DroneInterface> crashed = new ArrayList<>();
+        Set<String> alerts = new LinkedHashSet<>();
+        int[][] ids = {new int[0]};
+        float[][] lons = {new float[0]};
+        float[][] lats = {new float[0]};
+        boolean[][] alive = {new boolean[0]};
+
+        return degraded -> {
+            try {
+                TelemetryBatch batch = theGen.processAllDrones((float) MY_DELTA_TIME);
+                TelemetryColumns current = batch.getCurrent();
+                FleetState fleet = theGen.getFleet();
+                int count = batch.size();
+                if (ids[0].length < count) {
+                    ids[0] = new int[count];
+                    lons[0] = new float[count];
+                    lats[0] = new float[count];
+                    alive[0] = new boolean[count];
+                }
+
+                if (theConflicts != null) {
+                    predictConflicts(theGen, theConflicts, theDetector, reports);
+                    for (AnomalyReport report : reports) {
+                        alerts.add(alertFor(report.anomalyType()));
+                    }
+                }
+
+                LevelOfDetail detail = theGen.getLevelOfDetail();
+                for (int entry = 0; entry < count; entry++) {
+                    boolean crash = false;
+                    AnomalyReport anomaly = theDetector.detect(batch, entry);
+                    if (anomaly != null) {
+                        if (detail != null) {
+                            detail.promote(current.getId(entry));
+                        }
+                        String alert = alertFor(anomaly.anomalyType());
+                        alerts.add(alert);
+                        if (alert.equals(CRASH_ALERT)) {
+                            crashed.add(fleet.getDrone(batch.getSlot(entry)));
+                            crash = true;
+                        }
+                        reports.add(anomaly);
+                    }
+                    ids[0][entry] = current.getId(entry);
+                    lons[0][entry] = current.getLongitude(entry);
+                    lats[0][entry] = current.getLatitude(entry);
+                    alive[0][entry] = !crash && !batch.isRemoved(entry);
+                }
+
+                for (String alert : alerts) {
+                    AlertPlayer.INSTANCE.addSoundToQueue(alert);
+                }
+                theDatabase.insertReports(reports);
+                if (!reports.isEmpty()) {
+                    List<AnomalyReport> logged = List.copyOf(reports);
+                    SwingUtilities.invokeLater(() -> {
+                        for (AnomalyReport report : logged) {
+                            theView.addLogEntry(report.simpleReport(), report.detailedReport());
+                        }
+                    });
+                }
+
+                //Crashed drones are drawn once more, dead, before they leave the fleet.
+                if (!degraded || !crashed.isEmpty()) {
+                    theView.drawFleet(ids[0], lons[0], lats[0], alive[0], count);
+                }
+
+                // Removing shifts later slots, so wait until the tick has been read.
+                for (DroneInterface drone : crashed) {
+                    theGen.removeDrone(drone);
+                }
+            } catch (Exception e) {
+                System.err.println("Fatal error in simulation loop (main loop will continue)");
+                e.printStackTrace();
+            } finally {
+                reports.clear();
+                crashed.clear();
+                alerts.clear();
+            }
+        };
+    }
+
+    /**
+     * Wraps a tick task so that every {@link #CHECKPOINT_TICKS} ticks it also
+     * saves the simulation. The fleet is captured on the tick thread, after
+     * the tick, and written in the background.
+     *
+     * @param theStep the tick task.
+     * @param theGen the telemetry generator.
+     * @param theCheckpoints the checkpoint writer.
+     * @param thePath the checkpoint file.
+     * @return the wrapped tick task.
+     */
+    private static TickScheduler.TickTask checkpointing(final TickScheduler.TickTask theStep,
+                                                        final TelemetryGenerator theGen,
+                                                        final CheckpointWriter theCheckpoints,
+                                                        final Path thePath) {
+        long[] ticks = {0};
+        return degraded -> {
+            theStep.tick(degraded);
+            if (++ticks[0] % CHECKPOINT_TICKS == 0) {
+                theCheckpoints.save(theGen, thePath);
+            }
+        };
+    }
+
+    /**
+     * Wraps a tick task so that before every tick the level-of-detail policy
+     * learns which drones the user is looking at: those in the part of the
+     * map on screen and the selected one.
+     *
+     * @param theStep the tick task.
+     * @param theDetail the level-of-detail policy.
+     * @param theView the dashboard.
+     * @return the wrapped tick task.
+     */
+    private static TickScheduler.TickTask observing(final TickScheduler.TickTask theStep,
+                                                    final LevelOfDetail theDetail,
+                                                    final MonitorDashboard theView) {
+        return degraded -> {
+            float[] area = theView.getVisibleArea();
+            if (area == null) {
+                theDetail.clearFocus();
+            } else {
+                theDetail.setFocus(area[0], area[1], area[2], area[3]);
+            }
+            theDetail.setSelected(theView.getSelectedDrone());
+            theStep.tick(degraded);
+        };
+    }
+
+    /**
+     * Updates the conflict prediction for the tick the generator just ran and
+     * adds a report for every conflict that was not predicted by the tick before.
+     * Both drones of every conflict are kept at full rate by the generator's
+     * level-of-detail policy, if it has one.
+     *
+     * @param theGen the telemetry generator.
+     * @param theConflicts the conflict prediction.
+     * @param theDetector the anomaly detector that writes the reports.
+     * @param theReports the list the reports are added to.
+     * @return the number of reports added.
+     */
+    static int predictConflicts(final TelemetryGenerator theGen, final ConflictDetector theConflicts,
+                                final AnomalyDetector theDetector, final List<AnomalyReport> theReports) {
+        int count = theConflicts.update(theGen.getFleet(), (float) MY_DELTA_TIME);
+        TelemetryColumns current = theGen.getCurrentTelemetry();
+        LevelOfDetail detail = theGen.getLevelOfDetail();
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            if (detail != null) {
+                detail.promote(theGen.getFleet().getDrone(theConflicts.getFirst(i)).getId());
+                detail.promote(theGen.getFleet().getDrone(theConflicts.getSecond(i)).getId());
+            }
+            AnomalyReport report = theDetector.detectConflict(current, theConflicts, i);
+            if (report != null) {
+                theReports.add(report);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Picks the alert sound for an anomaly.
+     *
+     * @param theAnomalyType the anomaly type string of a report.
+     * @return the name of the sound to play.
+     */
+    static String alertFor(final String theAnomalyType) {
+        if (theAnomalyType.contains("Failure") || theAnomalyType.contains("Ground")) { //BATTERY_FAIL OR HIT_GROUND (2/9)
+            return CRASH_ALERT;
+        } else if (theAnomalyType.contains("Out of Bounds")
+                || theAnomalyType.contains("Conflict")) { //OUT_OF_BOUNDS and CONFLICT warnings share the airspace alert
+            return "out-of-bounds";
+        } else if (theAnomalyType.contains("Battery")) { //BATTERY_DRAIN  and BATTERY_WARNING anomalies (2/9)
+            return "battery";
+        } else if (theAnomalyType.contains("Acceleration")
+                || theAnomalyType.contains("Speed")
+                || theAnomalyType.contains("Altitude")) { //ACCELERATION and SPEED anomalies (3/9)
+            return "acceleration";
+        } else  { //SPOOFING and OFF_COURSE anomalies (1/9)
+            return "spoof";
+        }
+    }
+
     /**
      * Validates user input for the drone count.
      * <p>
@@ -241,14 +741,16 @@ public class DroneMonitorApp {
      *   <li>The input string is not {@code null}.</li>
      *   <li>The string can be parsed as an integer.</li>
      *   <li>The value is at least 1.</li>
-     *   <li>The value does not exceed {@link #MAX_DRONE_COUNT}.</li>
+     *   <li>The value does not exceed {@link #MAX_DRONE_COUNT}, unless the
+     *       simulation runs in scalable mode.</li>
      * </ul>
      *
      * @param theInput the raw input string entered by the user.
+     * @param theScalable true if the fleet size is not capped.
      * @return a valid drone count clamped to the allowed range.
      * @throws IllegalArgumentException if the input is null or less than 1.
      */
-    private static int validateInput(final String theInput) {
+    private static int validateInput(final String theInput, final boolean theScalable) {
         if (theInput == null) {
             throw new IllegalArgumentException("Input cannot be null.");
         }
@@ -261,26 +763,188 @@ public class DroneMonitorApp {
         if (res < 1) {
             throw new IllegalArgumentException("Input too small (<1)");
         }
-        res = Math.min(res, MAX_DRONE_COUNT);
+        if (!theScalable) {
+            res = Math.min(res, MAX_DRONE_COUNT);
+        }
         return res;
     }
 
     /**
-     * Converts a drone's telemetry record into a formatted, multi-line string
+     * Reads the number of simulation threads from the command line.
+     * <p>
+     * Parallel tick execution is selected with {@code --threads N}; without
+     * the option the simulation runs serially on the scheduler thread, or on
+     * every available processor in scalable mode. Parallel ticks are
+     * experimental: they match a serial run exactly, but their speedup has
+     * not been measured on more than one core yet.
+     * </p>
+     *
+     * @param theArgs the command line arguments.
+     * @param theScalable true if the simulation runs in scalable mode.
+     * @return the number of threads to advance drones with (at least 1).
+     * @throws IllegalArgumentException if the option is malformed or less than 1.
+     */
+    private static int parseThreads(final String[] theArgs, final boolean theScalable) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--threads")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--threads requires a value.");
+                }
+                int threads = Integer.parseInt(theArgs[i + 1]);
+                if (threads < 1) {
+                    throw new IllegalArgumentException("--threads must be at least 1.");
+                }
+                return threads;
+            }
+        }
+        return theScalable ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    /**
+     * Reads the tick overrun policy from the command line.
+     * <p>
+     * The policy is selected with {@code --overrun-policy skip|catch-up|degrade};
+     * without the option the scheduler catches up with a bounded burst.
+     * </p>
+     *
+     * @param theArgs the command line arguments.
+     * @return the overrun policy.
+     * @throws IllegalArgumentException if the option is missing its value or unknown.
+     */
+    private static TickScheduler.OverrunPolicy parsePolicy(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--overrun-policy")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--overrun-policy requires a value.");
+                }
+                return TickScheduler.OverrunPolicy.valueOf(theArgs[i + 1].toUpperCase().replace('-', '_'));
+            }
+        }
+        return TickScheduler.OverrunPolicy.CATCH_UP;
+    }
+
+    /**
+     * Reads the master seed from the command line ({@code --seed N}), or from
+     * the {@value SimulationSeed#PROPERTY} system property if the option is absent.
+     *
+     * @param theArgs the command line arguments.
+     * @return the run's seeds, or null for an unseeded run.
+     * @throws IllegalArgumentException if the option has no value.
+     */
+    private static SimulationSeed parseSeed(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--seed")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--seed requires a value.");
+                }
+                return new SimulationSeed(Long.parseLong(theArgs[i + 1]));
+            }
+        }
+        return SimulationSeed.fromSystemProperty();
+    }
+
+    /**
+     * Reads the level-of-detail window from the command line ({@code --lod N}).
+     *
+     * @param theArgs the command line arguments.
+     * @return ticks per window, or 0 to step every drone every tick.
+     * @throws IllegalArgumentException if the option has no value or is less than 2.
+     */
+    private static int parseLevelOfDetail(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--lod")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--lod requires a value.");
+                }
+                int window = Integer.parseInt(theArgs[i + 1]);
+                if (window < 2) {
+                    throw new IllegalArgumentException("--lod must be at least 2.");
+                }
+                return window;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the telemetry bus capacity from the command line ({@code --bus N}).
+     *
+     * @param theArgs the command line arguments.
+     * @return ticks the bus holds, or 0 to run every consumer on the simulation thread.
+     * @throws IllegalArgumentException if the option has no value or is not a power of two of at least 2.
+     */
+    private static int parseBus(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--bus")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--bus requires a value.");
+                }
+                int capacity = Integer.parseInt(theArgs[i + 1]);
+                if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+                    throw new IllegalArgumentException("--bus must be a power of two of at least 2.");
+                }
+                return capacity;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the checkpoint file from the command line ({@code --checkpoint PATH}).
+     *
+     * @param theArgs the command line arguments.
+     * @return the checkpoint file, or null if the simulation is not saved.
+     * @throws IllegalArgumentException if the option has no value.
+     */
+    private static Path parseCheckpoint(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            if (theArgs[i].equals("--checkpoint")) {
+                if (i + 1 >= theArgs.length) {
+                    throw new IllegalArgumentException("--checkpoint requires a value.");
+                }
+                return Path.of(theArgs[i + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the checkpoint an earlier run saved, if there is one.
+     *
+     * @param thePath the checkpoint file, or null.
+     * @return the checkpoint, or null if there is no file to continue from.
+     * @throws UncheckedIOException if the file exists but cannot be read.
+     */
+    private static FleetCheckpoint readCheckpoint(final Path thePath) {
+        if (thePath == null || !Files.exists(thePath)) {
+            return null;
+        }
+        try {
+            FleetCheckpoint checkpoint = FleetCheckpoint.read(thePath);
+            System.out.println("Restored " + checkpoint.size() + " drones from " + thePath);
+            return checkpoint;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts one drone's telemetry into a formatted, multi-line string
      * for display on the monitoring dashboard.
      *
-     * @param theTelemetryRecord the drone's telemetry record.
+     * @param theTelemetry telemetry columns holding the drone's report.
+     * @param theEntry the drone's index in the columns.
      * @return formatted text representing all telemetry fields.
      */
-    private static String telemetryToString(TelemetryRecord theTelemetryRecord) {
+    static String telemetryToString(TelemetryColumns theTelemetry, int theEntry) {
         StringBuilder sb = new StringBuilder();
-        sb.append("ID: ").append(theTelemetryRecord.id()).append("\n");
-        sb.append("Altitude: ").append(theTelemetryRecord.altitude()).append("\n");
-        sb.append("Longitude: ").append(theTelemetryRecord.longitude()).append("\n");
-        sb.append("Latitude: ").append(theTelemetryRecord.latitude()).append("\n");
-        sb.append("Velocity: ").append(theTelemetryRecord.velocity()).append("\n");
-        sb.append("Battery Level: ").append(theTelemetryRecord.batteryLevel()).append("\n");
-        sb.append("Orientation: ").append(theTelemetryRecord.orientation()).append("\n");
+        sb.append("ID: ").append(theTelemetry.getId(theEntry)).append("\n");
+        sb.append("Altitude: ").append(theTelemetry.getAltitude(theEntry)).append("\n");
+        sb.append("Longitude: ").append(theTelemetry.getLongitude(theEntry)).append("\n");
+        sb.append("Latitude: ").append(theTelemetry.getLatitude(theEntry)).append("\n");
+        sb.append("Velocity: ").append(theTelemetry.getVelocity(theEntry)).append("\n");
+        sb.append("Battery Level: ").append(theTelemetry.getBatteryLevel(theEntry)).append("\n");
+        sb.append("Orientation: ").append(theTelemetry.getOrientation(theEntry)).append("\n");
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package controller;
+
+import model.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A command line benchmark that measures the memory and tick-time budget of
+ * a fleet in scalable mode (see {@link DroneMonitorApp}).
+ * <p>
+ * One seeded fleet is built and ticked the way a scalable tick does it: a
+ * {@link TelemetryGenerator#tick(float)} followed by column-based anomaly
+ * detection for every slot, after which crashed drones are removed. The
+ * output lists the heap retained per drone after garbage collection, the mean
+ * and 95th percentile tick time, how much of the mean was spent in anomaly
+ * detection, and how many drones were still flying at the end. The
+ * first argument is the drone count (default 10,000) and the optional second
+ * argument the thread count (default: every available processor). The
+ * generator is a singleton, so each fleet size needs its own JVM.
+ *
+ * @author Natan Artemiev
+ */
+public class FleetBudgetBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /**
+     * Ticks run before timing starts, so the JIT settles. Dense fleets lose
+     * many drones to collisions within a minute, so timing starts early.
+     */
+    private static final int WARMUP_TICKS = 20;
+
+    /** Ticks timed. */
+    private static final int MEASURED_TICKS = 20;
+
+    /** Heap readings taken for each memory measurement. */
+    private static final int HEAP_READINGS = 8;
+
+    /** Seed used for the fleet's random streams. */
+    private static final long SEED = 360L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone count followed by an optional thread count.
+     */
+    public static void main(String[] theArgs) {
+        int droneCount = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : 10_000;
+        int threads = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        AnomalyDetector detector = new AnomalyDetector(SEED);
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(10.0f / (3.0f * droneCount));
+        gen.setParallelism(threads);
+        // Ticks are stamped 500 ms apart, as they are at real time, however fast they run here.
+        gen.setClock(new SimulatedClock(0, (long) (DELTA_TIME * 1000)));
+        long heapBefore = usedHeap();
+
+        RouteGenerator routeGenerator = new RouteGenerator(SEED);
+        DroneGenerator droneGenerator = new DroneGenerator();
+        for (int i = 0; i < droneCount; i++) {
+            ArrayList<RoutePoint> route = routeGenerator.generateRoute();
+            droneGenerator.createDrone(gen.getFleet(), route);
+        }
+        gen.setSeed(SEED);
+        // One tick sizes the telemetry columns and the collision grid.
+        tick(gen, detector);
+        long bytesPerDrone = (usedHeap() - heapBefore) / droneCount;
+        for (int i = 1; i < WARMUP_TICKS; i++) {
+            tick(gen, detector);
+        }
+
+        long[] durations = new long[MEASURED_TICKS];
+        long detecting = 0;
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            long start = System.nanoTime();
+            long simulated = tick(gen, detector);
+            long end = System.nanoTime();
+            durations[i] = end - start;
+            detecting += end - simulated;
+        }
+        Arrays.sort(durations);
+        double meanMs = Arrays.stream(durations).average().orElse(0) / 1e6;
+        double p95Ms = durations[(int) Math.ceil(0.95 * MEASURED_TICKS) - 1] / 1e6;
+        double detectMs = detecting / 1e6 / MEASURED_TICKS;
+
+        System.out.println("availableProcessors," + Runtime.getRuntime().availableProcessors());
+        System.out.println("drones,threads,bytesPerDrone,meanTickMs,p95TickMs,meanDetectMs,dronesLeft");
+        System.out.printf("%d,%d,%d,%.2f,%.2f,%.2f,%d%n", droneCount, threads, bytesPerDrone, meanMs, p95Ms,
+                detectMs, gen.getFleet().size());
+        gen.setParallelism(1);
+        gen.setClock(WallClock.INSTANCE);
+    }
+
+    /**
+     * Runs one scalable-mode tick: movement, collisions, telemetry, detection
+     * and removal of crashed drones.
+     *
+     * @return the time detection started, in nanoseconds.
+     */
+    private static long tick(final TelemetryGenerator theGen, final AnomalyDetector theDetector) {
+        theGen.tick(DELTA_TIME);
+        long detectStart = System.nanoTime();
+        TelemetryColumns previous = theGen.getPreviousTelemetry();
+        TelemetryColumns current = theGen.getCurrentTelemetry();
+        FleetState fleet = theGen.getFleet();
+        List<DroneInterface> crashed = new ArrayList<>();
+        for (int slot = 0; slot < fleet.size(); slot++) {
+            AnomalyReport anomaly = theDetector.detect(previous, current, slot);
+            if (anomaly != null
+                    && DroneMonitorApp.alertFor(anomaly.anomalyType()).equals(DroneMonitorApp.CRASH_ALERT)) {
+                crashed.add(fleet.getDrone(slot));
+            }
+        }
+        for (DroneInterface drone : crashed) {
+            theGen.removeDrone(drone);
+        }
+        return detectStart;
+    }
+
+    /**
+     * Returns the least heap in use seen over several full garbage collections.
+     * A single reading can include a few hundred kilobytes of JVM bookkeeping
+     * that a later collection frees, which would swamp a small fleet.
+     */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < HEAP_READINGS; i++) {
+            memory.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,431 @@
+package controller;
+
+import model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the drone simulation without a user interface, driven from the
+ * command line.
+ * <p>
+ * Simulated time advances by {@link #MY_UPDATE_TIME} milliseconds per tick,
+ * exactly as in {@link DroneMonitorApp}, but ticks are not tied to the wall
+ * clock: the runner either steps as fast as the CPU allows or paces itself
+ * to a target multiple of real time. The run has its own
+ * {@link SimulationEngine}, which runs on a {@link SimulatedClock}, so every record of a tick is stamped with the
+ * simulated time and the anomaly detector sees the same time deltas as it
+ * would in a real-time run.
+ * </p>
+ *
+ * <p>Each tick feeds the same consumers as the GUI loops:</p>
+ * <ul>
+ * <li>{@link AnomalyDetector} checks every drone's previous and current telemetry.</li>
+ * <li>{@link AnomalyDatabase} stores every anomaly report.</li>
+ * <li>Drones that suffer a battery failure or hit the ground are removed.</li>
+ * <li>{@link ConflictDetector} predicts losses of separation when {@code --conflicts} is given.</li>
+ * <li>{@link PersistentExporter} logs telemetry when {@code --log} is given,
+ *     or {@link BinaryTelemetryExporter} for a
+ *     {@value BinaryTelemetryExporter#EXTENSION} log, or {@link MappedTelemetryLog}
+ *     for a directory, as {@link ZScoreMonitor} does.</li>
+ * </ul>
+ * Alert sounds and drawing are left out.
+ *
+ * <p>Options:</p>
+ * <pre>
+ *   --drones N            number of drones (default 10)
+ *   --duration SECONDS    simulated time to run (default 3600)
+ *   --speed X|max         target speed as a multiple of real time (default max)
+ *   --anomaly-percent P   anomaly chance per drone update (default as in DroneMonitorApp)
+ *   --threads N           threads used to advance drones (default 1; experimental, its
+ *                         speedup has not been measured on more than one core yet)
+ *   --log PATH            write a telemetry log for baseline calculation, in the binary
+ *                         format if PATH ends in .tlog, as segments if it ends in /
+ *   --baseline PATH       after the run, calculate baseline statistics from the log into PATH
+ *   --seed N              master seed; equal seeds give byte-identical logs and reports
+ *   --event-driven        advance drones with {@link EventDrivenEngine} instead of tick by tick
+ *   --sample SECONDS      with --event-driven, simulated time between telemetry samples (default 0.5)
+ *   --no-database         do not store anomaly reports
+ *   --conflicts           report predicted conflicts between drones (not with --event-driven)
+ *   --checkpoint PATH     save the simulation to PATH with every progress line and at the end
+ *                         (not with --event-driven)
+ *   --restore PATH        continue the simulation saved in PATH instead of creating drones
+ *   --lod N               step drones that are isolated and not reported on in N-tick windows
+ *                         (not with --event-driven)
+ * </pre>
+ *
+ * <p>
+ * An event-driven run only computes drone positions when telemetry is
+ * sampled, so long runs with a coarse {@code --sample} interval cost in
+ * proportion to waypoints, battery events and anomalies rather than to
+ * drones times ticks. Collisions are not simulated in that mode, and
+ * crashed drones stay in the fleet but are no longer checked.
+ * </p>
+ *
+ * <p>
+ * Checkpoints are captured between ticks and written on a background thread
+ * (see {@link CheckpointWriter}), so saving does not hold up the run. A
+ * restored run continues from the saved simulated time with the saved
+ * drones, routes, batteries and random streams; {@code --drones} and
+ * {@code --anomaly-percent} are taken from the checkpoint. The checkpoint
+ * also keeps the tick count, so a restored {@code --lod} run with the same
+ * N starts its windows on the same ticks as the original.
+ * </p>
+ *
+ * <p>
+ * With {@code --lod} a {@link LevelOfDetail} policy leaves drones that are far
+ * from every other drone and cruising along a route segment unsimulated for
+ * up to N ticks and catches them up exactly, so the run's outcome does not
+ * change. Drones with an anomaly or a predicted conflict are kept at full
+ * rate. Drones that were left behind in a tick report no telemetry in it,
+ * so they are neither logged nor checked; the progress lines show the share
+ * of drone updates saved.
+ * </p>
+ *
+ * <p>
+ * Without {@code --seed} the {@value SimulationSeed#PROPERTY} system property
+ * is used if set. A seeded run also starts its simulated clock at a fixed
+ * time, so its telemetry timestamps and report timestamps repeat too.
+ * </p>
+ *
+ * @author Natan Artemiev
+ */
+public class HeadlessRunner {
+
+    /** Simulated milliseconds between simulation updates. */
+    private static final long MY_UPDATE_TIME = 500;
+
+    /** Time delta (in seconds) used by the telemetry generator. */
+    private static final float MY_DELTA_TIME = MY_UPDATE_TIME / 1000.0f;
+
+    /** Simulated start time of seeded runs (2026-01-01T00:00:00Z). */
+    private static final long MY_SEEDED_START = 1_767_225_600_000L;
+
+    /** Simulated milliseconds between progress lines. */
+    private static final long MY_PROGRESS_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    /** Columns written to the telemetry log, matching {@link ZScoreMonitor}. */
+    private static final List<String> MY_LOG_HEADERS =
+            List.of("id", "velocity", "batteryLevel", "orientation", "timestamp");
+
+    /** Number of drones to simulate. */
+    private int myDroneCount = 10;
+
+    /** Simulated milliseconds to run for. */
+    private long myDuration = TimeUnit.HOURS.toMillis(1);
+
+    /** Target speed as a multiple of real time, or 0 for as fast as possible. */
+    private double mySpeed;
+
+    /** Anomaly percentage, or a negative value to derive it from the drone count. */
+    private float myAnomalyPercent = -1;
+
+    /** Threads used to advance drones. */
+    private int myThreads = 1;
+
+    /** Telemetry log path, or null if telemetry is not logged. */
+    private String myLogPath;
+
+    /** Baseline output path, or null if no baseline is calculated. */
+    private String myBaselinePath;
+
+    /** Seeds of the run, or null for an unseeded run. */
+    private SimulationSeed mySeed = SimulationSeed.fromSystemProperty();
+
+    /** Whether anomaly reports are stored in the database. */
+    private boolean myUseDatabase = true;
+
+    /** Whether drones are advanced by the event-driven engine. */
+    private boolean myEventDriven;
+
+    /** Whether predicted conflicts between drones are reported. */
+    private boolean myConflicts;
+
+    /** Simulated milliseconds between samples of an event-driven run. */
+    private long mySampleInterval = MY_UPDATE_TIME;
+
+    /** Checkpoint file to save to, or null if the run is not saved. */
+    private Path myCheckpointPath;
+
+    /** Checkpoint file to continue from, or null to create new drones. */
+    private Path myRestorePath;
+
+    /** Ticks per level-of-detail window, or 0 to step every drone every tick. */
+    private int myDetailWindow;
+
+    /**
+     * Entry point for headless runs.
+     *
+     * @param theArgs the command line options described in the class comment.
+     */
+    public static void main(String[] theArgs) {
+        HeadlessRunner runner = new HeadlessRunner();
+        runner.parseArgs(theArgs);
+        runner.run();
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param theArgs the command line arguments.
+     * @throws IllegalArgumentException if an option is unknown, missing its
+     *         value or out of range.
+     */
+    private void parseArgs(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            String option = theArgs[i];
+            if (option.equals("--no-database")) {
+                myUseDatabase = false;
+                continue;
+            }
+            if (option.equals("--event-driven")) {
+                myEventDriven = true;
+                continue;
+            }
+            if (option.equals("--conflicts")) {
+                myConflicts = true;
+                continue;
+            }
+            if (i + 1 >= theArgs.length) {
+                throw new IllegalArgumentException(option + " requires a value.");
+            }
+            String value = theArgs[++i];
+            switch (option) {
+                case "--drones" -> myDroneCount = Integer.parseInt(value);
+                case "--duration" -> myDuration = (long) (Double.parseDouble(value) * 1000);
+                case "--speed" -> mySpeed = value.equals("max") ? 0 : Double.parseDouble(value);
+                case "--anomaly-percent" -> myAnomalyPercent = Float.parseFloat(value);
+                case "--threads" -> myThreads = Integer.parseInt(value);
+                case "--log" -> myLogPath = value;
+                case "--baseline" -> myBaselinePath = value;
+                case "--seed" -> mySeed = new SimulationSeed(Long.parseLong(value));
+                case "--sample" -> mySampleInterval = (long) (Double.parseDouble(value) * 1000);
+                case "--checkpoint" -> myCheckpointPath = Path.of(value);
+                case "--restore" -> myRestorePath = Path.of(value);
+                case "--lod" -> myDetailWindow = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (myDroneCount < 1) {
+            throw new IllegalArgumentException("--drones must be at least 1.");
+        }
+        if (myDuration <= 0) {
+            throw new IllegalArgumentException("--duration must be positive.");
+        }
+        if (mySpeed < 0) {
+            throw new IllegalArgumentException("--speed must be positive or max.");
+        }
+        if (mySampleInterval < MY_UPDATE_TIME || mySampleInterval % MY_UPDATE_TIME != 0) {
+            throw new IllegalArgumentException("--sample must be a multiple of " + MY_UPDATE_TIME / 1000.0 + ".");
+        }
+        if (myBaselinePath != null && myLogPath == null) {
+            throw new IllegalArgumentException("--baseline requires --log.");
+        }
+        if (myConflicts && myEventDriven) {
+            throw new IllegalArgumentException("--conflicts cannot be used with --event-driven.");
+        }
+        if (myCheckpointPath != null && myEventDriven) {
+            throw new IllegalArgumentException("--checkpoint cannot be used with --event-driven.");
+        }
+        if (myDetailWindow != 0 && myDetailWindow < 2) {
+            throw new IllegalArgumentException("--lod must be at least 2.");
+        }
+        if (myDetailWindow != 0 && myEventDriven) {
+            throw new IllegalArgumentException("--lod cannot be used with --event-driven.");
+        }
+    }
+
+    /**
+     * Builds or restores the fleet and runs the simulation for the configured duration.
+     *
+     * @throws UncheckedIOException if the checkpoint to restore cannot be read.
+     */
+    private void run() {
+        float anomalyPercent;
+        long start;
+        SimulationEngine simulation;
+        if (myRestorePath != null) {
+            FleetCheckpoint checkpoint;
+            try {
+                checkpoint = FleetCheckpoint.read(myRestorePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            anomalyPercent = checkpoint.getAnomalyPercent();
+            start = checkpoint.getTime();
+            simulation = checkpoint.restore(new SimulatedClock(start, MY_UPDATE_TIME));
+            System.out.println("Restored " + checkpoint.size() + " drones from " + myRestorePath);
+        } else {
+            // Same rate as DroneMonitorApp: one anomaly every 15 seconds across the fleet.
+            anomalyPercent = myAnomalyPercent >= 0 ? myAnomalyPercent : 10.0f / (3.0f * myDroneCount);
+            start = mySeed == null ? System.currentTimeMillis() : MY_SEEDED_START;
+            long fleetSeed = mySeed == null ? System.nanoTime() : mySeed.getFleetSeed();
+            simulation = new SimulationEngine(anomalyPercent, fleetSeed, new SimulatedClock(start, MY_UPDATE_TIME));
+            RouteGenerator routeGenerator = mySeed == null ? new RouteGenerator() : new RouteGenerator(mySeed.getRouteSeed());
+            for (int i = 0; i < myDroneCount; i++) {
+                simulation.createDrone(routeGenerator.generateRoute());
+            }
+        }
+        TelemetryGenerator gen = simulation.getGenerator();
+        gen.setParallelism(myThreads);
+        LevelOfDetail detail = myDetailWindow == 0 ? null : new LevelOfDetail(myDetailWindow);
+        simulation.setLevelOfDetail(detail);
+
+        AnomalyDetector detector = mySeed == null ? new AnomalyDetector() : new AnomalyDetector(mySeed.getReportSeed());
+        AnomalyDatabase anomalyDTBS = null;
+        if (myUseDatabase) {
+            anomalyDTBS = new AnomalyDatabase();
+            anomalyDTBS.initialize();
+        }
+        TelemetryLogWriter exporter = null;
+        if (myLogPath != null) {
+            exporter = TelemetryLogWriter.forFile(myLogPath);
+            exporter.startTelemetryLog(myLogPath, MY_LOG_HEADERS);
+        }
+
+        EventDrivenEngine engine = null;
+        boolean[] gone = null;
+        long step = 1;
+        if (myEventDriven) {
+            engine = new EventDrivenEngine(gen.getFleet(), MY_DELTA_TIME, anomalyPercent);
+            gone = new boolean[gen.getFleet().size()];
+            step = mySampleInterval / MY_UPDATE_TIME;
+        }
+
+        ConflictDetector conflicts = myConflicts ? new ConflictDetector() : null;
+        CheckpointWriter checkpoints = myCheckpointPath != null ? new CheckpointWriter() : null;
+
+        long wallStart = System.nanoTime();
+        long ticks = myDuration / MY_UPDATE_TIME;
+        long anomalies = 0;
+        List<DroneInterface> crashed = new ArrayList<>();
+        List<AnomalyReport> reports = new ArrayList<>();
+
+        try {
+            for (long tick = step; tick <= ticks; tick += step) {
+                TelemetryColumns previous;
+                TelemetryColumns current;
+                if (engine != null) {
+                    engine.advanceTo(tick);
+                    engine.sample(start + tick * MY_UPDATE_TIME);
+                    previous = engine.getPreviousTelemetry();
+                    current = engine.getCurrentTelemetry();
+                } else {
+                    gen.tick(MY_DELTA_TIME);
+                    previous = gen.getPreviousTelemetry();
+                    current = gen.getCurrentTelemetry();
+                    if (conflicts != null) {
+                        anomalies += DroneMonitorApp.predictConflicts(gen, conflicts, detector, reports);
+                    }
+                }
+
+                FleetState fleet = gen.getFleet();
+                for (int slot = 0; slot < fleet.size(); slot++) {
+                    if ((gone != null && gone[slot]) || !gen.isStepped(slot)) {
+                        continue;
+                    }
+                    if (exporter != null) {
+                        exporter.logTelemetryData(current.toRecord(slot), MY_LOG_HEADERS);
+                    }
+
+                    AnomalyReport anomaly = detector.detect(previous, current, slot);
+                    if (anomaly == null) {
+                        continue;
+                    }
+                    anomalies++;
+                    if (detail != null) {
+                        detail.promote(current.getId(slot));
+                    }
+                    String anomalyString = anomaly.anomalyType();
+                    if (anomalyString.contains("Failure") || anomalyString.contains("Ground")) {
+                        if (gone != null) {
+                            gone[slot] = true;
+                        } else {
+                            crashed.add(fleet.getDrone(slot));
+                        }
+                    }
+                    reports.add(anomaly);
+                }
+                if (anomalyDTBS != null) {
+                    anomalyDTBS.insertReports(reports);
+                }
+                reports.clear();
+
+                // Removing shifts later slots, so wait until the tick has been read.
+                for (DroneInterface drone : crashed) {
+                    gen.removeDrone(drone);
+                }
+                crashed.clear();
+
+                if (mySpeed > 0) {
+                    pace(wallStart, tick * MY_UPDATE_TIME, mySpeed);
+                }
+                if ((tick * MY_UPDATE_TIME) % MY_PROGRESS_INTERVAL < step * MY_UPDATE_TIME) {
+                    printProgress(tick, wallStart, anomalies, fleet.size(), detail);
+                    if (checkpoints != null) {
+                        checkpoints.save(simulation, myCheckpointPath);
+                    }
+                }
+            }
+            if (checkpoints != null && (ticks * MY_UPDATE_TIME) % MY_PROGRESS_INTERVAL != 0) {
+                checkpoints.save(simulation, myCheckpointPath);
+            }
+        } finally {
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+            if (exporter != null) {
+                exporter.closeTelemetryLog();
+            }
+            if (anomalyDTBS != null) {
+                anomalyDTBS.close();
+            }
+            simulation.close();
+        }
+
+        if ((ticks * MY_UPDATE_TIME) % MY_PROGRESS_INTERVAL != 0) {
+            printProgress(ticks, wallStart, anomalies, gen.getFleet().size(), detail);
+        }
+
+        if (myBaselinePath != null) {
+            System.out.println("Telemetry log closed. Baseline calculation started.");
+            new BaselineCalculator().calculateAndSaveStats(myLogPath, myBaselinePath);
+        }
+    }
+
+    /**
+     * Sleeps until the wall clock catches up with the target speed. Also
+     * paces {@link ReplayRunner}.
+     *
+     * @param theWallStart {@link System#nanoTime()} when the run started.
+     * @param theElapsed simulated milliseconds since the run started.
+     * @param theSpeed simulated time per wall-clock time; greater than 0.
+     */
+    static void pace(final long theWallStart, final long theElapsed, final double theSpeed) {
+        long target = theWallStart + (long) (TimeUnit.MILLISECONDS.toNanos(theElapsed) / theSpeed);
+        long remaining = target - System.nanoTime();
+        if (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Prints how far the run has got and how fast it is going, and with a
+     * level-of-detail policy the share of drone updates it has saved.
+     */
+    private static void printProgress(final long theTicks, final long theWallStart,
+                                      final long theAnomalies, final int theDrones,
+                                      final LevelOfDetail theDetail) {
+        long simulatedSeconds = theTicks * MY_UPDATE_TIME / 1000;
+        double wallSeconds = (System.nanoTime() - theWallStart) / 1e9;
+        System.out.printf("simulated %02d:%02d:%02d  wall %.1f s  speed %.0fx  drones %d  anomalies %d%s%n",
+                simulatedSeconds / 3600, simulatedSeconds / 60 % 60, simulatedSeconds % 60,
+                wallSeconds, simulatedSeconds / Math.max(wallSeconds, 1e-9), theDrones, theAnomalies,
+                theDetail == null ? "" : String.format("  lod saved %.0f%%", theDetail.getSavedFraction() * 100));
+    }
+}
@@ -0,0 +1,88 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A command line benchmark that measures how many drones one core can move
+ * per second with each {@link Kinematics} implementation.
+ * <p>
+ * Each implementation first moves a seeded warm-up fleet until it has made a
+ * few million drone moves, so the JIT has compiled the kernel however small
+ * the fleet is, then moves a fresh fleet with the same seed on the calling
+ * thread. The output lists the median nanoseconds per drone per tick and the
+ * drones moved per second for each implementation. The first argument is the
+ * drone count (default 100,000). The vector implementation is only measured
+ * when it is available, i.e. when {@code src-vector} was compiled and the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Natan Artemiev
+ */
+public class KinematicsBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /** Drone moves made before timing starts. */
+    private static final long WARMUP_MOVES = 20_000_000L;
+
+    /** Ticks timed for each implementation. */
+    private static final int MEASURED_TICKS = 50;
+
+    /** Seed used for the routes. */
+    private static final long SEED = 150L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone count.
+     */
+    public static void main(String[] theArgs) {
+        int droneCount = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : 100_000;
+
+        List<Kinematics> kernels = new ArrayList<>(List.of(Kinematics.scalar()));
+        if (Kinematics.vector() != null) {
+            kernels.add(Kinematics.vector());
+        }
+
+        System.out.println("drones,kinematics,nsPerDrone,dronesPerSecond");
+        for (Kinematics kinematics : kernels) {
+            FleetState warmup = fleet(droneCount);
+            for (long moves = 0; moves < WARMUP_MOVES; moves += droneCount) {
+                kinematics.moveAll(warmup, DELTA_TIME);
+            }
+            double ns = measure(kinematics, fleet(droneCount)) / droneCount;
+            System.out.printf("%d,%s,%.1f,%.0f%n", droneCount, kinematics.getName(), ns, 1e9 / ns);
+        }
+    }
+
+    /**
+     * Builds the seeded fleet.
+     */
+    private static FleetState fleet(final int theDroneCount) {
+        FleetState fleet = new FleetState(theDroneCount);
+        RouteGenerator routeGenerator = new RouteGenerator(SEED);
+        DroneGenerator droneGenerator = new DroneGenerator();
+        for (int i = 0; i < theDroneCount; i++) {
+            droneGenerator.createDrone(fleet, 0, 100, routeGenerator.generateRoute());
+        }
+        return fleet;
+    }
+
+    /**
+     * Times a number of ticks and returns the median tick time in nanoseconds.
+     */
+    private static double measure(final Kinematics theKinematics, final FleetState theFleet) {
+        long[] durations = new long[MEASURED_TICKS];
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            long start = System.nanoTime();
+            theKinematics.moveAll(theFleet, DELTA_TIME);
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations[MEASURED_TICKS / 2];
+    }
+}
@@ -0,0 +1,383 @@
+package controller;
+
+import com.google.gson.GsonBuilder;
+import model.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a sweep of seeded headless simulations in parallel and sums up how
+ * well the anomaly detector did.
+ * <p>
+ * Every run is independent: it has its own {@link SimulationEngine}, its own
+ * seeded {@link AnomalyDetector} and an in-memory list of reports instead of
+ * the database, so runs are spread over a fixed pool of threads, one run per
+ * thread at a time. Run {@code i} uses the master seed plus {@code i}, so a
+ * run's result depends only on its seed and the sweep settings, never on the
+ * number of threads or on the other runs.
+ * <p>
+ * Each run ticks the same way {@link HeadlessRunner} does, checks every drone
+ * with the detector every tick and stops checking drones that were reported
+ * as having a battery failure or having hit the ground. It records the
+ * anomalies the generator gave the drones, the anomalies the detector
+ * reported and how long each drone went from its first anomaly to the first
+ * report that found it (see {@link ScenarioResult}).
+ *
+ * <p>Options:</p>
+ * <pre>
+ *   --runs N              number of runs (default 100)
+ *   --drones N            drones per run (default 100)
+ *   --duration SECONDS    simulated time per run (default 3600)
+ *   --anomaly-percent P   anomaly chance per drone update (default as in DroneMonitorApp)
+ *   --seed N              master seed (default the drone.seed property, else the clock)
+ *   --parallel N          runs at a time (default the number of processors)
+ *   --csv PATH            write one line per run
+ *   --json PATH           write the sweep summary
+ * </pre>
+ *
+ * @author Natan Artemiev
+ */
+public class MonteCarloRunner {
+
+    /** Simulated milliseconds between simulation updates, as in {@link HeadlessRunner}. */
+    private static final long MY_UPDATE_TIME = 500;
+
+    /** Time delta (in seconds) used by the telemetry generator. */
+    private static final float MY_DELTA_TIME = MY_UPDATE_TIME / 1000.0f;
+
+    /** Simulated start time of every run (2026-01-01T00:00:00Z). */
+    private static final long MY_START = 1_767_225_600_000L;
+
+    /** All anomaly types, by ordinal. */
+    private static final AnomalyEnum[] MY_TYPES = AnomalyEnum.values();
+
+    /** Anomaly types by the name reports use for them. */
+    private static final Map<String, AnomalyEnum> MY_TYPES_BY_NAME = new HashMap<>();
+
+    static {
+        for (AnomalyEnum type : MY_TYPES) {
+            MY_TYPES_BY_NAME.put(type.toString(), type);
+        }
+    }
+
+    /** Number of runs. */
+    private int myRuns = 100;
+
+    /** Drones per run. */
+    private int myDroneCount = 100;
+
+    /** Simulated milliseconds per run. */
+    private long myDuration = TimeUnit.HOURS.toMillis(1);
+
+    /** Anomaly percentage, or a negative value to derive it from the drone count. */
+    private float myAnomalyPercent = -1;
+
+    /** Master seed of the sweep. */
+    private long mySeed;
+
+    /** Runs executed at a time. */
+    private int myParallel = Runtime.getRuntime().availableProcessors();
+
+    /** Per-run CSV path, or null. */
+    private String myCsvPath;
+
+    /** Summary JSON path, or null. */
+    private String myJsonPath;
+
+    /**
+     * Entry point for sweeps.
+     *
+     * @param theArgs the command line options described in the class comment.
+     */
+    public static void main(String[] theArgs) {
+        MonteCarloRunner runner = new MonteCarloRunner();
+        runner.parseArgs(theArgs);
+        long wallStart = System.nanoTime();
+        List<ScenarioResult> results = runner.runAll();
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+
+        Map<String, Object> summary = runner.summarize(results, wallMillis);
+        if (runner.myCsvPath != null) {
+            writeCsv(results, runner.myCsvPath);
+        }
+        if (runner.myJsonPath != null) {
+            writeJson(summary, runner.myJsonPath);
+        }
+        summary.forEach((key, value) -> System.out.println(key + ": " + value));
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param theArgs the command line arguments.
+     * @throws IllegalArgumentException if an option is unknown, missing its
+     *         value or out of range.
+     */
+    private void parseArgs(final String[] theArgs) {
+        SimulationSeed seed = SimulationSeed.fromSystemProperty();
+        mySeed = seed == null ? System.nanoTime() : seed.getMaster();
+        for (int i = 0; i < theArgs.length; i++) {
+            String option = theArgs[i];
+            if (i + 1 >= theArgs.length) {
+                throw new IllegalArgumentException(option + " requires a value.");
+            }
+            String value = theArgs[++i];
+            switch (option) {
+                case "--runs" -> myRuns = Integer.parseInt(value);
+                case "--drones" -> myDroneCount = Integer.parseInt(value);
+                case "--duration" -> myDuration = (long) (Double.parseDouble(value) * 1000);
+                case "--anomaly-percent" -> myAnomalyPercent = Float.parseFloat(value);
+                case "--seed" -> mySeed = Long.parseLong(value);
+                case "--parallel" -> myParallel = Integer.parseInt(value);
+                case "--csv" -> myCsvPath = value;
+                case "--json" -> myJsonPath = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (myRuns < 1) {
+            throw new IllegalArgumentException("--runs must be at least 1.");
+        }
+        if (myDroneCount < 1) {
+            throw new IllegalArgumentException("--drones must be at least 1.");
+        }
+        if (myDuration < MY_UPDATE_TIME) {
+            throw new IllegalArgumentException("--duration must be at least " + MY_UPDATE_TIME / 1000.0 + ".");
+        }
+        if (myParallel < 1) {
+            throw new IllegalArgumentException("--parallel must be at least 1.");
+        }
+    }
+
+    /**
+     * Runs every run of the sweep on a fixed pool of threads.
+     *
+     * @return the results, in run order.
+     */
+    private List<ScenarioResult> runAll() {
+        ExecutorService pool = Executors.newFixedThreadPool(myParallel);
+        try {
+            List<Future<ScenarioResult>> futures = new ArrayList<>(myRuns);
+            for (int run = 0; run < myRuns; run++) {
+                int index = run;
+                futures.add(pool.submit(() -> runOne(index)));
+            }
+            List<ScenarioResult> results = new ArrayList<>(myRuns);
+            for (Future<ScenarioResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one seeded simulation.
+     *
+     * @param theRun index of the run.
+     * @return what the run produced.
+     */
+    ScenarioResult runOne(final int theRun) {
+        long wallStart = System.nanoTime();
+        long master = mySeed + theRun;
+        SimulationSeed seed = new SimulationSeed(master);
+        // Same rate as DroneMonitorApp: one anomaly every 15 seconds across the fleet.
+        float anomalyPercent = myAnomalyPercent >= 0 ? myAnomalyPercent : 10.0f / (3.0f * myDroneCount);
+
+        List<AnomalyReport> sink = new ArrayList<>();
+        int[] injected = new int[MY_TYPES.length];
+        long[] episodeStarts = new long[myDroneCount];
+        Arrays.fill(episodeStarts, -1);
+        boolean[] gone = new boolean[myDroneCount];
+        int episodes = 0;
+        int detectedEpisodes = 0;
+        long totalLatency = 0;
+        long maxLatency = 0;
+        long ticks = myDuration / MY_UPDATE_TIME;
+
+        try (SimulationEngine simulation = new SimulationEngine(anomalyPercent, seed.getFleetSeed(),
+                new SimulatedClock(MY_START, MY_UPDATE_TIME))) {
+            RouteGenerator routeGenerator = new RouteGenerator(seed.getRouteSeed());
+            for (int i = 0; i < myDroneCount; i++) {
+                simulation.createDrone(routeGenerator.generateRoute());
+            }
+            AnomalyDetector detector = new AnomalyDetector(seed.getReportSeed());
+            TelemetryGenerator gen = simulation.getGenerator();
+
+            for (long tick = 1; tick <= ticks; tick++) {
+                simulation.tick(MY_DELTA_TIME);
+                TelemetryColumns previous = gen.getPreviousTelemetry();
+                TelemetryColumns current = gen.getCurrentTelemetry();
+                for (int slot = 0; slot < myDroneCount; slot++) {
+                    if (gone[slot]) {
+                        continue;
+                    }
+                    AnomalyEnum anomaly = gen.getInjectedAnomaly(slot);
+                    if (anomaly != null) {
+                        injected[anomaly.ordinal()]++;
+                        if (episodeStarts[slot] < 0) {
+                            episodeStarts[slot] = tick;
+                            episodes++;
+                        }
+                    }
+
+                    AnomalyReport report = detector.detect(previous, current, slot);
+                    if (report == null) {
+                        continue;
+                    }
+                    sink.add(report);
+                    // Ordinary depletion also raises warnings, so they do not count as finding an anomaly.
+                    boolean warningOnly = report.anomalyType().equals(AnomalyEnum.BATTERY_WARNING.toString());
+                    if (episodeStarts[slot] >= 0 && !warningOnly) {
+                        long latency = (tick - episodeStarts[slot]) * MY_UPDATE_TIME;
+                        totalLatency += latency;
+                        maxLatency = Math.max(maxLatency, latency);
+                        detectedEpisodes++;
+                        episodeStarts[slot] = -1;
+                    }
+                    String anomalyString = report.anomalyType();
+                    if (anomalyString.contains("Failure") || anomalyString.contains("Ground")) {
+                        gone[slot] = true;
+                    }
+                }
+            }
+        }
+
+        int[] detected = new int[MY_TYPES.length];
+        for (AnomalyReport report : sink) {
+            for (String name : report.anomalyType().split(", ")) {
+                AnomalyEnum type = MY_TYPES_BY_NAME.get(name);
+                if (type != null) {
+                    detected[type.ordinal()]++;
+                }
+            }
+        }
+        return new ScenarioResult(theRun, master, myDroneCount, ticks, injected, detected, sink.size(),
+                episodes, detectedEpisodes, detectedEpisodes == 0 ? 0 : (double) totalLatency / detectedEpisodes,
+                maxLatency, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart));
+    }
+
+    /**
+     * Adds up the results of a sweep.
+     *
+     * @param theResults the results of every run.
+     * @param theWallMillis wall-clock time of the whole sweep.
+     * @return the summary, in print order.
+     */
+    Map<String, Object> summarize(final List<ScenarioResult> theResults, final long theWallMillis) {
+        int[] injected = new int[MY_TYPES.length];
+        int[] detected = new int[MY_TYPES.length];
+        long reports = 0;
+        long episodes = 0;
+        long detectedEpisodes = 0;
+        double totalLatency = 0;
+        long maxLatency = 0;
+        double droneTicks = 0;
+        for (ScenarioResult result : theResults) {
+            for (int t = 0; t < MY_TYPES.length; t++) {
+                injected[t] += result.injected()[t];
+                detected[t] += result.detected()[t];
+            }
+            reports += result.reports();
+            episodes += result.episodes();
+            detectedEpisodes += result.detectedEpisodes();
+            totalLatency += result.meanLatencyMillis() * result.detectedEpisodes();
+            maxLatency = Math.max(maxLatency, result.maxLatencyMillis());
+            droneTicks += result.drones() * (double) result.ticks();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("runs", theResults.size());
+        summary.put("dronesPerRun", myDroneCount);
+        summary.put("simulatedSecondsPerRun", myDuration / 1000.0);
+        summary.put("masterSeed", mySeed);
+        summary.put("parallel", myParallel);
+        summary.put("reports", reports);
+        summary.put("episodes", episodes);
+        summary.put("detectedEpisodes", detectedEpisodes);
+        summary.put("detectionRate", episodes == 0 ? 0 : (double) detectedEpisodes / episodes);
+        summary.put("meanLatencyMillis", detectedEpisodes == 0 ? 0 : totalLatency / detectedEpisodes);
+        summary.put("maxLatencyMillis", maxLatency);
+        summary.put("injected", byType(injected));
+        summary.put("detected", byType(detected));
+        summary.put("wallSeconds", theWallMillis / 1000.0);
+        summary.put("droneTicksPerSecond", Math.round(droneTicks / Math.max(theWallMillis, 1) * 1000));
+        return summary;
+    }
+
+    /**
+     * Labels per-type counts with the types' constant names.
+     */
+    private static Map<String, Integer> byType(final int[] theCounts) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (AnomalyEnum type : MY_TYPES) {
+            counts.put(type.name(), theCounts[type.ordinal()]);
+        }
+        return counts;
+    }
+
+    /**
+     * Writes one CSV line per run.
+     */
+    private static void writeCsv(final List<ScenarioResult> theResults, final String thePath) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(thePath))) {
+            StringBuilder header = new StringBuilder("run,seed,drones,ticks,reports,episodes,detectedEpisodes,"
+                    + "meanLatencyMillis,maxLatencyMillis,wallMillis,droneTicksPerSecond");
+            for (AnomalyEnum type : MY_TYPES) {
+                header.append(",injected.").append(type.name());
+            }
+            for (AnomalyEnum type : MY_TYPES) {
+                header.append(",detected.").append(type.name());
+            }
+            writer.println(header);
+            for (ScenarioResult result : theResults) {
+                StringBuilder line = new StringBuilder();
+                line.append(result.run()).append(',').append(result.seed()).append(',')
+                        .append(result.drones()).append(',').append(result.ticks()).append(',')
+                        .append(result.reports()).append(',').append(result.episodes()).append(',')
+                        .append(result.detectedEpisodes()).append(',')
+                        .append(String.format("%.1f", result.meanLatencyMillis())).append(',')
+                        .append(result.maxLatencyMillis()).append(',').append(result.wallMillis()).append(',')
+                        .append(Math.round(result.droneTicksPerSecond()));
+                for (int count : result.injected()) {
+                    line.append(',').append(count);
+                }
+                for (int count : result.detected()) {
+                    line.append(',').append(count);
+                }
+                writer.println(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing the run CSV: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the sweep summary as JSON.
+     */
+    private static void writeJson(final Map<String, Object> theSummary, final String thePath) {
+        try (FileWriter writer = new FileWriter(thePath)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(theSummary, writer);
+        } catch (IOException e) {
+            System.err.println("Error writing the summary JSON: " + e.getMessage());
+        }
+    }
+}
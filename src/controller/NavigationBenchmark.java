@@ -0,0 +1,94 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A command line benchmark that measures the per-drone cost of a normal
+ * route-following move.
+ * <p>
+ * One seeded fleet is moved tick after tick in two ways: along its compiled
+ * route segments, which is how every normal move works, and with each drone
+ * first nudged off its segment so the move has to measure the way to the
+ * waypoint afresh, which is what every move cost before routes were compiled.
+ * Both runs go through the same {@link Drone#getNextMove(float)}
+ * call, so heading and battery upkeep are included in both. The output lists
+ * the median nanoseconds per drone per tick for each way. The first argument
+ * is the drone count (default 100,000).
+ *
+ * @author Natan Artemiev
+ */
+public class NavigationBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /** Ticks run before timing starts, so the JIT settles. */
+    private static final int WARMUP_TICKS = 50;
+
+    /** Ticks timed for each way of moving. */
+    private static final int MEASURED_TICKS = 50;
+
+    /** Seed used for the routes. */
+    private static final long SEED = 360L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone count.
+     */
+    public static void main(String[] theArgs) {
+        int droneCount = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : 100_000;
+
+        FleetState fleet = new FleetState(droneCount);
+        RouteGenerator routeGenerator = new RouteGenerator(SEED);
+        DroneGenerator droneGenerator = new DroneGenerator();
+        for (int i = 0; i < droneCount; i++) {
+            ArrayList<RoutePoint> route = routeGenerator.generateRoute();
+            droneGenerator.createDrone(fleet, 0, 100, route);
+        }
+        Drone[] drones = new Drone[droneCount];
+        for (int slot = 0; slot < droneCount; slot++) {
+            drones[slot] = fleet.getDrone(slot);
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            tick(drones, false);
+            tick(drones, true);
+        }
+        double compiledNs = measure(drones, false) / droneCount;
+        double measuredNs = measure(drones, true) / droneCount;
+
+        System.out.println("drones,compiledNsPerDrone,measuredNsPerDrone");
+        System.out.printf("%d,%.1f,%.1f%n", droneCount, compiledNs, measuredNs);
+    }
+
+    /**
+     * Times a number of ticks and returns the median tick time in nanoseconds.
+     */
+    private static double measure(final Drone[] theDrones, final boolean theMeasured) {
+        long[] durations = new long[MEASURED_TICKS];
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            long start = System.nanoTime();
+            tick(theDrones, theMeasured);
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations[MEASURED_TICKS / 2];
+    }
+
+    /**
+     * Moves every drone once. When {@code theMeasured} is set, each drone is
+     * put back where it is first, which takes it off its compiled segment.
+     */
+    private static void tick(final Drone[] theDrones, final boolean theMeasured) {
+        for (Drone drone : theDrones) {
+            if (theMeasured) {
+                drone.setLongitude(drone.getLongitude());
+            }
+            drone.getNextMove(DELTA_TIME);
+        }
+    }
+}
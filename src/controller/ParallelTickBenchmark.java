@@ -0,0 +1,83 @@
+package controller;
+
+import model.*;
+
+import java.util.ArrayList;
+
+/**
+ * A command line benchmark that reports how tick time scales with the number
+ * of threads used by {@link TelemetryGenerator#setParallelism(int)}.
+ * <p>
+ * One seeded fleet is built and then ticked with each thread count in turn.
+ * The output lists the mean tick time and the speedup over one thread. The
+ * first argument is the drone count (default 100,000); any further arguments
+ * are the thread counts to try (default 1, 2, 4 and 8).
+ *
+ * @author Yusuf
+ */
+public class ParallelTickBenchmark {
+
+    /** Time step (in seconds) used for every benchmark tick. */
+    private static final float DELTA_TIME = 0.5f;
+
+    /** Ticks run once before any timing, so the JIT and early collisions settle. */
+    private static final int INITIAL_WARMUP_TICKS = 40;
+
+    /** Ticks run before timing starts for each thread count. */
+    private static final int WARMUP_TICKS = 5;
+
+    /** Ticks timed for each thread count. */
+    private static final int MEASURED_TICKS = 10;
+
+    /** Seed used for the fleet's random streams. */
+    private static final long SEED = 360L;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param theArgs optional drone count followed by thread counts.
+     */
+    public static void main(String[] theArgs) {
+        int droneCount = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : 100_000;
+        int[] threadCounts = {1, 2, 4, 8};
+        if (theArgs.length > 1) {
+            threadCounts = new int[theArgs.length - 1];
+            for (int i = 1; i < theArgs.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(theArgs[i]);
+            }
+        }
+
+        RouteGenerator routeGenerator = new RouteGenerator();
+        DroneGenerator droneGenerator = new DroneGenerator();
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(10.0f / (3.0f * droneCount));
+        for (int i = 0; i < droneCount; i++) {
+            ArrayList<RoutePoint> route = routeGenerator.generateRoute();
+            droneGenerator.createDrone(gen.getFleet(), route);
+        }
+        gen.setSeed(SEED);
+        for (int i = 0; i < INITIAL_WARMUP_TICKS; i++) {
+            gen.processAllDrones(DELTA_TIME);
+        }
+
+        System.out.println("availableProcessors," + Runtime.getRuntime().availableProcessors());
+        System.out.println("threads,meanTickMs,speedup");
+        double serialMs = 0;
+        for (int threads : threadCounts) {
+            gen.setParallelism(threads);
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                gen.processAllDrones(DELTA_TIME);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_TICKS; i++) {
+                gen.processAllDrones(DELTA_TIME);
+            }
+            double meanMs = (System.nanoTime() - start) / 1e6 / MEASURED_TICKS;
+            if (serialMs == 0) {
+                serialMs = meanMs;
+            }
+            System.out.printf("%d,%.2f,%.2f%n", threads, meanMs, serialMs / meanMs);
+        }
+        gen.setParallelism(1);
+    }
+}
@@ -0,0 +1,253 @@
+package controller;
+
+import model.*;
+import view.MonitorDashboard;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a recorded telemetry log back through the anomaly detector, driven
+ * from the command line.
+ * <p>
+ * Each tick of the log is read by a {@link TelemetryReplay} and fed to the
+ * same consumers as a live tick: {@link AnomalyDetector} checks every report
+ * against the drone's previous one, {@link AnomalyDatabase} stores the
+ * reports, and with {@code --gui} the {@link MonitorDashboard} draws the
+ * drones and lists the reports. The replay runs at the recorded pace, a
+ * multiple of it, or as fast as the detector allows, which measures its
+ * throughput. A seeded replay gives the same reports, with the same IDs,
+ * every time, so an incident in a field log can be reproduced exactly.
+ * </p>
+ *
+ * <p>Options:</p>
+ * <pre>
+ *   --log PATH        the CSV or binary log to play back (required)
+ *   --speed X|max     speed as a multiple of the recorded pace (default 1)
+ *   --seek TIME       start at the first tick at or after TIME, in epoch milliseconds
+ *   --until TIME      stop after the last tick at or before TIME, in epoch milliseconds
+ *   --seed N          master seed for report IDs
+ *   --no-database     do not store anomaly reports
+ *   --gui             draw the drones and reports on the dashboard
+ *   --quiet           do not print each report
+ * </pre>
+ *
+ * <p>
+ * Drones are not removed when they crash: a log holds whatever the drone
+ * reported, and the dashboard marks it dead. Logs written for baseline
+ * calculation have no positions, so their drones are all drawn at 0, 0.
+ * </p>
+ *
+ * @author Natan Artemiev
+ */
+public class ReplayRunner {
+
+    /** Recorded milliseconds between progress lines. */
+    private static final long MY_PROGRESS_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    /** The log to play back. */
+    private Path myLogPath;
+
+    /** Speed as a multiple of the recorded pace, or 0 for as fast as possible. */
+    private double mySpeed = 1;
+
+    /** Timestamp to start at, or {@link Long#MIN_VALUE} to start at the beginning. */
+    private long mySeek = Long.MIN_VALUE;
+
+    /** Timestamp to stop after, or {@link Long#MAX_VALUE} to play to the end. */
+    private long myUntil = Long.MAX_VALUE;
+
+    /** Seeds of the replay, or null for random report IDs. */
+    private SimulationSeed mySeed = SimulationSeed.fromSystemProperty();
+
+    /** Whether anomaly reports are stored in the database. */
+    private boolean myUseDatabase = true;
+
+    /** Whether the dashboard is shown. */
+    private boolean myGui;
+
+    /** Whether each report is printed. */
+    private boolean myQuiet;
+
+    /**
+     * Entry point for replays.
+     *
+     * @param theArgs the command line options described in the class comment.
+     */
+    public static void main(String[] theArgs) {
+        ReplayRunner runner = new ReplayRunner();
+        runner.parseArgs(theArgs);
+        try {
+            runner.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param theArgs the command line arguments.
+     * @throws IllegalArgumentException if an option is unknown, missing its
+     *         value or out of range.
+     */
+    private void parseArgs(final String[] theArgs) {
+        for (int i = 0; i < theArgs.length; i++) {
+            String option = theArgs[i];
+            if (option.equals("--no-database")) {
+                myUseDatabase = false;
+                continue;
+            }
+            if (option.equals("--gui")) {
+                myGui = true;
+                continue;
+            }
+            if (option.equals("--quiet")) {
+                myQuiet = true;
+                continue;
+            }
+            if (i + 1 >= theArgs.length) {
+                throw new IllegalArgumentException(option + " requires a value.");
+            }
+            String value = theArgs[++i];
+            switch (option) {
+                case "--log" -> myLogPath = Path.of(value);
+                case "--speed" -> mySpeed = value.equals("max") ? 0 : Double.parseDouble(value);
+                case "--seek" -> mySeek = Long.parseLong(value);
+                case "--until" -> myUntil = Long.parseLong(value);
+                case "--seed" -> mySeed = new SimulationSeed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (myLogPath == null) {
+            throw new IllegalArgumentException("--log is required.");
+        }
+        if (mySpeed < 0) {
+            throw new IllegalArgumentException("--speed must be positive or max.");
+        }
+        if (myUntil < mySeek) {
+            throw new IllegalArgumentException("--until must not be before --seek.");
+        }
+    }
+
+    /**
+     * Plays the log back from the seek time to the end time.
+     *
+     * @throws IOException if the log cannot be read.
+     */
+    private void run() throws IOException {
+        AnomalyDetector detector = mySeed == null ? new AnomalyDetector() : new AnomalyDetector(mySeed.getReportSeed());
+        AnomalyDatabase anomalyDTBS = null;
+        if (myUseDatabase) {
+            anomalyDTBS = new AnomalyDatabase();
+            anomalyDTBS.initialize();
+        }
+        MonitorDashboard view = myGui ? MonitorDashboard.getInstance() : null;
+
+        long ticks = 0;
+        long records = 0;
+        long anomalies = 0;
+        List<AnomalyReport> reports = new ArrayList<>();
+        long wallStart = System.nanoTime();
+        long start = Long.MIN_VALUE;
+        long nextProgress = Long.MIN_VALUE;
+
+        try (TelemetryReplay replay = new TelemetryReplay(TelemetrySource.open(myLogPath))) {
+            if (mySeek != Long.MIN_VALUE) {
+                replay.seek(mySeek);
+                System.out.println("Skipped " + replay.getTicks() + " ticks to " + replay.getNextTimeStamp());
+            }
+            TelemetryBatch batch;
+            while (replay.getNextTimeStamp() <= myUntil && (batch = replay.next()) != null) {
+                long time = batch.getTimeStamp();
+                if (start == Long.MIN_VALUE) {
+                    start = time;
+                    nextProgress = time + MY_PROGRESS_INTERVAL;
+                    wallStart = System.nanoTime();
+                }
+                if (mySpeed > 0) {
+                    HeadlessRunner.pace(wallStart, time - start, mySpeed);
+                }
+
+                for (int entry = 0; entry < batch.size(); entry++) {
+                    AnomalyReport anomaly = detector.detect(batch, entry);
+                    if (anomaly != null) {
+                        reports.add(anomaly);
+                    }
+                }
+                if (anomalyDTBS != null && !reports.isEmpty()) {
+                    anomalyDTBS.insertReports(reports);
+                }
+                if (!myQuiet) {
+                    for (AnomalyReport report : reports) {
+                        System.out.println(report.simpleReport());
+                    }
+                }
+                if (view != null) {
+                    draw(view, batch, reports);
+                }
+                ticks++;
+                records += batch.size();
+                anomalies += reports.size();
+                reports.clear();
+
+                if (time >= nextProgress) {
+                    printProgress(time - start, wallStart, records, anomalies);
+                    nextProgress += MY_PROGRESS_INTERVAL;
+                }
+            }
+        } finally {
+            if (anomalyDTBS != null) {
+                anomalyDTBS.close();
+            }
+        }
+
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+        System.out.printf("Replayed %d ticks, %d records, %d anomalies in %.2f s (%.0f records/s)%n",
+                ticks, records, anomalies, wallSeconds, records / Math.max(wallSeconds, 1e-9));
+    }
+
+    /**
+     * Draws a tick's drones and adds its reports to the log on the dashboard.
+     *
+     * @param theView the dashboard.
+     * @param theBatch the tick's telemetry, which is reused two ticks later.
+     * @param theReports the tick's reports.
+     */
+    private static void draw(final MonitorDashboard theView, final TelemetryBatch theBatch,
+                             final List<AnomalyReport> theReports) {
+        TelemetryColumns current = theBatch.getCurrent();
+        for (int entry = 0; entry < theBatch.size(); entry++) {
+            float[] location = {current.getLongitude(entry), current.getLatitude(entry)};
+            theView.drawDrone(current.getId(entry), location, DroneMonitorApp.telemetryToString(current, entry));
+        }
+        for (AnomalyReport report : theReports) {
+            if (DroneMonitorApp.alertFor(report.anomalyType()).equals(DroneMonitorApp.CRASH_ALERT)) {
+                theView.markDroneDead(report.droneId());
+            }
+        }
+        List<AnomalyReport> logged = List.copyOf(theReports);
+        SwingUtilities.invokeLater(() -> {
+            for (AnomalyReport report : logged) {
+                theView.addLogEntry(report.simpleReport(), report.detailedReport());
+            }
+        });
+    }
+
+    /**
+     * Prints how far the replay has got and how fast it is going.
+     */
+    private static void printProgress(final long theElapsed, final long theWallStart,
+                                      final long theRecords, final long theAnomalies) {
+        long recordedSeconds = theElapsed / 1000;
+        double wallSeconds = (System.nanoTime() - theWallStart) / 1e9;
+        System.out.printf("replayed %02d:%02d:%02d  wall %.1f s  speed %.0fx  records %d  anomalies %d%n",
+                recordedSeconds / 3600, recordedSeconds / 60 % 60, recordedSeconds % 60,
+                wallSeconds, recordedSeconds / Math.max(wallSeconds, 1e-9), theRecords, theAnomalies);
+    }
+}
@@ -2,6 +2,9 @@ package controller;
 
 import model.BaselineCalculator;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * A class to run the baseline calculator.
  *
@@ -14,6 +17,11 @@ public class RunBaseline {
      */
     private static final String MY_TELEMETRY_LOG_PATH = "dataLogs/TelemetryLog.txt";
 
+    /**
+     * A string representing the segmented telemetry log written by {@link ZScoreMonitor}, read instead when it exists.
+     */
+    private static final String MY_SEGMENTED_LOG_PATH = "dataLogs/TelemetryLog/";
+
     /**
      * A string representing the z-score data filepath.
      */
@@ -32,6 +40,7 @@ public class RunBaseline {
     public static void main(String[] arg) {
         BaselineCalculator calc = new BaselineCalculator();
 
-        calc.calculateAndSaveStats(MY_TELEMETRY_LOG_PATH, MY_Z_SCORE_LOG_PATH);
+        String log = Files.isDirectory(Path.of(MY_SEGMENTED_LOG_PATH)) ? MY_SEGMENTED_LOG_PATH : MY_TELEMETRY_LOG_PATH;
+        calc.calculateAndSaveStats(log, MY_Z_SCORE_LOG_PATH);
     }
 }
@@ -0,0 +1,53 @@
+package controller;
+
+import model.AnomalyEnum;
+
+/**
+ * What one seeded headless simulation of a {@link MonteCarloRunner} sweep
+ * produced.
+ * <p>
+ * Counts by anomaly type are indexed by {@link AnomalyEnum#ordinal()}. An
+ * injected anomaly is one the generator gave a drone; a detected anomaly is
+ * one named in an {@code AnomalyReport}. A drone's episode starts with the
+ * first anomaly it is given and ends with the next report about it that is
+ * not just a low-battery warning, which counts as its detection; anomalies
+ * given in between belong to the same episode.
+ *
+ * @param run               index of the run within the sweep.
+ * @param seed              master seed of the run.
+ * @param drones            number of drones simulated.
+ * @param ticks             number of ticks simulated.
+ * @param injected          injected anomalies, by type.
+ * @param detected          detected anomalies, by type.
+ * @param reports           anomaly reports produced.
+ * @param episodes          anomaly episodes started.
+ * @param detectedEpisodes  episodes ended by a report.
+ * @param meanLatencyMillis mean simulated time from the start of an episode to its report.
+ * @param maxLatencyMillis  longest simulated time from the start of an episode to its report.
+ * @param wallMillis        wall-clock time the run took.
+ * @author Natan Artemiev
+ */
+public record ScenarioResult(
+        int run,
+        long seed,
+        int drones,
+        long ticks,
+        int[] injected,
+        int[] detected,
+        int reports,
+        int episodes,
+        int detectedEpisodes,
+        double meanLatencyMillis,
+        long maxLatencyMillis,
+        long wallMillis
+) {
+
+    /**
+     * Returns how many drone updates the run simulated per wall-clock second.
+     *
+     * @return the run's throughput.
+     */
+    public double droneTicksPerSecond() {
+        return drones * (double) ticks / Math.max(wallMillis, 1) * 1000;
+    }
+}
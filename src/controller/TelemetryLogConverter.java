@@ -0,0 +1,89 @@
+package controller;
+
+import model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Converts a telemetry log between the CSV and binary formats.
+ * <p>
+ * The input may be either format; the output format follows the output
+ * file's name, binary for names ending in
+ * {@value BinaryTelemetryExporter#EXTENSION} and CSV otherwise. The output
+ * has the input's columns. Converting a CSV log written by the simulator to
+ * binary and back gives the same text.
+ * </p>
+ *
+ * <pre>
+ *   java controller.TelemetryLogConverter dataLogs/TelemetryLog.txt dataLogs/TelemetryLog.tlog
+ * </pre>
+ *
+ * @author Natan Artemiev
+ */
+public final class TelemetryLogConverter {
+
+    /** Utility class. */
+    private TelemetryLogConverter() {
+    }
+
+    /**
+     * Entry point for conversions.
+     *
+     * @param theArgs the input and output paths.
+     * @throws IllegalArgumentException if there are not exactly two arguments.
+     */
+    public static void main(String[] theArgs) {
+        if (theArgs.length != 2) {
+            throw new IllegalArgumentException("Usage: TelemetryLogConverter INPUT OUTPUT");
+        }
+        Path input = Path.of(theArgs[0]);
+        Path output = Path.of(theArgs[1]);
+        long start = System.nanoTime();
+        long records;
+        try {
+            records = convert(input, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        try {
+            long before = Files.size(input);
+            long after = Files.size(output);
+            System.out.printf("Converted %d records in %.2f s: %d bytes to %d bytes (%.1fx)%n",
+                    records, seconds, before, after, (double) before / Math.max(after, 1));
+        } catch (IOException e) {
+            System.out.printf("Converted %d records in %.2f s%n", records, seconds);
+        }
+    }
+
+    /**
+     * Copies every report of a log into a new log.
+     *
+     * @param theInput the log to read, in either format.
+     * @param theOutput the log to write, replaced if it exists.
+     * @return the number of reports copied.
+     * @throws IOException if the input cannot be read.
+     */
+    static long convert(final Path theInput, final Path theOutput) throws IOException {
+        long records = 0;
+        try (TelemetrySource source = TelemetrySource.open(theInput)) {
+            List<String> header = source.getColumns();
+            TelemetryLogWriter writer = TelemetryLogWriter.forFile(theOutput.toString());
+            writer.startTelemetryLog(theOutput.toString(), header);
+            TelemetryColumns report = new TelemetryColumns(1);
+            try {
+                while (source.next(report, 0)) {
+                    writer.logTelemetryData(report.toRecord(0), header);
+                    records++;
+                }
+            } finally {
+                writer.closeTelemetryLog();
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,304 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a simulation tick at a fixed rate and keeps track of how long ticks take.
+ * <p>
+ * Ticks are scheduled on a fixed grid ({@code start + n * period}), so the
+ * time a tick takes does not push later ticks back the way
+ * {@code scheduleWithFixedDelay} does. A tick that takes longer than the
+ * period is an <em>overrun</em>; when overruns leave the scheduler behind
+ * the grid, the configured {@link OverrunPolicy} decides how it gets back.
+ * </p>
+ *
+ * <p>
+ * The durations of the most recent ticks are kept so their percentiles can
+ * be read with {@link #getStats()} from any thread.
+ * </p>
+ *
+ * @author Natan Artemiev
+ */
+public class TickScheduler {
+
+    /**
+     * What the scheduler does when ticks fall behind the grid.
+     */
+    public enum OverrunPolicy {
+        /** Drop the missed ticks and wait for the next slot on the grid. */
+        SKIP,
+        /** Run missed ticks back to back, but never more than the burst limit; older ones are dropped. */
+        CATCH_UP,
+        /** Like {@link #CATCH_UP}, but ticks run while behind are told to shed optional work. */
+        DEGRADE
+    }
+
+    /**
+     * The work done each tick.
+     */
+    @FunctionalInterface
+    public interface TickTask {
+        /**
+         * Runs one tick.
+         *
+         * @param theDegraded true if the scheduler is behind and the tick
+         *                    should skip optional work such as UI updates.
+         */
+        void tick(boolean theDegraded);
+    }
+
+    /** Number of recent tick durations kept for percentiles. */
+    private static final int MY_SAMPLE_COUNT = 1024;
+
+    /** Time between scheduled ticks, in nanoseconds. */
+    private final long myPeriod;
+
+    /** How overruns are handled. */
+    private final OverrunPolicy myPolicy;
+
+    /** Most ticks run back to back to catch up after an overrun. */
+    private final int myMaxBurst;
+
+    /** The work to run. */
+    private final TickTask myTask;
+
+    /** Source of the current time in nanoseconds. */
+    private final LongSupplier myClock;
+
+    /** Waits for the given number of nanoseconds. */
+    private final LongConsumer mySleeper;
+
+    /** Ring buffer of recent tick durations, in nanoseconds. */
+    private final long[] mySamples = new long[MY_SAMPLE_COUNT];
+
+    /** Number of ticks run. */
+    private long myTicks;
+
+    /** Number of ticks that took longer than the period. */
+    private long myOverruns;
+
+    /** Number of scheduled ticks dropped to get back on the grid. */
+    private long mySkipped;
+
+    /** Number of ticks run in degraded mode. */
+    private long myDegraded;
+
+    /** Longest tick seen, in nanoseconds. */
+    private long myMaxDuration;
+
+    /** Thread started by {@link #start()}, or null. */
+    private Thread myThread;
+
+    /** Set to stop the loop started by {@link #start()}. */
+    private volatile boolean myStopped;
+
+    /**
+     * Creates a scheduler on the system clock.
+     *
+     * @param thePeriod milliseconds between ticks; must be positive.
+     * @param thePolicy how to handle overruns.
+     * @param theMaxBurst most ticks run back to back when catching up; at least 1.
+     * @param theTask the work to run every tick.
+     * @throws IllegalArgumentException if the period or burst limit is out of range.
+     */
+    public TickScheduler(final long thePeriod, final OverrunPolicy thePolicy,
+                         final int theMaxBurst, final TickTask theTask) {
+        this(thePeriod, thePolicy, theMaxBurst, theTask, System::nanoTime, LockSupport::parkNanos);
+    }
+
+    /**
+     * Creates a scheduler on the given clock. Useful for tests and for
+     * driving the scheduler from simulated time.
+     *
+     * @param thePeriod milliseconds between ticks; must be positive.
+     * @param thePolicy how to handle overruns.
+     * @param theMaxBurst most ticks run back to back when catching up; at least 1.
+     * @param theTask the work to run every tick.
+     * @param theClock returns the current time in nanoseconds.
+     * @param theSleeper waits for the given number of nanoseconds.
+     * @throws IllegalArgumentException if the period or burst limit is out of range.
+     */
+    public TickScheduler(final long thePeriod, final OverrunPolicy thePolicy, final int theMaxBurst,
+                         final TickTask theTask, final LongSupplier theClock, final LongConsumer theSleeper) {
+        if (thePeriod <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        if (theMaxBurst < 1) {
+            throw new IllegalArgumentException("Burst limit must be at least 1");
+        }
+        myPeriod = TimeUnit.MILLISECONDS.toNanos(thePeriod);
+        myPolicy = thePolicy;
+        myMaxBurst = theMaxBurst;
+        myTask = theTask;
+        myClock = theClock;
+        mySleeper = theSleeper;
+    }
+
+    /**
+     * Starts ticking on a new thread until {@link #stop(long)} is called.
+     *
+     * @throws IllegalStateException if the scheduler was already started.
+     */
+    public synchronized void start() {
+        if (myThread != null) {
+            throw new IllegalStateException("Scheduler already started");
+        }
+        myThread = new Thread(() -> run(Long.MAX_VALUE), "tick-scheduler");
+        myThread.start();
+    }
+
+    /**
+     * Stops the thread started by {@link #start()} and waits for the tick in
+     * progress to finish.
+     *
+     * @param theTimeout milliseconds to wait for the thread to end.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void stop(final long theTimeout) throws InterruptedException {
+        myStopped = true;
+        Thread thread;
+        synchronized (this) {
+            thread = myThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(theTimeout);
+        }
+    }
+
+    /**
+     * Runs ticks on the calling thread.
+     *
+     * @param theCount number of ticks to run (dropped ticks do not count).
+     */
+    public void run(final long theCount) {
+        long next = myClock.getAsLong();
+        for (long ran = 0; ran < theCount && !myStopped; ran++) {
+            // Sleeping may end early, so keep waiting until the tick is due.
+            boolean waited = false;
+            for (long wait = next - myClock.getAsLong(); wait > 0 && !myStopped;
+                 wait = next - myClock.getAsLong()) {
+                mySleeper.accept(wait);
+                waited = true;
+            }
+            if (myStopped) {
+                break;
+            }
+
+            // A tick that was already overdue is running behind the grid.
+            boolean degraded = myPolicy == OverrunPolicy.DEGRADE && !waited && myClock.getAsLong() > next;
+
+            long start = myClock.getAsLong();
+            try {
+                myTask.tick(degraded);
+            } catch (RuntimeException e) {
+                System.err.println("Error in scheduled tick (scheduler will continue)");
+                e.printStackTrace();
+            }
+            long end = myClock.getAsLong();
+
+            next += myPeriod;
+            long behind = end - next;
+            record(end - start, end - start > myPeriod, degraded);
+            if (behind > 0) {
+                next = reschedule(next, behind);
+            }
+        }
+    }
+
+    /**
+     * Moves the next tick time after an overrun according to the policy.
+     *
+     * @param theNext the time the next tick was due.
+     * @param theBehind how far past that time the clock already is.
+     * @return the time the next tick should run.
+     */
+    private long reschedule(final long theNext, final long theBehind) {
+        // Ticks already due, including the one at theNext.
+        long due = theBehind / myPeriod + 1;
+        long dropped = switch (myPolicy) {
+            case SKIP -> due;
+            case CATCH_UP, DEGRADE -> Math.max(0, due - myMaxBurst);
+        };
+        synchronized (this) {
+            mySkipped += dropped;
+        }
+        return theNext + dropped * myPeriod;
+    }
+
+    /**
+     * Records one tick's outcome.
+     */
+    private synchronized void record(final long theDuration, final boolean theOverrun, final boolean theDegraded) {
+        mySamples[(int) (myTicks % MY_SAMPLE_COUNT)] = theDuration;
+        myTicks++;
+        myMaxDuration = Math.max(myMaxDuration, theDuration);
+        if (theOverrun) {
+            myOverruns++;
+        }
+        if (theDegraded) {
+            myDegraded++;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the scheduler's counters and of the latency
+     * percentiles of the most recent ticks.
+     *
+     * @return the current statistics.
+     */
+    public synchronized TickStats getStats() {
+        int count = (int) Math.min(myTicks, MY_SAMPLE_COUNT);
+        long[] sorted = Arrays.copyOf(mySamples, count);
+        Arrays.sort(sorted);
+        return new TickStats(myTicks, myOverruns, mySkipped, myDegraded,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                myMaxDuration / 1e6, myPeriod / 1e6);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted durations, in milliseconds.
+     */
+    private static double percentile(final long[] theSorted, final double thePercent) {
+        if (theSorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(thePercent / 100 * theSorted.length);
+        return theSorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * Scheduler statistics. Latencies are tick durations in milliseconds.
+     *
+     * @param ticks          number of ticks run
+     * @param overruns       ticks that took longer than the period
+     * @param skipped        scheduled ticks dropped to get back on the grid
+     * @param degraded       ticks run in degraded mode
+     * @param p50            median tick duration of recent ticks
+     * @param p95            95th percentile tick duration of recent ticks
+     * @param p99            99th percentile tick duration of recent ticks
+     * @param max            longest tick since the scheduler started
+     * @param budget         the tick period
+     */
+    public record TickStats(long ticks, long overruns, long skipped, long degraded,
+                            double p50, double p95, double p99, double max, double budget) {
+
+        /**
+         * @return true if the 95th percentile tick takes longer than the period.
+         */
+        public boolean overBudget() {
+            return p95 > budget;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ticks=%d overruns=%d skipped=%d degraded=%d "
+                            + "p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms budget=%.0fms",
+                    ticks, overruns, skipped, degraded, p50, p95, p99, max, budget);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package controller;
 
 import model.*;
 
-import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -18,6 +17,11 @@ import view.MonitorDashboard;
  * telemetry data to persistent storage. Upon shutdown, it calculates Z-score
  * statistics from collected telemetry.
  * </p>
+ * <p>
+ * Telemetry is logged into memory-mapped segments by a {@link MappedTelemetryLog},
+ * so a long run's log is split across files, reaches the disk within a second
+ * and survives the program being killed.
+ * </p>
  *
  * @author nlevin11
  * @author Natan Artemiev
@@ -35,7 +39,7 @@ public class ZScoreMonitor {
     /**
      * A persistent exporter for gathering drone data.
      */
-    private static PersistentExporter exporter = new PersistentExporter();
+    private static TelemetryLogWriter exporter = new MappedTelemetryLog();
 
     /**
      * How long the program waits between updates (in milliseconds)
@@ -54,9 +58,9 @@ public class ZScoreMonitor {
     private static final double MY_ANOMALY_PERCENT = 0.0;
 
     /**
-     * A string to represent the telemetry log filepath.
+     * A string to represent the telemetry log directory.
      */
-    private static final String MY_TELEMETRY_LOG_PATH = "dataLogs/TelemetryLog.txt";
+    private static final String MY_TELEMETRY_LOG_PATH = "dataLogs/TelemetryLog/";
 
     /**
      * A string to represent the z-score data filepath.
@@ -80,7 +84,7 @@ public class ZScoreMonitor {
         //Generate Drones
         for (int i = 0; i < 10; i++) {
             ArrayList<RoutePoint> theRoute = myRouteGenerator.generateRoute();
-            DroneInterface drone = myDroneGenerator.createDrone(theRoute);
+            DroneInterface drone = myDroneGenerator.createDrone(gen.getFleet(), theRoute);
             gen.addDrone(drone);
         }
         System.out.println("Drones Generated");
@@ -94,7 +98,7 @@ public class ZScoreMonitor {
         headers.add("timestamp");
 
         //Get Persistent Exporter
-        exporter = new PersistentExporter();
+        exporter = TelemetryLogWriter.forFile(MY_TELEMETRY_LOG_PATH);
         exporter.startTelemetryLog(MY_TELEMETRY_LOG_PATH, headers);
 
         /*
@@ -104,28 +108,22 @@ public class ZScoreMonitor {
          */
         Runnable simulateNextStep = () -> {
             //Get Previous and Current telemetry of all drones.
-            Map<DroneInterface, TelemetryRecord[]> droneTelemetry = gen.processAllDrones((float) MY_DELTA_TIME);
-
-            //For each drone
-            for (Map.Entry<DroneInterface, TelemetryRecord[]> entry : droneTelemetry.entrySet()) {
-                DroneInterface drone = entry.getKey();
-                TelemetryRecord[] pair = entry.getValue();
-
-                //Get Current Telemetry
-                TelemetryRecord myCurrentTelemetry = pair[1];
+            TelemetryBatch batch = gen.processAllDrones((float) MY_DELTA_TIME);
+            TelemetryColumns current = batch.getCurrent();
 
-                //Log telemetry data
-                exporter.logTelemetryData(myCurrentTelemetry, headers);
+            //Log telemetry data
+            exporter.logTelemetryBatch(batch, headers);
 
+            //For each drone
+            for (int entry = 0; entry < batch.size(); entry++) {
                 //Get drone location to pass to view
-                float[] location = {myCurrentTelemetry.longitude(),
-                        myCurrentTelemetry.latitude()};
+                float[] location = {current.getLongitude(entry), current.getLatitude(entry)};
 
                 //Get telemetry as a String to pass to view
-                String theTelemetry = telemetryToString(myCurrentTelemetry);
+                String theTelemetry = telemetryToString(current, entry);
 
                 //Draw the drone on the view.
-                view.drawDrone(drone.getId(), location, theTelemetry);
+                view.drawDrone(current.getId(entry), location, theTelemetry);
             }
         };
 
@@ -157,19 +155,20 @@ public class ZScoreMonitor {
     }
 
     /**
-     * Converts a telemetry data map into a formatted string representation
+     * Converts one drone's telemetry into a formatted string representation
      * suitable for display in the view.
      *
-     * @param theTelemetry  A telemetry record to parse for data.
+     * @param theTelemetry  Telemetry columns holding the drone's report.
+     * @param theEntry      The drone's index in the columns.
      * @return The String representation of the Telemetry data.
      */
-    private static String telemetryToString(TelemetryRecord theTelemetry) {
-        return "id: " + theTelemetry.id() + "\n" +
-                "altitude: " + theTelemetry.altitude() + "\n" +
-                "longitude: " + theTelemetry.longitude() + "\n" +
-                "latitude: " + theTelemetry.latitude() + "\n" +
-                "velocity: " + theTelemetry.velocity() + "\n" +
-                "batteryLevel: " + theTelemetry.batteryLevel() + "\n" +
-                "orientation: " + theTelemetry.orientation() + "\n";
+    private static String telemetryToString(TelemetryColumns theTelemetry, int theEntry) {
+        return "id: " + theTelemetry.getId(theEntry) + "\n" +
+                "altitude: " + theTelemetry.getAltitude(theEntry) + "\n" +
+                "longitude: " + theTelemetry.getLongitude(theEntry) + "\n" +
+                "latitude: " + theTelemetry.getLatitude(theEntry) + "\n" +
+                "velocity: " + theTelemetry.getVelocity(theEntry) + "\n" +
+                "batteryLevel: " + theTelemetry.getBatteryLevel(theEntry) + "\n" +
+                "orientation: " + theTelemetry.getOrientation(theEntry) + "\n";
     }
 }
\ No newline at end of file
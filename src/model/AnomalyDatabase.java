@@ -83,6 +83,45 @@ public class AnomalyDatabase {
 
     }
 
+    /**
+     * A method to insert many AnomalyReports at once.
+     * All reports are written in one transaction with a single batched statement,
+     * which is much faster than calling insertReport for each report.
+     * @param theReports    The AnomalyReports to insert.
+     */
+    public void insertReports(List<AnomalyReport> theReports){
+        if (theReports.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO anomaly_reports(id, timestamp, anomaly_type, drone_id, simple_report, detailed_report) " +
+                "VALUES(?,?,?,?,?,?)";
+
+        try {
+            boolean autoCommit = myConnection.getAutoCommit();
+            myConnection.setAutoCommit(false);
+            try (PreparedStatement preparedStatement = myConnection.prepareStatement(sql)) {
+                for (AnomalyReport report : theReports) {
+                    preparedStatement.setString(1, report.id().toString());
+                    preparedStatement.setLong(2, report.timestamp());
+                    preparedStatement.setString(3, report.anomalyType());
+                    preparedStatement.setInt(4, report.droneId());
+                    preparedStatement.setString(5, report.simpleReport());
+                    preparedStatement.setString(6, report.detailedReport());
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                myConnection.commit();
+            } catch (SQLException e) {
+                myConnection.rollback();
+                throw e;
+            } finally {
+                myConnection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
     /**
      * A method to find reports based on a given time range.
      * @param theBeginTime      The beginning value of the time range being searched.
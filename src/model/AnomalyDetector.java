@@ -2,6 +2,7 @@ package model;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.SplittableRandom;
 import java.util.UUID;
 
 /**
@@ -12,9 +13,19 @@ import java.util.UUID;
 public class AnomalyDetector {
 
     /**
-     * A double to hold the first timestamp given to the AnomalyDetector.
+     * The first timestamp given to the AnomalyDetector, or {@link #NO_TIMESTAMP} before the first record.
      */
-    private double firstTimestamp = -1;
+    private long firstTimestamp = NO_TIMESTAMP;
+
+    /**
+     * Marker for "no timestamp seen yet".
+     */
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * Simulated milliseconds after the first record during which velocity and acceleration are not judged.
+     */
+    private static final long WARM_UP_TIME = 1000;
 
     /**
      * A double representing the maximum deviation from normal behavior a drone can express before detection.
@@ -96,7 +107,24 @@ public class AnomalyDetector {
      */
     private static final String MY_Z_SCORE_LOG_PATH = "dataLogs/BaselineLog.properties";
 
+    /**
+     * Source of report IDs, or null to use random UUIDs.
+     */
+    private final SplittableRandom myIdRandom;
+
     public AnomalyDetector() {
+        myIdRandom = null;
+        loadBaseline();
+    }
+
+    /**
+     * Creates a detector whose report IDs are derived from a seed, so a
+     * reproducible run also produces the same reports.
+     *
+     * @param theSeed       The seed for report IDs.
+     */
+    public AnomalyDetector(final long theSeed) {
+        myIdRandom = new SplittableRandom(theSeed);
         loadBaseline();
     }
 
@@ -141,57 +169,160 @@ public class AnomalyDetector {
      * @return                      Returns the AnomalyReport object when created, null if not created.
      */
     public AnomalyReport detect(TelemetryRecord thePrevTelemetry, TelemetryRecord theCurrTelemetry) {
-        StringBuilder sb = new StringBuilder();
+        String anomalyType = describe(
+                positionAnomaly(theCurrTelemetry.longitude(), theCurrTelemetry.latitude(), theCurrTelemetry.altitude(),
+                        thePrevTelemetry.longitude(), thePrevTelemetry.latitude(), thePrevTelemetry.altitude()),
+                powerAnomaly(theCurrTelemetry.batteryLevel()),
+                statisticalDetect(theCurrTelemetry.timeStamp(), thePrevTelemetry.timeStamp(),
+                        theCurrTelemetry.velocity(), thePrevTelemetry.velocity(),
+                        theCurrTelemetry.batteryLevel(), thePrevTelemetry.batteryLevel(),
+                        theCurrTelemetry.orientation(), thePrevTelemetry.orientation()));
+
+        if (anomalyType != null) {
+            return createAnomalyReport(anomalyType, theCurrTelemetry, thePrevTelemetry);
+        }
+        return null;
+    }
 
-        // Position + Velocity check
-        AnomalyEnum error = positionAnomaly(theCurrTelemetry, thePrevTelemetry);
-        boolean altitudeErr = false;
-        if (error != null) {
-            sb.append(error);
-            if (error.equals(AnomalyEnum.ALTITUDE))  altitudeErr = true;
+    /**
+     * A method to detect anomalies for one fleet slot straight from telemetry columns.
+     * <p>
+     * Gives the same result as {@link #detect(TelemetryRecord, TelemetryRecord)} on the
+     * slot's records, but only creates records when an anomaly is found, so a whole fleet
+     * can be checked every tick without allocating for the drones that behave.
+     *
+     * @param thePrevTelemetry      The telemetry reported in the previous tick.
+     * @param theCurrTelemetry      The telemetry reported in the current tick.
+     * @param theSlot               The fleet slot to check.
+     * @return                      Returns the AnomalyReport object when created, null if not created
+     *                              or if either tick has no report for the slot.
+     */
+    public AnomalyReport detect(TelemetryColumns thePrevTelemetry, TelemetryColumns theCurrTelemetry, int theSlot) {
+        if (!thePrevTelemetry.isPresent(theSlot) || !theCurrTelemetry.isPresent(theSlot)) {
+            return null;
         }
+        String anomalyType = describe(
+                positionAnomaly(theCurrTelemetry.getLongitude(theSlot), theCurrTelemetry.getLatitude(theSlot),
+                        theCurrTelemetry.getAltitude(theSlot), thePrevTelemetry.getLongitude(theSlot),
+                        thePrevTelemetry.getLatitude(theSlot), thePrevTelemetry.getAltitude(theSlot)),
+                powerAnomaly(theCurrTelemetry.getBatteryLevel(theSlot)),
+                statisticalDetect(theCurrTelemetry.getTimeStamp(theSlot), thePrevTelemetry.getTimeStamp(theSlot),
+                        theCurrTelemetry.getVelocity(theSlot), thePrevTelemetry.getVelocity(theSlot),
+                        theCurrTelemetry.getBatteryLevel(theSlot), thePrevTelemetry.getBatteryLevel(theSlot),
+                        theCurrTelemetry.getOrientation(theSlot), thePrevTelemetry.getOrientation(theSlot)));
+
+        if (anomalyType != null) {
+            return createAnomalyReport(anomalyType, theCurrTelemetry.toRecord(theSlot),
+                    thePrevTelemetry.toRecord(theSlot));
+        }
+        return null;
+    }
 
-        // Battery check
-        error = powerAnomaly(theCurrTelemetry);
-        if (error != null) {
-            if (!sb.isEmpty()) sb.append(", ");
-            sb.append(error);
+    /**
+     * A method to detect anomalies for one entry of a tick's {@link TelemetryBatch}.
+     * <p>
+     * Same as {@link #detect(TelemetryColumns, TelemetryColumns, int)} on the batch's columns.
+     *
+     * @param theBatch              The tick's telemetry.
+     * @param theEntry              The batch entry to check.
+     * @return                      Returns the AnomalyReport object when created, null if not created.
+     */
+    public AnomalyReport detect(TelemetryBatch theBatch, int theEntry) {
+        return detect(theBatch.getPrevious(), theBatch.getCurrent(), theEntry);
+    }
+
+    /**
+     * A method to report a conflict found by a {@link ConflictDetector}.
+     * <p>
+     * A conflict is reported once, at the update that first predicts it, against the drone in the
+     * lower fleet slot; the report names the other drone.
+     *
+     * @param theCurrTelemetry      The telemetry reported in the current tick.
+     * @param theConflicts          The conflict detector, updated for the current tick.
+     * @param theConflict           The conflict to report.
+     * @return                      Returns the AnomalyReport object when created, null if the conflict
+     *                              was already predicted by an earlier update or a drone has no report.
+     */
+    public AnomalyReport detectConflict(TelemetryColumns theCurrTelemetry, ConflictDetector theConflicts,
+                                        int theConflict) {
+        int first = theConflicts.getFirst(theConflict);
+        int second = theConflicts.getSecond(theConflict);
+        if (!theConflicts.isNew(theConflict)
+                || !theCurrTelemetry.isPresent(first) || !theCurrTelemetry.isPresent(second)) {
+            return null;
         }
+        TelemetryRecord current = theCurrTelemetry.toRecord(first);
+        String anomalyType = AnomalyEnum.CONFLICT.toString();
+        String simpleReport = ReportFormatter.createDescSimple(anomalyType, current);
+        String detailedReport = ReportFormatter.createConflictDetailed(current, theCurrTelemetry.toRecord(second),
+                theConflicts.getTimeToClosestApproach(theConflict), theConflicts.getMissDistance(theConflict));
 
-        // Statistical Detection
-        AnomalyEnum statResult = statisticalDetect(theCurrTelemetry, thePrevTelemetry);
-        if (statResult != null && !altitudeErr) {
-            if (!sb.isEmpty()) sb.append(", ");
-            sb.append(statResult);
+        return new AnomalyReport(
+                myIdRandom == null ? UUID.randomUUID() : nextSeededId(),
+                current.timeStamp(),
+                anomalyType,
+                current.id(),
+                simpleReport,
+                detailedReport);
+    }
+
+    /**
+     * A private method to combine the results of the individual checks into an anomaly type string.
+     *
+     * @param thePositionError      The result of the position check.
+     * @param thePowerError         The result of the battery check.
+     * @param theStatResult         The result of the statistical check.
+     * @return                      Returns the comma separated anomaly types, or null if there are none.
+     */
+    private String describe(AnomalyEnum thePositionError, AnomalyEnum thePowerError, AnomalyEnum theStatResult) {
+        boolean altitudeErr = AnomalyEnum.ALTITUDE.equals(thePositionError);
+        if (thePositionError == null && thePowerError == null && (theStatResult == null || altitudeErr)) {
+            return null;
         }
 
-        if (!sb.isEmpty()) {
-            return createAnomalyReport(sb.toString(), theCurrTelemetry, thePrevTelemetry);
+        StringBuilder sb = new StringBuilder();
+        if (thePositionError != null) {
+            sb.append(thePositionError);
         }
-        return null;
+        if (thePowerError != null) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(thePowerError);
+        }
+        if (theStatResult != null && !altitudeErr) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(theStatResult);
+        }
+        return sb.toString();
     }
 
     /**
      * A method to detect anomalous drone behavior via statistical analysis.
+     * <p>
+     * Rates are computed from the difference between the two records' timestamps,
+     * which are simulation time, so results do not depend on how fast the simulation runs.
      *
-     * @param theCurrTelemetry      A telemetry record representing the current drone state.
-     * @param thePrevTelemetry      A telemetry record representing the previous drone state.
+     * @param theCurrTime           The current report's timestamp.
+     * @param thePrevTime           The previous report's timestamp.
+     * @param theCurrVelocity       The current velocity.
+     * @param thePrevVelocity       The previous velocity.
+     * @param theCurrBattery        The current battery level.
+     * @param thePrevBattery        The previous battery level.
+     * @param theCurrOrientation    The current heading.
+     * @param thePrevOrientation    The previous heading.
      * @return                      Returns an AnomalyEnum representing the anomaly found.
      */
-    private AnomalyEnum statisticalDetect(TelemetryRecord theCurrTelemetry, TelemetryRecord thePrevTelemetry) {
-        long currTime = theCurrTelemetry.timeStamp();
-        long prevTime = thePrevTelemetry.timeStamp();
-        double deltaTime = (double) (currTime - prevTime) / 1000;
+    private AnomalyEnum statisticalDetect(long theCurrTime, long thePrevTime,
+                                          double theCurrVelocity, double thePrevVelocity,
+                                          double theCurrBattery, double thePrevBattery,
+                                          double theCurrOrientation, double thePrevOrientation) {
+        double deltaTime = (theCurrTime - thePrevTime) / 1000.0;
 
-        if (firstTimestamp == -1) firstTimestamp = currTime;
+        if (firstTimestamp == NO_TIMESTAMP) firstTimestamp = theCurrTime;
 
-        if (firstTimestamp == currTime || deltaTime == 0.0) return null;
+        if (firstTimestamp == theCurrTime || deltaTime <= 0.0) return null;
 
         // Velocity + Acceleration check
-        // Gather Data
-        double currVelocity = theCurrTelemetry.velocity();
-        double prevVelocity = thePrevTelemetry.velocity();
-        double currAcceleration = Math.abs(prevVelocity - currVelocity) / deltaTime;
+        double currAcceleration = Math.abs(thePrevVelocity - theCurrVelocity) / deltaTime;
 
         // Calc Z-Scores
         double effectiveStandardDev = Math.max(ACCELERATION_STANDARD_DEV_BASELINE, 0.05);
@@ -200,11 +331,11 @@ public class AnomalyDetector {
 
         boolean isAccel = Math.abs(currAcceleration) > ACCELERATION_THRESHOLD;
 
-        double velocityZScore = (currVelocity - VELOCITY_MEAN_BASELINE) / VELOCITY_STANDARD_DEV_BASELINE;
-        boolean approachFlag = currVelocity >= 0.5 && currVelocity <= VELOCITY_MIN_OBSERVED;
+        double velocityZScore = (theCurrVelocity - VELOCITY_MEAN_BASELINE) / VELOCITY_STANDARD_DEV_BASELINE;
+        boolean approachFlag = theCurrVelocity >= 0.5 && theCurrVelocity <= VELOCITY_MIN_OBSERVED;
         boolean velFlag = Math.abs(velocityZScore) > MAX_Z_SCORE && !approachFlag;
 
-        if (currTime > firstTimestamp + 1000) {
+        if (theCurrTime - firstTimestamp > WARM_UP_TIME) {
             if (velFlag && !isAccel) {
                 return AnomalyEnum.OFF_COURSE;
             } else if (accelerationZScore > MAX_Z_SCORE){
@@ -213,20 +344,14 @@ public class AnomalyDetector {
         }
 
         // Battery check
-        double currBattery = theCurrTelemetry.batteryLevel();
-        double prevBattery = thePrevTelemetry.batteryLevel();
-
-        double batteryNormDelta = ((prevBattery - currBattery) / deltaTime);
+        double batteryNormDelta = ((thePrevBattery - theCurrBattery) / deltaTime);
         double batteryZScore = (batteryNormDelta - BATTERY_DRAIN_MEAN_BASELINE) / BATTERY_DRAIN_STANDARD_DEV_BASELINE;
         if (batteryZScore >= MAX_Z_SCORE) {
             return AnomalyEnum.BATTERY_DRAIN;
         }
 
         // Orientation check
-        double currOrientation = theCurrTelemetry.orientation();
-        double prevOrientation = thePrevTelemetry.orientation();
-
-        double orientationDelta = Math.abs(currOrientation - prevOrientation);
+        double orientationDelta = Math.abs(theCurrOrientation - thePrevOrientation);
         if (orientationDelta > 180) orientationDelta = 360 - orientationDelta;
         if (orientationDelta < ORIENTATION_TURN_MIN_DELTA && orientationDelta > ORIENTATION_STEADY_MAX_DELTA) {
             return AnomalyEnum.OFF_COURSE;
@@ -237,33 +362,34 @@ public class AnomalyDetector {
     /**
      * A private method to hold positional anomaly detection logic.
      *
-     * @param theCurrTelemetry      A telemetry record representing the current drone state.
-     * @param thePrevTelemetry      A telemetry record representing the previous drone state.
+     * @param theCurrLongitude      The current longitude.
+     * @param theCurrLatitude       The current latitude.
+     * @param theCurrAltitude       The current altitude.
+     * @param thePrevLongitude      The previous longitude.
+     * @param thePrevLatitude       The previous latitude.
+     * @param thePrevAltitude       The previous altitude.
      * @return                      Returns an AnomalyEnum representing the anomaly found.
      */
-    private AnomalyEnum positionAnomaly(TelemetryRecord theCurrTelemetry, TelemetryRecord thePrevTelemetry) {
-        float currLatitude = theCurrTelemetry.latitude();
-        float currLongitude = theCurrTelemetry.longitude();
-        float currAltitude = theCurrTelemetry.altitude();
-
+    private AnomalyEnum positionAnomaly(float theCurrLongitude, float theCurrLatitude, float theCurrAltitude,
+                                        float thePrevLongitude, float thePrevLatitude, float thePrevAltitude) {
         // Check in bounds
-        if (currLatitude < LATITUDE_MAX * -1 || currLatitude > LATITUDE_MAX ||
-                currLongitude < LONGITUDE_MAX * -1 || currLongitude > LONGITUDE_MAX || currAltitude > ALTITUDE_MAX) {
+        if (theCurrLatitude < LATITUDE_MAX * -1 || theCurrLatitude > LATITUDE_MAX ||
+                theCurrLongitude < LONGITUDE_MAX * -1 || theCurrLongitude > LONGITUDE_MAX
+                || theCurrAltitude > ALTITUDE_MAX) {
             return AnomalyEnum.OUT_OF_BOUNDS;
         }
-        if (currAltitude <= 0.0) {
+        if (theCurrAltitude <= 0.0) {
             return AnomalyEnum.HIT_GROUND;
         }
 
         // Check z-axis velocity
-        float prevAltitude = thePrevTelemetry.altitude();
-        double displacement = Math.sqrt(Math.pow(thePrevTelemetry.longitude() - theCurrTelemetry.longitude(), 2)
-                + Math.pow(thePrevTelemetry.latitude() - theCurrTelemetry.latitude(), 2)
-                + Math.pow(thePrevTelemetry.altitude() - theCurrTelemetry.altitude(), 2));
+        double displacement = Math.sqrt(Math.pow(thePrevLongitude - theCurrLongitude, 2)
+                + Math.pow(thePrevLatitude - theCurrLatitude, 2)
+                + Math.pow(thePrevAltitude - theCurrAltitude, 2));
 
         if (displacement > ORTHOGONAL_VELOCITY_MAX) {
             return AnomalyEnum.SPOOFING;
-        } else if (Math.abs(currAltitude - prevAltitude) > ORTHOGONAL_VELOCITY_MAX) {
+        } else if (Math.abs(theCurrAltitude - thePrevAltitude) > ORTHOGONAL_VELOCITY_MAX) {
             return AnomalyEnum.ALTITUDE;
         }
 
@@ -273,14 +399,13 @@ public class AnomalyDetector {
     /**
      * A private method to hold the power anomaly detection logic.
      *
-     * @param theCurrTelemetry      A telemetry record representing the current drone state.
+     * @param theCurrBatteryLevel   The current battery level.
      * @return                      Returns an AnomalyEnum representing whether the battery level is low or 0.
      */
-    private AnomalyEnum powerAnomaly(TelemetryRecord theCurrTelemetry) {
-        float currBatteryLevel = theCurrTelemetry.batteryLevel();
-        if (currBatteryLevel <= 0.0F) {
+    private AnomalyEnum powerAnomaly(float theCurrBatteryLevel) {
+        if (theCurrBatteryLevel <= 0.0F) {
             return AnomalyEnum.BATTERY_FAIL;
-        } else if (currBatteryLevel <= 15 && currBatteryLevel > 14){
+        } else if (theCurrBatteryLevel <= 15 && theCurrBatteryLevel > 14){
             return AnomalyEnum.BATTERY_WARNING;
         }
         return null;
@@ -297,7 +422,7 @@ public class AnomalyDetector {
         String simpleReport = ReportFormatter.createDescSimple(theAnomalyType, theCurrTelemetry);
         String detailedReport = ReportFormatter.createDescDetailed(theAnomalyType, theCurrTelemetry, thePrevTelemetry);
 
-        UUID myAnomalyID = UUID.randomUUID();
+        UUID myAnomalyID = myIdRandom == null ? UUID.randomUUID() : nextSeededId();
 
         return new AnomalyReport(
                 myAnomalyID,
@@ -307,4 +432,16 @@ public class AnomalyDetector {
                 simpleReport,
                 detailedReport);
     }
-}
\ No newline at end of file
+
+    /**
+     * A private method to draw the next report ID from the seeded source,
+     * shaped like a random (version 4) UUID.
+     *
+     * @return                      Returns the next seeded UUID.
+     */
+    private UUID nextSeededId() {
+        long mostSigBits = (myIdRandom.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (myIdRandom.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -15,7 +15,8 @@ public enum AnomalyEnum {
     OUT_OF_BOUNDS("Out of Bounds"),
     ACCELERATION("Abnormal Acceleration/Deceleration"),
     HIT_GROUND("Ground Collision"),
-    OFF_COURSE("Knocked Off Course");
+    OFF_COURSE("Knocked Off Course"),
+    CONFLICT("Predicted Conflict");
 
     /**
      * A String to hold the String representation of an AnomalyEnum.
@@ -16,6 +16,15 @@ public class AnomalyHandler {
     private static final float MAX_VELOCITY = 10;
     private static final float MIN_VELOCITY = 0;
     
+    /** Index of the new altitude in the output of {@link #applyAnomaly}. */
+    public static final int ALTITUDE = 0;
+
+    /** Index of the new velocity in the output of {@link #applyAnomaly}. */
+    public static final int VELOCITY = 1;
+
+    /** Index of the extra battery drain in the output of {@link #applyAnomaly}. */
+    public static final int EXTRA_DRAIN = 2;
+
     private static final AnomalyEnum[] MOVEMENT_ANOMALIES = {
         AnomalyEnum.BATTERY_DRAIN,
         AnomalyEnum.BATTERY_FAIL,
@@ -23,9 +32,28 @@ public class AnomalyHandler {
         AnomalyEnum.SPOOFING,
         AnomalyEnum.SPEED
     };
+
+    /** Number of anomaly types that can be injected into a drone's movement. */
+    public static final int MOVEMENT_ANOMALY_COUNT = MOVEMENT_ANOMALIES.length;
     
-    private final Random myRandom = new Random();
+    private final Random myRandom;
     private AnomalyEnum myLastAnomaly;
+
+    /**
+     * Creates a handler with an unpredictable seed.
+     */
+    public AnomalyHandler() {
+        myRandom = new Random();
+    }
+
+    /**
+     * Creates a handler that picks the same anomalies for the same seed.
+     *
+     * @param theSeed the seed.
+     */
+    public AnomalyHandler(final long theSeed) {
+        myRandom = new Random(theSeed);
+    }
     
     /**
      * Applies a random anomaly and returns the effects.
@@ -42,13 +70,55 @@ public class AnomalyHandler {
         
         AnomalyEnum anomaly = MOVEMENT_ANOMALIES[myRandom.nextInt(MOVEMENT_ANOMALIES.length)];
         myLastAnomaly = anomaly;
-        
+
+        // Only the ALTITUDE and SPEED anomalies consume a direction draw
+        boolean increase = (anomaly == AnomalyEnum.ALTITUDE || anomaly == AnomalyEnum.SPEED)
+                && myRandom.nextBoolean();
+
+        float[] out = new float[3];
+        boolean batteryFail = applyAnomaly(anomaly, increase, theCurrentAltitude, theCurrentVelocity,
+                theDeltaTime, out);
+        return new AnomalyResult(out[ALTITUDE], out[VELOCITY], out[EXTRA_DRAIN], batteryFail);
+    }
+
+    /**
+     * Picks one of the movement anomalies from a random index.
+     *
+     * @param theIndex a random number in {@code [0, MOVEMENT_ANOMALY_COUNT)}
+     * @return the anomaly at that index
+     */
+    public static AnomalyEnum movementAnomaly(final int theIndex) {
+        return MOVEMENT_ANOMALIES[theIndex];
+    }
+
+    /**
+     * Applies the effects of a chosen anomaly and writes them into
+     * {@code theOut} as {altitude, velocity, extraDrain}. This is the shared
+     * core of {@link #applyRandomAnomaly}, for callers that draw their own
+     * random numbers.
+     *
+     * @param theAnomaly the anomaly to apply
+     * @param theIncrease direction of an ALTITUDE or SPEED anomaly (ignored otherwise)
+     * @param theCurrentAltitude current altitude
+     * @param theCurrentVelocity current velocity
+     * @param theDeltaTime time step
+     * @param theOut array of at least three elements that receives the effects
+     * @return true if the anomaly is a battery failure
+     */
+    public static boolean applyAnomaly(
+            final AnomalyEnum theAnomaly,
+            final boolean theIncrease,
+            final float theCurrentAltitude,
+            final float theCurrentVelocity,
+            final float theDeltaTime,
+            final float[] theOut) {
+
         float newAltitude = theCurrentAltitude;
         float newVelocity = theCurrentVelocity;
         float extraDrain = 0f;
         boolean batteryFail = false;
         
-        switch (anomaly) {
+        switch (theAnomaly) {
             case BATTERY_DRAIN:
                 extraDrain = ANOMALY_EXTRA_DRAIN_RATE;
                 break;
@@ -60,7 +130,7 @@ public class AnomalyHandler {
                 break;
                 
             case ALTITUDE:
-                float changeAlt = (myRandom.nextBoolean() ? 1 : -1)
+                float changeAlt = (theIncrease ? 1 : -1)
                         * ANOMALY_ALTITUDE_CHANGE * theDeltaTime;
                 newAltitude = Math.max(MIN_ALTITUDE, theCurrentAltitude + changeAlt);
                 break;
@@ -70,15 +140,21 @@ public class AnomalyHandler {
                 break;
                 
             case SPEED:
-                if (myRandom.nextBoolean()) {
+                if (theIncrease) {
                     newVelocity = Math.min(theCurrentVelocity + ANOMALY_VELOCITY_CHANGE, MAX_VELOCITY);
                 } else {
                     newVelocity = Math.max(theCurrentVelocity - ANOMALY_VELOCITY_CHANGE, MIN_VELOCITY);
                 }
                 break;
+
+            default:
+                break;
         }
         
-        return new AnomalyResult(newAltitude, newVelocity, extraDrain, batteryFail);
+        theOut[ALTITUDE] = newAltitude;
+        theOut[VELOCITY] = newVelocity;
+        theOut[EXTRA_DRAIN] = extraDrain;
+        return batteryFail;
     }
     
     /**
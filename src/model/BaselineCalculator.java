@@ -1,10 +1,12 @@
 package model;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
- * A class to parse and calculate drone data from a CSV log of activity.
+ * A class to parse and calculate drone data from a CSV, binary or segmented log of activity.
  * @author nlevin11
  * @version 12-5
  */
@@ -45,30 +47,47 @@ public class BaselineCalculator {
     private final List<Double> accelerationReadings;
 
     /**
-     * A map to hold all previous battery values;
+     * The highest drone ID accepted. IDs index the per-drone arrays below,
+     * so this bounds their size; simulator IDs are dense and far smaller.
      */
-    private final Map<Integer, Float> prevBatteryReadings;
+    private static final int MAX_DRONE_ID = 1 << 24;
 
     /**
-     * A map to hold all previous orientation values;
+     * Per-drone arrays start with room for this many IDs and double as needed.
      */
-    private final Map<Integer, Float> prevOrientationReadings;
+    private static final int INITIAL_DRONES = 64;
 
     /**
-     * A map to hold all previous orientation values;
+     * An array, indexed by drone ID, marking the drones read so far.
+     * The other per-drone arrays only hold values for these drones.
      */
-    private final Map<Integer, Double> prevVelocityReadings;
+    private boolean[] seenDrones;
 
     /**
-     * A map to hold all previous timestamp values;
+     * An array, indexed by drone ID, to hold all previous battery values.
      */
-    private final Map<Integer, Double> prevTimestampReadings;
+    private float[] prevBatteryReadings;
 
     /**
-     * A map to hold the first timestamp readings for a drone.
+     * An array, indexed by drone ID, to hold all previous orientation values.
+     */
+    private float[] prevOrientationReadings;
+
+    /**
+     * An array, indexed by drone ID, to hold all previous velocity values.
+     */
+    private double[] prevVelocityReadings;
+
+    /**
+     * An array, indexed by drone ID, to hold all previous timestamp values.
+     */
+    private double[] prevTimestampReadings;
+
+    /**
+     * An array, indexed by drone ID, to hold the first timestamp reading for a drone.
      * Allows calculator to ignore "startup" conditions for steady state monitoring.
      */
-    private final Map<Integer, Double> firstTimestampReadings;
+    private double[] firstTimestampReadings;
 
 
     public BaselineCalculator() {
@@ -76,11 +95,12 @@ public class BaselineCalculator {
         this.batteryDrainReadings = new ArrayList<>();
         this.orientationDeltaReadings = new ArrayList<>();
         this.accelerationReadings = new ArrayList<>();
-        this.prevBatteryReadings = new HashMap<>();
-        this.prevOrientationReadings = new HashMap<>();
-        this.prevVelocityReadings = new HashMap<>();
-        this.prevTimestampReadings = new HashMap<>();
-        this.firstTimestampReadings = new HashMap<>();
+        this.seenDrones = new boolean[INITIAL_DRONES];
+        this.prevBatteryReadings = new float[INITIAL_DRONES];
+        this.prevOrientationReadings = new float[INITIAL_DRONES];
+        this.prevVelocityReadings = new double[INITIAL_DRONES];
+        this.prevTimestampReadings = new double[INITIAL_DRONES];
+        this.firstTimestampReadings = new double[INITIAL_DRONES];
     }
 
     /**
@@ -135,6 +155,12 @@ public class BaselineCalculator {
      * @throws IOException      Throws an exception when incoming files are improperly formatted.
      */
     private int processLogFile(String filepath) throws IOException {
+        if (Files.isDirectory(Path.of(filepath))) {
+            return processSegmentedLog(filepath);
+        }
+        if (BinaryTelemetrySource.isBinary(Path.of(filepath))) {
+            return processBinaryLog(filepath);
+        }
         int lineCount = 0;
 
         try (BufferedReader br = new BufferedReader(new FileReader(filepath))){
@@ -165,6 +191,10 @@ public class BaselineCalculator {
 
 
             while ((line = br.readLine()) != null) {
+                if (line.indexOf('\0') >= 0) {
+                    // The unwritten end of a memory-mapped segment.
+                    break;
+                }
                 lineCount += 1;
                 String[] values = line.split(",");
                 if(values.length <= Math.max(idIndex, Math.max(velocityIndex, Math.max(batteryIndex,
@@ -180,53 +210,9 @@ public class BaselineCalculator {
                     float currOrientation = Float.parseFloat(values[orientationIndex].trim());
                     double currTimestamp = Double.parseDouble(values[timestampIndex].trim());
 
-                    if (currVelocity > 0.001 && currVelocity < myMinVelObs) {
-                        myMinVelObs = currVelocity;
-                    }
-
-                    if (!firstTimestampReadings.containsKey(droneID)) {
-                        firstTimestampReadings.put(droneID, currTimestamp);
-                    }
-
-                    if (prevTimestampReadings.containsKey(droneID)) {
-                        if (prevVelocityReadings.containsKey(droneID)) {
-                            double prevTimestamp = prevTimestampReadings.get(droneID);
-                            double deltaTimeSec = (currTimestamp - prevTimestamp) / 1000;
-                            double prevVelocity = prevVelocityReadings.get(droneID);
-
-                            double currAcceleration = Math.abs(prevVelocity - currVelocity) / deltaTimeSec;
-                            if (currAcceleration > ACCELERATION_THRESHOLD) accelerationReadings.add(currAcceleration);
-                        }
-                        double timeSinceStart = currTimestamp - firstTimestampReadings.get(droneID);
-                        if (timeSinceStart >= WARMUP_TIME_MS) {
-                            velocityReadings.add(currVelocity);
-
-                            double prevTimestamp = prevTimestampReadings.get(droneID);
-
-                            double deltaTime = (currTimestamp - prevTimestamp) / 1000;
-
-                            if (prevBatteryReadings.containsKey(droneID)) {
-                                float prevBattery = prevBatteryReadings.get(droneID);
-                                float drain = (prevBattery - currBattery);
-                                double normalizedDrain = drain / deltaTime;
-                                batteryDrainReadings.add(normalizedDrain);
-                            }
-
-                            if (prevOrientationReadings.containsKey(droneID)) {
-                                float prevOrientation = prevOrientationReadings.get(droneID);
-
-                                double diff = Math.abs(currOrientation - prevOrientation);
-                                if (diff > 180) {
-                                    diff = 360 - diff;
-                                }
-                                orientationDeltaReadings.add(diff);
-                            }
-                        }
+                    if (!addReading(droneID, currVelocity, currBattery, currOrientation, currTimestamp)) {
+                        System.err.println("Skipping line with out of range drone ID: " + line);
                     }
-                    prevVelocityReadings.put(droneID, currVelocity);
-                    prevTimestampReadings.put(droneID, currTimestamp);
-                    prevBatteryReadings.put(droneID, currBattery);
-                    prevOrientationReadings.put(droneID, currOrientation);
 
                 } catch (NumberFormatException e) {
                     System.err.println("Skipping line with unparseable number: " + line);
@@ -237,6 +223,129 @@ public class BaselineCalculator {
         return lineCount;
     }
 
+    /**
+     * A method to add one drone reading to the statistics.
+     * @param droneID           The drone's ID.
+     * @param currVelocity      The reported velocity.
+     * @param currBattery       The reported battery level.
+     * @param currOrientation   The reported orientation.
+     * @param currTimestamp     The report's timestamp in milliseconds.
+     * @return                  Returns false if the drone ID is out of range and the reading was skipped.
+     */
+    private boolean addReading(int droneID, double currVelocity, float currBattery, float currOrientation,
+                               double currTimestamp) {
+        if (currVelocity > 0.001 && currVelocity < myMinVelObs) {
+            myMinVelObs = currVelocity;
+        }
+
+        if (droneID < 0 || droneID > MAX_DRONE_ID) {
+            return false;
+        }
+        if (droneID >= seenDrones.length) {
+            growDroneArrays(droneID);
+        }
+
+        if (!seenDrones[droneID]) {
+            firstTimestampReadings[droneID] = currTimestamp;
+        } else {
+            double prevTimestamp = prevTimestampReadings[droneID];
+            double deltaTimeSec = (currTimestamp - prevTimestamp) / 1000;
+            double prevVelocity = prevVelocityReadings[droneID];
+
+            double currAcceleration = Math.abs(prevVelocity - currVelocity) / deltaTimeSec;
+            if (currAcceleration > ACCELERATION_THRESHOLD) accelerationReadings.add(currAcceleration);
+
+            double timeSinceStart = currTimestamp - firstTimestampReadings[droneID];
+            if (timeSinceStart >= WARMUP_TIME_MS) {
+                velocityReadings.add(currVelocity);
+
+                double deltaTime = (currTimestamp - prevTimestamp) / 1000;
+
+                float prevBattery = prevBatteryReadings[droneID];
+                float drain = (prevBattery - currBattery);
+                double normalizedDrain = drain / deltaTime;
+                batteryDrainReadings.add(normalizedDrain);
+
+                float prevOrientation = prevOrientationReadings[droneID];
+
+                double diff = Math.abs(currOrientation - prevOrientation);
+                if (diff > 180) {
+                    diff = 360 - diff;
+                }
+                orientationDeltaReadings.add(diff);
+            }
+        }
+        seenDrones[droneID] = true;
+        prevVelocityReadings[droneID] = currVelocity;
+        prevTimestampReadings[droneID] = currTimestamp;
+        prevBatteryReadings[droneID] = currBattery;
+        prevOrientationReadings[droneID] = currOrientation;
+        return true;
+    }
+
+    /**
+     * A method to process the segments of a log written by {@link MappedTelemetryLog}, oldest first,
+     * as one log.
+     * @param filepath          The string representation of the log's directory.
+     * @return                  Returns the number of lines read.
+     * @throws IOException      Throws an exception when the log has no segments or a segment is improperly formatted.
+     */
+    private int processSegmentedLog(String filepath) throws IOException {
+        List<Path> segments = MappedTelemetryLog.segments(Path.of(filepath));
+        if (segments.isEmpty()) {
+            throw new IOException("Log file is empty");
+        }
+        int lineCount = 0;
+        for (Path segment : segments) {
+            lineCount += processLogFile(segment.toString());
+        }
+        return lineCount;
+    }
+
+    /**
+     * A method to process the data from a binary log written by {@link BinaryTelemetryExporter}.
+     * Velocities are the float values the simulation reported, so they can differ from the
+     * CSV log's decimal text in the last digits.
+     * @param filepath          The string representation of the log filepath.
+     * @return                  Returns the number of reports read.
+     * @throws IOException      Throws an exception when the log is corrupt or missing required columns.
+     */
+    private int processBinaryLog(String filepath) throws IOException {
+        int lineCount = 0;
+        try (BinaryTelemetrySource source = new BinaryTelemetrySource(Path.of(filepath))) {
+            if (!source.getColumns().containsAll(List.of("id", "velocity", "batteryLevel", "orientation",
+                    "timestamp"))) {
+                throw new IOException("Log file is missing required headers.");
+            }
+            TelemetryColumns block = source.getBlock();
+            int count;
+            while ((count = source.nextBlock()) > 0) {
+                for (int i = 0; i < count; i++) {
+                    lineCount += 1;
+                    if (!addReading(block.getId(i), block.getVelocity(i), block.getBatteryLevel(i),
+                            block.getOrientation(i), block.getTimeStamp(i))) {
+                        System.err.println("Skipping report with out of range drone ID: " + block.getId(i));
+                    }
+                }
+            }
+        }
+        return lineCount;
+    }
+
+    /**
+     * A method to grow the per-drone arrays so they can hold the given drone ID.
+     * @param droneID       The drone ID that must fit.
+     */
+    private void growDroneArrays(int droneID) {
+        int length = (int) Math.min(MAX_DRONE_ID + 1L, Math.max(droneID + 1L, seenDrones.length * 2L));
+        this.seenDrones = Arrays.copyOf(seenDrones, length);
+        this.prevBatteryReadings = Arrays.copyOf(prevBatteryReadings, length);
+        this.prevOrientationReadings = Arrays.copyOf(prevOrientationReadings, length);
+        this.prevVelocityReadings = Arrays.copyOf(prevVelocityReadings, length);
+        this.prevTimestampReadings = Arrays.copyOf(prevTimestampReadings, length);
+        this.firstTimestampReadings = Arrays.copyOf(firstTimestampReadings, length);
+    }
+
     /**
      * A method to save the calculated statistical baselines to a properties file.
      *
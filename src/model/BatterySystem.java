@@ -8,10 +8,10 @@ package model;
  */
 public class BatterySystem {
     /** Base energy consumption per second (hovering + electronics). */
-    private static final float BASE_DRAIN_RATE = 0.01f;
+    static final float BASE_DRAIN_RATE = 0.01f;
     
     /** Additional energy consumption per unit of velocity per second. */
-    private static final float SPEED_DRAIN_RATE = 0.003f;
+    static final float SPEED_DRAIN_RATE = 0.003f;
     
     /** Current remaining battery level. */
     private float myBatteryLevel;
@@ -33,6 +33,18 @@ public class BatterySystem {
      * @return the amount of battery drained
      */
     public float calculateDrain(final float theVelocity, final float theDeltaTime) {
+        return drainFor(theVelocity, theDeltaTime);
+    }
+
+    /**
+     * Calculates the battery drained by any drone at the given velocity over
+     * the given time. Used directly by fleet-wide tick loops.
+     *
+     * @param theVelocity the current velocity
+     * @param theDeltaTime the time step
+     * @return the amount of battery drained
+     */
+    public static float drainFor(final float theVelocity, final float theDeltaTime) {
         float drain = BASE_DRAIN_RATE * theDeltaTime;
         float speed = Math.abs(theVelocity);
         drain += speed * SPEED_DRAIN_RATE * theDeltaTime;
@@ -0,0 +1,359 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A persistent log of drone telemetry in a compact binary format, for the
+ * same uses as the CSV log written by {@link PersistentExporter}.
+ * <p>
+ * The file starts with a header: the magic number {@link #MAGIC}, the
+ * format {@link #VERSION}, and the schema, which is the number of columns
+ * followed by each column's name (a length byte and ASCII). Reports follow
+ * in blocks of up to {@link #BLOCK_RECORDS} reports. A block starts with
+ * the byte length of its body, its report count and the timestamp of its
+ * first report; the body holds
+ * each logged column in turn, in the order of {@link TelemetrySource#COLUMNS}
+ * so that drone IDs come first, with one variable-length value per report:
+ * <ul>
+ *   <li>drone IDs as the difference from the previous report's ID, which is
+ *       one byte when drones are logged in ID order;</li>
+ *   <li>timestamps as the difference from the previous report's timestamp,
+ *       which is 0 within a tick;</li>
+ *   <li>decimal columns as the difference between the bits of the value and
+ *       the bits of the same drone's previous value in that column, which
+ *       is small when the value changes little and 0 when it is unchanged.</li>
+ * </ul>
+ * Differences are zigzag encoded and written seven bits per byte, and the
+ * encoding is lossless. Values are little-endian.
+ * <p>
+ * Like {@link PersistentExporter}, the exporter reports write errors on the
+ * console instead of throwing. The schema is fixed when the log is started;
+ * the header passed with each report is not read again.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class BinaryTelemetryExporter implements TelemetryLogWriter {
+
+    /** File name extension of binary telemetry logs. */
+    public static final String EXTENSION = ".tlog";
+
+    /** First four bytes of every binary telemetry log ("DTLG"). */
+    static final int MAGIC = 0x474C5444;
+
+    /** Version of the file layout. */
+    static final int VERSION = 1;
+
+    /** Byte order of the file. */
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Bytes before a block's body: body length, report count and first timestamp. */
+    static final int BLOCK_HEADER = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /** Most reports in one block. */
+    static final int BLOCK_RECORDS = 4096;
+
+    /** Highest drone ID the log can hold, as in {@link BaselineCalculator}. */
+    static final int MAX_DRONE_ID = 1 << 24;
+
+    /** Index of the drone ID in {@link TelemetrySource#COLUMNS}. */
+    static final int ID = 0;
+
+    /** Index of the timestamp in {@link TelemetrySource#COLUMNS}. */
+    static final int TIMESTAMP = 7;
+
+    /** Most bytes one value takes in a block body. */
+    private static final int MAX_VALUE_BYTES = 10;
+
+    /** Size of the buffer the log is written through. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Drones to preallocate previous values for. */
+    private static final int INITIAL_DRONES = 64;
+
+    /** The open log, or null if none is open. */
+    private FileChannel myChannel;
+
+    /** Bytes waiting to be written to the log. */
+    private final ByteBuffer myBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+
+    /** Indexes into {@link TelemetrySource#COLUMNS} of the logged columns, in ascending order. */
+    private int[] myBodyColumns;
+
+    /** Reports of the block being filled. */
+    private final TelemetryColumns myBlock = new TelemetryColumns(BLOCK_RECORDS);
+
+    /** Number of reports in the block being filled. */
+    private int myCount;
+
+    /** Body of the block being written. */
+    private final byte[] myBody = new byte[BLOCK_RECORDS * TelemetrySource.COLUMNS.size() * MAX_VALUE_BYTES];
+
+    /** Bits of each drone's previous value, by column and drone ID. */
+    private final int[][] myPrevious = new int[TelemetrySource.COLUMNS.size()][];
+
+    @Override
+    public void startTelemetryLog(String filepath, List<String> theHeader) {
+        int[] schema = schema(theHeader);
+        try {
+            myChannel = FileChannel.open(Path.of(filepath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            myBodyColumns = schema.clone();
+            Arrays.sort(myBodyColumns);
+            myCount = 0;
+            for (int column = 0; column < myPrevious.length; column++) {
+                myPrevious[column] = new int[INITIAL_DRONES];
+            }
+            myBuffer.clear();
+            myBuffer.putInt(MAGIC);
+            myBuffer.putInt(VERSION);
+            myBuffer.putInt(schema.length);
+            for (int column : schema) {
+                byte[] name = TelemetrySource.COLUMNS.get(column).getBytes(StandardCharsets.US_ASCII);
+                myBuffer.put((byte) name.length);
+                myBuffer.put(name);
+            }
+        } catch (IOException e) {
+            myChannel = null;
+            System.err.println("Error opening telemetry log file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Turns a header into indexes into {@link TelemetrySource#COLUMNS}.
+     *
+     * @param theHeader the column names.
+     * @return the indexes, in header order.
+     * @throws IllegalArgumentException if a name is unknown or repeated, or
+     *         the drone ID or timestamp is missing.
+     */
+    static int[] schema(final List<String> theHeader) {
+        int[] schema = new int[theHeader.size()];
+        for (int i = 0; i < schema.length; i++) {
+            schema[i] = TelemetrySource.COLUMNS.indexOf(theHeader.get(i));
+            if (schema[i] < 0 || theHeader.indexOf(theHeader.get(i)) != i) {
+                throw new IllegalArgumentException("Unexpected column: " + theHeader.get(i));
+            }
+        }
+        if (!theHeader.contains("id") || !theHeader.contains("timestamp")) {
+            throw new IllegalArgumentException("A binary telemetry log needs id and timestamp columns.");
+        }
+        return schema;
+    }
+
+    @Override
+    public void closeTelemetryLog() {
+        if (myChannel == null) {
+            return;
+        }
+        try {
+            flushBlock();
+            drain();
+            myChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing telemetry log file: " + e.getMessage());
+        }
+        myChannel = null;
+    }
+
+    @Override
+    public void logTelemetryData(TelemetryRecord theTelemetryData, List<String> theHeader) {
+        if (myChannel == null) {
+            System.err.println("Error: Telemetry log is not open.");
+            return;
+        }
+        try {
+            if (room(theTelemetryData.id())) {
+                myBlock.set(myCount++, theTelemetryData);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing telemetry data: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void logTelemetryBatch(TelemetryBatch theBatch, List<String> theHeader) {
+        if (myChannel == null) {
+            System.err.println("Error: Telemetry log is not open.");
+            return;
+        }
+        TelemetryColumns current = theBatch.getCurrent();
+        try {
+            for (int entry = 0; entry < theBatch.size(); entry++) {
+                if (room(current.getId(entry))) {
+                    myBlock.copy(myCount++, current, entry);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing telemetry data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Makes room in the block for a report, writing the block out first if
+     * it is full.
+     *
+     * @param theId the report's drone ID.
+     * @return false if the drone ID cannot be logged.
+     * @throws IOException if the block cannot be written.
+     */
+    private boolean room(final int theId) throws IOException {
+        if (theId < 0 || theId > MAX_DRONE_ID) {
+            System.err.println("Error: drone ID out of range for a binary telemetry log: " + theId);
+            return false;
+        }
+        if (myCount == BLOCK_RECORDS) {
+            flushBlock();
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the block being filled and adds it to the buffer.
+     *
+     * @throws IOException if the buffer cannot be written out.
+     */
+    private void flushBlock() throws IOException {
+        if (myCount == 0) {
+            return;
+        }
+        int count = myCount;
+        long time = myBlock.getTimeStamp(0);
+        int at = 0;
+        for (int column : myBodyColumns) {
+            if (column == ID) {
+                int last = 0;
+                for (int i = 0; i < count; i++) {
+                    int id = myBlock.myIds[i];
+                    at = putVarint(myBody, at, zigzag(id - last));
+                    last = id;
+                }
+            } else if (column == TIMESTAMP) {
+                long[] times = myBlock.myTimeStamps;
+                long last = time;
+                for (int i = 0; i < count; i++) {
+                    at = putVarlong(myBody, at, zigzag(times[i] - last));
+                    last = times[i];
+                }
+            } else {
+                float[] values = column(myBlock, column);
+                int[] previous = previous(column, count);
+                for (int i = 0; i < count; i++) {
+                    int id = myBlock.myIds[i];
+                    int bits = Float.floatToRawIntBits(values[i]);
+                    at = putVarint(myBody, at, zigzag(bits - previous[id]));
+                    previous[id] = bits;
+                }
+            }
+        }
+        myCount = 0;
+
+        if (myBuffer.remaining() < BLOCK_HEADER + at) {
+            drain();
+        }
+        myBuffer.putInt(at);
+        myBuffer.putInt(count);
+        myBuffer.putLong(time);
+        for (int written = 0; written < at; ) {
+            if (!myBuffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(at - written, myBuffer.remaining());
+            myBuffer.put(myBody, written, n);
+            written += n;
+        }
+    }
+
+    /**
+     * Returns a column's previous values, grown to hold every drone of the block.
+     *
+     * @param theColumn index into {@link TelemetrySource#COLUMNS}.
+     * @param theCount number of reports in the block.
+     * @return the previous values by drone ID.
+     */
+    private int[] previous(final int theColumn, final int theCount) {
+        int maxId = 0;
+        for (int i = 0; i < theCount; i++) {
+            maxId = Math.max(maxId, myBlock.myIds[i]);
+        }
+        int[] previous = myPrevious[theColumn];
+        if (maxId >= previous.length) {
+            previous = Arrays.copyOf(previous, Math.min(MAX_DRONE_ID + 1, Math.max(maxId + 1, previous.length * 2)));
+            myPrevious[theColumn] = previous;
+        }
+        return previous;
+    }
+
+    /**
+     * Writes the buffer to the log.
+     *
+     * @throws IOException if the log cannot be written.
+     */
+    private void drain() throws IOException {
+        myBuffer.flip();
+        while (myBuffer.hasRemaining()) {
+            myChannel.write(myBuffer);
+        }
+        myBuffer.clear();
+    }
+
+    /**
+     * Returns the array holding a decimal column.
+     *
+     * @param theColumns the columns.
+     * @param theColumn index into {@link TelemetrySource#COLUMNS}, other than the ID and timestamp.
+     * @return the column's values by slot.
+     */
+    static float[] column(final TelemetryColumns theColumns, final int theColumn) {
+        return switch (theColumn) {
+            case 1 -> theColumns.myLongitudes;
+            case 2 -> theColumns.myLatitudes;
+            case 3 -> theColumns.myAltitudes;
+            case 4 -> theColumns.myVelocities;
+            case 5 -> theColumns.myBatteries;
+            case 6 -> theColumns.myHeadings;
+            default -> throw new IllegalArgumentException("Not a decimal column: " + theColumn);
+        };
+    }
+
+    /** Maps signed values to unsigned ones, small magnitudes to small values. */
+    private static int zigzag(final int theValue) {
+        return (theValue << 1) ^ (theValue >> 31);
+    }
+
+    /** Maps signed values to unsigned ones, small magnitudes to small values. */
+    private static long zigzag(final long theValue) {
+        return (theValue << 1) ^ (theValue >> 63);
+    }
+
+    /** Writes an unsigned value seven bits per byte, low bits first. */
+    private static int putVarint(final byte[] theOut, final int theAt, final int theValue) {
+        int at = theAt;
+        int value = theValue;
+        while ((value & ~0x7F) != 0) {
+            theOut[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        theOut[at++] = (byte) value;
+        return at;
+    }
+
+    /** Writes an unsigned value seven bits per byte, low bits first. */
+    private static int putVarlong(final byte[] theOut, final int theAt, final long theValue) {
+        int at = theAt;
+        long value = theValue;
+        while ((value & ~0x7FL) != 0) {
+            theOut[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        theOut[at++] = (byte) value;
+        return at;
+    }
+}
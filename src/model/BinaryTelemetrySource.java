@@ -0,0 +1,329 @@
+package model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TelemetrySource} that reads the binary logs written by
+ * {@link BinaryTelemetryExporter}.
+ * <p>
+ * The source reads and decodes a whole block at a time into columns, so a
+ * report costs a few byte operations per column rather than parsing text.
+ * {@link #nextBlock()} hands the decoded block out directly for readers
+ * that work a block at a time.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class BinaryTelemetrySource implements TelemetrySource {
+
+    /** The log. */
+    private final FileChannel myChannel;
+
+    /** Indexes into {@link #COLUMNS} of the logged columns, in schema order. */
+    private final int[] mySchema;
+
+    /** The same indexes in ascending order, which is the order of a block's body. */
+    private final int[] myBodyColumns;
+
+    /** Position of the first block. */
+    private final long myFirstBlock;
+
+    /** Header of the block being read. */
+    private final ByteBuffer myHeader = ByteBuffer.allocate(BinaryTelemetryExporter.BLOCK_HEADER)
+            .order(BinaryTelemetryExporter.ORDER);
+
+    /** Body of the block being read. */
+    private byte[] myBody = new byte[1 << 16];
+
+    /** Position in {@link #myBody} of the next byte to decode. */
+    private int myAt;
+
+    /** Reports of the block being read. */
+    private final TelemetryColumns myBlock = new TelemetryColumns(BinaryTelemetryExporter.BLOCK_RECORDS);
+
+    /** Number of reports in the block being read. */
+    private int myCount;
+
+    /** Index of the next report of the block to hand out. */
+    private int myIndex;
+
+    /** Whether each of {@link #COLUMNS} is in the log. */
+    private final boolean[] myLogged = new boolean[COLUMNS.size()];
+
+    /** Bits of each drone's previous value, by column and drone ID. */
+    private final int[][] myPrevious = new int[COLUMNS.size()][];
+
+    /**
+     * Returns whether a file starts like a binary telemetry log.
+     *
+     * @param thePath the file.
+     * @return true if the file starts with the binary log's magic number.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isBinary(final Path thePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(thePath, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(BinaryTelemetryExporter.ORDER);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until four bytes arrive or the file ends.
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == BinaryTelemetryExporter.MAGIC;
+        }
+    }
+
+    /**
+     * Opens a binary log.
+     *
+     * @param thePath the log file.
+     * @throws IOException if the log cannot be read or is not a binary telemetry log of this version.
+     */
+    public BinaryTelemetrySource(final Path thePath) throws IOException {
+        myChannel = FileChannel.open(thePath, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES).order(BinaryTelemetryExporter.ORDER);
+            readFully(header);
+            header.flip();
+            if (header.getInt() != BinaryTelemetryExporter.MAGIC) {
+                throw new IOException("Not a binary telemetry log");
+            }
+            int version = header.getInt();
+            if (version != BinaryTelemetryExporter.VERSION) {
+                throw new IOException("Unsupported telemetry log version " + version);
+            }
+            int columns = header.getInt();
+            if (columns < 0 || columns > COLUMNS.size()) {
+                throw new IOException("Corrupt telemetry log header");
+            }
+            List<String> names = new ArrayList<>();
+            ByteBuffer length = ByteBuffer.allocate(1);
+            for (int i = 0; i < columns; i++) {
+                length.clear();
+                readFully(length);
+                ByteBuffer name = ByteBuffer.allocate(length.get(0) & 0xFF);
+                readFully(name);
+                names.add(new String(name.array(), StandardCharsets.US_ASCII));
+            }
+            mySchema = BinaryTelemetryExporter.schema(names);
+            for (int column : mySchema) {
+                myLogged[column] = true;
+            }
+            myBodyColumns = mySchema.clone();
+            Arrays.sort(myBodyColumns);
+            myFirstBlock = myChannel.position();
+        } catch (IOException | IllegalArgumentException e) {
+            myChannel.close();
+            throw e instanceof IOException io ? io : new IOException("Corrupt telemetry log header", e);
+        }
+        reset();
+    }
+
+    @Override
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<>();
+        for (int column : mySchema) {
+            columns.add(COLUMNS.get(column));
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean next(final TelemetryColumns theInto, final int theSlot) throws IOException {
+        if (myIndex == myCount) {
+            if (nextBlock() == 0) {
+                return false;
+            }
+            myIndex = 0;
+        }
+        theInto.copy(theSlot, myBlock, myIndex++);
+        return true;
+    }
+
+    /**
+     * Decodes the next block of reports and hands all of it out at once.
+     * The reports are not returned by {@link #next(TelemetryColumns, int)}.
+     *
+     * @return the number of reports, which are in the first slots of
+     *         {@link #getBlock()}, or 0 if the log has ended.
+     * @throws IOException if the log cannot be read or is corrupt.
+     */
+    public int nextBlock() throws IOException {
+        myHeader.clear();
+        int read = myChannel.read(myHeader);
+        if (read <= 0 && myHeader.position() == 0) {
+            myCount = 0;
+            myIndex = 0;
+            return 0;
+        }
+        readFully(myHeader);
+        int length = myHeader.getInt(0);
+        int count = myHeader.getInt(Integer.BYTES);
+        long time = myHeader.getLong(2 * Integer.BYTES);
+        if (length < 0 || count <= 0 || count > BinaryTelemetryExporter.BLOCK_RECORDS) {
+            throw new IOException("Corrupt telemetry log block");
+        }
+        if (myBody.length < length) {
+            myBody = new byte[length];
+        }
+        readFully(ByteBuffer.wrap(myBody, 0, length));
+        try {
+            decode(count, time);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt telemetry log block", e);
+        }
+        if (myAt != length) {
+            throw new IOException("Corrupt telemetry log block");
+        }
+        myCount = count;
+        myIndex = count;
+        return count;
+    }
+
+    /**
+     * Returns the reports decoded by the last call to {@link #nextBlock()}.
+     *
+     * @return the block's reports, by position in the block.
+     */
+    public TelemetryColumns getBlock() {
+        return myBlock;
+    }
+
+    /**
+     * Decodes the body of a block into {@link #myBlock}.
+     *
+     * @param theCount number of reports in the block.
+     * @param theTime the block's timestamp.
+     */
+    private void decode(final int theCount, final long theTime) {
+        myAt = 0;
+        int[] ids = myBlock.myIds;
+        for (int column : myBodyColumns) {
+            if (column == BinaryTelemetryExporter.ID) {
+                int last = 0;
+                for (int i = 0; i < theCount; i++) {
+                    last += unzigzag(getVarint());
+                    if (last < 0 || last > BinaryTelemetryExporter.MAX_DRONE_ID) {
+                        throw new ArrayIndexOutOfBoundsException("Drone ID out of range: " + last);
+                    }
+                    ids[i] = last;
+                }
+            } else if (column == BinaryTelemetryExporter.TIMESTAMP) {
+                long[] times = myBlock.myTimeStamps;
+                long last = theTime;
+                for (int i = 0; i < theCount; i++) {
+                    long value = getVarlong();
+                    last += (value >>> 1) ^ -(value & 1);
+                    times[i] = last;
+                }
+            } else {
+                float[] values = BinaryTelemetryExporter.column(myBlock, column);
+                int[] previous = previous(column, ids, theCount);
+                for (int i = 0; i < theCount; i++) {
+                    int id = ids[i];
+                    int bits = previous[id] + unzigzag(getVarint());
+                    previous[id] = bits;
+                    values[i] = Float.intBitsToFloat(bits);
+                }
+            }
+        }
+        for (int column = 1; column < BinaryTelemetryExporter.TIMESTAMP; column++) {
+            if (!myLogged[column]) {
+                float missing = column == 3 ? MISSING_ALTITUDE : column == 5 ? MISSING_BATTERY : 0;
+                Arrays.fill(BinaryTelemetryExporter.column(myBlock, column), 0, theCount, missing);
+            }
+        }
+        Arrays.fill(myBlock.myPresent, 0, theCount, true);
+    }
+
+    /**
+     * Returns a column's previous values, grown to hold every drone of the block.
+     */
+    private int[] previous(final int theColumn, final int[] theIds, final int theCount) {
+        int maxId = 0;
+        for (int i = 0; i < theCount; i++) {
+            maxId = Math.max(maxId, theIds[i]);
+        }
+        int[] previous = myPrevious[theColumn];
+        if (maxId >= previous.length) {
+            previous = Arrays.copyOf(previous, Math.max(maxId + 1, previous.length * 2));
+            myPrevious[theColumn] = previous;
+        }
+        return previous;
+    }
+
+    /** Reads an unsigned value written seven bits per byte. */
+    private int getVarint() {
+        byte[] body = myBody;
+        int at = myAt;
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = body[at++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        myAt = at;
+        return value;
+    }
+
+    /** Reads an unsigned value written seven bits per byte. */
+    private long getVarlong() {
+        byte[] body = myBody;
+        int at = myAt;
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = body[at++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        myAt = at;
+        return value;
+    }
+
+    /** Undoes the zigzag mapping of the exporter. */
+    private static int unzigzag(final int theValue) {
+        return (theValue >>> 1) ^ -(theValue & 1);
+    }
+
+    /**
+     * Fills a buffer from the log.
+     *
+     * @throws EOFException if the log ends first.
+     */
+    private void readFully(final ByteBuffer theBuffer) throws IOException {
+        while (theBuffer.hasRemaining()) {
+            if (myChannel.read(theBuffer) < 0) {
+                throw new EOFException("Truncated telemetry log");
+            }
+        }
+    }
+
+    /** Forgets the block being read and every drone's previous values. */
+    private void reset() {
+        myCount = 0;
+        myIndex = 0;
+        for (int column = 0; column < myPrevious.length; column++) {
+            myPrevious[column] = new int[64];
+        }
+    }
+
+    @Override
+    public void rewind() throws IOException {
+        myChannel.position(myFirstBlock);
+        reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        myChannel.close();
+    }
+}
@@ -0,0 +1,117 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes {@link FleetCheckpoint}s on a background thread so the simulation
+ * does not wait for the disk.
+ * <p>
+ * {@link #save} captures the fleet on the calling thread, which only copies
+ * its arrays, and hands the copy to the writer thread. If checkpoints are
+ * saved faster than they can be written, a checkpoint still waiting to be
+ * written is replaced by the newer one, so at most two copies of the fleet
+ * are held at a time. Each file is written next to its destination and then
+ * moved over it, so the destination always holds a complete checkpoint.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class CheckpointWriter implements AutoCloseable {
+
+    /** Seconds {@link #close()} waits for the last checkpoint to be written. */
+    private static final long CLOSE_TIMEOUT = 60;
+
+    /** A captured checkpoint and the file it goes to. */
+    private record Pending(FleetCheckpoint checkpoint, Path path) {
+    }
+
+    /** Thread that writes the checkpoints. */
+    private final ExecutorService myExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The checkpoint waiting to be written, or null. */
+    private final AtomicReference<Pending> myQueued = new AtomicReference<>();
+
+    /** Number of checkpoints written. */
+    private final AtomicInteger myWritten = new AtomicInteger();
+
+    /**
+     * Captures an engine's simulation and writes it in the background. Must
+     * be called between ticks, on the thread that ticks the engine.
+     *
+     * @param theEngine the simulation.
+     * @param thePath the checkpoint file.
+     */
+    public void save(final SimulationEngine theEngine, final Path thePath) {
+        save(theEngine.getGenerator(), thePath);
+    }
+
+    /**
+     * Captures a generator's fleet and writes it in the background. Must be
+     * called between ticks, on the thread that ticks the generator.
+     *
+     * @param theGenerator the generator.
+     * @param thePath the checkpoint file.
+     */
+    public void save(final TelemetryGenerator theGenerator, final Path thePath) {
+        Pending pending = new Pending(FleetCheckpoint.capture(theGenerator), thePath);
+        // A checkpoint already queued is replaced and written by the task queued with it.
+        if (myQueued.getAndSet(pending) == null) {
+            myExecutor.execute(this::writeQueued);
+        }
+    }
+
+    /**
+     * Returns the number of checkpoints written so far.
+     *
+     * @return the count of complete checkpoint files written.
+     */
+    public int getWritten() {
+        return myWritten.get();
+    }
+
+    /**
+     * Writes the queued checkpoint, if it has not been taken by an earlier task.
+     */
+    private void writeQueued() {
+        Pending pending = myQueued.getAndSet(null);
+        if (pending == null) {
+            return;
+        }
+        Path temporary = pending.path().resolveSibling(pending.path().getFileName() + ".tmp");
+        try {
+            pending.checkpoint().write(temporary);
+            Files.move(temporary, pending.path(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            myWritten.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("Error writing checkpoint " + pending.path() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the checkpoint being written, and any still queued, to be
+     * written, then stops the writer thread.
+     */
+    @Override
+    public void close() {
+        myExecutor.shutdown();
+        try {
+            if (!myExecutor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+                System.err.println("Checkpoint writer did not finish within " + CLOSE_TIMEOUT + " seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
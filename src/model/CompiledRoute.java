@@ -0,0 +1,154 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable, packed form of a drone's circular route.
+ * <p>
+ * Everything a move needs about a waypoint is stored together in one
+ * primitive array, {@link #STRIDE} floats per point: the point's coordinates,
+ * then the geometry of the segment that ends at it (its unit direction, its
+ * length and its heading). Segment {@code i} runs from point {@code i - 1}
+ * (wrapping to the last point for {@code i == 0}) to point {@code i}. With
+ * the geometry worked out once, a drone that is on a segment only needs the
+ * distance it has left to the waypoint to know where it is and which way it
+ * faces, so a normal move is a subtraction and a multiply-add per axis
+ * instead of a fresh difference, square root and arctangent every tick.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class CompiledRoute {
+
+    /** Offset of a point's coordinates (longitude, latitude, altitude) within its stride. */
+    static final int POINT = 0;
+
+    /** Offset of the segment's unit direction (longitude, latitude, altitude) within a stride. */
+    static final int DIRECTION = 3;
+
+    /** Offset of the segment's length within a stride. */
+    static final int LENGTH = 6;
+
+    /**
+     * Offset of the segment's heading (0–359 degrees) within a stride, NaN if
+     * the segment has no horizontal extent and so leaves the heading as is.
+     */
+    static final int HEADING = 7;
+
+    /** Floats stored per point. */
+    static final int STRIDE = 8;
+
+    /** The original waypoints, kept so callers see the same RoutePoint objects. */
+    private final RoutePoint[] myWaypoints;
+
+    /** Points and the segments ending at them, {@link #STRIDE} floats per point. */
+    final float[] myData;
+
+    /**
+     * Compiles a route.
+     *
+     * @param theRoute the waypoints, in order; the route wraps from the last back to the first.
+     * @throws IllegalArgumentException if the route is null or empty.
+     */
+    public CompiledRoute(final List<RoutePoint> theRoute) {
+        this(theRoute, null);
+    }
+
+    /**
+     * Compiles a route whose segment headings are already known, such as one
+     * read from a {@link FleetCheckpoint}. Working out the headings is most of
+     * the cost of compiling a route.
+     *
+     * @param theRoute the waypoints, in order; the route wraps from the last back to the first.
+     * @param theHeadings the heading of each segment, as {@link #getHeading(int)}
+     *                    returns it, or null to work them out.
+     * @throws IllegalArgumentException if the route is null or empty, or the
+     *         headings do not match its length.
+     */
+    CompiledRoute(final List<RoutePoint> theRoute, final float[] theHeadings) {
+        if (theRoute == null || theRoute.isEmpty()) {
+            throw new IllegalArgumentException("Route cannot be null or empty");
+        }
+        myWaypoints = theRoute.toArray(new RoutePoint[0]);
+        int count = myWaypoints.length;
+        if (theHeadings != null && theHeadings.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " headings");
+        }
+        myData = new float[count * STRIDE];
+
+        for (int i = 0; i < count; i++) {
+            int at = i * STRIDE + POINT;
+            myData[at] = myWaypoints[i].getLongitude();
+            myData[at + 1] = myWaypoints[i].getLatitude();
+            myData[at + 2] = myWaypoints[i].getAltitude();
+        }
+        for (int i = 0; i < count; i++) {
+            int at = i * STRIDE;
+            int from = (i == 0 ? count - 1 : i - 1) * STRIDE;
+            float dx = myData[at + POINT] - myData[from + POINT];
+            float dy = myData[at + POINT + 1] - myData[from + POINT + 1];
+            float dz = myData[at + POINT + 2] - myData[from + POINT + 2];
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            myData[at + LENGTH] = length;
+            // A zero-length segment has no direction; drones snap across it.
+            if (length >= NavigationSystem.ARRIVAL_EPSILON) {
+                myData[at + DIRECTION] = dx / length;
+                myData[at + DIRECTION + 1] = dy / length;
+                myData[at + DIRECTION + 2] = dz / length;
+            }
+            myData[at + HEADING] = theHeadings != null ? theHeadings[i]
+                    : Orientation.heading(0, 0, myData[at + DIRECTION], myData[at + DIRECTION + 1], Float.NaN);
+        }
+    }
+
+    /**
+     * Returns the number of waypoints.
+     *
+     * @return the waypoint count.
+     */
+    public int size() {
+        return myWaypoints.length;
+    }
+
+    /**
+     * Returns a waypoint.
+     *
+     * @param theIndex the waypoint's index.
+     * @return the RoutePoint at that index.
+     */
+    public RoutePoint getPoint(final int theIndex) {
+        return myWaypoints[theIndex];
+    }
+
+    /**
+     * Returns the length of the segment that ends at a waypoint.
+     *
+     * @param theIndex the index of the waypoint the segment leads to.
+     * @return the segment's length.
+     */
+    public float getSegmentLength(final int theIndex) {
+        return myData[theIndex * STRIDE + LENGTH];
+    }
+
+    /**
+     * Returns the heading of the segment that ends at a waypoint.
+     *
+     * @param theIndex the index of the waypoint the segment leads to.
+     * @return the heading in degrees (0–359), or NaN if the segment is vertical or has no length.
+     */
+    public float getHeading(final int theIndex) {
+        return myData[theIndex * STRIDE + HEADING];
+    }
+
+    /**
+     * Returns one component of the unit direction of the segment that ends at
+     * a waypoint, or 0 if the segment has no length.
+     *
+     * @param theIndex the index of the waypoint the segment leads to.
+     * @param theAxis {@link NavigationSystem#LONGITUDE}, {@link NavigationSystem#LATITUDE}
+     *                or {@link NavigationSystem#ALTITUDE}.
+     * @return the direction component.
+     */
+    public float getDirection(final int theIndex, final int theAxis) {
+        return myData[theIndex * STRIDE + DIRECTION + theAxis];
+    }
+}
@@ -0,0 +1,787 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Predicts which pairs of drones will come closer than a separation minimum
+ * within a look-ahead horizon, so they can be warned about before they
+ * collide.
+ * <p>
+ * Each drone is taken to fly straight towards its next waypoint at its
+ * current speed. The prediction stops at the waypoint, where the route turns;
+ * the new leg is picked up by the first update after the drone gets there.
+ * For a pair of drones the two straight lines give the moment they come
+ * closest, and the pair is a conflict if they are closer than the separation
+ * minimum at that moment. Drones that are already too close have a time to
+ * closest approach of zero.
+ * <p>
+ * Candidate pairs come from a grid over space and time. Time is cut into
+ * slices of {@link #SLICE_LENGTH} seconds, and the part of a leg flown during
+ * each slice of the horizon, widened by half the separation on each side, is
+ * enclosed in an axis-aligned box that is entered in every cell it covers in
+ * that slice's layer of the grid. Only drones that share a cell in the same
+ * slice are compared, so legs that cross at different times are never
+ * compared, and the boxes stay small however far ahead the detector looks.
+ * Each drone is compared with the drones that share its cells, and a pair
+ * that shares several cells is still compared only once.
+ * <p>
+ * Slices are fixed in simulated time rather than counted from each update, so
+ * a drone flying at a steady speed keeps the same boxes from one update to the
+ * next. The grid is updated incrementally: a box only moves between cells when
+ * the range of cells it covers changes, which for most drones means only the
+ * slice under way and the slice that has just come within the horizon.
+ * <p>
+ * Conflicts are listed by time to closest approach. Pairs that were not in
+ * conflict at the previous update are marked new, so a caller can warn about
+ * each conflict once rather than on every tick that it lasts.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class ConflictDetector {
+
+    /** Default separation minimum, in distance units. */
+    public static final float DEFAULT_SEPARATION = 5;
+
+    /** Default look-ahead horizon, in seconds. */
+    public static final float DEFAULT_HORIZON = 10;
+
+    /** Length of one time slice of the grid, in seconds. */
+    public static final float SLICE_LENGTH = 2;
+
+    /** Marker for a handle that is not entered in the grid. */
+    private static final int UNREGISTERED = Integer.MIN_VALUE;
+
+    /** Initial number of entries a cell can hold. */
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    /** Number of bits used to pack each cell coordinate into a key. */
+    private static final int AXIS_BITS = 18;
+
+    /** Longest horizon, in seconds; its slices must fit the ten key bits the cell coordinates leave. */
+    private static final float MAX_HORIZON = 1000;
+
+    /** Mask applied to each cell coordinate before packing. */
+    private static final long AXIS_MASK = (1L << AXIS_BITS) - 1;
+
+    /** Square of the separation minimum. */
+    private final float mySeparationSq;
+
+    /** Half the separation minimum, added to every side of a box. */
+    private final float myMargin;
+
+    /** Look-ahead horizon in seconds. */
+    private final float myHorizon;
+
+    /**
+     * Longest distance a leg is projected. Drones flying faster than the top
+     * speed of a normal flight are projected over a shorter time, so one
+     * runaway drone does not cover the whole grid.
+     */
+    private final float myMaxTravel;
+
+    /** Inverse of the cell edge length, so cell lookups are a multiply. */
+    private final float myInverseCellSize;
+
+    /**
+     * Number of slices the horizon can reach into. Slices are stored in a
+     * ring of this size, so slice {@code j} lives at {@code j mod mySlices}.
+     */
+    private final int mySlices;
+
+    /** Simulated seconds since the first update. */
+    private double myTime;
+
+    /** Drone ID each handle belongs to. */
+    private int[] myHandleIds = new int[0];
+
+    /** Position of each handle's drone at the last update, per axis. */
+    private float[] myX = new float[0];
+    private float[] myY = new float[0];
+    private float[] myZ = new float[0];
+
+    /** Projected velocity of each handle's drone, per axis. */
+    private float[] myVelocityX = new float[0];
+    private float[] myVelocityY = new float[0];
+    private float[] myVelocityZ = new float[0];
+
+    /** How many seconds ahead each handle's leg is projected. */
+    private float[] myDurations = new float[0];
+
+    /**
+     * Range of cells each handle is entered in for each slice, at
+     * {@code handle * mySlices + slice}, or {@link #UNREGISTERED} in myLowX
+     * if its leg does not reach into the slice.
+     */
+    private int[] myLowX = new int[0];
+    private int[] myLowY = new int[0];
+    private int[] myLowZ = new int[0];
+    private int[] myHighX = new int[0];
+    private int[] myHighY = new int[0];
+    private int[] myHighZ = new int[0];
+
+    /** Last stamp each handle was marked with while looking for conflicts. */
+    private long[] myStamps = new long[0];
+
+    /** Stamp of the drone whose partners are being tested. */
+    private long myStamp;
+
+    /** Fleet slot each handle's drone had at the last update. */
+    private int[] myHandleSlots = new int[0];
+
+    /** Handles given out so far; released handles are reused first. */
+    private int myHandleCount;
+
+    /** Released handles waiting to be reused. */
+    private int[] myFreeHandles = new int[0];
+
+    /** Number of released handles. */
+    private int myFreeCount;
+
+    /** Handle of each fleet slot at the last update. */
+    private int[] mySlotHandles = new int[0];
+
+    /** Buffer the next update's slot handles are built in. */
+    private int[] myNextSlotHandles = new int[0];
+
+    /** Number of fleet slots at the last update. */
+    private int mySlotCount;
+
+    /** Packed cell key stored in each table bucket. */
+    private long[] myCellKeys = new long[0];
+
+    /** Handles entered in each table bucket, or null for an unused bucket. */
+    private int[][] myCellMembers = new int[0][];
+
+    /** Number of handles entered in each table bucket. */
+    private int[] myCellSizes = new int[0];
+
+    /** Number of table buckets in use, including cells that have emptied. */
+    private int myUsedBuckets;
+
+    /** Bit mask used to wrap hashes into the table. */
+    private int myMask = -1;
+
+    /** Lower and higher slot of each conflict, in discovery order. */
+    private int[] myFirsts = new int[0];
+    private int[] mySeconds = new int[0];
+
+    /** Time to closest approach and miss distance of each conflict, in discovery order. */
+    private float[] myTimes = new float[0];
+    private float[] myDistances = new float[0];
+
+    /** Discovery index of each conflict, sorted by time. */
+    private long[] myOrder = new long[0];
+
+    /** Slot pair of each conflict, sorted; only used while sorting. */
+    private long[] mySlotPairs = new long[0];
+
+    /** Discovery index of each conflict by the rank of its slot pair; only used while sorting. */
+    private int[] myByRank = new int[0];
+
+    /** Number of conflicts found by the last update. */
+    private int myConflictCount;
+
+    /** Drone ID pair of each conflict of the last update, in time order. */
+    private long[] myPairs = new long[0];
+
+    /** Number of entries in {@link #myPairs}. */
+    private int myPairCount;
+
+    /** Drone ID pairs in conflict at the update before, sorted. */
+    private long[] myPreviousPairs = new long[0];
+
+    /** Number of entries in {@link #myPreviousPairs}. */
+    private int myPreviousPairCount;
+
+    /**
+     * Creates a detector with the {@link #DEFAULT_SEPARATION default separation}
+     * and {@link #DEFAULT_HORIZON default horizon}.
+     */
+    public ConflictDetector() {
+        this(DEFAULT_SEPARATION, DEFAULT_HORIZON);
+    }
+
+    /**
+     * Creates a detector.
+     *
+     * @param theSeparation the distance two drones must keep; must be positive.
+     * @param theHorizon how many seconds ahead to look; must be positive and
+     *                   at most {@value #MAX_HORIZON} seconds.
+     * @throws IllegalArgumentException if the separation or horizon is out of range.
+     */
+    public ConflictDetector(final float theSeparation, final float theHorizon) {
+        if (!(theSeparation > 0)) {
+            throw new IllegalArgumentException("Separation must be positive");
+        }
+        if (!(theHorizon > 0) || theHorizon > MAX_HORIZON) {
+            throw new IllegalArgumentException("Horizon must be positive and at most " + MAX_HORIZON + " seconds");
+        }
+        mySeparationSq = theSeparation * theSeparation;
+        myMargin = theSeparation / 2;
+        myHorizon = theHorizon;
+        myMaxTravel = theHorizon * NavigationSystem.MAX_VELOCITY;
+        // A window of the horizon's length overlaps at most this many slices.
+        mySlices = (int) Math.ceil(theHorizon / SLICE_LENGTH) + 1;
+        // A drone at top speed covers at most two cells per axis in one slice.
+        myInverseCellSize = 1.0f / (NavigationSystem.MAX_VELOCITY * SLICE_LENGTH + theSeparation);
+        clearTable(16);
+    }
+
+    /**
+     * Advances the detector's clock, brings the predictions up to date with
+     * the fleet and finds every pair of live drones that will lose separation
+     * within the horizon.
+     * <p>
+     * Drones keep their place in the grid between updates as long as they keep
+     * their place in the fleet's slot order, which removing drones and adding
+     * drones at the end both do.
+     *
+     * @param theFleet the fleet to check.
+     * @param theDeltaTime simulated seconds since the last update; the step
+     *                     the fleet was just advanced by.
+     * @return the number of conflicts found.
+     * @throws IllegalArgumentException if the time step is negative.
+     */
+    public int update(final FleetState theFleet, final float theDeltaTime) {
+        if (!(theDeltaTime >= 0)) {
+            throw new IllegalArgumentException("Time step must not be negative");
+        }
+        myTime += theDeltaTime;
+        long firstSlice = (long) Math.floor(myTime / SLICE_LENGTH);
+        int count = theFleet.size();
+        matchSlots(theFleet, count);
+        for (int slot = 0; slot < count; slot++) {
+            int handle = mySlotHandles[slot];
+            myHandleSlots[handle] = slot;
+            if (theFleet.myAlive[slot]) {
+                project(handle, theFleet, slot, firstSlice);
+            } else {
+                unregister(handle);
+            }
+        }
+        findConflicts();
+        sortConflicts();
+        markNew(theFleet);
+        return myConflictCount;
+    }
+
+    /**
+     * Returns the number of conflicts found by the last update.
+     *
+     * @return the conflict count.
+     */
+    public int getConflictCount() {
+        return myConflictCount;
+    }
+
+    /**
+     * Returns the lower fleet slot of a conflict.
+     *
+     * @param theConflict the conflict, from 0 (soonest) to {@link #getConflictCount()} - 1.
+     * @return the slot of one drone in the pair.
+     * @throws IndexOutOfBoundsException if there is no such conflict.
+     */
+    public int getFirst(final int theConflict) {
+        return myFirsts[conflict(theConflict)];
+    }
+
+    /**
+     * Returns the higher fleet slot of a conflict.
+     *
+     * @param theConflict the conflict, from 0 (soonest) to {@link #getConflictCount()} - 1.
+     * @return the slot of the other drone in the pair.
+     * @throws IndexOutOfBoundsException if there is no such conflict.
+     */
+    public int getSecond(final int theConflict) {
+        return mySeconds[conflict(theConflict)];
+    }
+
+    /**
+     * Returns how many seconds after the last update the two drones of a
+     * conflict come closest.
+     *
+     * @param theConflict the conflict, from 0 (soonest) to {@link #getConflictCount()} - 1.
+     * @return the time to closest approach; 0 if they are already too close.
+     * @throws IndexOutOfBoundsException if there is no such conflict.
+     */
+    public float getTimeToClosestApproach(final int theConflict) {
+        return myTimes[conflict(theConflict)];
+    }
+
+    /**
+     * Returns how close the two drones of a conflict come.
+     *
+     * @param theConflict the conflict, from 0 (soonest) to {@link #getConflictCount()} - 1.
+     * @return the distance between them at closest approach.
+     * @throws IndexOutOfBoundsException if there is no such conflict.
+     */
+    public float getMissDistance(final int theConflict) {
+        return myDistances[conflict(theConflict)];
+    }
+
+    /**
+     * Returns whether the two drones of a conflict were not in conflict at the
+     * update before the last one.
+     *
+     * @param theConflict the conflict, from 0 (soonest) to {@link #getConflictCount()} - 1.
+     * @return true if the conflict is new.
+     * @throws IndexOutOfBoundsException if there is no such conflict.
+     */
+    public boolean isNew(final int theConflict) {
+        conflict(theConflict);
+        return Arrays.binarySearch(myPreviousPairs, 0, myPreviousPairCount, myPairs[theConflict]) < 0;
+    }
+
+    /**
+     * Returns when two objects moving at constant velocity come closest,
+     * within a time window starting now.
+     *
+     * @param theDx offset of the second object from the first, x axis.
+     * @param theDy offset of the second object from the first, y axis.
+     * @param theDz offset of the second object from the first, z axis.
+     * @param theVx velocity of the second object relative to the first, x axis.
+     * @param theVy velocity of the second object relative to the first, y axis.
+     * @param theVz velocity of the second object relative to the first, z axis.
+     * @param theWindow length of the time window.
+     * @return the time of closest approach, between 0 and the window.
+     */
+    public static float timeToClosestApproach(final float theDx, final float theDy, final float theDz,
+                                              final float theVx, final float theVy, final float theVz,
+                                              final float theWindow) {
+        double speedSq = (double) theVx * theVx + (double) theVy * theVy + (double) theVz * theVz;
+        if (speedSq == 0) {
+            return 0;
+        }
+        double t = -((double) theDx * theVx + (double) theDy * theVy + (double) theDz * theVz) / speedSq;
+        return (float) Math.max(0, Math.min(theWindow, t));
+    }
+
+    /**
+     * Pairs the fleet's slots with the handles of the last update. The fleet
+     * keeps its drones in order, so a single walk over both lists finds every
+     * drone that is still there; handles of drones that left are released
+     * and drones that joined get new ones.
+     */
+    private void matchSlots(final FleetState theFleet, final int theCount) {
+        if (myNextSlotHandles.length < theCount) {
+            myNextSlotHandles = new int[Math.max(theCount, myNextSlotHandles.length * 2)];
+        }
+        int old = 0;
+        for (int slot = 0; slot < theCount; slot++) {
+            int id = theFleet.myIds[slot];
+            while (old < mySlotCount && myHandleIds[mySlotHandles[old]] != id) {
+                release(mySlotHandles[old++]);
+            }
+            myNextSlotHandles[slot] = old < mySlotCount ? mySlotHandles[old++] : acquire(id);
+        }
+        while (old < mySlotCount) {
+            release(mySlotHandles[old++]);
+        }
+        int[] swap = mySlotHandles;
+        mySlotHandles = myNextSlotHandles;
+        myNextSlotHandles = swap;
+        mySlotCount = theCount;
+    }
+
+    /**
+     * Projects a live drone's current leg and moves its boxes to the cells
+     * they now cover, where those changed.
+     */
+    private void project(final int theHandle, final FleetState theFleet, final int theSlot, final long theFirstSlice) {
+        float x = theFleet.myLongitudes[theSlot];
+        float y = theFleet.myLatitudes[theSlot];
+        float z = theFleet.myAltitudes[theSlot];
+        RoutePoint next = theFleet.nextPoint(theSlot);
+        float dx = next.getLongitude() - x;
+        float dy = next.getLatitude() - y;
+        float dz = next.getAltitude() - z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        float speed = theFleet.myVelocities[theSlot];
+
+        float duration = myHorizon;
+        float scale = 0;
+        if (distance > NavigationSystem.ARRIVAL_EPSILON && speed > 0) {
+            duration = Math.min(duration, Math.min(distance, myMaxTravel) / speed);
+            scale = speed / distance;
+        }
+        float vx = dx * scale;
+        float vy = dy * scale;
+        float vz = dz * scale;
+        myX[theHandle] = x;
+        myY[theHandle] = y;
+        myZ[theHandle] = z;
+        myVelocityX[theHandle] = vx;
+        myVelocityY[theHandle] = vy;
+        myVelocityZ[theHandle] = vz;
+        myDurations[theHandle] = duration;
+
+        for (int offset = 0; offset < mySlices; offset++) {
+            long slice = theFirstSlice + offset;
+            int entry = theHandle * mySlices + Math.floorMod(slice, mySlices);
+            // The part of the leg flown during the slice, in seconds from now.
+            float from = (float) Math.max(0, slice * SLICE_LENGTH - myTime);
+            float to = (float) Math.min(duration, (slice + 1) * SLICE_LENGTH - myTime);
+            if (from > to) {
+                leave(entry);
+                continue;
+            }
+            float fromX = x + vx * from;
+            float fromY = y + vy * from;
+            float fromZ = z + vz * from;
+            float toX = x + vx * to;
+            float toY = y + vy * to;
+            float toZ = z + vz * to;
+            int lowX = cellOf(Math.min(fromX, toX) - myMargin);
+            int lowY = cellOf(Math.min(fromY, toY) - myMargin);
+            int lowZ = cellOf(Math.min(fromZ, toZ) - myMargin);
+            int highX = cellOf(Math.max(fromX, toX) + myMargin);
+            int highY = cellOf(Math.max(fromY, toY) + myMargin);
+            int highZ = cellOf(Math.max(fromZ, toZ) + myMargin);
+            if (lowX == myLowX[entry] && lowY == myLowY[entry] && lowZ == myLowZ[entry]
+                    && highX == myHighX[entry] && highY == myHighY[entry] && highZ == myHighZ[entry]) {
+                continue;
+            }
+            leave(entry);
+            myLowX[entry] = lowX;
+            myLowY[entry] = lowY;
+            myLowZ[entry] = lowZ;
+            myHighX[entry] = highX;
+            myHighY[entry] = highY;
+            myHighZ[entry] = highZ;
+            forEachCell(entry, true);
+        }
+    }
+
+    /**
+     * Compares every live drone with the drones it shares a cell with in the
+     * same slice, and records the pairs that lose separation. Each drone only
+     * looks for partners with a higher handle, and stamps every partner it
+     * has tested so a pair that shares several cells is tested once.
+     */
+    private void findConflicts() {
+        myConflictCount = 0;
+        for (int slot = 0; slot < mySlotCount; slot++) {
+            int a = mySlotHandles[slot];
+            long stamp = ++myStamp;
+            for (int slice = 0; slice < mySlices; slice++) {
+                int entry = a * mySlices + slice;
+                if (myLowX[entry] == UNREGISTERED) {
+                    continue;
+                }
+                for (int cellX = myLowX[entry]; cellX <= myHighX[entry]; cellX++) {
+                    for (int cellY = myLowY[entry]; cellY <= myHighY[entry]; cellY++) {
+                        for (int cellZ = myLowZ[entry]; cellZ <= myHighZ[entry]; cellZ++) {
+                            int bucket = findBucket(pack(cellX, cellY, cellZ, slice));
+                            int[] members = myCellMembers[bucket];
+                            for (int m = 0, size = myCellSizes[bucket]; m < size; m++) {
+                                int b = members[m];
+                                if (b > a && myStamps[b] != stamp) {
+                                    myStamps[b] = stamp;
+                                    test(a, b);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a conflict between two handles if they come too close while
+     * both legs are projected.
+     */
+    private void test(final int theA, final int theB) {
+        float dx = myX[theB] - myX[theA];
+        float dy = myY[theB] - myY[theA];
+        float dz = myZ[theB] - myZ[theA];
+        float vx = myVelocityX[theB] - myVelocityX[theA];
+        float vy = myVelocityY[theB] - myVelocityY[theA];
+        float vz = myVelocityZ[theB] - myVelocityZ[theA];
+        float time = timeToClosestApproach(dx, dy, dz, vx, vy, vz,
+                Math.min(myDurations[theA], myDurations[theB]));
+        float cx = dx + vx * time;
+        float cy = dy + vy * time;
+        float cz = dz + vz * time;
+        float distanceSq = cx * cx + cy * cy + cz * cz;
+        if (distanceSq > mySeparationSq) {
+            return;
+        }
+
+        if (myConflictCount == myFirsts.length) {
+            int capacity = Math.max(16, myConflictCount * 2);
+            myFirsts = Arrays.copyOf(myFirsts, capacity);
+            mySeconds = Arrays.copyOf(mySeconds, capacity);
+            myTimes = Arrays.copyOf(myTimes, capacity);
+            myDistances = Arrays.copyOf(myDistances, capacity);
+            myOrder = Arrays.copyOf(myOrder, capacity);
+            mySlotPairs = new long[capacity];
+            myByRank = new int[capacity];
+        }
+        int slotA = myHandleSlots[theA];
+        int slotB = myHandleSlots[theB];
+        myFirsts[myConflictCount] = Math.min(slotA, slotB);
+        mySeconds[myConflictCount] = Math.max(slotA, slotB);
+        myTimes[myConflictCount] = time;
+        myDistances[myConflictCount] = (float) Math.sqrt(distanceSq);
+        myConflictCount++;
+    }
+
+    /**
+     * Orders the conflicts by time to closest approach, then by slots, so the
+     * order does not depend on how the grid's table is laid out. Each conflict
+     * is first ranked by its slot pair, and the rank breaks ties in the time
+     * sort.
+     */
+    private void sortConflicts() {
+        for (int i = 0; i < myConflictCount; i++) {
+            mySlotPairs[i] = ((long) myFirsts[i] << 32) | mySeconds[i];
+        }
+        Arrays.sort(mySlotPairs, 0, myConflictCount);
+        for (int i = 0; i < myConflictCount; i++) {
+            int rank = Arrays.binarySearch(mySlotPairs, 0, myConflictCount, ((long) myFirsts[i] << 32) | mySeconds[i]);
+            myByRank[rank] = i;
+            myOrder[i] = ((long) Float.floatToIntBits(myTimes[i]) << 32) | rank;
+        }
+        Arrays.sort(myOrder, 0, myConflictCount);
+        for (int i = 0; i < myConflictCount; i++) {
+            myOrder[i] = myByRank[(int) myOrder[i]];
+        }
+    }
+
+    /**
+     * Records each conflict's drone ID pair in sorted order, and keeps the
+     * previous update's pairs so {@link #isNew(int)} can look them up.
+     */
+    private void markNew(final FleetState theFleet) {
+        long[] swap = myPreviousPairs;
+        myPreviousPairs = myPairs;
+        myPreviousPairCount = myPairCount;
+        Arrays.sort(myPreviousPairs, 0, myPreviousPairCount);
+        myPairs = swap.length >= myConflictCount ? swap : new long[myFirsts.length];
+        for (int i = 0; i < myConflictCount; i++) {
+            int index = (int) myOrder[i];
+            int first = theFleet.myIds[myFirsts[index]];
+            int second = theFleet.myIds[mySeconds[index]];
+            myPairs[i] = ((long) Math.min(first, second) << 32) | (Math.max(first, second) & 0xFFFFFFFFL);
+        }
+        myPairCount = myConflictCount;
+    }
+
+    /**
+     * Maps a sorted conflict position to its discovery index.
+     */
+    private int conflict(final int theConflict) {
+        if (theConflict < 0 || theConflict >= myConflictCount) {
+            throw new IndexOutOfBoundsException("No conflict " + theConflict);
+        }
+        return (int) myOrder[theConflict];
+    }
+
+    /**
+     * Returns a free handle for a drone, growing the handle arrays if needed.
+     * The handle starts out unregistered.
+     */
+    private int acquire(final int theId) {
+        int handle;
+        if (myFreeCount > 0) {
+            handle = myFreeHandles[--myFreeCount];
+        } else {
+            handle = myHandleCount++;
+            if (handle == myHandleIds.length) {
+                growHandles(Math.max(16, handle * 2));
+            }
+        }
+        myHandleIds[handle] = theId;
+        Arrays.fill(myLowX, handle * mySlices, (handle + 1) * mySlices, UNREGISTERED);
+        return handle;
+    }
+
+    /**
+     * Takes a handle out of the grid and makes it available for reuse.
+     */
+    private void release(final int theHandle) {
+        unregister(theHandle);
+        if (myFreeCount == myFreeHandles.length) {
+            myFreeHandles = Arrays.copyOf(myFreeHandles, Math.max(16, myFreeCount * 2));
+        }
+        myFreeHandles[myFreeCount++] = theHandle;
+    }
+
+    /**
+     * Removes a handle from every cell it is entered in.
+     */
+    private void unregister(final int theHandle) {
+        for (int entry = theHandle * mySlices; entry < (theHandle + 1) * mySlices; entry++) {
+            leave(entry);
+        }
+    }
+
+    /**
+     * Removes a handle from the cells it is entered in for one slice.
+     *
+     * @param theEntry the handle and slice, as {@code handle * mySlices + slice}.
+     */
+    private void leave(final int theEntry) {
+        if (myLowX[theEntry] != UNREGISTERED) {
+            forEachCell(theEntry, false);
+            myLowX[theEntry] = UNREGISTERED;
+        }
+    }
+
+    /**
+     * Enters a handle in, or removes it from, every cell of its range for one slice.
+     *
+     * @param theEntry the handle and slice, as {@code handle * mySlices + slice}.
+     * @param theAdd true to enter the handle, false to remove it.
+     */
+    private void forEachCell(final int theEntry, final boolean theAdd) {
+        int handle = theEntry / mySlices;
+        int slice = theEntry - handle * mySlices;
+        for (int cellX = myLowX[theEntry]; cellX <= myHighX[theEntry]; cellX++) {
+            for (int cellY = myLowY[theEntry]; cellY <= myHighY[theEntry]; cellY++) {
+                for (int cellZ = myLowZ[theEntry]; cellZ <= myHighZ[theEntry]; cellZ++) {
+                    if (theAdd) {
+                        addToCell(handle, cellX, cellY, cellZ, slice);
+                    } else {
+                        removeFromCell(handle, cellX, cellY, cellZ, slice);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Enters a handle in a cell, creating the cell if needed.
+     */
+    private void addToCell(final int theHandle, final int theCellX, final int theCellY, final int theCellZ,
+                           final int theSlice) {
+        long key = pack(theCellX, theCellY, theCellZ, theSlice);
+        int bucket = findBucket(key);
+        if (myCellMembers[bucket] == null) {
+            if ((myUsedBuckets + 1) * 2 > myMask + 1) {
+                rebuildTable();
+                bucket = findBucket(key);
+            }
+            myCellKeys[bucket] = key;
+            myCellMembers[bucket] = new int[INITIAL_CELL_CAPACITY];
+            myUsedBuckets++;
+        }
+        int size = myCellSizes[bucket];
+        if (size == myCellMembers[bucket].length) {
+            myCellMembers[bucket] = Arrays.copyOf(myCellMembers[bucket], size * 2);
+        }
+        myCellMembers[bucket][size] = theHandle;
+        myCellSizes[bucket] = size + 1;
+    }
+
+    /**
+     * Removes a handle from a cell by moving the cell's last entry into its place.
+     */
+    private void removeFromCell(final int theHandle, final int theCellX, final int theCellY, final int theCellZ,
+                                final int theSlice) {
+        int bucket = findBucket(pack(theCellX, theCellY, theCellZ, theSlice));
+        int[] members = myCellMembers[bucket];
+        int last = --myCellSizes[bucket];
+        for (int m = 0; m <= last; m++) {
+            if (members[m] == theHandle) {
+                members[m] = members[last];
+                return;
+            }
+        }
+        throw new IllegalStateException("Handle " + theHandle + " is not in its cell");
+    }
+
+    /**
+     * Rehashes the cells that still hold drones into a table sized for them,
+     * dropping cells that have emptied since drones flew out of them.
+     */
+    private void rebuildTable() {
+        long[] keys = myCellKeys;
+        int[][] members = myCellMembers;
+        int[] sizes = myCellSizes;
+        int occupied = 0;
+        for (int bucket = 0; bucket < members.length; bucket++) {
+            if (sizes[bucket] > 0) {
+                occupied++;
+            }
+        }
+        clearTable(Math.max(16, occupied * 2));
+        for (int bucket = 0; bucket < members.length; bucket++) {
+            if (sizes[bucket] == 0) {
+                continue;
+            }
+            int target = findBucket(keys[bucket]);
+            myCellKeys[target] = keys[bucket];
+            myCellMembers[target] = members[bucket];
+            myCellSizes[target] = sizes[bucket];
+            myUsedBuckets++;
+        }
+    }
+
+    /**
+     * Replaces the cell table with an empty one that holds at least the given
+     * number of cells at half load.
+     */
+    private void clearTable(final int theCells) {
+        int tableSize = Integer.highestOneBit(theCells * 2 - 1) << 1;
+        myCellKeys = new long[tableSize];
+        myCellMembers = new int[tableSize][];
+        myCellSizes = new int[tableSize];
+        myMask = tableSize - 1;
+        myUsedBuckets = 0;
+    }
+
+    /**
+     * Grows the per-handle arrays.
+     */
+    private void growHandles(final int theCapacity) {
+        myHandleIds = Arrays.copyOf(myHandleIds, theCapacity);
+        myHandleSlots = Arrays.copyOf(myHandleSlots, theCapacity);
+        myStamps = Arrays.copyOf(myStamps, theCapacity);
+        myX = Arrays.copyOf(myX, theCapacity);
+        myY = Arrays.copyOf(myY, theCapacity);
+        myZ = Arrays.copyOf(myZ, theCapacity);
+        myVelocityX = Arrays.copyOf(myVelocityX, theCapacity);
+        myVelocityY = Arrays.copyOf(myVelocityY, theCapacity);
+        myVelocityZ = Arrays.copyOf(myVelocityZ, theCapacity);
+        myDurations = Arrays.copyOf(myDurations, theCapacity);
+        int entries = theCapacity * mySlices;
+        myLowX = Arrays.copyOf(myLowX, entries);
+        myLowY = Arrays.copyOf(myLowY, entries);
+        myLowZ = Arrays.copyOf(myLowZ, entries);
+        myHighX = Arrays.copyOf(myHighX, entries);
+        myHighY = Arrays.copyOf(myHighY, entries);
+        myHighZ = Arrays.copyOf(myHighZ, entries);
+    }
+
+    /**
+     * Finds the bucket holding a key, or the unused bucket where it belongs.
+     */
+    private int findBucket(final long theKey) {
+        int bucket = SpatialHashGrid.mix(theKey) & myMask;
+        while (myCellMembers[bucket] != null && myCellKeys[bucket] != theKey) {
+            bucket = (bucket + 1) & myMask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns the cell coordinate that contains a position on one axis.
+     */
+    private int cellOf(final float theValue) {
+        return (int) Math.floor(theValue * myInverseCellSize);
+    }
+
+    /**
+     * Packs three cell coordinates and a ring slice into one key. Coordinates
+     * far outside the flight area may alias onto the same key, which only
+     * adds candidates and never hides a real neighbour.
+     */
+    private static long pack(final int theCellX, final int theCellY, final int theCellZ, final int theSlice) {
+        return ((long) theSlice << (3 * AXIS_BITS))
+                | ((theCellX & AXIS_MASK) << (2 * AXIS_BITS))
+                | ((theCellY & AXIS_MASK) << AXIS_BITS)
+                | (theCellZ & AXIS_MASK);
+    }
+}
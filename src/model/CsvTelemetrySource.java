@@ -0,0 +1,254 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TelemetrySource} that reads the CSV logs written by
+ * {@link PersistentExporter}.
+ * <p>
+ * The first line names the columns, in any order, using the exporter's
+ * names. {@code id} and {@code timestamp} are required. Logs written for
+ * baseline calculation leave out the position, which reads as described in
+ * {@link TelemetrySource}. Lines that cannot be parsed are skipped with a
+ * message, as {@link BaselineCalculator} does. A zero byte ends the log: it
+ * is the unwritten end of a {@link MappedTelemetryLog} segment. A log can
+ * also be read only up to a length, such as a segment's length in the index.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class CsvTelemetrySource implements TelemetrySource {
+
+    /** Index of the timestamp in {@link #COLUMNS}. */
+    private static final int TIMESTAMP = 7;
+
+    /** The log file. */
+    private final Path myPath;
+
+    /** Number of bytes of the file to read, or -1 to read all of it. */
+    private final long myLength;
+
+    /** The open log, positioned after the last report read. */
+    private BufferedReader myReader;
+
+    /** Field of the line holding each of {@link #COLUMNS}, or -1 if the log leaves it out. */
+    private final int[] myColumns = new int[COLUMNS.size()];
+
+    /** Number of fields a line needs to hold every column the log has. */
+    private int myWidth;
+
+    /** Start of each field of the current line. */
+    private int[] myStarts = new int[COLUMNS.size() + 1];
+
+    /**
+     * Opens a CSV log.
+     *
+     * @param thePath the log file.
+     * @throws IOException if the log cannot be read, is empty or has no id or timestamp column.
+     */
+    public CsvTelemetrySource(final Path thePath) throws IOException {
+        this(thePath, -1);
+    }
+
+    /**
+     * Opens the first bytes of a CSV log.
+     *
+     * @param thePath the log file.
+     * @param theLength number of bytes to read, or -1 to read the whole file.
+     * @throws IOException if the log cannot be read, is empty or has no id or timestamp column.
+     */
+    public CsvTelemetrySource(final Path thePath, final long theLength) throws IOException {
+        myPath = thePath;
+        myLength = theLength;
+        open();
+    }
+
+    /**
+     * Opens the log and reads its header.
+     *
+     * @throws IOException if the log cannot be read or its header is unusable.
+     */
+    private void open() throws IOException {
+        InputStream in = Files.newInputStream(myPath);
+        myReader = new BufferedReader(new InputStreamReader(myLength < 0 ? in : limit(in, myLength),
+                StandardCharsets.UTF_8));
+        String header = myReader.readLine();
+        if (header == null) {
+            myReader.close();
+            throw new IOException("Log file is empty");
+        }
+        String[] fields = header.split(",");
+        Arrays.fill(myColumns, -1);
+        for (int field = 0; field < fields.length; field++) {
+            int column = COLUMNS.indexOf(fields[field].trim());
+            if (column >= 0) {
+                myColumns[column] = field;
+            }
+        }
+        if (myColumns[0] < 0 || myColumns[TIMESTAMP] < 0) {
+            myReader.close();
+            throw new IOException("Log file is missing required headers.");
+        }
+        myWidth = Arrays.stream(myColumns).max().getAsInt() + 1;
+        if (myStarts.length < fields.length + 1) {
+            myStarts = new int[fields.length + 1];
+        }
+    }
+
+    /**
+     * Wraps a stream so it ends after a number of bytes.
+     *
+     * @param theIn the stream.
+     * @param theLength number of bytes to read.
+     * @return the limited stream; closing it closes the wrapped one.
+     */
+    private static InputStream limit(final InputStream theIn, final long theLength) {
+        return new FilterInputStream(theIn) {
+
+            /** Bytes left to read. */
+            private long myRemaining = theLength;
+
+            @Override
+            public int read() throws IOException {
+                if (myRemaining <= 0) {
+                    return -1;
+                }
+                int read = super.read();
+                if (read >= 0) {
+                    myRemaining--;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(final byte[] theBytes, final int theOffset, final int theCount) throws IOException {
+                if (myRemaining <= 0) {
+                    return -1;
+                }
+                int read = super.read(theBytes, theOffset, (int) Math.min(theCount, myRemaining));
+                if (read > 0) {
+                    myRemaining -= read;
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(final long theCount) throws IOException {
+                long skipped = super.skip(Math.min(theCount, myRemaining));
+                myRemaining -= skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(super.available(), myRemaining);
+            }
+        };
+    }
+
+    @Override
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<>();
+        for (int field = 0; field < myWidth; field++) {
+            for (int column = 0; column < COLUMNS.size(); column++) {
+                if (myColumns[column] == field) {
+                    columns.add(COLUMNS.get(column));
+                }
+            }
+        }
+        return columns;
+    }
+
+    @Override
+    public boolean next(final TelemetryColumns theInto, final int theSlot) throws IOException {
+        String line;
+        while ((line = myReader.readLine()) != null) {
+            if (line.indexOf('\0') >= 0) {
+                return false;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (split(line) < myWidth) {
+                System.err.println("Skipping malformed line: " + line);
+                continue;
+            }
+            try {
+                theInto.set(theSlot, Integer.parseInt(field(line, 0)),
+                        read(line, 1, 0), read(line, 2, 0), read(line, 3, MISSING_ALTITUDE),
+                        read(line, 4, 0), read(line, 5, MISSING_BATTERY), read(line, 6, 0),
+                        Long.parseLong(field(line, TIMESTAMP)));
+                return true;
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping malformed line: " + line);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds where each field of a line starts.
+     *
+     * @param theLine the line.
+     * @return the number of fields found, up to what the header names.
+     */
+    private int split(final String theLine) {
+        int fields = 0;
+        int start = 0;
+        while (fields < myStarts.length - 1) {
+            myStarts[fields++] = start;
+            int comma = theLine.indexOf(',', start);
+            if (comma < 0) {
+                myStarts[fields] = theLine.length() + 1;
+                return fields;
+            }
+            start = comma + 1;
+        }
+        myStarts[fields] = start;
+        return fields;
+    }
+
+    /**
+     * Returns the text of a column of the current line.
+     *
+     * @param theLine the line.
+     * @param theColumn index into {@link #COLUMNS}.
+     * @return the trimmed field.
+     */
+    private String field(final String theLine, final int theColumn) {
+        int field = myColumns[theColumn];
+        return theLine.substring(myStarts[field], myStarts[field + 1] - 1).trim();
+    }
+
+    /**
+     * Reads a decimal column of the current line.
+     *
+     * @param theLine the line.
+     * @param theColumn index into {@link #COLUMNS}.
+     * @param theMissing the value of a column the log leaves out.
+     * @return the value.
+     */
+    private float read(final String theLine, final int theColumn, final float theMissing) {
+        return myColumns[theColumn] < 0 ? theMissing : Float.parseFloat(field(theLine, theColumn));
+    }
+
+    @Override
+    public void rewind() throws IOException {
+        myReader.close();
+        open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        myReader.close();
+    }
+}
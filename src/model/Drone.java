@@ -5,8 +5,12 @@ import java.util.ArrayList;
 /**
  * Represents a fully autonomous drone within the simulation.
  * <p>
- * This class implements {@link DroneInterface} and coordinates between
- * three composed systems: BatterySystem, NavigationSystem, and AnomalyHandler.
+ * This class implements {@link DroneInterface} as a thin view over one slot of
+ * a {@link FleetState}, which holds the drone's position, velocity, battery,
+ * heading and route in primitive arrays. A drone created on its own gets a
+ * private single-slot fleet; adding it to a {@link TelemetryGenerator} moves
+ * its state into the generator's shared fleet. Drones are created directly in
+ * a shared fleet by {@link DroneGenerator}.
  *
  * @author Yusuf
  */
@@ -26,36 +30,11 @@ public class Drone implements DroneInterface {
     /** Step size for increasing or decreasing velocity during movement. */
     private static final float ACCELERATION_STEP = 0.3f;
     
-    /** Current altitude. */
-    private float myAltitude;
+    /** The fleet store that holds this drone's state. */
+    private FleetState myFleet;
     
-    /** Current longitude. */
-    private float myLongitude;
-    
-    /** Current latitude. */
-    private float myLatitude;
-    
-    /** Current velocity. */
-    private float myVelocity;
-    
-    /** Current orientation object (heading in degrees). */
-    private final Orientation myOrientation;
-    
-    /** The drones health */
-    private boolean myDroneIsAlive;
-    
-    private TelemetryRecord prevTelemetryRecord;
-    
-    /** Unique drone identifier. */
-    private final int myID;
-    
-    /** Total number of drones created so far (global counter). */
-    private static int totalDrones = 0;
-    
-    /** Composed systems */
-    private final BatterySystem myBatterySystem;
-    private final NavigationSystem myNavigationSystem;
-    private final AnomalyHandler myAnomalyHandler;
+    /** This drone's slot in {@link #myFleet}. */
+    private int mySlot;
     
     /**
      * Constructor for the Drone
@@ -65,6 +44,31 @@ public class Drone implements DroneInterface {
      * @param theRoute The Route of the Drone.
      */
     public Drone(final float theVelocity, final int theBatteryLevel, final ArrayList<RoutePoint> theRoute) {
+        checkStart(theVelocity, theRoute);
+        // The private fleet is only reached through this drone, so it holds no view.
+        myFleet = new FleetState(1);
+        mySlot = myFleet.add(null, myFleet.getIdAllocator().next(), theVelocity, theBatteryLevel,
+                new CompiledRoute(theRoute));
+        myFleet.myReported.set(mySlot, myFleet.record(mySlot));
+    }
+    
+    /**
+     * Constructor for a view that is not bound to a slot yet. The creator
+     * binds it once its state is in a fleet, as
+     * {@link DroneGenerator#createDrone(FleetState, float, int, ArrayList)} does.
+     */
+    Drone() {
+    }
+    
+    /**
+     * Checks the starting velocity and route of a new drone.
+     *
+     * @param theVelocity The velocity of the Drone
+     * @param theRoute The Route of the Drone.
+     * @throws IllegalArgumentException if the route is empty or starts out of
+     *         bounds, or the velocity is out of bounds.
+     */
+    static void checkStart(final float theVelocity, final ArrayList<RoutePoint> theRoute) {
         if (theRoute.isEmpty()) {
             throw new IllegalArgumentException("Route cannot be empty");
         }
@@ -72,50 +76,72 @@ public class Drone implements DroneInterface {
                 theVelocity > MAX_VELOCITY || theVelocity < MIN_VELOCITY) {
             throw new IllegalArgumentException("Arguments passed are not valid theAltitude or the Velocity is not in bound");
         }
-        
-        myLongitude = theRoute.getFirst().getLongitude();
-        myLatitude = theRoute.getFirst().getLatitude();
-        myAltitude = theRoute.getFirst().getAltitude();
-        myVelocity = theVelocity;
-        myOrientation = new Orientation(0);
-        myDroneIsAlive = true;
-        totalDrones++;
-        myID = totalDrones;
-        
-        // Initialize composed systems
-        myBatterySystem = new BatterySystem(theBatteryLevel);
-        myNavigationSystem = new NavigationSystem(theRoute);
-        myAnomalyHandler = new AnomalyHandler();
-        
-        prevTelemetryRecord = generateTelemetryRecord();
+    }
+    
+    /**
+     * Constructor for a view over a slot that already holds a drone's state,
+     * used when a fleet is restored from a {@link FleetCheckpoint}.
+     *
+     * @param theFleet The fleet store holding the drone's state
+     * @param theSlot The drone's slot in that fleet
+     */
+    Drone(final FleetState theFleet, final int theSlot) {
+        bind(theFleet, theSlot);
+    }
+    
+    /**
+     * Rebinds this view to a slot, used when the fleet moves or shifts it.
+     *
+     * @param theFleet the fleet now holding the drone's state
+     * @param theSlot the drone's slot in that fleet
+     */
+    void bind(final FleetState theFleet, final int theSlot) {
+        myFleet = theFleet;
+        mySlot = theSlot;
+    }
+    
+    /** @return the fleet store holding this drone's state */
+    FleetState getFleet() {
+        return myFleet;
+    }
+    
+    /** @return this drone's slot in its fleet store */
+    int getSlot() {
+        return mySlot;
     }
     
     public int getId() {
-        return myID;
+        return myFleet.myIds[mySlot];
     }
     
     public float getLongitude() {
-        return myLongitude;
+        return myFleet.myLongitudes[mySlot];
     }
     
     public float getLatitude() {
-        return myLatitude;
+        return myFleet.myLatitudes[mySlot];
     }
     
     public float getAltitude() {
-        return myAltitude;
+        return myFleet.myAltitudes[mySlot];
     }
     
     public float getVelocity() {
-        return myVelocity;
+        return myFleet.myVelocities[mySlot];
     }
     
+    /**
+     * Returns a snapshot of the drone's heading. Changing the returned object
+     * does not turn the drone; use {@link #setOrientation(float)} instead.
+     *
+     * @return the drone's current orientation
+     */
     public Orientation getOrientation() {
-        return myOrientation;
+        return new Orientation(myFleet.myHeadings[mySlot]);
     }
     
     public float getBatteryLevel() {
-        return myBatterySystem.getBatteryLevel();
+        return myFleet.myBatteries[mySlot];
     }
     
     public float getAccelerationStep() {
@@ -123,20 +149,16 @@ public class Drone implements DroneInterface {
     }
     
     public AnomalyEnum getMyLastAnomaly() {
-        return myAnomalyHandler.getLastAnomaly();
-    }
-    
-    public static int getTotalDrones() {
-        return totalDrones;
+        return myFleet.lastAnomaly(mySlot);
     }
     
     public boolean isAlive() {
-        return myDroneIsAlive;
+        return myFleet.myAlive[mySlot];
     }
     
     @Override
     public RoutePoint getNextPoint() {
-        return myNavigationSystem.getNextPoint();
+        return myFleet.nextPoint(mySlot);
     }
 
     /**
@@ -144,7 +166,8 @@ public class Drone implements DroneInterface {
      * @param theAltitude {float} of the altitude
      */
     public void setAltitude(final float theAltitude) {
-        myAltitude = Math.max(0, theAltitude);
+        myFleet.myAltitudes[mySlot] = Math.max(0, theAltitude);
+        myFleet.leaveSegment(mySlot);
     }
 
     /**
@@ -152,7 +175,8 @@ public class Drone implements DroneInterface {
      * @param theLongitude {float} of the longitude
      */
     public void setLongitude(final float theLongitude) {
-        myLongitude = theLongitude;
+        myFleet.myLongitudes[mySlot] = theLongitude;
+        myFleet.leaveSegment(mySlot);
     }
 
     /**
@@ -160,7 +184,8 @@ public class Drone implements DroneInterface {
      * @param theLatitude {float} of the latitude
      */
     public void setLatitude(final float theLatitude) {
-        myLatitude = theLatitude;
+        myFleet.myLatitudes[mySlot] = theLatitude;
+        myFleet.leaveSegment(mySlot);
     }
 
     /**
@@ -170,8 +195,11 @@ public class Drone implements DroneInterface {
      * @param theBatteryLevel {float} the battery level
      */
     public void setBatteryLevel(final float theBatteryLevel) {
-        myBatterySystem.setBatteryLevel(theBatteryLevel);
-        if (myBatterySystem.getBatteryLevel() == 0) {
+        if (theBatteryLevel < 0) {
+            throw new IllegalArgumentException("Battery level cannot be below 0");
+        }
+        myFleet.myBatteries[mySlot] = theBatteryLevel;
+        if (theBatteryLevel == 0) {
             setIsAlive(false);
         }
     }
@@ -180,7 +208,7 @@ public class Drone implements DroneInterface {
      * updates to the next route of the drone
      */
     public void setNextRoute() {
-        myNavigationSystem.advanceToNextPoint();
+        myFleet.advanceToNextPoint(mySlot);
     }
 
     /**
@@ -192,7 +220,7 @@ public class Drone implements DroneInterface {
         if (theVelocity < MIN_VELOCITY || theVelocity > MAX_VELOCITY) {
             throw new IllegalArgumentException("The velocity must stay in bound");
         }
-        myVelocity = theVelocity;
+        myFleet.myVelocities[mySlot] = theVelocity;
     }
 
     /**
@@ -200,7 +228,7 @@ public class Drone implements DroneInterface {
      * @param theDegree {float} the degree of the drone
      */
     public void setOrientation(final float theDegree) {
-        myOrientation.setDegrees(theDegree);
+        myFleet.myHeadings[mySlot] = Orientation.normalize(theDegree);
     }
 
     /**
@@ -208,11 +236,11 @@ public class Drone implements DroneInterface {
      * @param theHealth {boolean}
      */
     public void setIsAlive(final boolean theHealth) {
-        myDroneIsAlive = theHealth;
+        myFleet.myAlive[mySlot] = theHealth;
     }
     
     public void setPrevTelemetryRecord(TelemetryRecord theTelemetryRecord) {
-        prevTelemetryRecord = theTelemetryRecord;
+        myFleet.myReported.set(mySlot, theTelemetryRecord);
     }
     
     /**
@@ -225,100 +253,46 @@ public class Drone implements DroneInterface {
         setAltitude(theAltitude);
         setVelocity(theVelocity);
         setOrientation(theDegree);
-        boolean isDead = myBatterySystem.drainBattery(theBatteryDrained);
-        if (isDead) {
+        myFleet.myBatteries[mySlot] = Math.max(0, getBatteryLevel() - theBatteryDrained);
+        if (getBatteryLevel() == 0) {
             setIsAlive(false);
         }
     }
     
     public TelemetryRecord getPreviousTelemetryRecord() {
-        return prevTelemetryRecord;
+        return myFleet.myReported.toRecord(mySlot);
     }
     
     public TelemetryRecord generateTelemetryRecord() {
-        return new TelemetryRecord(
-                myID,
-                myLongitude,
-                myLatitude,
-                myAltitude,
-                myVelocity,
-                myBatterySystem.getBatteryLevel(),
-                myOrientation.getDegree(),
-                System.currentTimeMillis()
-        );
+        return myFleet.record(mySlot);
     }
     
     public void collided() {
-        setAltitude(0);
-        setVelocity(0);
-        setIsAlive(false);
+        myFleet.collide(mySlot);
     }
     
     @Override
     public void getNextRandomMove(final float theDeltaTime) {
-        float latitude = this.getLatitude();
-        float longitude = this.getLongitude();
-        float altitude = this.getAltitude();
-        float velocity = this.getVelocity();
-        
-        // Apply anomaly
-        AnomalyHandler.AnomalyResult anomalyResult = myAnomalyHandler.applyRandomAnomaly(
-                altitude, velocity, theDeltaTime);
-        
-        if (anomalyResult.batteryFail) {
-            setVelocity(0);
-            setAltitude(0);
-            setBatteryLevel(0);
-            return;
-        }
-        
-        altitude = anomalyResult.altitude;
-        velocity = anomalyResult.velocity;
-        float extraDrain = anomalyResult.extraDrain;
-        
-        // Calculate normal battery drain
-        float normalDrain = myBatterySystem.calculateDrain(velocity, theDeltaTime);
-        float totalDrain = normalDrain + extraDrain;
-        
-        // Calculate orientation
-        float degree = getOrientation().findNextOrientation(
-                this.getLongitude(),
-                this.getLatitude(),
-                longitude,
-                latitude
-        );
-        
-        updateDrone(longitude, latitude, altitude, totalDrain, velocity, degree);
+        myFleet.moveRandom(mySlot, theDeltaTime);
     }
     
     @Override
     public void getNextMove(final float theDeltaTime) {
-        // Use navigation system to calculate next move
-        NavigationSystem.MovementResult result = myNavigationSystem.calculateNextMove(
-                myLongitude, myLatitude, myAltitude, myVelocity, theDeltaTime);
-        
-        // Calculate battery drain
-        float drained = myBatterySystem.calculateDrain(result.velocity, theDeltaTime);
-        
-        // Calculate orientation
-        float degree = getOrientation().findNextOrientation(
-                myLongitude, myLatitude, result.longitude, result.latitude);
-        
-        updateDrone(result.longitude, result.latitude, result.altitude, drained, result.velocity, degree);
+        myFleet.moveNormal(mySlot, theDeltaTime);
     }
     
     @Override
     public String toString() {
         return String.format(
                 "Drone{id=%d, alive=%s, lon=%.2f, lat=%.2f, alt=%.2f, vel=%.2f, battery=%.2f, orientation=%.2f°}",
-                myID,
-                myDroneIsAlive,
-                myLongitude,
-                myLatitude,
-                myAltitude,
-                myVelocity,
-                myBatterySystem.getBatteryLevel(),
-                myOrientation.getDegree()
+                getId(),
+                isAlive(),
+                getLongitude(),
+                getLatitude(),
+                getAltitude(),
+                getVelocity(),
+                getBatteryLevel(),
+                myFleet.myHeadings[mySlot]
         );
     }
 }
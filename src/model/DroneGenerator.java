@@ -47,4 +47,62 @@ public class DroneGenerator {
         return new Drone(1, 100, theRoute);
     }
 
+    /**
+     * Creates a new {@link DroneInterface} whose state is allocated directly in
+     * the given fleet store, so adding it to the generator that owns the fleet
+     * does not copy its state.
+     *
+     * @param theFleet the fleet store to allocate the drone in; must not be {@code null}.
+     * @param theRoute the list of {@link RoutePoint} objects defining the drone's movement path;
+     *                 must not be {@code null}.
+     *
+     * @return a newly created {@link DroneInterface} instance configured with the given route
+     *
+     * @throws IllegalArgumentException if {@code theFleet} or {@code theRoute} is {@code null}
+     */
+    public DroneInterface createDrone(final FleetState theFleet, final ArrayList<RoutePoint> theRoute) {
+        if (theFleet == null) {
+            throw new IllegalArgumentException("the fleet must be defined");
+        }
+        if (theRoute == null) {
+            throw new IllegalArgumentException("the route must be defined");
+        }
+        return createDrone(theFleet, 1, 100, theRoute);
+    }
+
+    /**
+     * Creates a new {@link Drone} with the given starting velocity and battery
+     * level, whose state is allocated directly in the given fleet store.
+     * <p>
+     * The drone is added to the fleet only once it is fully constructed, and
+     * takes the next ID of the fleet's {@link IdAllocator}.
+     *
+     * @param theFleet the fleet store to allocate the drone in; must not be {@code null}.
+     * @param theVelocity the starting velocity.
+     * @param theBatteryLevel the starting battery level.
+     * @param theRoute the list of {@link RoutePoint} objects defining the drone's movement path;
+     *                 must not be {@code null}.
+     *
+     * @return the new drone, bound to its slot in the fleet
+     *
+     * @throws IllegalArgumentException if {@code theFleet} or {@code theRoute} is {@code null},
+     *                                  the route is empty, or the route or velocity is out of bounds
+     */
+    public Drone createDrone(final FleetState theFleet, final float theVelocity, final int theBatteryLevel,
+                             final ArrayList<RoutePoint> theRoute) {
+        if (theFleet == null) {
+            throw new IllegalArgumentException("the fleet must be defined");
+        }
+        if (theRoute == null) {
+            throw new IllegalArgumentException("the route must be defined");
+        }
+        Drone.checkStart(theVelocity, theRoute);
+        Drone drone = new Drone();
+        int slot = theFleet.add(drone, theFleet.getIdAllocator().next(), theVelocity, theBatteryLevel,
+                new CompiledRoute(theRoute));
+        drone.bind(theFleet, slot);
+        drone.setPrevTelemetryRecord(drone.generateTelemetryRecord());
+        return drone;
+    }
+
 }
@@ -0,0 +1,694 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Advances a fleet from event to event instead of tick by tick.
+ * <p>
+ * Between waypoints a drone's normal movement is fully determined: it
+ * accelerates by {@link NavigationSystem#ACCELERATION_STEP} per tick up to
+ * {@link NavigationSystem#MAX_VELOCITY} while it is at least
+ * {@link NavigationSystem#SLOW_DOWN_DISTANCE} away from the waypoint, then
+ * slows down by the same step until it arrives, and its battery drains by
+ * {@link BatterySystem#drainFor} for each tick's velocity. The velocity
+ * sequence is piecewise linear in the tick number, so the distance flown
+ * and the battery used after any number of ticks have closed forms.
+ * The engine uses them to compute, for every drone, the tick of its next
+ * event:
+ * </p>
+ * <ul>
+ * <li>{@link EventType#WAYPOINT}: the drone reaches its waypoint and a new leg starts.</li>
+ * <li>{@link EventType#BATTERY_WARNING}: the battery drops to 15% or below.</li>
+ * <li>{@link EventType#BATTERY_EMPTY}: the battery runs out and the drone dies.</li>
+ * <li>{@link EventType#ANOMALY}: a random anomaly replaces the tick's move. Anomaly
+ *     ticks are drawn as geometric gaps from the slot's random stream, which gives
+ *     the same per-tick chance as the tick engine's draw.</li>
+ * </ul>
+ * <p>
+ * Events are kept in a priority queue ordered by tick, one per drone.
+ * Positions are only computed for a drone when one of its events fires or
+ * when the fleet is {@linkplain #sample sampled}, so a run costs
+ * O(events + drones × samples) instead of O(drones × ticks).
+ * </p>
+ *
+ * <p>
+ * The results match {@link TelemetryGenerator#tick} up to float rounding:
+ * the tick engine adds up each tick's move in floats, while this engine
+ * evaluates the sums in doubles. Rounding can move a waypoint arrival or a
+ * battery event by a tick when it falls right on a threshold. Collisions
+ * between drones are not modelled, because they depend on every drone's
+ * position at every tick, and spoofed positions are only visible when a
+ * sample falls on the tick of the spoofing anomaly. The fleet must not
+ * gain or lose drones while an engine is attached to it.
+ * </p>
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class EventDrivenEngine {
+
+    /**
+     * Events scheduled by the engine, in the order they win when they fall on
+     * the same tick.
+     */
+    public enum EventType {
+        /** A random anomaly replaces the tick's move. */
+        ANOMALY,
+        /** The battery drops to the warning level. */
+        BATTERY_WARNING,
+        /** The battery runs out. */
+        BATTERY_EMPTY,
+        /** The drone reaches its waypoint. */
+        WAYPOINT
+    }
+
+    /**
+     * Receives the events processed by the engine.
+     */
+    @FunctionalInterface
+    public interface EventListener {
+        /**
+         * Called after an event has been applied to the fleet.
+         *
+         * @param theSlot the drone's slot.
+         * @param theType the event.
+         * @param theTick the tick the event happened on.
+         */
+        void onEvent(int theSlot, EventType theType, long theTick);
+    }
+
+    /** Battery level at which {@link EventType#BATTERY_WARNING} fires. */
+    public static final float BATTERY_WARNING_LEVEL = 15;
+
+    /** Spoofing offset range, as in {@link TelemetryGenerator}. */
+    private static final float SPOOFING_CHANGE = 0.5f;
+
+    /** Bits of a queue entry used for the slot; the tick goes above them. */
+    private static final int SLOT_BITS = 24;
+
+    /** Mask for the slot bits of a queue entry. */
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    /** Tick of a drone with nothing scheduled. */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    /** All event types, indexed by the ordinals stored in {@link #myTypes}. */
+    private static final EventType[] TYPES = EventType.values();
+
+    /** The fleet being simulated. */
+    private final FleetState myFleet;
+
+    /** Seconds per tick. */
+    private final float myDeltaTime;
+
+    /** Chance of an anomaly per drone per tick. */
+    private final double myAnomalyChance;
+
+    /** Number of drones in the fleet when the engine was created. */
+    private final int myCount;
+
+    /** Tick the fleet has been advanced to. */
+    private long myTick;
+
+    /** Number of events processed. */
+    private long myEventCount;
+
+    /** Receives processed events, or null. */
+    private EventListener myListener;
+
+    /** Tick each slot's current leg started on. */
+    private final long[] myLegStarts;
+
+    /** Position, velocity, battery and heading at the start of each leg. */
+    private final float[] myStartLongitudes;
+    private final float[] myStartLatitudes;
+    private final float[] myStartAltitudes;
+    private final float[] myStartVelocities;
+    private final float[] myStartBatteries;
+    private final float[] myStartHeadings;
+
+    /** Heading flown on each leg. */
+    private final float[] myLegHeadings;
+
+    /** Length of each leg. */
+    private final double[] myLegLengths;
+
+    /** Ticks spent accelerating before entering the slow-down zone, by slot. */
+    private final int[] myAccelerationTicks;
+
+    /** Velocity on entering the slow-down zone, by slot. */
+    private final float[] myApproachVelocities;
+
+    /** Ticks until the waypoint is reached, by slot. */
+    private final int[] myLegTicks;
+
+    /** Tick of each slot's next anomaly. */
+    private final long[] myNextAnomalies;
+
+    /** Tick of each slot's scheduled event, or {@link #NEVER}. */
+    private final long[] myScheduled;
+
+    /** Ordinal of each slot's scheduled event. */
+    private final byte[] myTypes;
+
+    /** Whether a slot's battery warning has fired. */
+    private final boolean[] myWarned;
+
+    /** Tick of each slot's last spoofing anomaly. */
+    private final long[] mySpoofTicks;
+
+    /** Binary min-heap of {@code tick << SLOT_BITS | slot} entries. */
+    private long[] myQueue;
+
+    /** Number of entries in {@link #myQueue}. */
+    private int myQueueSize;
+
+    /** Telemetry reported by the previous sample. */
+    private final TelemetryColumns myPrevious;
+
+    /** Scratch output for anomaly moves. */
+    private final float[] myScratch = new float[4];
+
+    /**
+     * Creates an engine for a fleet and schedules the first event of every
+     * living drone. The fleet's current state is taken as tick 0.
+     *
+     * @param theFleet the fleet to simulate.
+     * @param theDeltaTime seconds per tick.
+     * @param theRandomPercent chance of an anomaly per drone per tick (0–100).
+     * @throws IllegalArgumentException if a tick could carry a drone through
+     *         the whole slow-down zone, or the percentage is out of range.
+     */
+    public EventDrivenEngine(final FleetState theFleet, final float theDeltaTime, final float theRandomPercent) {
+        if (!(theDeltaTime > 0)
+                || theDeltaTime * NavigationSystem.MAX_VELOCITY >= NavigationSystem.SLOW_DOWN_DISTANCE) {
+            throw new IllegalArgumentException("Delta time out of range: " + theDeltaTime);
+        }
+        if (!(theRandomPercent >= 0 && theRandomPercent <= 100)) {
+            throw new IllegalArgumentException("Anomaly percent must be between 0 and 100");
+        }
+        myFleet = theFleet;
+        myDeltaTime = theDeltaTime;
+        // Same threshold as the tick engine's float comparison.
+        myAnomalyChance = theRandomPercent / 100.0f;
+        myCount = theFleet.size();
+        if (myCount > SLOT_MASK) {
+            throw new IllegalArgumentException("Fleet too large: " + myCount);
+        }
+
+        myLegStarts = new long[myCount];
+        myStartLongitudes = new float[myCount];
+        myStartLatitudes = new float[myCount];
+        myStartAltitudes = new float[myCount];
+        myStartVelocities = new float[myCount];
+        myStartBatteries = new float[myCount];
+        myStartHeadings = new float[myCount];
+        myLegHeadings = new float[myCount];
+        myLegLengths = new double[myCount];
+        myAccelerationTicks = new int[myCount];
+        myApproachVelocities = new float[myCount];
+        myLegTicks = new int[myCount];
+        myNextAnomalies = new long[myCount];
+        myScheduled = new long[myCount];
+        myTypes = new byte[myCount];
+        myWarned = new boolean[myCount];
+        mySpoofTicks = new long[myCount];
+        myQueue = new long[Math.max(16, myCount)];
+        myPrevious = new TelemetryColumns(myCount);
+
+        Arrays.fill(myScheduled, NEVER);
+        Arrays.fill(mySpoofTicks, -1);
+        for (int slot = 0; slot < myCount; slot++) {
+            myWarned[slot] = theFleet.myBatteries[slot] <= BATTERY_WARNING_LEVEL;
+            if (theFleet.myAlive[slot]) {
+                myNextAnomalies[slot] = nextAnomaly(slot, 0);
+                plan(slot, 0);
+            }
+        }
+    }
+
+    /**
+     * Sets the listener told about every processed event.
+     *
+     * @param theListener the listener, or null for none.
+     */
+    public void setListener(final EventListener theListener) {
+        myListener = theListener;
+    }
+
+    /**
+     * @return the tick the fleet has been advanced to.
+     */
+    public long getTick() {
+        return myTick;
+    }
+
+    /**
+     * @return the number of events processed so far.
+     */
+    public long getEventCount() {
+        return myEventCount;
+    }
+
+    /**
+     * @return the fleet being simulated.
+     */
+    public FleetState getFleet() {
+        return myFleet;
+    }
+
+    /**
+     * Processes every event up to and including a tick. Drones without an
+     * event in that range are left where their last event put them until
+     * the fleet is sampled.
+     *
+     * @param theTick the tick to advance to.
+     * @throws IllegalArgumentException if the tick is in the past.
+     */
+    public void advanceTo(final long theTick) {
+        if (theTick < myTick) {
+            throw new IllegalArgumentException("Cannot go back from tick " + myTick + " to " + theTick);
+        }
+        while (myQueueSize > 0 && (myQueue[0] >>> SLOT_BITS) <= theTick) {
+            long entry = poll();
+            int slot = (int) (entry & SLOT_MASK);
+            long tick = entry >>> SLOT_BITS;
+            // Rescheduled drones leave their old entry behind; skip it.
+            if (myScheduled[slot] != tick) {
+                continue;
+            }
+            myScheduled[slot] = NEVER;
+            if (!myFleet.myAlive[slot]) {
+                continue;
+            }
+            EventType type = TYPES[myTypes[slot]];
+            fire(slot, type, tick);
+            myEventCount++;
+            if (myListener != null) {
+                myListener.onEvent(slot, type, tick);
+            }
+        }
+        myTick = theTick;
+    }
+
+    /**
+     * Computes every drone's state at the current tick and writes its
+     * telemetry, as {@link TelemetryGenerator#tick} does. The previous
+     * sample's telemetry moves to {@link #getPreviousTelemetry()}.
+     *
+     * @param theTimeStamp timestamp for every report.
+     */
+    public void sample(final long theTimeStamp) {
+        FleetState fleet = myFleet;
+        TelemetryColumns current = fleet.myReported;
+        myPrevious.copyFrom(current, myCount);
+        for (int slot = 0; slot < myCount; slot++) {
+            if (fleet.myAlive[slot]) {
+                materialize(slot, myTick);
+            }
+            if (mySpoofTicks[slot] == myTick) {
+                float offsetLon = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+                float offsetLat = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+                float offsetAlt = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+                fleet.report(slot, current, offsetLon, offsetLat, offsetAlt, theTimeStamp);
+            } else {
+                fleet.report(slot, current, 0, 0, 0, theTimeStamp);
+            }
+        }
+    }
+
+    /**
+     * @return the telemetry written by the previous {@link #sample}.
+     */
+    public TelemetryColumns getPreviousTelemetry() {
+        return myPrevious;
+    }
+
+    /**
+     * @return the telemetry written by the latest {@link #sample}.
+     */
+    public TelemetryColumns getCurrentTelemetry() {
+        return myFleet.myReported;
+    }
+
+    /**
+     * Applies one event to the fleet and schedules the drone's next one.
+     */
+    private void fire(final int theSlot, final EventType theType, final long theTick) {
+        FleetState fleet = myFleet;
+        switch (theType) {
+            case WAYPOINT -> {
+                materialize(theSlot, theTick);
+                fleet.advanceToNextPoint(theSlot);
+                plan(theSlot, theTick);
+            }
+            case BATTERY_EMPTY -> {
+                materialize(theSlot, theTick);
+                fleet.myBatteries[theSlot] = 0;
+                fleet.myAlive[theSlot] = false;
+            }
+            case BATTERY_WARNING -> {
+                myWarned[theSlot] = true;
+                schedule(theSlot);
+            }
+            case ANOMALY -> {
+                // The anomaly takes the place of this tick's normal move.
+                materialize(theSlot, theTick - 1);
+                fleet.moveRandom(theSlot, myDeltaTime, myScratch);
+                if (fleet.lastAnomaly(theSlot) == AnomalyEnum.SPOOFING) {
+                    mySpoofTicks[theSlot] = theTick;
+                }
+                myNextAnomalies[theSlot] = nextAnomaly(theSlot, theTick);
+                if (fleet.myAlive[theSlot]) {
+                    plan(theSlot, theTick);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown event: " + theType);
+        }
+    }
+
+    /**
+     * Starts a new leg from the slot's current state towards its next
+     * waypoint and schedules its next event.
+     *
+     * @param theSlot the slot.
+     * @param theTick the tick the fleet arrays describe.
+     */
+    private void plan(final int theSlot, final long theTick) {
+        FleetState fleet = myFleet;
+        RoutePoint next = fleet.nextPoint(theSlot);
+        float longitude = fleet.myLongitudes[theSlot];
+        float latitude = fleet.myLatitudes[theSlot];
+        float altitude = fleet.myAltitudes[theSlot];
+        float velocity = fleet.myVelocities[theSlot];
+
+        myLegStarts[theSlot] = theTick;
+        myStartLongitudes[theSlot] = longitude;
+        myStartLatitudes[theSlot] = latitude;
+        myStartAltitudes[theSlot] = altitude;
+        myStartVelocities[theSlot] = velocity;
+        myStartBatteries[theSlot] = fleet.myBatteries[theSlot];
+        myStartHeadings[theSlot] = fleet.myHeadings[theSlot];
+        myLegHeadings[theSlot] = Orientation.heading(longitude, latitude,
+                next.getLongitude(), next.getLatitude(), fleet.myHeadings[theSlot]);
+
+        double dx = next.getLongitude() - longitude;
+        double dy = next.getLatitude() - latitude;
+        double dz = next.getAltitude() - altitude;
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        myLegLengths[theSlot] = length;
+
+        if (length < NavigationSystem.ARRIVAL_EPSILON) {
+            // Already on the waypoint: the next tick snaps to it without changing speed.
+            myAccelerationTicks[theSlot] = 0;
+            myApproachVelocities[theSlot] = velocity;
+            myLegTicks[theSlot] = 1;
+        } else {
+            int accelerating = accelerationTicks(length, velocity);
+            double remaining = length - myDeltaTime * acceleratedSum(velocity, accelerating);
+            float approach = accelerating == 0 ? velocity : acceleratedVelocity(velocity, accelerating);
+            myAccelerationTicks[theSlot] = accelerating;
+            myApproachVelocities[theSlot] = approach;
+            myLegTicks[theSlot] = accelerating + approachTicks(remaining, approach);
+        }
+
+        if (!myWarned[theSlot] && fleet.myBatteries[theSlot] <= BATTERY_WARNING_LEVEL) {
+            // An anomaly drained the battery past the warning level; report it right away.
+            scheduleAt(theSlot, theTick, EventType.BATTERY_WARNING);
+            return;
+        }
+        schedule(theSlot);
+    }
+
+    /**
+     * Schedules the earliest event of a slot's current leg.
+     */
+    private void schedule(final int theSlot) {
+        long start = myLegStarts[theSlot];
+        int legTicks = myLegTicks[theSlot];
+        long tick = start + legTicks;
+        EventType type = EventType.WAYPOINT;
+
+        if (battery(theSlot, legTicks) <= 0) {
+            long empty = start + batteryTick(theSlot, 0);
+            if (empty <= tick) {
+                tick = empty;
+                type = EventType.BATTERY_EMPTY;
+            }
+        }
+        if (!myWarned[theSlot] && battery(theSlot, legTicks) <= BATTERY_WARNING_LEVEL) {
+            long warning = start + batteryTick(theSlot, BATTERY_WARNING_LEVEL);
+            if (warning <= tick) {
+                tick = warning;
+                type = EventType.BATTERY_WARNING;
+            }
+        }
+        if (myNextAnomalies[theSlot] <= tick) {
+            tick = myNextAnomalies[theSlot];
+            type = EventType.ANOMALY;
+        }
+        scheduleAt(theSlot, tick, type);
+    }
+
+    /**
+     * Puts a slot's next event in the queue, replacing any earlier one.
+     */
+    private void scheduleAt(final int theSlot, final long theTick, final EventType theType) {
+        myScheduled[theSlot] = theTick;
+        myTypes[theSlot] = (byte) theType.ordinal();
+        if (theTick != NEVER) {
+            offer(theTick << SLOT_BITS | theSlot);
+        }
+    }
+
+    /**
+     * Writes a slot's state after a number of ticks of its current leg into
+     * the fleet arrays.
+     *
+     * @param theSlot the slot.
+     * @param theTick the tick to compute; must lie within the current leg.
+     */
+    private void materialize(final int theSlot, final long theTick) {
+        FleetState fleet = myFleet;
+        int ticks = (int) Math.min(theTick - myLegStarts[theSlot], myLegTicks[theSlot]);
+        RoutePoint next = fleet.nextPoint(theSlot);
+
+        float fraction;
+        if (ticks >= myLegTicks[theSlot]) {
+            fraction = 1;
+        } else {
+            fraction = (float) Math.min(1, myDeltaTime * velocitySum(theSlot, ticks) / myLegLengths[theSlot]);
+        }
+        if (fraction == 1) {
+            fleet.myLongitudes[theSlot] = next.getLongitude();
+            fleet.myLatitudes[theSlot] = next.getLatitude();
+            fleet.myAltitudes[theSlot] = Math.max(0, next.getAltitude());
+        } else {
+            float longitude = myStartLongitudes[theSlot];
+            float latitude = myStartLatitudes[theSlot];
+            float altitude = myStartAltitudes[theSlot];
+            fleet.myLongitudes[theSlot] = longitude + (next.getLongitude() - longitude) * fraction;
+            fleet.myLatitudes[theSlot] = latitude + (next.getLatitude() - latitude) * fraction;
+            fleet.myAltitudes[theSlot] = Math.max(0, altitude + (next.getAltitude() - altitude) * fraction);
+        }
+        fleet.leaveSegment(theSlot);
+        fleet.myVelocities[theSlot] = velocity(theSlot, ticks);
+        fleet.myBatteries[theSlot] = (float) Math.max(0, battery(theSlot, ticks));
+        fleet.myHeadings[theSlot] = ticks == 0 ? myStartHeadings[theSlot] : myLegHeadings[theSlot];
+        if (fleet.myBatteries[theSlot] == 0) {
+            fleet.myAlive[theSlot] = false;
+        }
+    }
+
+    /**
+     * Velocity after a number of ticks of a slot's current leg.
+     */
+    private float velocity(final int theSlot, final int theTicks) {
+        float start = myStartVelocities[theSlot];
+        int accelerating = myAccelerationTicks[theSlot];
+        if (theTicks == 0 || myLegLengths[theSlot] < NavigationSystem.ARRIVAL_EPSILON) {
+            return start;
+        }
+        if (theTicks <= accelerating) {
+            return acceleratedVelocity(start, theTicks);
+        }
+        return deceleratedVelocity(myApproachVelocities[theSlot], theTicks - accelerating);
+    }
+
+    /**
+     * Sum of the velocities of the first ticks of a slot's current leg.
+     */
+    private double velocitySum(final int theSlot, final int theTicks) {
+        float start = myStartVelocities[theSlot];
+        int accelerating = myAccelerationTicks[theSlot];
+        if (myLegLengths[theSlot] < NavigationSystem.ARRIVAL_EPSILON) {
+            return (double) start * theTicks;
+        }
+        if (theTicks <= accelerating) {
+            return acceleratedSum(start, theTicks);
+        }
+        return acceleratedSum(start, accelerating)
+                + deceleratedSum(myApproachVelocities[theSlot], theTicks - accelerating);
+    }
+
+    /**
+     * Battery level after a number of ticks of a slot's current leg; may be
+     * negative past the point where the battery runs out.
+     */
+    private double battery(final int theSlot, final int theTicks) {
+        return myStartBatteries[theSlot] - myDeltaTime * ((double) BatterySystem.BASE_DRAIN_RATE * theTicks
+                + BatterySystem.SPEED_DRAIN_RATE * velocitySum(theSlot, theTicks));
+    }
+
+    /**
+     * First tick of a slot's current leg that leaves the battery at or below
+     * a level. The caller makes sure the level is reached within the leg.
+     */
+    private int batteryTick(final int theSlot, final double theLevel) {
+        int low = 1;
+        int high = myLegTicks[theSlot];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (battery(theSlot, middle) <= theLevel) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Number of ticks a drone accelerates before it is inside the slow-down
+     * zone, i.e. the first tick count after which less than
+     * {@link NavigationSystem#SLOW_DOWN_DISTANCE} is left.
+     */
+    private int accelerationTicks(final double theLength, final float theVelocity) {
+        if (theLength < NavigationSystem.SLOW_DOWN_DISTANCE) {
+            return 0;
+        }
+        // Every accelerating tick flies at least one acceleration step.
+        int low = 1;
+        int high = (int) Math.ceil((theLength - NavigationSystem.SLOW_DOWN_DISTANCE)
+                / (NavigationSystem.ACCELERATION_STEP * myDeltaTime)) + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (theLength - myDeltaTime * acceleratedSum(theVelocity, middle) < NavigationSystem.SLOW_DOWN_DISTANCE) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Number of slow-down ticks needed to cover the rest of a leg: the first
+     * tick whose move reaches the waypoint. A move that ends within
+     * {@link NavigationSystem#ARRIVAL_EPSILON} of it counts as reaching it.
+     */
+    private int approachTicks(final double theRemaining, final float theVelocity) {
+        // Every slow-down tick flies at least the minimum velocity.
+        int low = 1;
+        int high = (int) Math.ceil(theRemaining / (NavigationSystem.MIN_VELOCITY_TO_MOVE * myDeltaTime)) + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (myDeltaTime * deceleratedSum(theVelocity, middle) >= theRemaining - NavigationSystem.ARRIVAL_EPSILON) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Velocity after accelerating for a number of ticks.
+     */
+    private static float acceleratedVelocity(final float theStart, final int theTicks) {
+        return (float) Math.min(theStart + (double) NavigationSystem.ACCELERATION_STEP * theTicks,
+                NavigationSystem.MAX_VELOCITY);
+    }
+
+    /**
+     * Sum of the velocities of a number of accelerating ticks.
+     */
+    private static double acceleratedSum(final float theStart, final int theTicks) {
+        double step = NavigationSystem.ACCELERATION_STEP;
+        // Ticks before the velocity reaches the cap.
+        long below = (long) Math.ceil((NavigationSystem.MAX_VELOCITY - theStart) / step) - 1;
+        long uncapped = Math.max(0, Math.min(theTicks, below));
+        return uncapped * (double) theStart + step * uncapped * (uncapped + 1) / 2
+                + (theTicks - uncapped) * (double) NavigationSystem.MAX_VELOCITY;
+    }
+
+    /**
+     * Velocity after slowing down for a number of ticks.
+     */
+    private static float deceleratedVelocity(final float theStart, final int theTicks) {
+        return (float) Math.max(theStart - (double) NavigationSystem.ACCELERATION_STEP * theTicks,
+                NavigationSystem.MIN_VELOCITY_TO_MOVE);
+    }
+
+    /**
+     * Sum of the velocities of a number of slow-down ticks.
+     */
+    private static double deceleratedSum(final float theStart, final int theTicks) {
+        double step = NavigationSystem.ACCELERATION_STEP;
+        // Ticks before the velocity reaches the floor.
+        long above = (long) Math.ceil((theStart - NavigationSystem.MIN_VELOCITY_TO_MOVE) / step) - 1;
+        long unclamped = Math.max(0, Math.min(theTicks, above));
+        return unclamped * (double) theStart - step * unclamped * (unclamped + 1) / 2
+                + (theTicks - unclamped) * (double) NavigationSystem.MIN_VELOCITY_TO_MOVE;
+    }
+
+    /**
+     * Draws the tick of a slot's next anomaly after a given tick. The gap is
+     * geometric, so each tick has the same independent chance of an anomaly.
+     */
+    private long nextAnomaly(final int theSlot, final long theTick) {
+        long gap = SplitMix64.nextGeometric(myFleet.myRngStates, theSlot, myAnomalyChance);
+        return gap >= NEVER - theTick ? NEVER : theTick + gap;
+    }
+
+    /**
+     * Adds an entry to the event queue.
+     */
+    private void offer(final long theEntry) {
+        if (myQueueSize == myQueue.length) {
+            myQueue = Arrays.copyOf(myQueue, myQueueSize * 2);
+        }
+        int index = myQueueSize++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (myQueue[parent] <= theEntry) {
+                break;
+            }
+            myQueue[index] = myQueue[parent];
+            index = parent;
+        }
+        myQueue[index] = theEntry;
+    }
+
+    /**
+     * Removes and returns the smallest entry of the event queue.
+     */
+    private long poll() {
+        long result = myQueue[0];
+        long last = myQueue[--myQueueSize];
+        int index = 0;
+        int half = myQueueSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < myQueueSize && myQueue[child + 1] < myQueue[child]) {
+                child++;
+            }
+            if (last <= myQueue[child]) {
+                break;
+            }
+            myQueue[index] = myQueue[child];
+            index = child;
+        }
+        myQueue[index] = last;
+        return result;
+    }
+}
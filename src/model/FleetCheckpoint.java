@@ -0,0 +1,595 @@
+package model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A copy of the complete state of a simulated fleet that can be written to a
+ * compact binary file and restored into a new simulation.
+ * <p>
+ * Capturing copies each per-drone array of the {@link FleetState} in one bulk
+ * copy, which is cheap enough to do between two ticks. Writing only reads the
+ * copy, so it can run on another thread while the simulation keeps ticking
+ * (see {@link CheckpointWriter}). A checkpoint holds each drone's ID,
+ * position, velocity, battery, heading, route, next waypoint and progress
+ * along its segment, health, last anomaly, random stream, anomaly
+ * countdown and ticks left behind by a {@link LevelOfDetail} window, and the
+ * telemetry it last reported, which is what the anomaly
+ * detector compares the next tick against. It also holds the IDs released
+ * by retired drones, so the restored simulation hands them out again in
+ * the same order, and the number of ticks run, so a restored simulation
+ * with a level-of-detail policy starts its windows on the same ticks. A
+ * simulation restored from a
+ * checkpoint makes the same moves, draws the same anomalies and reports the
+ * same telemetry as the one it was captured from.
+ * <p>
+ * The file is a short header followed by one column per field in
+ * little-endian byte order, so writing and reading are bulk transfers rather
+ * than one call per value. A route shared by several drones is stored once,
+ * as its waypoints and segment headings; the rest of its geometry is cheap
+ * to work out again.
+ * The {@link AnomalyDetector}'s report IDs and warm-up are not part of the
+ * fleet and start afresh in the restored simulation.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class FleetCheckpoint {
+
+    /** First four bytes of every checkpoint file. */
+    private static final int MAGIC = 0x444D4350;
+
+    /** Version of the file layout. */
+    private static final int VERSION = 4;
+
+    /** Byte order of the file. */
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Size of the buffer a checkpoint is written through. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** Coordinates stored per waypoint: longitude, latitude and altitude. */
+    private static final int COORDINATES = 3;
+
+    /** Simulated time at which the checkpoint was captured. */
+    private final long myTime;
+
+    /** Ticks the simulation had run. */
+    private final long myTickCount;
+
+    /** Anomaly probability of the simulation. */
+    private final float myAnomalyPercent;
+
+    /** Seed from which joining drones' random streams are derived. */
+    private final long mySeed;
+
+    /** Number of drones that had joined the fleet. */
+    private final long myJoined;
+
+    /** Last drone ID handed out by the fleet's allocator. */
+    private final int myLastId;
+
+    /** IDs the fleet's allocator holds for reuse, most recent last. */
+    private final int[] myReleasedIds;
+
+    /** Number of drones. */
+    private final int mySize;
+
+    /** Each drone's route. */
+    private final CompiledRoute[] myRoutes;
+
+    /** Drone IDs. */
+    private final int[] myIds;
+
+    /** Longitudes. */
+    private final float[] myLongitudes;
+
+    /** Latitudes. */
+    private final float[] myLatitudes;
+
+    /** Altitudes. */
+    private final float[] myAltitudes;
+
+    /** Velocities. */
+    private final float[] myVelocities;
+
+    /** Battery levels. */
+    private final float[] myBatteries;
+
+    /** Headings. */
+    private final float[] myHeadings;
+
+    /** Index of each drone's next waypoint. */
+    private final int[] myNextPoints;
+
+    /** Distance each drone has left along its segment, or {@link FleetState#OFF_SEGMENT}. */
+    private final float[] myRemaining;
+
+    /** Drone health. */
+    private final boolean[] myAlive;
+
+    /** Ordinal of each drone's last anomaly, or {@link FleetState#NO_ANOMALY}. */
+    private final byte[] myLastAnomalies;
+
+    /** Random stream states. */
+    private final long[] myRngStates;
+
+    /** Ticks left until each drone's next anomaly. */
+    private final long[] myAnomalyCountdowns;
+
+    /** Ticks each drone has been left unsimulated by a level-of-detail window. */
+    private final int[] myDeferred;
+
+    /** Telemetry each drone last reported. */
+    private final TelemetryColumns myReported;
+
+    /**
+     * Copies the state of a generator's fleet.
+     */
+    private FleetCheckpoint(final TelemetryGenerator theGenerator) {
+        FleetState fleet = theGenerator.getFleet();
+        int size = fleet.size();
+        myTime = theGenerator.getClock().now();
+        myTickCount = theGenerator.tickCount();
+        myAnomalyPercent = theGenerator.getAnomalyPercent();
+        mySeed = fleet.getSeed();
+        myJoined = fleet.getJoined();
+        myLastId = fleet.getIdAllocator().issued();
+        myReleasedIds = fleet.getIdAllocator().released();
+        mySize = size;
+        myRoutes = Arrays.copyOf(fleet.myRoutes, size);
+        myIds = Arrays.copyOf(fleet.myIds, size);
+        myLongitudes = Arrays.copyOf(fleet.myLongitudes, size);
+        myLatitudes = Arrays.copyOf(fleet.myLatitudes, size);
+        myAltitudes = Arrays.copyOf(fleet.myAltitudes, size);
+        myVelocities = Arrays.copyOf(fleet.myVelocities, size);
+        myBatteries = Arrays.copyOf(fleet.myBatteries, size);
+        myHeadings = Arrays.copyOf(fleet.myHeadings, size);
+        myNextPoints = Arrays.copyOf(fleet.myNextPoints, size);
+        myRemaining = Arrays.copyOf(fleet.myRemaining, size);
+        myAlive = Arrays.copyOf(fleet.myAlive, size);
+        myLastAnomalies = Arrays.copyOf(fleet.myLastAnomalies, size);
+        myRngStates = Arrays.copyOf(fleet.myRngStates, size);
+        myAnomalyCountdowns = Arrays.copyOf(fleet.myAnomalyCountdowns, size);
+        myDeferred = Arrays.copyOf(fleet.myDeferred, size);
+        myReported = new TelemetryColumns(size);
+        myReported.copyFrom(fleet.myReported, size);
+    }
+
+    /**
+     * Reads a checkpoint laid out as {@link #write(Path)} writes it.
+     */
+    private FleetCheckpoint(final ByteBuffer theIn) throws IOException {
+        if (theIn.getInt() != MAGIC) {
+            throw new IOException("Not a fleet checkpoint");
+        }
+        int version = theIn.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        myTime = theIn.getLong();
+        myTickCount = theIn.getLong();
+        myAnomalyPercent = theIn.getFloat();
+        mySeed = theIn.getLong();
+        myJoined = theIn.getLong();
+        myLastId = theIn.getInt();
+        int releasedCount = theIn.getInt();
+        int size = theIn.getInt();
+        int routeCount = theIn.getInt();
+        if (myTickCount < 0 || releasedCount < 0 || releasedCount > myLastId || size < 0 || routeCount < 0) {
+            throw new IOException("Corrupt checkpoint header");
+        }
+        mySize = size;
+        myReleasedIds = read(theIn, new int[releasedCount], releasedCount);
+        for (int id : myReleasedIds) {
+            if (id < 1 || id > myLastId) {
+                throw new IOException("Corrupt checkpoint: released ID out of range");
+            }
+        }
+
+        int[] pointCounts = read(theIn, new int[routeCount], routeCount);
+        CompiledRoute[] table = new CompiledRoute[routeCount];
+        for (int r = 0; r < routeCount; r++) {
+            ArrayList<RoutePoint> points = new ArrayList<>(pointCounts[r]);
+            float[] headings = new float[pointCounts[r]];
+            for (int p = 0; p < pointCounts[r]; p++) {
+                points.add(new RoutePoint(theIn.getFloat(), theIn.getFloat(), theIn.getFloat()));
+                headings[p] = theIn.getFloat();
+            }
+            table[r] = new CompiledRoute(points, headings);
+        }
+        int[] routeIndexes = read(theIn, new int[size], size);
+        myRoutes = new CompiledRoute[size];
+        for (int slot = 0; slot < size; slot++) {
+            myRoutes[slot] = table[routeIndexes[slot]];
+        }
+
+        myIds = read(theIn, new int[size], size);
+        myLongitudes = read(theIn, new float[size], size);
+        myLatitudes = read(theIn, new float[size], size);
+        myAltitudes = read(theIn, new float[size], size);
+        myVelocities = read(theIn, new float[size], size);
+        myBatteries = read(theIn, new float[size], size);
+        myHeadings = read(theIn, new float[size], size);
+        myNextPoints = read(theIn, new int[size], size);
+        myRemaining = read(theIn, new float[size], size);
+        myAlive = read(theIn, new boolean[size], size);
+        myLastAnomalies = read(theIn, new byte[size], size);
+        myRngStates = read(theIn, new long[size], size);
+        myAnomalyCountdowns = read(theIn, new long[size], size);
+        myDeferred = read(theIn, new int[size], size);
+        for (int slot = 0; slot < size; slot++) {
+            if (myNextPoints[slot] < 0 || myNextPoints[slot] >= myRoutes[slot].size()) {
+                throw new IOException("Corrupt checkpoint: waypoint index out of range");
+            }
+        }
+
+        myReported = new TelemetryColumns(size);
+        read(theIn, myReported.myIds, size);
+        read(theIn, myReported.myLongitudes, size);
+        read(theIn, myReported.myLatitudes, size);
+        read(theIn, myReported.myAltitudes, size);
+        read(theIn, myReported.myVelocities, size);
+        read(theIn, myReported.myBatteries, size);
+        read(theIn, myReported.myHeadings, size);
+        read(theIn, myReported.myTimeStamps, size);
+        read(theIn, myReported.myPresent, size);
+    }
+
+    /**
+     * Captures the state of an engine's simulation. Must be called between
+     * ticks, on the thread that ticks the engine.
+     *
+     * @param theEngine the simulation.
+     * @return the checkpoint.
+     */
+    public static FleetCheckpoint capture(final SimulationEngine theEngine) {
+        return capture(theEngine.getGenerator());
+    }
+
+    /**
+     * Captures the state of a generator's fleet, stamped with the time of the
+     * generator's clock. Must be called between ticks, on the thread that
+     * ticks the generator.
+     *
+     * @param theGenerator the generator.
+     * @return the checkpoint.
+     */
+    public static FleetCheckpoint capture(final TelemetryGenerator theGenerator) {
+        return new FleetCheckpoint(theGenerator);
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param thePath the file.
+     * @return the checkpoint.
+     * @throws IOException if the file cannot be read or is not a valid checkpoint.
+     */
+    public static FleetCheckpoint read(final Path thePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(thePath, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoint too large to map: " + thePath);
+            }
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ORDER);
+            return new FleetCheckpoint(in);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt checkpoint: " + thePath, e);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a file, replacing it if it exists. Safe to call
+     * from any thread, also while the simulation keeps ticking.
+     *
+     * @param thePath the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(final Path thePath) throws IOException {
+        Map<CompiledRoute, Integer> indexes = new IdentityHashMap<>();
+        List<CompiledRoute> table = new ArrayList<>();
+        int[] routeIndexes = new int[mySize];
+        for (int slot = 0; slot < mySize; slot++) {
+            Integer index = indexes.putIfAbsent(myRoutes[slot], table.size());
+            if (index == null) {
+                index = table.size();
+                table.add(myRoutes[slot]);
+            }
+            routeIndexes[slot] = index;
+        }
+
+        try (Output out = new Output(thePath)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(myTime);
+            out.putLong(myTickCount);
+            out.putFloat(myAnomalyPercent);
+            out.putLong(mySeed);
+            out.putLong(myJoined);
+            out.putInt(myLastId);
+            out.putInt(myReleasedIds.length);
+            out.putInt(mySize);
+            out.putInt(table.size());
+            out.write(myReleasedIds, myReleasedIds.length);
+
+            for (CompiledRoute route : table) {
+                out.putInt(route.size());
+            }
+            for (CompiledRoute route : table) {
+                for (int p = 0; p < route.size(); p++) {
+                    int at = p * CompiledRoute.STRIDE + CompiledRoute.POINT;
+                    for (int c = 0; c < COORDINATES; c++) {
+                        out.putFloat(route.myData[at + c]);
+                    }
+                    out.putFloat(route.getHeading(p));
+                }
+            }
+            out.write(routeIndexes, mySize);
+
+            out.write(myIds, mySize);
+            out.write(myLongitudes, mySize);
+            out.write(myLatitudes, mySize);
+            out.write(myAltitudes, mySize);
+            out.write(myVelocities, mySize);
+            out.write(myBatteries, mySize);
+            out.write(myHeadings, mySize);
+            out.write(myNextPoints, mySize);
+            out.write(myRemaining, mySize);
+            out.write(myAlive, mySize);
+            out.write(myLastAnomalies, mySize);
+            out.write(myRngStates, mySize);
+            out.write(myAnomalyCountdowns, mySize);
+            out.write(myDeferred, mySize);
+
+            out.write(myReported.myIds, mySize);
+            out.write(myReported.myLongitudes, mySize);
+            out.write(myReported.myLatitudes, mySize);
+            out.write(myReported.myAltitudes, mySize);
+            out.write(myReported.myVelocities, mySize);
+            out.write(myReported.myBatteries, mySize);
+            out.write(myReported.myHeadings, mySize);
+            out.write(myReported.myTimeStamps, mySize);
+            out.write(myReported.myPresent, mySize);
+        }
+    }
+
+    /**
+     * Restores the checkpoint into a new simulation. The engine is seeded
+     * with the checkpoint's seed and has its anomaly probability, and drones
+     * it creates later get the IDs the captured simulation would have given
+     * them: released IDs first, then IDs after the restored ones.
+     *
+     * @param theClock clock for the new simulation; to continue the
+     *                 captured timeline, start it at {@link #getTime()}.
+     * @return the restored simulation.
+     */
+    public SimulationEngine restore(final SimulationClock theClock) {
+        SimulationEngine engine = new SimulationEngine(myAnomalyPercent, mySeed, theClock);
+        restore(engine.getGenerator());
+        return engine;
+    }
+
+    /**
+     * Restores the checkpoint into a generator whose fleet is empty. The
+     * generator keeps its own anomaly probability and clock, and continues
+     * the captured simulation's tick count. The fleet's
+     * {@link IdAllocator} takes back the captured fleet's released IDs, so
+     * it should not have numbered the drones of other fleets yet.
+     *
+     * @param theGenerator the generator.
+     * @throws IllegalStateException if the generator already has drones.
+     */
+    public void restore(final TelemetryGenerator theGenerator) {
+        FleetState fleet = theGenerator.getFleet();
+        int size = mySize;
+        fleet.restore(size, mySeed, myJoined);
+        System.arraycopy(myRoutes, 0, fleet.myRoutes, 0, size);
+        System.arraycopy(myIds, 0, fleet.myIds, 0, size);
+        System.arraycopy(myLongitudes, 0, fleet.myLongitudes, 0, size);
+        System.arraycopy(myLatitudes, 0, fleet.myLatitudes, 0, size);
+        System.arraycopy(myAltitudes, 0, fleet.myAltitudes, 0, size);
+        System.arraycopy(myVelocities, 0, fleet.myVelocities, 0, size);
+        System.arraycopy(myBatteries, 0, fleet.myBatteries, 0, size);
+        System.arraycopy(myHeadings, 0, fleet.myHeadings, 0, size);
+        System.arraycopy(myNextPoints, 0, fleet.myNextPoints, 0, size);
+        System.arraycopy(myRemaining, 0, fleet.myRemaining, 0, size);
+        System.arraycopy(myAlive, 0, fleet.myAlive, 0, size);
+        System.arraycopy(myLastAnomalies, 0, fleet.myLastAnomalies, 0, size);
+        System.arraycopy(myRngStates, 0, fleet.myRngStates, 0, size);
+        System.arraycopy(myAnomalyCountdowns, 0, fleet.myAnomalyCountdowns, 0, size);
+        System.arraycopy(myDeferred, 0, fleet.myDeferred, 0, size);
+        fleet.myReported.copyFrom(myReported, size);
+        for (int slot = 0; slot < size; slot++) {
+            fleet.loadSegment(slot);
+            fleet.myViews[slot] = new Drone(fleet, slot);
+        }
+        IdAllocator allocator = fleet.getIdAllocator();
+        allocator.skipPast(myLastId);
+        for (int id : myReleasedIds) {
+            allocator.release(id);
+        }
+        theGenerator.restoreTickCount(myTickCount);
+    }
+
+    /**
+     * Returns the simulated time at which the checkpoint was captured.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getTime() {
+        return myTime;
+    }
+
+    /**
+     * Returns the number of drones in the checkpoint.
+     *
+     * @return the drone count.
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Returns the anomaly probability of the captured simulation.
+     *
+     * @return the anomaly probability (0–100).
+     */
+    public float getAnomalyPercent() {
+        return myAnomalyPercent;
+    }
+
+    /**
+     * Returns the seed the captured fleet's random streams were derived from.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Fills the start of an array with the next values of a buffer and moves past them.
+     * The {@code read} overloads below do the same for the other column types.
+     */
+    private static int[] read(final ByteBuffer theIn, final int[] theTo, final int theCount) {
+        theIn.asIntBuffer().get(theTo, 0, theCount);
+        theIn.position(theIn.position() + theCount * Integer.BYTES);
+        return theTo;
+    }
+
+    private static float[] read(final ByteBuffer theIn, final float[] theTo, final int theCount) {
+        theIn.asFloatBuffer().get(theTo, 0, theCount);
+        theIn.position(theIn.position() + theCount * Float.BYTES);
+        return theTo;
+    }
+
+    private static long[] read(final ByteBuffer theIn, final long[] theTo, final int theCount) {
+        theIn.asLongBuffer().get(theTo, 0, theCount);
+        theIn.position(theIn.position() + theCount * Long.BYTES);
+        return theTo;
+    }
+
+    private static byte[] read(final ByteBuffer theIn, final byte[] theTo, final int theCount) {
+        theIn.get(theTo, 0, theCount);
+        return theTo;
+    }
+
+    private static boolean[] read(final ByteBuffer theIn, final boolean[] theTo, final int theCount) {
+        for (int i = 0; i < theCount; i++) {
+            theTo[i] = theIn.get() != 0;
+        }
+        return theTo;
+    }
+
+    /**
+     * Writes values to a file through a direct buffer, in the file's byte
+     * order, a buffer at a time.
+     */
+    private static final class Output implements AutoCloseable {
+
+        private final FileChannel myChannel;
+
+        private final ByteBuffer myBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+
+        private Output(final Path thePath) throws IOException {
+            myChannel = FileChannel.open(thePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putInt(final int theValue) throws IOException {
+            room(Integer.BYTES);
+            myBuffer.putInt(theValue);
+        }
+
+        void putLong(final long theValue) throws IOException {
+            room(Long.BYTES);
+            myBuffer.putLong(theValue);
+        }
+
+        void putFloat(final float theValue) throws IOException {
+            room(Float.BYTES);
+            myBuffer.putFloat(theValue);
+        }
+
+        void write(final int[] theValues, final int theCount) throws IOException {
+            for (int at = 0; at < theCount; ) {
+                int n = Math.min(theCount - at, room(Integer.BYTES));
+                myBuffer.asIntBuffer().put(theValues, at, n);
+                myBuffer.position(myBuffer.position() + n * Integer.BYTES);
+                at += n;
+            }
+        }
+
+        void write(final float[] theValues, final int theCount) throws IOException {
+            for (int at = 0; at < theCount; ) {
+                int n = Math.min(theCount - at, room(Float.BYTES));
+                myBuffer.asFloatBuffer().put(theValues, at, n);
+                myBuffer.position(myBuffer.position() + n * Float.BYTES);
+                at += n;
+            }
+        }
+
+        void write(final long[] theValues, final int theCount) throws IOException {
+            for (int at = 0; at < theCount; ) {
+                int n = Math.min(theCount - at, room(Long.BYTES));
+                myBuffer.asLongBuffer().put(theValues, at, n);
+                myBuffer.position(myBuffer.position() + n * Long.BYTES);
+                at += n;
+            }
+        }
+
+        void write(final byte[] theValues, final int theCount) throws IOException {
+            for (int at = 0; at < theCount; ) {
+                int n = Math.min(theCount - at, room(1));
+                myBuffer.put(theValues, at, n);
+                at += n;
+            }
+        }
+
+        void write(final boolean[] theValues, final int theCount) throws IOException {
+            for (int i = 0; i < theCount; i++) {
+                room(1);
+                myBuffer.put((byte) (theValues[i] ? 1 : 0));
+            }
+        }
+
+        /**
+         * Flushes the buffer if it cannot take one more value of the given size.
+         *
+         * @return how many values of that size fit in the buffer.
+         */
+        private int room(final int theBytes) throws IOException {
+            if (myBuffer.remaining() < theBytes) {
+                flush();
+            }
+            return myBuffer.remaining() / theBytes;
+        }
+
+        private void flush() throws IOException {
+            myBuffer.flip();
+            while (myBuffer.hasRemaining()) {
+                myChannel.write(myBuffer);
+            }
+            myBuffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                myChannel.close();
+            }
+        }
+    }
+}
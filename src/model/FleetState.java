@@ -0,0 +1,856 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Structure-of-arrays store for the state of a fleet of drones.
+ * <p>
+ * Every drone owns one dense slot, and each piece of its state (position,
+ * velocity, battery, heading, next waypoint, health) lives in a parallel
+ * primitive array at that slot. Tick loops walk these arrays in slot order
+ * instead of calling through one object graph per drone, and a drone costs a
+ * handful of array elements instead of four composed system objects.
+ * <p>
+ * {@link Drone} objects are thin views over a slot. Slots are kept in the
+ * order drones were added, and removing a drone shifts the later slots down
+ * and rebinds their views, so slot order always matches insertion order.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class FleetState {
+
+    /** Marker stored in {@link #myLastAnomalies} when no anomaly has happened. */
+    static final byte NO_ANOMALY = -1;
+
+    /** All anomaly types, indexed by the ordinals stored in {@link #myLastAnomalies}. */
+    private static final AnomalyEnum[] ANOMALIES = AnomalyEnum.values();
+
+    /** Number of occupied slots. */
+    private int mySize;
+
+    /** Drone IDs, by slot. */
+    int[] myIds;
+
+    /** Longitudes, by slot. */
+    float[] myLongitudes;
+
+    /** Latitudes, by slot. */
+    float[] myLatitudes;
+
+    /** Altitudes, by slot. */
+    float[] myAltitudes;
+
+    /** Velocities, by slot. */
+    float[] myVelocities;
+
+    /** Battery levels, by slot. */
+    float[] myBatteries;
+
+    /** Headings in degrees (0–359), by slot. */
+    float[] myHeadings;
+
+    /** Index of the next waypoint in the slot's route. */
+    int[] myNextPoints;
+
+    /**
+     * Distance left along the segment to the next waypoint, or
+     * {@link #OFF_SEGMENT} if something other than a normal move has put the
+     * slot somewhere off that segment, by slot.
+     */
+    float[] myRemaining;
+
+    /** Longitude of the waypoint at the end of each slot's segment. */
+    float[] myTargetLongitudes;
+
+    /** Latitude of the waypoint at the end of each slot's segment. */
+    float[] myTargetLatitudes;
+
+    /** Altitude of the waypoint at the end of each slot's segment. */
+    float[] myTargetAltitudes;
+
+    /** Longitude component of the unit direction of each slot's segment. */
+    float[] myDirectionLongitudes;
+
+    /** Latitude component of the unit direction of each slot's segment. */
+    float[] myDirectionLatitudes;
+
+    /** Altitude component of the unit direction of each slot's segment. */
+    float[] myDirectionAltitudes;
+
+    /** Heading of each slot's segment, or NaN if moving along it keeps the heading. */
+    float[] mySegmentHeadings;
+
+    /** Drone health, by slot. */
+    boolean[] myAlive;
+
+    /** Ordinal of the last anomaly applied, or {@link #NO_ANOMALY}, by slot. */
+    byte[] myLastAnomalies;
+
+    /**
+     * Lowest battery level a slot may reach while cruising unsimulated, which
+     * keeps it above the level at which a low battery is reported.
+     */
+    static final float CRUISE_MIN_BATTERY = 20;
+
+    /** Marker stored in {@link #myRemaining} when a slot has left its route segment. */
+    static final float OFF_SEGMENT = -1;
+
+    /** Each slot's compiled circular route. */
+    CompiledRoute[] myRoutes;
+
+    /** Last telemetry reported for each slot. */
+    TelemetryColumns myReported;
+
+    /** The drone view bound to each slot. */
+    Drone[] myViews;
+
+    /** Per-slot {@link SplitMix64} random stream states. */
+    long[] myRngStates;
+
+    /**
+     * Ticks left until each slot's next anomaly, counting the anomaly tick,
+     * or 0 if the next gap has not been drawn yet.
+     */
+    long[] myAnomalyCountdowns;
+
+    /**
+     * Ticks each slot has been left unsimulated by a {@link LevelOfDetail}
+     * window, or 0 if it is up to date.
+     */
+    int[] myDeferred;
+
+    /** Seed from which each joining drone's random stream is derived. */
+    private long mySeed;
+
+    /** Number of drones that have joined this fleet, used to number their streams. */
+    private long myJoined;
+
+    /** Clock used to stamp records created outside a tick. */
+    private SimulationClock myClock = WallClock.INSTANCE;
+
+    /** Numbers the drones created in this fleet. */
+    private final IdAllocator myIdAllocator;
+
+    /** Scratch output for single-threaded moves made through {@link Drone}. */
+    private final float[] myScratch = new float[4];
+
+    /**
+     * Creates an empty fleet store whose drones are numbered by the
+     * {@linkplain IdAllocator#shared() shared allocator}.
+     *
+     * @param theInitialCapacity number of slots to preallocate.
+     */
+    public FleetState(final int theInitialCapacity) {
+        this(theInitialCapacity, IdAllocator.shared());
+    }
+
+    /**
+     * Creates an empty fleet store whose drones are numbered by the given
+     * allocator.
+     *
+     * @param theInitialCapacity number of slots to preallocate.
+     * @param theIdAllocator allocator for the IDs of drones created in this fleet.
+     */
+    public FleetState(final int theInitialCapacity, final IdAllocator theIdAllocator) {
+        myIdAllocator = Objects.requireNonNull(theIdAllocator);
+        int capacity = Math.max(1, theInitialCapacity);
+        myIds = new int[capacity];
+        myLongitudes = new float[capacity];
+        myLatitudes = new float[capacity];
+        myAltitudes = new float[capacity];
+        myVelocities = new float[capacity];
+        myBatteries = new float[capacity];
+        myHeadings = new float[capacity];
+        myNextPoints = new int[capacity];
+        myRemaining = new float[capacity];
+        myTargetLongitudes = new float[capacity];
+        myTargetLatitudes = new float[capacity];
+        myTargetAltitudes = new float[capacity];
+        myDirectionLongitudes = new float[capacity];
+        myDirectionLatitudes = new float[capacity];
+        myDirectionAltitudes = new float[capacity];
+        mySegmentHeadings = new float[capacity];
+        myAlive = new boolean[capacity];
+        myLastAnomalies = new byte[capacity];
+        myRoutes = new CompiledRoute[capacity];
+        myReported = new TelemetryColumns(capacity);
+        myViews = new Drone[capacity];
+        myRngStates = new long[capacity];
+        myAnomalyCountdowns = new long[capacity];
+        myDeferred = new int[capacity];
+        mySeed = System.nanoTime();
+    }
+
+    /**
+     * Reseeds the fleet. Every current drone gets a fresh random stream
+     * derived from the seed and its slot, and drones that join later continue
+     * the numbering, so the same seed and the same sequence of additions
+     * always produce the same random draws.
+     *
+     * @param theSeed the new seed.
+     */
+    public void reseed(final long theSeed) {
+        mySeed = theSeed;
+        for (int slot = 0; slot < mySize; slot++) {
+            myRngStates[slot] = SplitMix64.stream(mySeed, slot);
+            myAnomalyCountdowns[slot] = 0;
+        }
+        myJoined = mySize;
+    }
+
+    /**
+     * Sets the clock used to stamp records created outside a tick, such as a
+     * new drone's first telemetry record.
+     *
+     * @param theClock the clock.
+     */
+    public void setClock(final SimulationClock theClock) {
+        myClock = Objects.requireNonNull(theClock);
+    }
+
+    /**
+     * Returns the allocator that numbers drones created in this fleet.
+     * Drones adopted from another fleet keep their IDs.
+     *
+     * @return the ID allocator.
+     */
+    public IdAllocator getIdAllocator() {
+        return myIdAllocator;
+    }
+
+    /**
+     * Returns the number of drones in the fleet.
+     *
+     * @return the number of occupied slots.
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Returns the telemetry last reported for each drone. The simulation tick
+     * overwrites these columns in place.
+     *
+     * @return the reported telemetry, indexed by slot.
+     */
+    public TelemetryColumns getReported() {
+        return myReported;
+    }
+
+    /**
+     * Returns the drone view bound to a slot.
+     *
+     * @param theSlot the slot.
+     * @return the drone at that slot.
+     */
+    public Drone getDrone(final int theSlot) {
+        return myViews[theSlot];
+    }
+
+    /**
+     * Adds a new drone to the end of the fleet.
+     *
+     * @param theView the view that will be bound to the slot, or null for a
+     *        drone's private fleet, which is only reached through the drone.
+     * @param theId the drone's ID.
+     * @param theVelocity starting velocity.
+     * @param theBattery starting battery level.
+     * @param theRoute the route; the drone starts at its first point.
+     * @return the new slot.
+     */
+    int add(final Drone theView, final int theId, final float theVelocity,
+            final float theBattery, final CompiledRoute theRoute) {
+        int slot = reserve();
+        int next = 1 % theRoute.size();
+        myIds[slot] = theId;
+        myLongitudes[slot] = theRoute.myData[CompiledRoute.POINT];
+        myLatitudes[slot] = theRoute.myData[CompiledRoute.POINT + 1];
+        myAltitudes[slot] = theRoute.myData[CompiledRoute.POINT + 2];
+        myVelocities[slot] = theVelocity;
+        myBatteries[slot] = theBattery;
+        myHeadings[slot] = 0;
+        myNextPoints[slot] = next;
+        myAlive[slot] = true;
+        myLastAnomalies[slot] = NO_ANOMALY;
+        myRoutes[slot] = theRoute;
+        enterSegment(slot);
+        myReported.myPresent[slot] = false;
+        myViews[slot] = theView;
+        myRngStates[slot] = SplitMix64.stream(mySeed, myJoined++);
+        myAnomalyCountdowns[slot] = 0;
+        myDeferred[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Moves a drone from another fleet to the end of this one, carrying all of
+     * its state, and rebinds its view.
+     *
+     * @param theDrone the drone to adopt.
+     */
+    void adopt(final Drone theDrone) {
+        FleetState source = theDrone.getFleet();
+        int from = theDrone.getSlot();
+        int slot = reserve();
+        myIds[slot] = source.myIds[from];
+        myLongitudes[slot] = source.myLongitudes[from];
+        myLatitudes[slot] = source.myLatitudes[from];
+        myAltitudes[slot] = source.myAltitudes[from];
+        myVelocities[slot] = source.myVelocities[from];
+        myBatteries[slot] = source.myBatteries[from];
+        myHeadings[slot] = source.myHeadings[from];
+        myNextPoints[slot] = source.myNextPoints[from];
+        myRemaining[slot] = source.myRemaining[from];
+        myTargetLongitudes[slot] = source.myTargetLongitudes[from];
+        myTargetLatitudes[slot] = source.myTargetLatitudes[from];
+        myTargetAltitudes[slot] = source.myTargetAltitudes[from];
+        myDirectionLongitudes[slot] = source.myDirectionLongitudes[from];
+        myDirectionLatitudes[slot] = source.myDirectionLatitudes[from];
+        myDirectionAltitudes[slot] = source.myDirectionAltitudes[from];
+        mySegmentHeadings[slot] = source.mySegmentHeadings[from];
+        myAlive[slot] = source.myAlive[from];
+        myLastAnomalies[slot] = source.myLastAnomalies[from];
+        myRoutes[slot] = source.myRoutes[from];
+        myReported.copy(slot, source.myReported, from);
+        myViews[slot] = theDrone;
+        myRngStates[slot] = SplitMix64.stream(mySeed, myJoined++);
+        myAnomalyCountdowns[slot] = 0;
+        myDeferred[slot] = source.myDeferred[from];
+
+        source.remove(from);
+        theDrone.bind(this, slot);
+    }
+
+    /**
+     * Removes a slot, shifting later slots down so order is preserved.
+     * The removed drone's view is left unbound; callers that keep using it
+     * must adopt it into another fleet first.
+     *
+     * @param theSlot the slot to remove.
+     */
+    void remove(final int theSlot) {
+        int tail = mySize - theSlot - 1;
+        if (tail > 0) {
+            System.arraycopy(myIds, theSlot + 1, myIds, theSlot, tail);
+            System.arraycopy(myLongitudes, theSlot + 1, myLongitudes, theSlot, tail);
+            System.arraycopy(myLatitudes, theSlot + 1, myLatitudes, theSlot, tail);
+            System.arraycopy(myAltitudes, theSlot + 1, myAltitudes, theSlot, tail);
+            System.arraycopy(myVelocities, theSlot + 1, myVelocities, theSlot, tail);
+            System.arraycopy(myBatteries, theSlot + 1, myBatteries, theSlot, tail);
+            System.arraycopy(myHeadings, theSlot + 1, myHeadings, theSlot, tail);
+            System.arraycopy(myNextPoints, theSlot + 1, myNextPoints, theSlot, tail);
+            System.arraycopy(myRemaining, theSlot + 1, myRemaining, theSlot, tail);
+            System.arraycopy(myTargetLongitudes, theSlot + 1, myTargetLongitudes, theSlot, tail);
+            System.arraycopy(myTargetLatitudes, theSlot + 1, myTargetLatitudes, theSlot, tail);
+            System.arraycopy(myTargetAltitudes, theSlot + 1, myTargetAltitudes, theSlot, tail);
+            System.arraycopy(myDirectionLongitudes, theSlot + 1, myDirectionLongitudes, theSlot, tail);
+            System.arraycopy(myDirectionLatitudes, theSlot + 1, myDirectionLatitudes, theSlot, tail);
+            System.arraycopy(myDirectionAltitudes, theSlot + 1, myDirectionAltitudes, theSlot, tail);
+            System.arraycopy(mySegmentHeadings, theSlot + 1, mySegmentHeadings, theSlot, tail);
+            System.arraycopy(myAlive, theSlot + 1, myAlive, theSlot, tail);
+            System.arraycopy(myLastAnomalies, theSlot + 1, myLastAnomalies, theSlot, tail);
+            System.arraycopy(myRoutes, theSlot + 1, myRoutes, theSlot, tail);
+            System.arraycopy(myViews, theSlot + 1, myViews, theSlot, tail);
+            System.arraycopy(myRngStates, theSlot + 1, myRngStates, theSlot, tail);
+            System.arraycopy(myAnomalyCountdowns, theSlot + 1, myAnomalyCountdowns, theSlot, tail);
+            System.arraycopy(myDeferred, theSlot + 1, myDeferred, theSlot, tail);
+            for (int slot = theSlot; slot < theSlot + tail; slot++) {
+                myViews[slot].bind(this, slot);
+            }
+        }
+        myReported.remove(theSlot, mySize);
+        mySize--;
+        myRoutes[mySize] = null;
+        myViews[mySize] = null;
+    }
+
+    /**
+     * Returns the next waypoint for a slot (circular).
+     *
+     * @param theSlot the slot.
+     * @return the next RoutePoint.
+     */
+    RoutePoint nextPoint(final int theSlot) {
+        return myRoutes[theSlot].getPoint(myNextPoints[theSlot]);
+    }
+
+    /**
+     * Advances a slot to the next waypoint in its route (circular). The slot
+     * is not assumed to be on the new segment; see {@link #arrive(int)}.
+     *
+     * @param theSlot the slot.
+     */
+    void advanceToNextPoint(final int theSlot) {
+        int next = myNextPoints[theSlot] + 1;
+        myNextPoints[theSlot] = next == myRoutes[theSlot].size() ? 0 : next;
+        myRemaining[theSlot] = OFF_SEGMENT;
+    }
+
+    /**
+     * Advances a slot that has just reached its next waypoint, putting it at
+     * the start of the following segment.
+     *
+     * @param theSlot the slot.
+     */
+    private void arrive(final int theSlot) {
+        advanceToNextPoint(theSlot);
+        enterSegment(theSlot);
+    }
+
+    /**
+     * Puts a slot at the start of the segment leading to its next waypoint,
+     * copying that segment's geometry out of the compiled route so normal
+     * moves read it from the slot's own array elements.
+     *
+     * @param theSlot the slot.
+     */
+    private void enterSegment(final int theSlot) {
+        myRemaining[theSlot] = myRoutes[theSlot].getSegmentLength(myNextPoints[theSlot]);
+        loadSegment(theSlot);
+    }
+
+    /**
+     * Copies the geometry of the segment leading to a slot's next waypoint
+     * out of its compiled route, leaving the distance it has left alone.
+     *
+     * @param theSlot the slot.
+     */
+    void loadSegment(final int theSlot) {
+        float[] data = myRoutes[theSlot].myData;
+        int at = myNextPoints[theSlot] * CompiledRoute.STRIDE;
+        myTargetLongitudes[theSlot] = data[at + CompiledRoute.POINT];
+        myTargetLatitudes[theSlot] = data[at + CompiledRoute.POINT + 1];
+        myTargetAltitudes[theSlot] = data[at + CompiledRoute.POINT + 2];
+        myDirectionLongitudes[theSlot] = data[at + CompiledRoute.DIRECTION];
+        myDirectionLatitudes[theSlot] = data[at + CompiledRoute.DIRECTION + 1];
+        myDirectionAltitudes[theSlot] = data[at + CompiledRoute.DIRECTION + 2];
+        mySegmentHeadings[theSlot] = data[at + CompiledRoute.HEADING];
+    }
+
+    /**
+     * Marks a slot as moved off its route segment, so its next normal move
+     * measures the way to the waypoint afresh. Anything that changes a
+     * slot's position other than a normal move must call this.
+     *
+     * @param theSlot the slot.
+     */
+    void leaveSegment(final int theSlot) {
+        myRemaining[theSlot] = OFF_SEGMENT;
+    }
+
+    /**
+     * Returns the last anomaly applied to a slot.
+     *
+     * @param theSlot the slot.
+     * @return the last anomaly, or null if none has happened.
+     */
+    AnomalyEnum lastAnomaly(final int theSlot) {
+        byte ordinal = myLastAnomalies[theSlot];
+        return ordinal == NO_ANOMALY ? null : ANOMALIES[ordinal];
+    }
+
+    /**
+     * Counts down a slot's ticks to its next anomaly, drawing a new
+     * geometric gap from the slot's stream when the previous one has run
+     * out. Each tick is an anomaly with the given chance, independently of
+     * the others, exactly as if a float were drawn and compared every tick,
+     * but the stream is only used once per anomaly.
+     *
+     * @param theSlot the slot.
+     * @param theChance chance of an anomaly per tick.
+     * @return true if this tick is an anomaly.
+     */
+    boolean anomalyDue(final int theSlot, final double theChance) {
+        if (myAnomalyCountdowns[theSlot] == 0) {
+            myAnomalyCountdowns[theSlot] = SplitMix64.nextGeometric(myRngStates, theSlot, theChance);
+        }
+        return --myAnomalyCountdowns[theSlot] == 0;
+    }
+
+    /**
+     * Performs a normal route-following move for a slot using the fleet's own
+     * scratch space. Not safe to call from several threads at once.
+     *
+     * @param theSlot the slot to move.
+     * @param theDeltaTime time step.
+     */
+    void moveNormal(final int theSlot, final float theDeltaTime) {
+        moveNormal(theSlot, theDeltaTime, myScratch);
+    }
+
+    /**
+     * Performs a normal route-following move for a slot. Slots only touch
+     * their own array elements, so different slots may be moved concurrently
+     * as long as each thread passes its own scratch array.
+     *
+     * @param theSlot the slot to move.
+     * @param theDeltaTime time step.
+     * @param theScratch array of at least four elements used for intermediate results.
+     */
+    void moveNormal(final int theSlot, final float theDeltaTime, final float[] theScratch) {
+        float longitude = myLongitudes[theSlot];
+        float latitude = myLatitudes[theSlot];
+        float remaining = myRemaining[theSlot];
+        float newLongitude;
+        float newLatitude;
+
+        if (remaining == OFF_SEGMENT) {
+            boolean reached = NavigationSystem.step(nextPoint(theSlot), longitude, latitude,
+                    myAltitudes[theSlot], myVelocities[theSlot], theDeltaTime, theScratch);
+            newLongitude = theScratch[NavigationSystem.LONGITUDE];
+            newLatitude = theScratch[NavigationSystem.LATITUDE];
+            myHeadings[theSlot] = Orientation.heading(longitude, latitude, newLongitude, newLatitude,
+                    myHeadings[theSlot]);
+            if (reached) {
+                arrive(theSlot);
+            }
+        } else {
+            // Every move along a segment has the segment's own heading.
+            float heading = mySegmentHeadings[theSlot];
+            if (advance(theSlot, remaining, theDeltaTime, theScratch)) {
+                arrive(theSlot);
+            }
+            newLongitude = theScratch[NavigationSystem.LONGITUDE];
+            newLatitude = theScratch[NavigationSystem.LATITUDE];
+            if (!Float.isNaN(heading)) {
+                myHeadings[theSlot] = heading;
+            }
+        }
+        if (theScratch[NavigationSystem.ALTITUDE] < 0) {
+            // The ground clamp below pulls the slot off a segment that dips below it.
+            leaveSegment(theSlot);
+        }
+
+        float velocity = theScratch[NavigationSystem.VELOCITY];
+        myLongitudes[theSlot] = newLongitude;
+        myLatitudes[theSlot] = newLatitude;
+        myAltitudes[theSlot] = Math.max(0, theScratch[NavigationSystem.ALTITUDE]);
+        myVelocities[theSlot] = velocity;
+        drain(theSlot, BatterySystem.drainFor(velocity, theDeltaTime));
+    }
+
+    /**
+     * Completes a normal move for a slot after a batch kernel has moved the
+     * on-segment slots of its range (see {@link Kinematics}). The kernel
+     * leaves a slot that reached its waypoint at zero distance, does not mark
+     * a slot whose battery ran out as dead, and does not touch a slot that was
+     * off its segment, which is moved here instead.
+     *
+     * @param theSlot the slot.
+     * @param theBelowGround whether the kernel clamped the slot's altitude up
+     *                       to the ground, which pulls it off its segment as
+     *                       in {@link #moveNormal}.
+     * @param theDeltaTime time step.
+     * @param theScratch array of at least four elements used for intermediate results.
+     */
+    void finishMove(final int theSlot, final boolean theBelowGround, final float theDeltaTime,
+                    final float[] theScratch) {
+        float remaining = myRemaining[theSlot];
+        if (remaining == OFF_SEGMENT) {
+            moveNormal(theSlot, theDeltaTime, theScratch);
+            return;
+        }
+        if (remaining <= 0) {
+            arrive(theSlot);
+        }
+        if (myBatteries[theSlot] == 0) {
+            myAlive[theSlot] = false;
+        }
+        if (theBelowGround) {
+            leaveSegment(theSlot);
+        }
+    }
+
+    /**
+     * Moves a slot that is on its route segment one step closer to the next
+     * waypoint. This gives the same result as {@link NavigationSystem#step}
+     * (within float rounding), but works from the distance left and the
+     * segment's precomputed direction instead of measuring the way afresh.
+     *
+     * @param theSlot the slot to move.
+     * @param theRemaining distance left to the waypoint.
+     * @param theDeltaTime time step.
+     * @param theOut receives the new state, laid out as for {@link NavigationSystem#step}.
+     * @return true if the waypoint was reached.
+     */
+    private boolean advance(final int theSlot, final float theRemaining, final float theDeltaTime,
+                            final float[] theOut) {
+        float velocity = myVelocities[theSlot];
+        float left = 0;
+        if (theRemaining >= NavigationSystem.ARRIVAL_EPSILON) {
+            velocity = NavigationSystem.approachVelocity(theRemaining, velocity);
+            left = theRemaining - velocity * theDeltaTime;
+        }
+        theOut[NavigationSystem.VELOCITY] = velocity;
+        if (left <= 0) {
+            theOut[NavigationSystem.LONGITUDE] = myTargetLongitudes[theSlot];
+            theOut[NavigationSystem.LATITUDE] = myTargetLatitudes[theSlot];
+            theOut[NavigationSystem.ALTITUDE] = myTargetAltitudes[theSlot];
+            return true;
+        }
+
+        theOut[NavigationSystem.LONGITUDE] = myTargetLongitudes[theSlot] - myDirectionLongitudes[theSlot] * left;
+        theOut[NavigationSystem.LATITUDE] = myTargetLatitudes[theSlot] - myDirectionLatitudes[theSlot] * left;
+        theOut[NavigationSystem.ALTITUDE] = myTargetAltitudes[theSlot] - myDirectionAltitudes[theSlot] * left;
+        myRemaining[theSlot] = left;
+        return false;
+    }
+
+    /**
+     * Returns whether a slot's next ticks are nothing but normal moves at
+     * full speed along its current segment, so that {@link #cruise} can make
+     * them all at once: it is alive and on its segment at full speed, stays
+     * far enough from the waypoint not to slow down, stays above
+     * {@link #CRUISE_MIN_BATTERY} and has no anomaly due. Draws the slot's next anomaly gap if it has run
+     * out, as the next {@link #anomalyDue} call would.
+     *
+     * @param theSlot the slot.
+     * @param theTicks number of ticks.
+     * @param theDeltaTime time step of each tick.
+     * @param theChance chance of an anomaly per tick.
+     * @return true if the ticks can be made by {@link #cruise}.
+     */
+    boolean canCruise(final int theSlot, final int theTicks, final float theDeltaTime, final double theChance) {
+        float step = NavigationSystem.MAX_VELOCITY * theDeltaTime;
+        // One step of margin covers the rounding of the per-tick subtractions.
+        if (!myAlive[theSlot] || myRemaining[theSlot] == OFF_SEGMENT
+                || myVelocities[theSlot] != NavigationSystem.MAX_VELOCITY
+                || myRemaining[theSlot] - theTicks * step < NavigationSystem.SLOW_DOWN_DISTANCE
+                || myBatteries[theSlot] - (theTicks + 1) * BatterySystem.drainFor(NavigationSystem.MAX_VELOCITY,
+                        theDeltaTime) < CRUISE_MIN_BATTERY) {
+            return false;
+        }
+        if (myAnomalyCountdowns[theSlot] == 0) {
+            myAnomalyCountdowns[theSlot] = SplitMix64.nextGeometric(myRngStates, theSlot, theChance);
+        }
+        return myAnomalyCountdowns[theSlot] > theTicks;
+    }
+
+    /**
+     * Makes several normal moves of a slot that {@link #canCruise} cleared,
+     * leaving it exactly where one {@link #moveNormal} per tick would have:
+     * the distance left and the battery are reduced tick by tick with the
+     * same float operations, and the position is then placed on the segment.
+     * The ticks are also counted off the slot's anomaly countdown.
+     *
+     * @param theSlot the slot.
+     * @param theTicks number of ticks to make.
+     * @param theDeltaTime time step of each tick.
+     */
+    void cruise(final int theSlot, final int theTicks, final float theDeltaTime) {
+        float velocity = myVelocities[theSlot];
+        float drain = BatterySystem.drainFor(velocity, theDeltaTime);
+        float left = myRemaining[theSlot];
+        for (int tick = 0; tick < theTicks; tick++) {
+            left = left - velocity * theDeltaTime;
+            drain(theSlot, drain);
+        }
+        myRemaining[theSlot] = left;
+        myLongitudes[theSlot] = myTargetLongitudes[theSlot] - myDirectionLongitudes[theSlot] * left;
+        myLatitudes[theSlot] = myTargetLatitudes[theSlot] - myDirectionLatitudes[theSlot] * left;
+        float altitude = myTargetAltitudes[theSlot] - myDirectionAltitudes[theSlot] * left;
+        if (altitude < 0) {
+            leaveSegment(theSlot);
+        }
+        myAltitudes[theSlot] = Math.max(0, altitude);
+        if (!Float.isNaN(mySegmentHeadings[theSlot])) {
+            myHeadings[theSlot] = mySegmentHeadings[theSlot];
+        }
+        myAnomalyCountdowns[theSlot] = Math.max(0, myAnomalyCountdowns[theSlot] - theTicks);
+    }
+
+    /**
+     * Applies a random anomaly to a slot in place of a normal move, using the
+     * fleet's own scratch space. Not safe to call from several threads at once.
+     *
+     * @param theSlot the slot to move.
+     * @param theDeltaTime time step.
+     */
+    void moveRandom(final int theSlot, final float theDeltaTime) {
+        moveRandom(theSlot, theDeltaTime, myScratch);
+    }
+
+    /**
+     * Applies a random anomaly to a slot in place of a normal move. The
+     * anomaly is drawn from the slot's own random stream.
+     *
+     * @param theSlot the slot to move.
+     * @param theDeltaTime time step.
+     * @param theScratch array of at least three elements used for intermediate results.
+     */
+    void moveRandom(final int theSlot, final float theDeltaTime, final float[] theScratch) {
+        AnomalyEnum anomaly = AnomalyHandler.movementAnomaly(
+                SplitMix64.nextInt(myRngStates, theSlot, AnomalyHandler.MOVEMENT_ANOMALY_COUNT));
+        boolean increase = (anomaly == AnomalyEnum.ALTITUDE || anomaly == AnomalyEnum.SPEED)
+                && SplitMix64.nextBoolean(myRngStates, theSlot);
+        myLastAnomalies[theSlot] = (byte) anomaly.ordinal();
+
+        boolean batteryFail = AnomalyHandler.applyAnomaly(anomaly, increase, myAltitudes[theSlot],
+                myVelocities[theSlot], theDeltaTime, theScratch);
+        if (batteryFail) {
+            leaveSegment(theSlot);
+            myVelocities[theSlot] = 0;
+            myAltitudes[theSlot] = 0;
+            myBatteries[theSlot] = 0;
+            myAlive[theSlot] = false;
+            return;
+        }
+
+        // Position does not change, so the heading is kept as is.
+        float velocity = theScratch[AnomalyHandler.VELOCITY];
+        float altitude = Math.max(0, theScratch[AnomalyHandler.ALTITUDE]);
+        if (altitude != myAltitudes[theSlot]) {
+            leaveSegment(theSlot);
+        }
+        myAltitudes[theSlot] = altitude;
+        myVelocities[theSlot] = velocity;
+        drain(theSlot, BatterySystem.drainFor(velocity, theDeltaTime) + theScratch[AnomalyHandler.EXTRA_DRAIN]);
+    }
+
+    /**
+     * Marks a slot as crashed: grounded, stopped and dead.
+     *
+     * @param theSlot the slot.
+     */
+    void collide(final int theSlot) {
+        leaveSegment(theSlot);
+        myAltitudes[theSlot] = 0;
+        myVelocities[theSlot] = 0;
+        myAlive[theSlot] = false;
+    }
+
+    /**
+     * Creates a telemetry record from a slot's current state.
+     *
+     * @param theSlot the slot.
+     * @return a new TelemetryRecord.
+     */
+    TelemetryRecord record(final int theSlot) {
+        return new TelemetryRecord(
+                myIds[theSlot],
+                myLongitudes[theSlot],
+                myLatitudes[theSlot],
+                myAltitudes[theSlot],
+                myVelocities[theSlot],
+                myBatteries[theSlot],
+                myHeadings[theSlot],
+                myClock.now()
+        );
+    }
+
+    /**
+     * Writes a slot's current state into a set of telemetry columns, with an
+     * optional offset applied to the reported position.
+     *
+     * @param theSlot the slot.
+     * @param theOut the columns to write into.
+     * @param theLongitudeOffset added to the reported longitude.
+     * @param theLatitudeOffset added to the reported latitude.
+     * @param theAltitudeOffset added to the reported altitude.
+     * @param theTimeStamp the report timestamp.
+     */
+    void report(final int theSlot, final TelemetryColumns theOut, final float theLongitudeOffset,
+                final float theLatitudeOffset, final float theAltitudeOffset, final long theTimeStamp) {
+        theOut.set(theSlot,
+                myIds[theSlot],
+                myLongitudes[theSlot] + theLongitudeOffset,
+                myLatitudes[theSlot] + theLatitudeOffset,
+                myAltitudes[theSlot] + theAltitudeOffset,
+                myVelocities[theSlot],
+                myBatteries[theSlot],
+                myHeadings[theSlot],
+                theTimeStamp);
+    }
+
+    /**
+     * Drains a slot's battery and kills the drone if it runs out.
+     */
+    private void drain(final int theSlot, final float theAmount) {
+        myBatteries[theSlot] = Math.max(0, myBatteries[theSlot] - theAmount);
+        if (myBatteries[theSlot] == 0) {
+            myAlive[theSlot] = false;
+        }
+    }
+
+    /**
+     * Returns the seed from which joining drones' random streams are derived.
+     *
+     * @return the fleet's seed.
+     */
+    long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Returns the number of drones that have joined this fleet, which numbers
+     * the random stream of the next one.
+     *
+     * @return the number of drones that have joined.
+     */
+    long getJoined() {
+        return myJoined;
+    }
+
+    /**
+     * Prepares an empty fleet to be filled with restored state: claims the
+     * given number of slots and sets the stream numbering. The caller must
+     * then fill every slot's arrays, its segment geometry and its view.
+     *
+     * @param theCount number of slots to claim.
+     * @param theSeed the seed joining drones' streams are derived from.
+     * @param theJoined the number of drones that have joined so far.
+     * @throws IllegalStateException if the fleet is not empty.
+     */
+    void restore(final int theCount, final long theSeed, final long theJoined) {
+        if (mySize != 0) {
+            throw new IllegalStateException("Only an empty fleet can be restored");
+        }
+        if (myIds.length < theCount) {
+            grow(theCount);
+        }
+        mySize = theCount;
+        mySeed = theSeed;
+        myJoined = theJoined;
+    }
+
+    /**
+     * Claims the next free slot, growing the arrays if they are full.
+     */
+    private int reserve() {
+        if (mySize == myIds.length) {
+            grow(mySize + (mySize >> 1) + 1);
+        }
+        return mySize++;
+    }
+
+    /**
+     * Grows every per-slot array to the given capacity.
+     */
+    private void grow(final int theCapacity) {
+        myIds = Arrays.copyOf(myIds, theCapacity);
+        myLongitudes = Arrays.copyOf(myLongitudes, theCapacity);
+        myLatitudes = Arrays.copyOf(myLatitudes, theCapacity);
+        myAltitudes = Arrays.copyOf(myAltitudes, theCapacity);
+        myVelocities = Arrays.copyOf(myVelocities, theCapacity);
+        myBatteries = Arrays.copyOf(myBatteries, theCapacity);
+        myHeadings = Arrays.copyOf(myHeadings, theCapacity);
+        myNextPoints = Arrays.copyOf(myNextPoints, theCapacity);
+        myRemaining = Arrays.copyOf(myRemaining, theCapacity);
+        myTargetLongitudes = Arrays.copyOf(myTargetLongitudes, theCapacity);
+        myTargetLatitudes = Arrays.copyOf(myTargetLatitudes, theCapacity);
+        myTargetAltitudes = Arrays.copyOf(myTargetAltitudes, theCapacity);
+        myDirectionLongitudes = Arrays.copyOf(myDirectionLongitudes, theCapacity);
+        myDirectionLatitudes = Arrays.copyOf(myDirectionLatitudes, theCapacity);
+        myDirectionAltitudes = Arrays.copyOf(myDirectionAltitudes, theCapacity);
+        mySegmentHeadings = Arrays.copyOf(mySegmentHeadings, theCapacity);
+        myAlive = Arrays.copyOf(myAlive, theCapacity);
+        myLastAnomalies = Arrays.copyOf(myLastAnomalies, theCapacity);
+        myRoutes = Arrays.copyOf(myRoutes, theCapacity);
+        myReported.ensureCapacity(theCapacity);
+        myViews = Arrays.copyOf(myViews, theCapacity);
+        myRngStates = Arrays.copyOf(myRngStates, theCapacity);
+        myAnomalyCountdowns = Arrays.copyOf(myAnomalyCountdowns, theCapacity);
+        myDeferred = Arrays.copyOf(myDeferred, theCapacity);
+    }
+}
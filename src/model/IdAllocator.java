@@ -0,0 +1,149 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out drone IDs, counting up from 1.
+ * <p>
+ * Each {@link SimulationEngine} owns one, so the IDs of one simulation do not
+ * depend on how many drones other simulations in the same process, or
+ * earlier tests, have created. Drones created on their own, outside any
+ * engine, are numbered by the {@linkplain #shared() shared allocator} so they
+ * stay unique when they are later added to a generator.
+ * <p>
+ * IDs stay dense: an ID given back with {@link #release(int)} is handed out
+ * again before a new one is counted up, so the highest ID stays close to the
+ * number of drones in use. Stores of per-drone state can therefore index
+ * plain arrays by ID instead of hashing boxed keys. Reuse makes an ID name
+ * a different drone over time, so only release the ID of a drone that no
+ * report, map or log will mention again.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class IdAllocator {
+
+    /** Allocator for fleets that do not belong to an engine. */
+    private static final IdAllocator SHARED = new IdAllocator();
+
+    /** The highest ID handed out, or 0 before the first. */
+    private final AtomicInteger myLast = new AtomicInteger();
+
+    /** Number of released IDs waiting for reuse, readable without the lock. */
+    private final AtomicInteger myFreeCount = new AtomicInteger();
+
+    /** Released IDs waiting for reuse, most recent last; guarded by {@link #myLock}. */
+    private int[] myFree = new int[0];
+
+    /** Which IDs are in {@link #myFree}, to catch double releases; guarded by {@link #myLock}. */
+    private final BitSet myReleased = new BitSet();
+
+    /** Lock for the free list. */
+    private final Object myLock = new Object();
+
+    /**
+     * Creates an allocator whose first ID is 1.
+     */
+    public IdAllocator() {
+        // Starts at zero.
+    }
+
+    /**
+     * Returns the process-wide allocator used by fleets created without one.
+     *
+     * @return the shared allocator.
+     */
+    public static IdAllocator shared() {
+        return SHARED;
+    }
+
+    /**
+     * Hands out an ID. The most recently released ID is reused first;
+     * without one, the next ID up is counted. Safe to call from several
+     * threads; it takes no lock while no ID is waiting for reuse.
+     *
+     * @return an ID not in use.
+     */
+    public int next() {
+        if (myFreeCount.get() > 0) {
+            synchronized (myLock) {
+                int count = myFreeCount.get();
+                if (count > 0) {
+                    int id = myFree[count - 1];
+                    myReleased.clear(id);
+                    myFreeCount.set(count - 1);
+                    return id;
+                }
+            }
+        }
+        return myLast.incrementAndGet();
+    }
+
+    /**
+     * Gives an ID back for reuse. Safe to call from several threads.
+     *
+     * @param theId an ID handed out by this allocator that is no longer used.
+     * @throws IllegalArgumentException if the ID was never handed out.
+     * @throws IllegalStateException if the ID has already been released.
+     */
+    public void release(final int theId) {
+        if (theId < 1 || theId > myLast.get()) {
+            throw new IllegalArgumentException("ID " + theId + " was not handed out");
+        }
+        synchronized (myLock) {
+            if (myReleased.get(theId)) {
+                throw new IllegalStateException("ID " + theId + " is already released");
+            }
+            int count = myFreeCount.get();
+            if (count == myFree.length) {
+                myFree = Arrays.copyOf(myFree, Math.max(8, count * 2));
+            }
+            myFree[count] = theId;
+            myReleased.set(theId);
+            myFreeCount.set(count + 1);
+        }
+    }
+
+    /**
+     * Makes sure the next ID counted up is greater than the given one, for
+     * drones restored from a {@link FleetCheckpoint} that keep their IDs.
+     *
+     * @param theLast an ID already in use.
+     */
+    void skipPast(final int theLast) {
+        myLast.accumulateAndGet(theLast, Math::max);
+    }
+
+    /**
+     * Returns the IDs waiting for reuse, for a {@link FleetCheckpoint} to
+     * save. Releasing them in this order into an allocator that has
+     * {@linkplain #skipPast skipped past} the highest ID rebuilds this one.
+     *
+     * @return the released IDs, most recent last.
+     */
+    int[] released() {
+        synchronized (myLock) {
+            return Arrays.copyOf(myFree, myFreeCount.get());
+        }
+    }
+
+    /**
+     * Returns the highest ID handed out. Every ID in use is at most this, so
+     * it is the length an array indexed by ID needs, less one.
+     *
+     * @return the highest ID, or 0 before the first.
+     */
+    public int issued() {
+        return myLast.get();
+    }
+
+    /**
+     * Returns how many IDs are in use: handed out and not released.
+     *
+     * @return the number of IDs in use.
+     */
+    public int inUse() {
+        return myLast.get() - myFreeCount.get();
+    }
+}
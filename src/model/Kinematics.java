@@ -0,0 +1,145 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Moves many slots of a fleet through one normal route-following step.
+ * <p>
+ * This scalar implementation moves each slot in turn exactly as
+ * {@link Drone#getNextMove(float)} does. A drone on its route segment only
+ * needs a handful of its own array elements for a move (see
+ * {@link CompiledRoute}), so the movement, heading and battery drain of a
+ * whole range can also be computed several slots per instruction. The
+ * optional {@code VectorKinematics} does that with the incubating
+ * {@code jdk.incubator.vector} API. It lives outside the default source tree
+ * and is loaded by name, so it is only used when it has been compiled and the
+ * JVM was started with {@code --add-modules jdk.incubator.vector}; otherwise
+ * this scalar implementation is the fallback. Both give bit-for-bit the same
+ * fleet state.
+ * <p>
+ * The scalar implementation is the default. Until the JIT's optimizing
+ * compiler has compiled the vector loop, which takes some thousands of ticks,
+ * every vector operation allocates its result, so a short run with the
+ * vector implementation is slower and would break the generator's
+ * allocation-free steady state.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class Kinematics {
+
+    /**
+     * System property that picks the implementation: {@code scalar} or
+     * {@code vector}. The scalar implementation is the default.
+     */
+    public static final String PROPERTY = "drone.kinematics";
+
+    /** Fully qualified name of the optional vector implementation. */
+    private static final String VECTOR_CLASS = "model.VectorKinematics";
+
+    /** The scalar implementation. */
+    private static final Kinematics SCALAR = new Kinematics();
+
+    /** Scratch output for {@link #moveAll}. */
+    private final float[] myScratch = new float[4];
+
+    /**
+     * Creates a kinematics implementation. Only this package may add new ones.
+     */
+    Kinematics() {
+        // Stateless apart from scratch space.
+    }
+
+    /**
+     * Returns the scalar implementation.
+     *
+     * @return the scalar kinematics.
+     */
+    public static Kinematics scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Returns the vector implementation, if it is available.
+     *
+     * @return the vector kinematics, or null if it was not compiled or the
+     *         {@code jdk.incubator.vector} module is not loaded.
+     */
+    public static Kinematics vector() {
+        return VectorHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the implementation chosen by the {@link #PROPERTY} system
+     * property: the vector one if it is asked for and available, otherwise
+     * the scalar one.
+     *
+     * @return the default kinematics.
+     */
+    public static Kinematics getDefault() {
+        if ("vector".equals(System.getProperty(PROPERTY))) {
+            Kinematics vector = vector();
+            return vector == null ? SCALAR : vector;
+        }
+        return SCALAR;
+    }
+
+    /**
+     * Returns a short name for this implementation.
+     *
+     * @return the name.
+     */
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Gives every live drone in a fleet one normal move. Not safe to call
+     * from several threads at once.
+     *
+     * @param theFleet the fleet.
+     * @param theDeltaTime time step.
+     */
+    public void moveAll(final FleetState theFleet, final float theDeltaTime) {
+        int count = theFleet.size();
+        boolean[] moving = Arrays.copyOf(theFleet.myAlive, count);
+        move(theFleet, moving, 0, count, theDeltaTime, myScratch);
+    }
+
+    /**
+     * Gives one normal move to every slot in a range whose flag is set.
+     * Slots only touch their own array elements, so different ranges may be
+     * moved concurrently as long as each thread passes its own scratch array.
+     *
+     * @param theFleet the fleet.
+     * @param theMoving flags of the slots to move, by slot; not changed.
+     * @param theFrom first slot (inclusive).
+     * @param theTo last slot (exclusive).
+     * @param theDeltaTime time step.
+     * @param theScratch array of at least four elements used for intermediate results.
+     */
+    void move(final FleetState theFleet, final boolean[] theMoving, final int theFrom, final int theTo,
+              final float theDeltaTime, final float[] theScratch) {
+        for (int slot = theFrom; slot < theTo; slot++) {
+            if (theMoving[slot]) {
+                theFleet.moveNormal(slot, theDeltaTime, theScratch);
+            }
+        }
+    }
+
+    /**
+     * Loads the vector implementation the first time it is asked for.
+     */
+    private static final class VectorHolder {
+
+        /** The vector implementation, or null if it cannot be loaded. */
+        static final Kinematics INSTANCE = load();
+
+        private static Kinematics load() {
+            try {
+                return (Kinematics) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package model;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Level-of-detail policy that lets a {@link TelemetryGenerator} step drones
+ * nobody is watching at a coarser rate.
+ * <p>
+ * Time is cut into windows of {@link #getWindow()} ticks. At the start of a
+ * window the generator leaves a drone unsimulated for the whole window if
+ * nothing about it needs per-tick attention: it is not
+ * {@linkplain #isObserved observed}, no other drone is close enough to
+ * reach it within the window, and its motion over the window is plain
+ * cruising along its route segment at full speed, without a waypoint, an
+ * anomaly or an empty battery. Such a drone is caught up in one step at the
+ * end of the window, or as soon as it becomes observed, and ends up exactly
+ * where ticking it every time would have put it. In between it reports no
+ * telemetry, so nothing is detected or drawn for it.
+ * <p>
+ * A drone is observed while it is selected, inside the focus area (the part
+ * of the map on screen) or {@linkplain #promote promoted}, which callers use
+ * for drones with anomalies or predicted conflicts. The policy counts the
+ * drone updates it saved; see {@link #getSavedFraction()}.
+ * <p>
+ * Settings must only be changed between ticks, on the thread that ticks the
+ * generator.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class LevelOfDetail {
+
+    /** Selected ID meaning no drone is selected. */
+    public static final int NONE = -1;
+
+    /** Ticks per coarse step. */
+    private final int myWindow;
+
+    /** ID of the selected drone, or {@link #NONE}. */
+    private int mySelected = NONE;
+
+    /** Whether a focus area is set. */
+    private boolean myFocused;
+
+    /** Bounds of the focus area. */
+    private float myMinLongitude;
+    private float myMinLatitude;
+    private float myMaxLongitude;
+    private float myMaxLatitude;
+
+    /** IDs of drones promoted since the last window started. */
+    private final BitSet myPromoted = new BitSet();
+
+    /** Drone updates made. */
+    private final LongAdder myStepped = new LongAdder();
+
+    /** Drone updates saved by leaving drones unsimulated. */
+    private final LongAdder myDeferred = new LongAdder();
+
+    /**
+     * Creates a policy.
+     *
+     * @param theWindow ticks per coarse step; at least 2.
+     * @throws IllegalArgumentException if the window is shorter than 2 ticks.
+     */
+    public LevelOfDetail(final int theWindow) {
+        if (theWindow < 2) {
+            throw new IllegalArgumentException("Window must be at least 2 ticks");
+        }
+        myWindow = theWindow;
+    }
+
+    /**
+     * Returns the number of ticks per coarse step.
+     *
+     * @return the window length in ticks.
+     */
+    public int getWindow() {
+        return myWindow;
+    }
+
+    /**
+     * Sets the selected drone, which is always simulated at full rate.
+     *
+     * @param theId the drone's ID, or {@link #NONE}.
+     */
+    public void setSelected(final int theId) {
+        mySelected = theId;
+    }
+
+    /**
+     * Sets the focus area; drones inside it are simulated at full rate.
+     *
+     * @param theMinLongitude western edge.
+     * @param theMinLatitude southern edge.
+     * @param theMaxLongitude eastern edge.
+     * @param theMaxLatitude northern edge.
+     */
+    public void setFocus(final float theMinLongitude, final float theMinLatitude,
+                         final float theMaxLongitude, final float theMaxLatitude) {
+        myMinLongitude = theMinLongitude;
+        myMinLatitude = theMinLatitude;
+        myMaxLongitude = theMaxLongitude;
+        myMaxLatitude = theMaxLatitude;
+        myFocused = true;
+    }
+
+    /**
+     * Removes the focus area, as when nothing is on screen.
+     */
+    public void clearFocus() {
+        myFocused = false;
+    }
+
+    /**
+     * Keeps a drone at full rate until the next window starts, and catches it
+     * up at the next tick if it is currently left behind.
+     *
+     * @param theId the drone's ID.
+     */
+    public void promote(final int theId) {
+        if (theId >= 0) {
+            myPromoted.set(theId);
+        }
+    }
+
+    /**
+     * Returns whether a drone needs to be simulated at full rate.
+     *
+     * @param theId the drone's ID.
+     * @param theLongitude the drone's longitude.
+     * @param theLatitude the drone's latitude.
+     * @return true if the drone is selected, in the focus area or promoted.
+     */
+    public boolean isObserved(final int theId, final float theLongitude, final float theLatitude) {
+        if (theId == mySelected) {
+            return true;
+        }
+        if (myFocused && theLongitude >= myMinLongitude && theLongitude <= myMaxLongitude
+                && theLatitude >= myMinLatitude && theLatitude <= myMaxLatitude) {
+            return true;
+        }
+        return theId >= 0 && myPromoted.get(theId);
+    }
+
+    /**
+     * Returns the number of drone updates made.
+     *
+     * @return live drones stepped, summed over ticks.
+     */
+    public long getSteppedTicks() {
+        return myStepped.sum();
+    }
+
+    /**
+     * Returns the number of drone updates saved.
+     *
+     * @return live drones left unsimulated, summed over ticks.
+     */
+    public long getDeferredTicks() {
+        return myDeferred.sum();
+    }
+
+    /**
+     * Returns the share of drone updates saved, which is roughly the share of
+     * per-drone simulation, telemetry and detection work saved.
+     *
+     * @return the saved fraction, from 0 to 1.
+     */
+    public double getSavedFraction() {
+        long deferred = myDeferred.sum();
+        long total = deferred + myStepped.sum();
+        return total == 0 ? 0 : (double) deferred / total;
+    }
+
+    /**
+     * Adds the updates of part of a tick to the counts.
+     *
+     * @param theStepped drones stepped.
+     * @param theDeferred drones left unsimulated.
+     */
+    void count(final long theStepped, final long theDeferred) {
+        myStepped.add(theStepped);
+        myDeferred.add(theDeferred);
+    }
+
+    /**
+     * Called when a window's drones have been chosen; promotions last until then.
+     */
+    void windowStarted() {
+        myPromoted.clear();
+    }
+}
@@ -0,0 +1,492 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A CSV telemetry log written into a directory of fixed-size, memory-mapped
+ * segments, for runs too long to keep in one file.
+ * <p>
+ * Each segment is a complete CSV log named {@code segment-NNNNNN.csv}, with
+ * the same header and lines as {@link PersistentExporter} writes. A report
+ * is copied straight into the mapped segment, so it is in the operating
+ * system's page cache, and survives the program crashing, as soon as it is
+ * logged. A background thread forces the segments to disk every flush
+ * interval, which bounds what an operating system crash or power loss can
+ * lose to one interval. When a segment is full the log moves on to a spare
+ * segment the background thread has already mapped, and the background
+ * thread forces and closes the full segment, so logging does not wait for
+ * the disk unless segments fill faster than one per interval. Once a
+ * segment is on disk, {@code index.csv} lists it with the timestamp of its
+ * first report, to find the segment holding a time without reading the
+ * others, and the length of its lines.
+ * </p>
+ * <p>
+ * Segments keep their full size, because some systems cannot shorten a
+ * file while it is mapped, and a mapping lasts until its buffer is garbage
+ * collected. The unwritten end of a segment reads as zero bytes.
+ * {@link SegmentedTelemetrySource} reads the whole directory in order and
+ * each indexed segment up to its length; a segment that was still being
+ * written when the program stopped has no index line, and it and
+ * {@link BaselineCalculator} stop reading a segment at the first zero
+ * byte. Logging must be done from one thread.
+ * </p>
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class MappedTelemetryLog implements TelemetryLogWriter {
+
+    /** Default size of a segment in bytes, about 400,000 baseline reports. */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 << 20;
+
+    /** Default milliseconds between forcing the segments to disk. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    /** Smallest segment size allowed, which holds a header and some reports. */
+    public static final int MIN_SEGMENT_SIZE = 4096;
+
+    /** Name of the index file in the log's directory. */
+    public static final String INDEX = "index.csv";
+
+    /** Start of each segment's file name. */
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    /** End of each segment's file name. */
+    private static final String SEGMENT_SUFFIX = ".csv";
+
+    /** Seconds {@link #closeTelemetryLog()} waits for a flush in progress. */
+    private static final long CLOSE_TIMEOUT = 60;
+
+    /** The line separator, as {@link PersistentExporter} writes it. */
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /** A mapped segment file. */
+    private record Segment(int number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    /** The index line of a segment: its number, first report's timestamp and length in bytes. */
+    private record IndexEntry(int segment, long timeStamp, int length) {
+    }
+
+    /** A segment the log is done with, and its index line, or null if it holds no reports. */
+    private record Retired(Segment segment, IndexEntry entry) {
+    }
+
+    /** Size of each segment in bytes. */
+    private final int mySegmentSize;
+
+    /** Milliseconds between forcing the segments to disk. */
+    private final long myFlushInterval;
+
+    /** Guards {@link #myNextNumber} so segments are mapped in the order they are used. */
+    private final Object myLock = new Object();
+
+    /** A mapped segment ready for when the current one is full, or null. */
+    private final AtomicReference<Segment> mySpare = new AtomicReference<>();
+
+    /** Full segments waiting to be forced and closed. */
+    private final Queue<Retired> myRetired = new ConcurrentLinkedQueue<>();
+
+    /** Index lines of segments on disk, waiting to be written. */
+    private final Queue<IndexEntry> myIndexed = new ConcurrentLinkedQueue<>();
+
+    /** Reusable line being formatted. */
+    private final StringBuilder myLine = new StringBuilder();
+
+    /** Reusable columns holding a report passed as a record. */
+    private final TelemetryColumns myRecord = new TelemetryColumns(1);
+
+    /** The log's directory. */
+    private Path myDirectory;
+
+    /** The header line, separator included. */
+    private byte[] myHeaderLine;
+
+    /** Number of the next segment to map. */
+    private int myNextNumber;
+
+    /** The segment being written, or null if the log is not open. */
+    private volatile Segment myCurrent;
+
+    /** Whether the current segment holds a report, so it gets an index line. */
+    private boolean myCurrentIndexed;
+
+    /** Timestamp of the current segment's first report. */
+    private long myCurrentTimeStamp;
+
+    /** The index file. */
+    private FileChannel myIndex;
+
+    /** Thread that forces segments to disk and maps spares. */
+    private ScheduledExecutorService myFlusher;
+
+    /**
+     * Creates a log with the default segment size and flush interval.
+     */
+    public MappedTelemetryLog() {
+        this(DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a log.
+     *
+     * @param theSegmentSize size of each segment in bytes.
+     * @param theFlushInterval milliseconds between forcing the segments to disk.
+     * @throws IllegalArgumentException if the segment size is below
+     *         {@link #MIN_SEGMENT_SIZE} or the interval is not positive.
+     */
+    public MappedTelemetryLog(final int theSegmentSize, final long theFlushInterval) {
+        if (theSegmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + " bytes.");
+        }
+        if (theFlushInterval <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive.");
+        }
+        mySegmentSize = theSegmentSize;
+        myFlushInterval = theFlushInterval;
+    }
+
+    /**
+     * Returns the segments of a log directory in the order they were written.
+     *
+     * @param theDirectory the log's directory.
+     * @return the segment files, oldest first.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static List<Path> segments(final Path theDirectory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(theDirectory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (number(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingInt(MappedTelemetryLog::number));
+        return segments;
+    }
+
+    /**
+     * Returns the length of each segment's lines, as listed in the index.
+     *
+     * @param theDirectory the log's directory.
+     * @param theSegments the segments, as returned by {@link #segments(Path)}.
+     * @return each segment's length in bytes, header included, or -1 for a
+     *         segment the index does not list, which ends at its first zero byte.
+     * @throws IOException if the index exists but cannot be read.
+     */
+    public static long[] lengths(final Path theDirectory, final List<Path> theSegments) throws IOException {
+        long[] lengths = new long[theSegments.size()];
+        Arrays.fill(lengths, -1);
+        Path index = theDirectory.resolve(INDEX);
+        if (!Files.exists(index)) {
+            return lengths;
+        }
+        int[] numbers = theSegments.stream().mapToInt(MappedTelemetryLog::number).toArray();
+        List<String> lines = Files.readAllLines(index, StandardCharsets.US_ASCII);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] fields = line.split(",");
+            try {
+                int segment = Arrays.binarySearch(numbers, Integer.parseInt(fields[0]));
+                if (fields.length == 3 && segment >= 0) {
+                    lengths[segment] = Long.parseLong(fields[2]);
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Skipping malformed index line: " + line);
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Returns a segment's number from its file name.
+     *
+     * @return the number, or -1 if the name is not a segment's.
+     */
+    private static int number(final Path theFile) {
+        String name = theFile.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Opens a new log in a directory, creating the directory if needed and
+     * deleting any segments already in it.
+     *
+     * @param filepath      The log's directory.
+     * @param theHeader     The names of the columns to log, as in {@link TelemetrySource#COLUMNS}.
+     */
+    @Override
+    public void startTelemetryLog(String filepath, List<String> theHeader) {
+        try {
+            myDirectory = Path.of(filepath);
+            Files.createDirectories(myDirectory);
+            for (Path segment : segments(myDirectory)) {
+                Files.delete(segment);
+            }
+            myHeaderLine = (String.join(",", theHeader) + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+            myIndex = FileChannel.open(myDirectory.resolve(INDEX), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            myIndex.write(ByteBuffer.wrap(("segment,timestamp,length" + System.lineSeparator())
+                    .getBytes(StandardCharsets.US_ASCII)));
+            myNextNumber = 0;
+            myCurrentIndexed = false;
+            myCurrent = map();
+            myFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "telemetry-log-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            myFlusher.scheduleWithFixedDelay(this::flush, myFlushInterval, myFlushInterval, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            System.err.println("Error opening telemetry log file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces every segment to disk, indexes the last one and stops the
+     * background thread.
+     */
+    @Override
+    public void closeTelemetryLog() {
+        Segment current = myCurrent;
+        if (current == null) {
+            return;
+        }
+        myFlusher.shutdown();
+        try {
+            if (!myFlusher.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+                System.err.println("Telemetry log flush did not finish within " + CLOSE_TIMEOUT + " seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            finishRetired();
+            finish(retire());
+            Segment spare = mySpare.getAndSet(null);
+            if (spare != null) {
+                spare.channel().close();
+                Files.delete(spare.path());
+            }
+            writeIndex();
+            myIndex.close();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error closing telemetry log file: " + e.getMessage());
+        }
+        myCurrent = null;
+    }
+
+    /**
+     * Logs one report.
+     *
+     * @param theTelemetryData      The report.
+     * @param theHeader             The columns to log, as passed to {@link #startTelemetryLog(String, List)}.
+     */
+    @Override
+    public void logTelemetryData(TelemetryRecord theTelemetryData, List<String> theHeader) {
+        if (myCurrent == null) {
+            System.err.println("Error: Telemetry log is not open.");
+            return;
+        }
+        myRecord.set(0, theTelemetryData);
+        write(myRecord, 0, theHeader);
+    }
+
+    /**
+     * Logs the current report of every drone in a tick's batch, one line per drone.
+     *
+     * @param theBatch              The tick's telemetry.
+     * @param theHeader             The columns to log, as passed to {@link #startTelemetryLog(String, List)}.
+     */
+    @Override
+    public void logTelemetryBatch(TelemetryBatch theBatch, List<String> theHeader) {
+        if (myCurrent == null) {
+            System.err.println("Error: Telemetry log is not open.");
+            return;
+        }
+        TelemetryColumns current = theBatch.getCurrent();
+        for (int entry = 0; entry < theBatch.size(); entry++) {
+            write(current, entry, theHeader);
+        }
+    }
+
+    /**
+     * Copies one report's line into the current segment, moving on to the
+     * next segment if it does not fit.
+     */
+    private void write(final TelemetryColumns theColumns, final int theEntry, final List<String> theHeader) {
+        StringBuilder line = myLine;
+        line.setLength(0);
+        PersistentExporter.appendLine(line, theColumns, theEntry, theHeader);
+        int length = line.length() + NEWLINE.length;
+        if (myCurrent.buffer().remaining() < length && !roll()) {
+            return;
+        }
+        MappedByteBuffer buffer = myCurrent.buffer();
+        if (buffer.remaining() < length) {
+            System.err.println("Skipping telemetry line longer than a segment: " + line);
+            return;
+        }
+        if (!myCurrentIndexed) {
+            myCurrentTimeStamp = theColumns.getTimeStamp(theEntry);
+            myCurrentIndexed = true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            buffer.put((byte) line.charAt(i));
+        }
+        buffer.put(NEWLINE);
+    }
+
+    /**
+     * Hands the full segment to the background thread and moves on to the spare.
+     *
+     * @return false if no segment could be mapped, leaving the full one current.
+     */
+    private boolean roll() {
+        Segment next = mySpare.getAndSet(null);
+        if (next == null) {
+            // The background thread has not mapped a spare yet, so map one here.
+            try {
+                synchronized (myLock) {
+                    next = mySpare.getAndSet(null);
+                    if (next == null) {
+                        next = map();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing telemetry data: " + e.getMessage());
+                return false;
+            }
+        }
+        myRetired.add(retire());
+        myCurrent = next;
+        myCurrentIndexed = false;
+        return true;
+    }
+
+    /**
+     * Returns the current segment with its index line, for when the log is
+     * done writing it.
+     */
+    private Retired retire() {
+        Segment current = myCurrent;
+        IndexEntry entry = myCurrentIndexed
+                ? new IndexEntry(current.number(), myCurrentTimeStamp, current.buffer().position()) : null;
+        return new Retired(current, entry);
+    }
+
+    /**
+     * Creates and maps the next segment and writes its header.
+     *
+     * @return the segment.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    private Segment map() throws IOException {
+        synchronized (myLock) {
+            int number = myNextNumber;
+            Path path = myDirectory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mySegmentSize);
+                buffer.put(myHeaderLine);
+                myNextNumber++;
+                return new Segment(number, path, channel, buffer);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Forces the segments to disk, writes new index lines and maps a spare
+     * segment. Runs on the background thread.
+     */
+    private void flush() {
+        try {
+            finishRetired();
+            myCurrent.buffer().force();
+            writeIndex();
+            synchronized (myLock) {
+                if (mySpare.get() == null) {
+                    mySpare.set(map());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error flushing telemetry log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces and closes every full segment.
+     *
+     * @throws IOException if a segment cannot be closed.
+     */
+    private void finishRetired() throws IOException {
+        Retired retired;
+        while ((retired = myRetired.poll()) != null) {
+            finish(retired);
+        }
+    }
+
+    /**
+     * Forces a segment to disk and closes it, leaving it at full size, and
+     * queues its index line.
+     *
+     * @throws IOException if the segment cannot be closed.
+     */
+    private void finish(final Retired theRetired) throws IOException {
+        theRetired.segment().buffer().force();
+        theRetired.segment().channel().close();
+        if (theRetired.entry() != null) {
+            myIndexed.add(theRetired.entry());
+        }
+    }
+
+    /**
+     * Appends the index lines of segments started since the last call and
+     * forces the index to disk.
+     *
+     * @throws IOException if the index cannot be written.
+     */
+    private void writeIndex() throws IOException {
+        if (myIndexed.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        IndexEntry entry;
+        while ((entry = myIndexed.poll()) != null) {
+            lines.append(entry.segment()).append(',').append(entry.timeStamp()).append(',').append(entry.length())
+                    .append(System.lineSeparator());
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+        while (bytes.hasRemaining()) {
+            myIndex.write(bytes);
+        }
+        myIndex.force(false);
+    }
+}
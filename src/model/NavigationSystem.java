@@ -16,14 +16,35 @@ public class NavigationSystem {
     private static final float MAX_ALTITUDE = 1000;
     
     /** Step size for increasing or decreasing velocity during movement. */
-    private static final float ACCELERATION_STEP = 0.3f;
+    static final float ACCELERATION_STEP = 0.3f;
     
     /** Maximum allowed velocity in normal moves. */
-    private static final float MAX_VELOCITY = 10;
+    static final float MAX_VELOCITY = 10;
     
     /** Minimum allowed velocity in normal moves. */
     private static final float MIN_VELOCITY = 0;
     
+    /** Distance to the waypoint below which the drone slows down. */
+    static final float SLOW_DOWN_DISTANCE = 30.0f;
+
+    /** Lowest velocity used while approaching a waypoint, so the drone never stalls. */
+    static final float MIN_VELOCITY_TO_MOVE = 0.5f;
+
+    /** Distance at which the drone counts as already sitting on the waypoint. */
+    static final float ARRIVAL_EPSILON = 0.0001f;
+
+    /** Index of the new longitude in the output of {@link #step}. */
+    public static final int LONGITUDE = 0;
+
+    /** Index of the new latitude in the output of {@link #step}. */
+    public static final int LATITUDE = 1;
+
+    /** Index of the new altitude in the output of {@link #step}. */
+    public static final int ALTITUDE = 2;
+
+    /** Index of the new velocity in the output of {@link #step}. */
+    public static final int VELOCITY = 3;
+
     /** Arraylist of RoutePoints that the drone goes to (Circular) */
     private final ArrayList<RoutePoint> myRoute;
     
@@ -77,56 +98,92 @@ public class NavigationSystem {
             final float theDeltaTime) {
         
         RoutePoint next = getNextPoint();
-        float dx = next.getLongitude() - theCurrentLongitude;
-        float dy = next.getLatitude() - theCurrentLatitude;
-        float dz = next.getAltitude() - theCurrentAltitude;
+        float[] out = new float[4];
+        boolean waypointReached = step(next, theCurrentLongitude, theCurrentLatitude, theCurrentAltitude,
+                theCurrentVelocity, theDeltaTime, out);
+        if (waypointReached) {
+            advanceToNextPoint();
+        }
+        return new MovementResult(out[LONGITUDE], out[LATITUDE], out[ALTITUDE], out[VELOCITY], waypointReached);
+    }
+
+    /**
+     * Calculates one movement step toward a waypoint and writes the new state
+     * into {@code theOut} as {longitude, latitude, altitude, velocity}. This is
+     * the shared core of {@link #calculateNextMove}, usable by code that keeps
+     * drone state outside of NavigationSystem objects.
+     *
+     * @param theNext the waypoint being approached
+     * @param theCurrentLongitude current longitude
+     * @param theCurrentLatitude current latitude
+     * @param theCurrentAltitude current altitude
+     * @param theCurrentVelocity current velocity
+     * @param theDeltaTime time step
+     * @param theOut array of at least four elements that receives the new state
+     * @return true if the waypoint was reached and the route should advance
+     */
+    public static boolean step(
+            final RoutePoint theNext,
+            final float theCurrentLongitude,
+            final float theCurrentLatitude,
+            final float theCurrentAltitude,
+            final float theCurrentVelocity,
+            final float theDeltaTime,
+            final float[] theOut) {
+
+        float dx = theNext.getLongitude() - theCurrentLongitude;
+        float dy = theNext.getLatitude() - theCurrentLatitude;
+        float dz = theNext.getAltitude() - theCurrentAltitude;
         
         float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
         
         // Prevent freeze when drone is exactly on the waypoint
-        if (distance < 0.0001f) {
-            advanceToNextPoint();
-            return new MovementResult(
-                next.getLongitude(),
-                next.getLatitude(),
-                next.getAltitude(),
-                theCurrentVelocity,
-                true
-            );
+        if (distance < ARRIVAL_EPSILON) {
+            theOut[LONGITUDE] = theNext.getLongitude();
+            theOut[LATITUDE] = theNext.getLatitude();
+            theOut[ALTITUDE] = theNext.getAltitude();
+            theOut[VELOCITY] = theCurrentVelocity;
+            return true;
         }
         
         // Adjust velocity (slow near waypoint / speed up otherwise)
-        float minVelocityToMove = 0.5f;
-        float newVelocity;
-        if (distance < 30.0f) {
-            newVelocity = Math.max(theCurrentVelocity - ACCELERATION_STEP, MIN_VELOCITY);
-            if (distance > 0.001f && newVelocity < minVelocityToMove) {
-                newVelocity = minVelocityToMove;
-            }
-        } else {
-            newVelocity = Math.min(theCurrentVelocity + ACCELERATION_STEP, MAX_VELOCITY);
-        }
-        
+        float newVelocity = approachVelocity(distance, theCurrentVelocity);
         float moveDist = newVelocity * theDeltaTime;
-        float newLongitude, newLatitude, newAltitude;
-        boolean waypointReached = false;
+        theOut[VELOCITY] = newVelocity;
         
         if (distance <= moveDist) {
-            newLongitude = next.getLongitude();
-            newLatitude = next.getLatitude();
-            newAltitude = next.getAltitude();
-            advanceToNextPoint();
-            waypointReached = true;
-        } else {
-            float ratio = moveDist / distance;
-            newLongitude = theCurrentLongitude + dx * ratio;
-            newLatitude = theCurrentLatitude + dy * ratio;
-            newAltitude = theCurrentAltitude + dz * ratio;
+            theOut[LONGITUDE] = theNext.getLongitude();
+            theOut[LATITUDE] = theNext.getLatitude();
+            theOut[ALTITUDE] = theNext.getAltitude();
+            return true;
         }
-        
-        return new MovementResult(newLongitude, newLatitude, newAltitude, newVelocity, waypointReached);
+
+        float ratio = moveDist / distance;
+        theOut[LONGITUDE] = theCurrentLongitude + dx * ratio;
+        theOut[LATITUDE] = theCurrentLatitude + dy * ratio;
+        theOut[ALTITUDE] = theCurrentAltitude + dz * ratio;
+        return false;
     }
     
+    /**
+     * Returns the velocity for the next step of an approach: slower near the
+     * waypoint (but never stalled short of it), faster otherwise.
+     *
+     * @param theDistance distance left to the waypoint
+     * @param theCurrentVelocity current velocity
+     * @return the adjusted velocity
+     */
+    static float approachVelocity(final float theDistance, final float theCurrentVelocity) {
+        if (theDistance < SLOW_DOWN_DISTANCE) {
+            float newVelocity = Math.max(theCurrentVelocity - ACCELERATION_STEP, MIN_VELOCITY);
+            if (theDistance > 0.001f && newVelocity < MIN_VELOCITY_TO_MOVE) {
+                newVelocity = MIN_VELOCITY_TO_MOVE;
+            }
+            return newVelocity;
+        }
+        return Math.min(theCurrentVelocity + ACCELERATION_STEP, MAX_VELOCITY);
+    }
+
     /**
      * Gets the acceleration step constant.
      *
@@ -40,8 +40,18 @@ public class Orientation {
      * @param theDegrees new heading angle
      */
     public void setDegrees(final float theDegrees) {
+        myDegree = normalize(theDegrees);
+    }
+
+    /**
+     * Normalizes an angle into the range {@code 0–359} degrees.
+     *
+     * @param theDegrees the angle to normalize
+     * @return the equivalent angle in the range {@code 0–359}
+     */
+    public static float normalize(final float theDegrees) {
         // Normalize using modulo arithmetic
-        myDegree = ((theDegrees % 360) + 360) % 360;
+        return ((theDegrees % 360) + 360) % 360;
     }
 
     /**
@@ -61,18 +71,35 @@ public class Orientation {
      * @return computed orientation angle (0–359 degrees)
      */
     public float findNextOrientation(final float thePrevLong, final float thePrevLat, final float theNextLong, final float theNextLat) {
+        return heading(thePrevLong, thePrevLat, theNextLong, theNextLat, myDegree);
+    }
+
+    /**
+     * Computes the heading for a move between two points without needing an
+     * Orientation object, for callers that keep headings in primitive arrays.
+     *
+     * @param thePrevLong    previous longitude of the drone
+     * @param thePrevLat     previous latitude of the drone
+     * @param theNextLong    next longitude of the drone
+     * @param theNextLat     next latitude of the drone
+     * @param theCurrentDegree heading returned when there is no movement
+     *
+     * @return computed orientation angle (0–359 degrees)
+     */
+    public static float heading(final float thePrevLong, final float thePrevLat, final float theNextLong,
+                                final float theNextLat, final float theCurrentDegree) {
         float dx = theNextLong - thePrevLong;
         float dy = theNextLat - thePrevLat;
 
         //safety check for no movement
         if (dx == 0 && dy == 0) {
-            return myDegree;
+            return theCurrentDegree;
         }
 
         float angleDegrees = (float) Math.toDegrees(Math.atan2(dx, dy));
 
         // Normalize to 0–360 range
-        return ((angleDegrees % 360) + 360) % 360;
+        return normalize(angleDegrees);
     }
 
     /**
@@ -11,7 +11,7 @@ import java.util.List;
  * @author nlevin11
  * @version 11-24
  */
-public class PersistentExporter {
+public class PersistentExporter implements TelemetryLogWriter {
     /**
      * A Buffered writer to hold the data of the drone log.
      */
@@ -22,6 +22,7 @@ public class PersistentExporter {
      * @param filepath      A string to represent the filepath of the log output.
      * @param theHeader     A list of strings to represent the headers of the data being written.
      */
+    @Override
     public void startTelemetryLog(String filepath, List<String> theHeader) {
         try {
             persistentTelemetryWriter = new BufferedWriter(new FileWriter(filepath));
@@ -37,6 +38,7 @@ public class PersistentExporter {
     /**
      * A method to close the current log of drone telemetry.
      */
+    @Override
     public void closeTelemetryLog() {
         try {
             if (persistentTelemetryWriter != null) {
@@ -53,6 +55,7 @@ public class PersistentExporter {
      * @param theTelemetryData      A HashMap representation of the telemetry data.
      * @param theHeader             A list of strings to represent the headers of the data being written.
      */
+    @Override
     public void logTelemetryData(TelemetryRecord theTelemetryData, List<String> theHeader) {
         if (persistentTelemetryWriter == null) {
             System.err.println("Error: Telemetry log is not open.");
@@ -84,4 +87,58 @@ public class PersistentExporter {
         }
     }
 
+    /**
+     * A method to log the current telemetry of every drone in a tick's batch, one line per drone.
+     * Values are read straight from the batch's columns, so no records are created.
+     * @param theBatch              The tick's telemetry.
+     * @param theHeader             A list of strings to represent the headers of the data being written.
+     */
+    @Override
+    public void logTelemetryBatch(TelemetryBatch theBatch, List<String> theHeader) {
+        if (persistentTelemetryWriter == null) {
+            System.err.println("Error: Telemetry log is not open.");
+            return;
+        }
+
+        TelemetryColumns current = theBatch.getCurrent();
+        StringBuilder line = new StringBuilder();
+        try {
+            for (int entry = 0; entry < theBatch.size(); entry++) {
+                line.setLength(0);
+                appendLine(line, current, entry, theHeader);
+                persistentTelemetryWriter.append(line);
+                persistentTelemetryWriter.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing telemetry data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A method to append one drone's telemetry as a log line, without the line separator.
+     * @param theLine               The builder to append to.
+     * @param theColumns            The telemetry columns holding the drone's report.
+     * @param theEntry              The drone's index in the columns.
+     * @param theHeader             A list of strings to represent the headers of the data being written.
+     */
+    static void appendLine(StringBuilder theLine, TelemetryColumns theColumns, int theEntry, List<String> theHeader) {
+        int start = theLine.length();
+        for (String header : theHeader) {
+            if (theLine.length() > start) {
+                theLine.append(',');
+            }
+            switch (header) {
+                case "id" -> theLine.append(theColumns.getId(theEntry));
+                case "longitude" -> theLine.append(theColumns.getLongitude(theEntry));
+                case "latitude" -> theLine.append(theColumns.getLatitude(theEntry));
+                case "altitude" -> theLine.append(theColumns.getAltitude(theEntry));
+                case "velocity" -> theLine.append(theColumns.getVelocity(theEntry));
+                case "batteryLevel" -> theLine.append(theColumns.getBatteryLevel(theEntry));
+                case "orientation" -> theLine.append(theColumns.getOrientation(theEntry));
+                case "timestamp" -> theLine.append(theColumns.getTimeStamp(theEntry));
+                default -> throw new IllegalStateException("Unexpected value: " + header);
+            }
+        }
+    }
+
 }
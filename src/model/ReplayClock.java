@@ -0,0 +1,70 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A {@link SimulationClock} that replays recorded tick timestamps in order.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class ReplayClock implements SimulationClock {
+
+    /** The recorded timestamps, one per tick. */
+    private final long[] myTimes;
+
+    /** Index of the tick returned last, or -1 before the first tick. */
+    private int myIndex = -1;
+
+    /** Time reported before the first tick. */
+    private final long myStart;
+
+    /**
+     * Creates a clock that replays the given timestamps.
+     *
+     * @param theStart the time reported before the first tick.
+     * @param theTimes the tick timestamps, in non-decreasing order.
+     * @throws IllegalArgumentException if the timestamps go backwards.
+     */
+    public ReplayClock(final long theStart, final long[] theTimes) {
+        long last = theStart;
+        for (long time : theTimes) {
+            if (time < last) {
+                throw new IllegalArgumentException("Timestamps must not go backwards");
+            }
+            last = time;
+        }
+        myStart = theStart;
+        myTimes = Arrays.copyOf(theTimes, theTimes.length);
+    }
+
+    /**
+     * Returns whether another recorded tick is left.
+     *
+     * @return true if {@link #nextTick()} can be called again.
+     */
+    public boolean hasNextTick() {
+        return myIndex + 1 < myTimes.length;
+    }
+
+    /**
+     * Moves to the next recorded timestamp.
+     *
+     * @return the recorded timestamp of the next tick.
+     * @throws IllegalStateException if every recorded tick has been replayed.
+     */
+    @Override
+    public long nextTick() {
+        if (!hasNextTick()) {
+            throw new IllegalStateException("No recorded ticks left");
+        }
+        return myTimes[++myIndex];
+    }
+
+    /**
+     * @return the timestamp of the current tick, or the start time before the first tick.
+     */
+    @Override
+    public long now() {
+        return myIndex < 0 ? myStart : myTimes[myIndex];
+    }
+}
@@ -80,4 +80,41 @@ public class ReportFormatter {
                 "Battery (%): " + thePrevTelemetry.batteryLevel() + "\n";
     }
 
+    /**
+     * A method to create a detailed report string for a predicted conflict between two drones.
+     *
+     * @param theCurrTelemetry A telemetry record of the drone being reported.
+     * @param theOtherTelemetry A telemetry record of the drone it conflicts with.
+     * @param theTimeToClosestApproach Seconds until the two drones come closest.
+     * @param theMissDistance The distance between the two drones at closest approach.
+     * @return Returns a detailed string conflict report.
+     */
+    public static String createConflictDetailed(TelemetryRecord theCurrTelemetry, TelemetryRecord theOtherTelemetry,
+                                                float theTimeToClosestApproach, float theMissDistance) {
+
+        return "\nDrone number " + theCurrTelemetry.id() +
+                " is predicted to lose separation with drone number " + theOtherTelemetry.id() +
+                " at time: " + getFormattedTime(theCurrTelemetry) +
+                "\nDetails:\n" +
+                AnomalyEnum.CONFLICT + " anomaly detected\n" +
+                "Closest approach in " + theTimeToClosestApproach + " seconds at " +
+                theMissDistance + " units\n" +
+
+                //This drone
+                "Drone " + theCurrTelemetry.id() + ": \n" +
+                "x: " + theCurrTelemetry.latitude() +
+                " y: " + theCurrTelemetry.longitude() +
+                " z: " + theCurrTelemetry.altitude() + "\n" +
+                "Velocity: " + theCurrTelemetry.velocity() + " units/second(cycle)\n" +
+                "Orientation (Deg from North): " + theCurrTelemetry.orientation() +
+
+                //Other drone
+                "\nDrone " + theOtherTelemetry.id() + ": \n" +
+                "x: " + theOtherTelemetry.latitude() +
+                " y: " + theOtherTelemetry.longitude() +
+                " z: " + theOtherTelemetry.altitude() + "\n" +
+                "Velocity: " + theOtherTelemetry.velocity() + " units/second(cycle)\n" +
+                "Orientation (Deg from North): " + theOtherTelemetry.orientation() + "\n";
+    }
+
 }
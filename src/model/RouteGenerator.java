@@ -1,7 +1,7 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * RouteGenerator is responsible for producing various types of waypoint-based
@@ -9,6 +9,10 @@ import java.util.Random;
  * randomized depending on simulation needs.
  * <p>
  * All generated route points respect global geographic and altitude boundaries.
+ * <p>
+ * Each route is drawn from its own stream split off the generator's random
+ * source, so a seeded generator produces the same sequence of routes on
+ * every run.
  *
  * @author Yusuf Shakhpaz
  */
@@ -28,8 +32,35 @@ public class RouteGenerator {
     /** Maximum altitude */
     public static final float MAX_ALT = 1000.0f;
 
-    /** Random generator used for producing route point coordinates. */
-    private static final Random random = new Random();
+    /** Random source that each route's stream is split from. */
+    private final SplittableRandom mySource;
+
+    /** Random stream of the route being generated. */
+    private SplittableRandom random;
+
+    /**
+     * Creates a route generator with an unpredictable seed.
+     */
+    public RouteGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a route generator that produces the same routes for the same seed.
+     *
+     * @param theSeed the seed.
+     */
+    public RouteGenerator(final long theSeed) {
+        this(new SplittableRandom(theSeed));
+    }
+
+    /**
+     * Creates a route generator drawing from the given source.
+     */
+    private RouteGenerator(final SplittableRandom theSource) {
+        mySource = theSource;
+        random = theSource.split();
+    }
 
     /**
      * Generates a route for a drone. Each call randomly chooses between a
@@ -38,6 +69,7 @@ public class RouteGenerator {
      * @return a route consisting of multiple {@link RoutePoint} objects
      */
     public ArrayList<RoutePoint> generateRoute() {
+        random = mySource.split();
         boolean rectangle = random.nextBoolean();  // true or false 50/50
 
         if (rectangle) {
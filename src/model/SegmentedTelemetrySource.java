@@ -0,0 +1,88 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A {@link TelemetrySource} that reads the segments of a
+ * {@link MappedTelemetryLog} directory one after another, as one log.
+ * <p>
+ * Every segment is read with a {@link CsvTelemetrySource}, up to its length
+ * in the log's index. A segment the index does not list yet, such as one cut
+ * short by a crash, ends at its last complete line, and the next segment
+ * follows on.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class SegmentedTelemetrySource implements TelemetrySource {
+
+    /** The segment files, oldest first. */
+    private final List<Path> mySegments;
+
+    /** Length of each segment, or -1 if the index does not list it. */
+    private final long[] myLengths;
+
+    /** Index of the segment being read. */
+    private int mySegment;
+
+    /** The segment being read. */
+    private CsvTelemetrySource mySource;
+
+    /**
+     * Opens a segmented log.
+     *
+     * @param theDirectory the log's directory.
+     * @throws IOException if the directory has no segments or the first or the index cannot be read.
+     */
+    public SegmentedTelemetrySource(final Path theDirectory) throws IOException {
+        mySegments = MappedTelemetryLog.segments(theDirectory);
+        if (mySegments.isEmpty()) {
+            throw new IOException("Log file is empty");
+        }
+        myLengths = MappedTelemetryLog.lengths(theDirectory, mySegments);
+        mySource = new CsvTelemetrySource(mySegments.get(0), myLengths[0]);
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return mySource.getColumns();
+    }
+
+    @Override
+    public boolean next(final TelemetryColumns theInto, final int theSlot) throws IOException {
+        while (!mySource.next(theInto, theSlot)) {
+            if (mySegment + 1 == mySegments.size()) {
+                return false;
+            }
+            open(mySegment + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Closes the segment being read and opens another.
+     *
+     * @param theSegment index of the segment to open.
+     * @throws IOException if the segment cannot be read.
+     */
+    private void open(final int theSegment) throws IOException {
+        mySource.close();
+        mySegment = theSegment;
+        mySource = new CsvTelemetrySource(mySegments.get(theSegment), myLengths[theSegment]);
+    }
+
+    @Override
+    public void rewind() throws IOException {
+        if (mySegment == 0) {
+            mySource.rewind();
+        } else {
+            open(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mySource.close();
+    }
+}
@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * A simulated {@link SimulationClock} that advances by a fixed step every
+ * tick, independent of how long the tick actually takes.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class SimulatedClock implements SimulationClock {
+
+    /** Milliseconds added per tick. */
+    private final long myStep;
+
+    /** The current simulated time. */
+    private long myTime;
+
+    /**
+     * Creates a clock.
+     *
+     * @param theStart the simulated time before the first tick, in milliseconds.
+     * @param theStep milliseconds added per tick; must be positive.
+     * @throws IllegalArgumentException if the step is not positive.
+     */
+    public SimulatedClock(final long theStart, final long theStep) {
+        if (theStep <= 0) {
+            throw new IllegalArgumentException("Step must be positive");
+        }
+        myTime = theStart;
+        myStep = theStep;
+    }
+
+    /**
+     * Advances the clock by one step.
+     *
+     * @return the new simulated time.
+     */
+    @Override
+    public long nextTick() {
+        myTime += myStep;
+        return myTime;
+    }
+
+    /**
+     * @return the current simulated time.
+     */
+    @Override
+    public long now() {
+        return myTime;
+    }
+}
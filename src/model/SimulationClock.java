@@ -0,0 +1,35 @@
+package model;
+
+/**
+ * The source of the timestamps given to telemetry.
+ * <p>
+ * The simulation reads its clock once per tick with {@link #nextTick()}, and
+ * every record produced in that tick shares the returned timestamp. Swapping
+ * the clock decides how simulated time relates to real time:
+ * <ul>
+ *     <li>{@link WallClock} follows the system clock, for real-time runs.</li>
+ *     <li>{@link SimulatedClock} advances a fixed step per tick, for runs
+ *         faster (or slower) than real time.</li>
+ *     <li>{@link ReplayClock} hands out previously recorded timestamps, so a
+ *         recorded run can be played back with its original timing.</li>
+ * </ul>
+ *
+ * @author Yusuf Shakhpaz
+ */
+public interface SimulationClock {
+
+    /**
+     * Starts a new tick and returns its timestamp.
+     *
+     * @return the timestamp of the new tick, in milliseconds.
+     */
+    long nextTick();
+
+    /**
+     * Returns the current time without starting a tick. Used to stamp
+     * records created between ticks.
+     *
+     * @return the current time, in milliseconds.
+     */
+    long now();
+}
@@ -0,0 +1,185 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * One self-contained drone simulation.
+ * <p>
+ * An engine owns everything a run depends on: its {@link FleetState}, the
+ * {@link IdAllocator} that numbers its drones, the seed of the drones'
+ * random streams, its {@link SimulationClock} and the
+ * {@link TelemetryGenerator} that ticks the fleet. Nothing is shared with
+ * other engines or with {@link TelemetryGenerator#getInstance(float)}, so any
+ * number of engines can run at the same time, one per thread, and two engines
+ * built with the same seed, clock start and routes produce the same drones,
+ * IDs and telemetry.
+ * <p>
+ * An engine is not safe for use by several threads at once. Call
+ * {@link #close()} when done with it to stop the generator's worker threads.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class SimulationEngine implements AutoCloseable {
+
+    /** Slots preallocated in a new engine's fleet. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Numbers the drones of this simulation. */
+    private final IdAllocator myIdAllocator = new IdAllocator();
+
+    /** Seed of the drones' random streams. */
+    private final long mySeed;
+
+    /** Clock that stamps this simulation's telemetry. */
+    private final SimulationClock myClock;
+
+    /** The simulated drones. */
+    private final FleetState myFleet;
+
+    /** Ticks the fleet. */
+    private final TelemetryGenerator myGenerator;
+
+    /** Creates drones in the fleet. */
+    private final DroneGenerator myDroneGenerator = new DroneGenerator();
+
+    /**
+     * Creates an empty simulation.
+     *
+     * @param theAnomalyPercent probability of an anomaly per drone update (0–100).
+     * @param theSeed seed of the drones' random streams.
+     * @param theClock clock that stamps telemetry; a {@link SimulatedClock}
+     *                 makes runs repeat exactly.
+     */
+    public SimulationEngine(final float theAnomalyPercent, final long theSeed, final SimulationClock theClock) {
+        mySeed = theSeed;
+        myClock = Objects.requireNonNull(theClock);
+        myFleet = new FleetState(INITIAL_CAPACITY, myIdAllocator);
+        myGenerator = new TelemetryGenerator(theAnomalyPercent, myFleet);
+        myGenerator.setClock(theClock);
+        myGenerator.setSeed(theSeed);
+    }
+
+    /**
+     * Creates a drone in this simulation. It gets the next ID of this
+     * simulation and the next random stream of its seed.
+     *
+     * @param theRoute the drone's route.
+     * @return the new drone.
+     * @throws IllegalArgumentException if the route is null or empty.
+     */
+    public DroneInterface createDrone(final ArrayList<RoutePoint> theRoute) {
+        return myDroneGenerator.createDrone(myFleet, theRoute);
+    }
+
+    /**
+     * Removes a drone from this simulation for good and releases its ID, so
+     * the next drone created reuses it. Use this rather than
+     * {@link TelemetryGenerator#removeDrone} only once nothing will report,
+     * draw or log the drone again.
+     *
+     * @param theDrone a drone of this simulation.
+     * @throws IllegalArgumentException if the drone is not in this simulation.
+     */
+    public void retireDrone(final DroneInterface theDrone) {
+        if (!(theDrone instanceof Drone drone) || drone.getFleet() != myFleet) {
+            throw new IllegalArgumentException("Drone is not part of this simulation");
+        }
+        myGenerator.removeDrone(drone);
+        myIdAllocator.release(drone.getId());
+    }
+
+    /**
+     * Advances every drone by one tick. See {@link TelemetryGenerator#tick(float)}.
+     *
+     * @param theDeltaTime elapsed simulation time since the last tick.
+     */
+    public void tick(final float theDeltaTime) {
+        myGenerator.tick(theDeltaTime);
+    }
+
+    /**
+     * Sets the level-of-detail policy that lets the simulation step unwatched
+     * drones at a coarser rate. See {@link TelemetryGenerator#setLevelOfDetail}.
+     *
+     * @param theDetail the policy, or null to step every drone every tick.
+     */
+    public void setLevelOfDetail(final LevelOfDetail theDetail) {
+        myGenerator.setLevelOfDetail(theDetail);
+    }
+
+    /**
+     * Returns the level-of-detail policy, which also counts the drone updates
+     * it has saved.
+     *
+     * @return the policy, or null if every drone is stepped every tick.
+     */
+    public LevelOfDetail getLevelOfDetail() {
+        return myGenerator.getLevelOfDetail();
+    }
+
+    /**
+     * Returns the share of drone updates the level-of-detail policy has saved.
+     *
+     * @return the saved fraction, from 0 to 1; 0 without a policy.
+     */
+    public double getSavedFraction() {
+        LevelOfDetail detail = myGenerator.getLevelOfDetail();
+        return detail == null ? 0 : detail.getSavedFraction();
+    }
+
+    /**
+     * Returns the generator that ticks this simulation, for settings such as
+     * its parallelism and for reading telemetry.
+     *
+     * @return the simulation's generator.
+     */
+    public TelemetryGenerator getGenerator() {
+        return myGenerator;
+    }
+
+    /**
+     * Returns the fleet store holding this simulation's drones.
+     *
+     * @return the simulation's fleet.
+     */
+    public FleetState getFleet() {
+        return myFleet;
+    }
+
+    /**
+     * Returns the allocator that numbers this simulation's drones.
+     *
+     * @return the ID allocator.
+     */
+    public IdAllocator getIdAllocator() {
+        return myIdAllocator;
+    }
+
+    /**
+     * Returns the clock that stamps this simulation's telemetry.
+     *
+     * @return the clock.
+     */
+    public SimulationClock getClock() {
+        return myClock;
+    }
+
+    /**
+     * Returns the seed of the drones' random streams.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Stops the generator's worker threads, if it has any. The engine can
+     * still be ticked afterwards, serially.
+     */
+    @Override
+    public void close() {
+        myGenerator.setParallelism(1);
+    }
+}
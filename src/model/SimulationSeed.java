@@ -0,0 +1,84 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * A master seed for a reproducible simulation run, and the independent seeds
+ * derived from it for each source of randomness.
+ * <p>
+ * The derived seeds are drawn in a fixed order from a
+ * {@link SplittableRandom} seeded with the master seed, so the same master
+ * seed always gives the same routes, the same per-drone anomaly streams and
+ * the same report IDs, while the three never share a stream.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class SimulationSeed {
+
+    /** Name of the system property that can supply a master seed. */
+    public static final String PROPERTY = "drone.seed";
+
+    /** The master seed. */
+    private final long myMaster;
+
+    /** Seed for route generation. */
+    private final long myRouteSeed;
+
+    /** Seed for the fleet's per-drone random streams. */
+    private final long myFleetSeed;
+
+    /** Seed for anomaly report IDs. */
+    private final long myReportSeed;
+
+    /**
+     * Derives the seeds of a run from a master seed.
+     *
+     * @param theMaster the master seed.
+     */
+    public SimulationSeed(final long theMaster) {
+        myMaster = theMaster;
+        SplittableRandom master = new SplittableRandom(theMaster);
+        myRouteSeed = master.nextLong();
+        myFleetSeed = master.nextLong();
+        myReportSeed = master.nextLong();
+    }
+
+    /**
+     * Reads a master seed from the {@value #PROPERTY} system property.
+     *
+     * @return the seed, or null if the property is not set.
+     * @throws NumberFormatException if the property is not a number.
+     */
+    public static SimulationSeed fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        return value == null ? null : new SimulationSeed(Long.parseLong(value.trim()));
+    }
+
+    /**
+     * @return the master seed.
+     */
+    public long getMaster() {
+        return myMaster;
+    }
+
+    /**
+     * @return the seed for {@link RouteGenerator}.
+     */
+    public long getRouteSeed() {
+        return myRouteSeed;
+    }
+
+    /**
+     * @return the seed for {@link TelemetryGenerator#setSeed(long)}.
+     */
+    public long getFleetSeed() {
+        return myFleetSeed;
+    }
+
+    /**
+     * @return the seed for {@link AnomalyDetector} report IDs.
+     */
+    public long getReportSeed() {
+        return myReportSeed;
+    }
+}
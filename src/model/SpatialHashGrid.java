@@ -0,0 +1,171 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A uniform spatial hash grid used as a broad phase for proximity queries.
+ * <p>
+ * Space is divided into cubic cells of a fixed size. Each inserted entry is an
+ * integer index (for example the position of a drone in a list) stored in the
+ * cell that contains its coordinates. Cells are kept in an open-addressing hash
+ * table, and the entries of one cell are chained through a primitive array, so
+ * rebuilding the grid every tick does not allocate once the backing arrays have
+ * grown to the fleet size.
+ * <p>
+ * When the cell size is at least the query radius, every pair of points that
+ * lie within that radius of each other are in the same or in neighbouring
+ * cells, so a query only has to walk the 3x3x3 block around a cell.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class SpatialHashGrid {
+
+    /** Marker for an empty table bucket or the end of a cell chain. */
+    public static final int NONE = -1;
+
+    /** Number of bits used to pack each cell coordinate into a key. */
+    private static final int AXIS_BITS = 21;
+
+    /** Mask applied to each cell coordinate before packing. */
+    private static final long AXIS_MASK = (1L << AXIS_BITS) - 1;
+
+    /** Inverse of the cell edge length, so cell lookups are a multiply. */
+    private final float myInverseCellSize;
+
+    /** Packed cell key stored in each table bucket. */
+    private long[] myKeys;
+
+    /** First entry of the cell stored in each table bucket, or {@link #NONE}. */
+    private int[] myHeads;
+
+    /** Next entry in the same cell for each inserted index, or {@link #NONE}. */
+    private int[] myNext;
+
+    /** Bit mask used to wrap hashes into the table. */
+    private int myMask;
+
+    /**
+     * Creates an empty grid with the given cell edge length.
+     *
+     * @param theCellSize the edge length of each cubic cell; must be positive.
+     * @throws IllegalArgumentException if the cell size is not positive.
+     */
+    public SpatialHashGrid(final float theCellSize) {
+        if (!(theCellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        myInverseCellSize = 1.0f / theCellSize;
+        myKeys = new long[0];
+        myHeads = new int[0];
+        myNext = new int[0];
+        myMask = -1;
+        clear(16);
+    }
+
+    /**
+     * Empties the grid and makes room for indices {@code 0..theCapacity - 1}.
+     * Backing arrays are only reallocated when they need to grow.
+     *
+     * @param theCapacity the number of indices that may be inserted.
+     */
+    public final void clear(final int theCapacity) {
+        int tableSize = Integer.highestOneBit(Math.max(16, theCapacity) * 2 - 1) << 1;
+        if (myHeads.length < tableSize) {
+            myKeys = new long[tableSize];
+            myHeads = new int[tableSize];
+        }
+        if (myNext.length < theCapacity) {
+            myNext = new int[Math.max(theCapacity, myNext.length * 2)];
+        }
+        myMask = tableSize - 1;
+        Arrays.fill(myHeads, 0, tableSize, NONE);
+    }
+
+    /**
+     * Inserts an index at the given coordinates. The index must be smaller
+     * than the capacity passed to the last {@link #clear(int)} call.
+     *
+     * @param theIndex the index to insert.
+     * @param theX the x coordinate (longitude).
+     * @param theY the y coordinate (latitude).
+     * @param theZ the z coordinate (altitude).
+     */
+    public void insert(final int theIndex, final float theX, final float theY, final float theZ) {
+        long key = pack(cellOf(theX), cellOf(theY), cellOf(theZ));
+        int bucket = findBucket(key);
+        if (myHeads[bucket] == NONE) {
+            myKeys[bucket] = key;
+        }
+        myNext[theIndex] = myHeads[bucket];
+        myHeads[bucket] = theIndex;
+    }
+
+    /**
+     * Returns the cell coordinate that contains the given position on one axis.
+     *
+     * @param theValue the position on the axis.
+     * @return the cell coordinate.
+     */
+    public int cellOf(final float theValue) {
+        return (int) Math.floor(theValue * myInverseCellSize);
+    }
+
+    /**
+     * Returns the first index stored in the given cell.
+     *
+     * @param theCellX the cell x coordinate.
+     * @param theCellY the cell y coordinate.
+     * @param theCellZ the cell z coordinate.
+     * @return the first index in the cell, or {@link #NONE} if the cell is empty.
+     */
+    public int firstInCell(final int theCellX, final int theCellY, final int theCellZ) {
+        return myHeads[findBucket(pack(theCellX, theCellY, theCellZ))];
+    }
+
+    /**
+     * Returns the index stored after the given one in the same cell.
+     *
+     * @param theIndex an index previously returned by this grid.
+     * @return the next index in the cell, or {@link #NONE} at the end of the cell.
+     */
+    public int next(final int theIndex) {
+        return myNext[theIndex];
+    }
+
+    /**
+     * Finds the bucket holding a key, or the empty bucket where it belongs.
+     *
+     * @param theKey the packed cell key.
+     * @return the bucket position in the table.
+     */
+    private int findBucket(final long theKey) {
+        int bucket = mix(theKey) & myMask;
+        while (myHeads[bucket] != NONE && myKeys[bucket] != theKey) {
+            bucket = (bucket + 1) & myMask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Packs three cell coordinates into one key. Coordinates far outside the
+     * flight area may alias onto the same key, which only adds candidates and
+     * never hides a real neighbour.
+     */
+    private static long pack(final int theCellX, final int theCellY, final int theCellZ) {
+        return ((theCellX & AXIS_MASK) << (2 * AXIS_BITS))
+                | ((theCellY & AXIS_MASK) << AXIS_BITS)
+                | (theCellZ & AXIS_MASK);
+    }
+
+    /**
+     * Scrambles a packed key so neighbouring cells spread across the table.
+     * {@link ConflictDetector} hashes its cell keys the same way.
+     *
+     * @param theKey the packed cell key.
+     * @return a hash of the key; its low bits pick the bucket.
+     */
+    static int mix(final long theKey) {
+        long h = theKey * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
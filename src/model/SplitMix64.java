@@ -0,0 +1,125 @@
+package model;
+
+/**
+ * Random number streams stored as plain {@code long} states.
+ * <p>
+ * Each stream is one element of a {@code long[]}, advanced with the SplitMix64
+ * generator (the same mixing function used by {@link java.util.SplittableRandom}).
+ * Keeping one state per drone slot gives every drone its own independent,
+ * reproducible stream without allocating a {@link java.util.Random} per drone,
+ * and lets drones be advanced on different threads in any order while still
+ * drawing exactly the same numbers.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class SplitMix64 {
+
+    /** Increment added to a state on every draw (the 64-bit golden ratio). */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Utility class; not instantiable. */
+    private SplitMix64() {
+    }
+
+    /**
+     * Derives the starting state of the n-th stream of a seed.
+     *
+     * @param theSeed the seed shared by a family of streams.
+     * @param theStream the stream number.
+     * @return the starting state for that stream.
+     */
+    public static long stream(final long theSeed, final long theStream) {
+        return mix(theSeed + (theStream + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Advances a stream and returns 64 random bits.
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @return the next random long.
+     */
+    public static long nextLong(final long[] theStates, final int theIndex) {
+        long state = theStates[theIndex] + GOLDEN_GAMMA;
+        theStates[theIndex] = state;
+        return mix(state);
+    }
+
+    /**
+     * Advances a stream and returns a float uniformly distributed in [0, 1).
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @return the next random float.
+     */
+    public static float nextFloat(final long[] theStates, final int theIndex) {
+        return (nextLong(theStates, theIndex) >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * Advances a stream and returns a double uniformly distributed in [0, 1).
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @return the next random double.
+     */
+    public static double nextDouble(final long[] theStates, final int theIndex) {
+        return (nextLong(theStates, theIndex) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Advances a stream and returns an int uniformly distributed in [0, bound).
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @param theBound the exclusive upper bound; must be positive.
+     * @return the next random int.
+     */
+    public static int nextInt(final long[] theStates, final int theIndex, final int theBound) {
+        return (int) (((nextLong(theStates, theIndex) >>> 32) * theBound) >>> 32);
+    }
+
+    /**
+     * Advances a stream and returns a random boolean.
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @return the next random boolean.
+     */
+    public static boolean nextBoolean(final long[] theStates, final int theIndex) {
+        return nextLong(theStates, theIndex) < 0;
+    }
+
+    /**
+     * Advances a stream and returns the number of independent trials up to
+     * and including the first success, when each trial succeeds with the
+     * given chance. Drawing one gap is equivalent to drawing a float per
+     * trial and waiting for one below the chance, but costs a single draw.
+     *
+     * @param theStates the stream states.
+     * @param theIndex the stream to advance.
+     * @param theChance the chance of success per trial.
+     * @return a gap of at least 1, or {@link Long#MAX_VALUE} if the chance is not positive.
+     */
+    public static long nextGeometric(final long[] theStates, final int theIndex, final double theChance) {
+        if (!(theChance > 0)) {
+            return Long.MAX_VALUE;
+        }
+        if (theChance >= 1) {
+            return 1;
+        }
+        double uniform = 1 - nextDouble(theStates, theIndex);
+        double failures = Math.floor(Math.log(uniform) / Math.log1p(-theChance));
+        return failures >= Long.MAX_VALUE - 1 ? Long.MAX_VALUE : (long) failures + 1;
+    }
+
+    /**
+     * The SplitMix64 output function.
+     */
+    private static long mix(final long theState) {
+        long z = theState;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
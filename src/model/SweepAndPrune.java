@@ -0,0 +1,506 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Continuous collision detection for objects that move in straight lines
+ * over one time step.
+ * <p>
+ * Each object is given by where it starts and ends the step, and is taken to
+ * move at constant velocity in between. Two objects touch when the distance
+ * between them at the same moment drops below the collision radius, so fast
+ * objects that pass through each other between two steps are still caught,
+ * while paths that cross at different moments are not.
+ * <p>
+ * The broad phase is sweep and prune. Each motion segment is enclosed in an
+ * axis-aligned box, the boxes are sorted by their low end on one axis, and
+ * each box is only compared with the boxes that start before it ends on that
+ * axis. A single sweep still compares every box with a whole slice of the
+ * space, so a second axis is cut into bands and each band is swept on its own;
+ * a box that reaches into several bands is entered in each of them, and a pair
+ * is only reported by the band where their ranges start to overlap. Both axes
+ * are picked on every call as the ones along which the boxes are smallest
+ * compared to how far the objects are spread out, which keeps the number of
+ * boxes each box is compared with low. The narrow phase solves for the first
+ * moment two objects come within the radius.
+ * <p>
+ * All buffers are reused between calls, so once they have grown to the
+ * number of objects a call does not allocate.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class SweepAndPrune {
+
+    /** Most bands the band axis is cut into, however far apart the objects are. */
+    private static final int MAX_BANDS = 4096;
+
+    /** Band height as a multiple of the average box size along the band axis. */
+    private static final float BAND_SCALE = 2;
+
+    /** Mask for the object index stored in the low half of a sort key. */
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    /** Number of axes. */
+    private static final int AXES = 3;
+
+    /** Bits sorted per radix sort pass. */
+    private static final int RADIX_BITS = 8;
+
+    /** Mask for one radix sort digit. */
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+    /** Distance below which two objects touch. */
+    private final float myRadiusSq;
+
+    /** Half the collision radius, added to every side of a box. */
+    private final float myMargin;
+
+    /** Low corner of each object's box, per axis. */
+    private float[][] myMin = new float[AXES][0];
+
+    /** High corner of each object's box, per axis. */
+    private float[][] myMax = new float[AXES][0];
+
+    /** Axis the boxes are swept along in the current call. */
+    private int mySweepAxis;
+
+    /** Axis cut into bands in the current call. */
+    private int myBandAxis;
+
+    /** The remaining axis in the current call. */
+    private int myOtherAxis;
+
+    /** Low end of the band axis in the current call. */
+    private float myBottom;
+
+    /** Height of each band in the current call. */
+    private float myBandHeight;
+
+    /** Number of bands in the current call. */
+    private int myBandCount;
+
+    /** Lowest box corner on each axis in the current call. */
+    private final float[] myLow = new float[AXES];
+
+    /** Highest box corner on each axis in the current call. */
+    private final float[] myHigh = new float[AXES];
+
+    /** Average box size on each axis in the current call. */
+    private final float[] mySize = new float[AXES];
+
+    /** Start of each band's entries in {@link #myEntries}, plus one end marker. */
+    private int[] myBandStarts = new int[1];
+
+    /** Object index of each band entry, sorted along the sweep axis within each band. */
+    private int[] myEntries = new int[0];
+
+    /** Low end on the sweep axis (as sortable bits) in the high half, object index in the low half. */
+    private long[] mySortKeys = new long[0];
+
+    /** Second buffer for the radix sort of {@link #mySortKeys}. */
+    private long[] mySortScratch = new long[0];
+
+    /** Digit counts for the radix sort. */
+    private final int[] myRadixCounts = new int[1 << RADIX_BITS];
+
+    /** Box bounds of each entry in sorted order, so the sweep reads memory in sequence. */
+    private float[] mySweepMin = new float[0];
+    private float[] mySweepMax = new float[0];
+    private float[] myBandMin = new float[0];
+    private float[] myBandMax = new float[0];
+    private float[] myOtherMin = new float[0];
+    private float[] myOtherMax = new float[0];
+
+    /** First object of each contact. */
+    private int[] myFirsts = new int[0];
+
+    /** Second object of each contact. */
+    private int[] mySeconds = new int[0];
+
+    /** Moment of each contact, as a fraction of the step. */
+    private float[] myTimes = new float[0];
+
+    /** Contact moments (high half) and contact numbers (low half), sorted. */
+    private long[] myOrder = new long[0];
+
+    /** Number of contacts found by the last call. */
+    private int myContactCount;
+
+    /**
+     * Creates a detector.
+     *
+     * @param theRadius the distance below which two objects touch; must be positive.
+     * @throws IllegalArgumentException if the radius is not positive.
+     */
+    public SweepAndPrune(final float theRadius) {
+        if (!(theRadius > 0)) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        myRadiusSq = theRadius * theRadius;
+        myMargin = theRadius / 2;
+    }
+
+    /**
+     * Finds every pair of active objects that touch during the step. The
+     * contacts can then be read, earliest first, with {@link #getFirst(int)},
+     * {@link #getSecond(int)} and {@link #getTime(int)}.
+     *
+     * @param theStartX where each object starts the step, on x.
+     * @param theStartY where each object starts the step, on y.
+     * @param theStartZ where each object starts the step, on z.
+     * @param theEndX where each object ends the step, on x.
+     * @param theEndY where each object ends the step, on y.
+     * @param theEndZ where each object ends the step, on z.
+     * @param theActive which objects take part; inactive ones are ignored.
+     * @param theCount number of objects, starting at index 0.
+     * @return the number of contacts found.
+     */
+    public int findContacts(final float[] theStartX, final float[] theStartY, final float[] theStartZ,
+                            final float[] theEndX, final float[] theEndY, final float[] theEndZ,
+                            final boolean[] theActive, final int theCount) {
+        myContactCount = 0;
+        if (myMin[0].length < theCount) {
+            int capacity = Math.max(theCount, myMin[0].length * 2);
+            myMin = new float[AXES][capacity];
+            myMax = new float[AXES][capacity];
+        }
+        buildBoxes(0, theStartX, theEndX, theActive, theCount);
+        buildBoxes(1, theStartY, theEndY, theActive, theCount);
+        if (buildBoxes(2, theStartZ, theEndZ, theActive, theCount) == 0) {
+            myBandCount = 0;
+            return 0;
+        }
+        pickAxes();
+        fillBands(theActive, theCount);
+
+        for (int band = 0; band < myBandCount; band++) {
+            int end = myBandStarts[band + 1];
+            int first = myBandStarts[band];
+            copyBounds(first, end);
+            for (int e = first; e < end; e++) {
+                float sweepMax = mySweepMax[e];
+                for (int f = e + 1; f < end && mySweepMin[f] <= sweepMax; f++) {
+                    if (myBandMin[f] > myBandMax[e] || myBandMin[e] > myBandMax[f]
+                            || myOtherMin[f] > myOtherMax[e] || myOtherMin[e] > myOtherMax[f]
+                            || bandOf(Math.max(myBandMin[e], myBandMin[f])) != band) {
+                        continue;
+                    }
+                    int i = myEntries[e];
+                    int j = myEntries[f];
+                    float time = timeOfContact(
+                            theStartX[i] - theStartX[j], theStartY[i] - theStartY[j], theStartZ[i] - theStartZ[j],
+                            (theEndX[i] - theStartX[i]) - (theEndX[j] - theStartX[j]),
+                            (theEndY[i] - theStartY[i]) - (theEndY[j] - theStartY[j]),
+                            (theEndZ[i] - theStartZ[i]) - (theEndZ[j] - theStartZ[j]),
+                            myRadiusSq);
+                    if (time >= 0) {
+                        addContact(Math.min(i, j), Math.max(i, j), time);
+                    }
+                }
+            }
+        }
+        sortContacts();
+        return myContactCount;
+    }
+
+    /**
+     * @param theContact a contact number, from 0 to the count returned by
+     *                   {@link #findContacts} (exclusive); lower numbers happen earlier.
+     * @return the lower object index of the contact.
+     */
+    public int getFirst(final int theContact) {
+        return myFirsts[contact(theContact)];
+    }
+
+    /**
+     * @param theContact a contact number.
+     * @return the higher object index of the contact.
+     */
+    public int getSecond(final int theContact) {
+        return mySeconds[contact(theContact)];
+    }
+
+    /**
+     * @param theContact a contact number.
+     * @return the moment the two objects first touch, from 0 (start of the
+     *         step) to 1 (end of the step).
+     */
+    public float getTime(final int theContact) {
+        return myTimes[contact(theContact)];
+    }
+
+    /**
+     * Returns the first moment in a step at which two objects moving at
+     * constant velocity come closer than a given distance.
+     *
+     * @param theDx how far apart the objects start, on x (first minus second).
+     * @param theDy how far apart the objects start, on y.
+     * @param theDz how far apart the objects start, on z.
+     * @param theVx how much further the first object moves over the step than
+     *              the second, on x.
+     * @param theVy the same, on y.
+     * @param theVz the same, on z.
+     * @param theRadiusSq the squared contact distance.
+     * @return the moment of contact as a fraction of the step, 0 if the objects
+     *         start in contact, or -1 if they do not touch during the step.
+     */
+    public static float timeOfContact(final float theDx, final float theDy, final float theDz,
+                                      final float theVx, final float theVy, final float theVz,
+                                      final float theRadiusSq) {
+        double c = (double) theDx * theDx + (double) theDy * theDy + (double) theDz * theDz - theRadiusSq;
+        if (c < 0) {
+            return 0;
+        }
+        double b = (double) theDx * theVx + (double) theDy * theVy + (double) theDz * theVz;
+        if (b >= 0) {
+            // Not closing in, so the distance only grows.
+            return -1;
+        }
+        double a = (double) theVx * theVx + (double) theVy * theVy + (double) theVz * theVz;
+        double discriminant = b * b - a * c;
+        if (discriminant <= 0) {
+            return -1;
+        }
+        double time = (-b - Math.sqrt(discriminant)) / a;
+        return time <= 1 ? (float) time : -1;
+    }
+
+    /**
+     * Computes one axis of each active object's box, and the range and
+     * average size of the boxes on that axis.
+     *
+     * @return the number of active objects.
+     */
+    private int buildBoxes(final int theAxis, final float[] theStart, final float[] theEnd,
+                           final boolean[] theActive, final int theCount) {
+        float[] min = myMin[theAxis];
+        float[] max = myMax[theAxis];
+        float low = Float.POSITIVE_INFINITY;
+        float high = Float.NEGATIVE_INFINITY;
+        double size = 0;
+        int active = 0;
+        for (int i = 0; i < theCount; i++) {
+            if (!theActive[i]) {
+                continue;
+            }
+            active++;
+            // Growing each box by half the radius makes boxes overlap whenever
+            // the segments come within the radius of each other.
+            min[i] = Math.min(theStart[i], theEnd[i]) - myMargin;
+            max[i] = Math.max(theStart[i], theEnd[i]) + myMargin;
+            low = Math.min(low, min[i]);
+            high = Math.max(high, max[i]);
+            size += max[i] - min[i];
+        }
+        myLow[theAxis] = low;
+        myHigh[theAxis] = high;
+        mySize[theAxis] = (float) (size / Math.max(active, 1));
+        return active;
+    }
+
+    /**
+     * Picks the sweep and band axes and sizes the bands. The fewer boxes an
+     * average box overlaps along an axis, the better that axis is.
+     */
+    private void pickAxes() {
+        mySweepAxis = 0;
+        for (int axis = 1; axis < AXES; axis++) {
+            if (crowding(axis) < crowding(mySweepAxis)) {
+                mySweepAxis = axis;
+            }
+        }
+        myBandAxis = mySweepAxis == 0 ? 1 : 0;
+        for (int axis = 0; axis < AXES; axis++) {
+            if (axis != mySweepAxis && crowding(axis) < crowding(myBandAxis)) {
+                myBandAxis = axis;
+            }
+        }
+        myOtherAxis = AXES - mySweepAxis - myBandAxis;
+
+        myBottom = myLow[myBandAxis];
+        myBandHeight = BAND_SCALE * mySize[myBandAxis];
+        myBandCount = (int) Math.min(MAX_BANDS, (myHigh[myBandAxis] - myBottom) / myBandHeight + 1);
+    }
+
+    /**
+     * Returns the average box size on an axis as a fraction of the range the boxes cover.
+     */
+    private float crowding(final int theAxis) {
+        return mySize[theAxis] / Math.max(myHigh[theAxis] - myLow[theAxis], Float.MIN_NORMAL);
+    }
+
+    /**
+     * Enters every active box into each band it reaches into, grouped by band
+     * and sorted along the sweep axis within each band.
+     */
+    private void fillBands(final boolean[] theActive, final int theCount) {
+        if (myBandStarts.length < myBandCount + 1) {
+            myBandStarts = new int[myBandCount + 1];
+        }
+        Arrays.fill(myBandStarts, 0, myBandCount + 1, 0);
+        float[] bandMin = myMin[myBandAxis];
+        float[] bandMax = myMax[myBandAxis];
+
+        // Count the entries of each band, then turn the counts into start positions.
+        for (int i = 0; i < theCount; i++) {
+            if (!theActive[i]) {
+                continue;
+            }
+            for (int band = bandOf(bandMin[i]), last = bandOf(bandMax[i]); band <= last; band++) {
+                myBandStarts[band + 1]++;
+            }
+        }
+        for (int band = 0; band < myBandCount; band++) {
+            myBandStarts[band + 1] += myBandStarts[band];
+        }
+        int total = myBandStarts[myBandCount];
+        if (myEntries.length < total) {
+            int capacity = Math.max(total, myEntries.length * 2);
+            myEntries = new int[capacity];
+            mySweepMin = new float[capacity];
+            mySweepMax = new float[capacity];
+            myBandMin = new float[capacity];
+            myBandMax = new float[capacity];
+            myOtherMin = new float[capacity];
+            myOtherMax = new float[capacity];
+        }
+
+        // Objects are handed out in sweep order, so every band comes out sorted.
+        // Each band is filled from its end, so the start positions are back in place afterwards.
+        int sorted = sortAlongSweepAxis(theActive, theCount);
+        for (int band = 0; band < myBandCount; band++) {
+            myBandStarts[band] = myBandStarts[band + 1];
+        }
+        for (int k = sorted - 1; k >= 0; k--) {
+            int i = (int) (mySortKeys[k] & INDEX_MASK);
+            for (int band = bandOf(bandMin[i]), last = bandOf(bandMax[i]); band <= last; band++) {
+                myEntries[--myBandStarts[band]] = i;
+            }
+        }
+    }
+
+    /**
+     * Sorts the active objects by the low end of their box on the sweep axis
+     * into {@link #mySortKeys}. This is a least-significant-digit radix sort
+     * over the key bytes, so it takes linear time, and it is stable, so ties
+     * stay in index order.
+     *
+     * @return the number of sorted objects.
+     */
+    private int sortAlongSweepAxis(final boolean[] theActive, final int theCount) {
+        if (mySortKeys.length < theCount) {
+            int capacity = Math.max(theCount, mySortKeys.length * 2);
+            mySortKeys = new long[capacity];
+            mySortScratch = new long[capacity];
+        }
+        float[] sweepMin = myMin[mySweepAxis];
+        long[] from = mySortKeys;
+        long[] to = mySortScratch;
+        int count = 0;
+        for (int i = 0; i < theCount; i++) {
+            if (theActive[i]) {
+                // Flipping the sign bit makes the signed key order an unsigned one.
+                from[count++] = ((long) (sortable(sweepMin[i]) ^ Integer.MIN_VALUE) << 32) | i;
+            }
+        }
+
+        int[] counts = myRadixCounts;
+        for (int shift = 32; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int k = 0; k < count; k++) {
+                counts[(int) (from[k] >>> shift) & RADIX_MASK]++;
+            }
+            if (counts[(int) (from[0] >>> shift) & RADIX_MASK] == count) {
+                // Every key has the same digit here.
+                continue;
+            }
+            for (int digit = 0, position = 0; digit < counts.length; digit++) {
+                int digitCount = counts[digit];
+                counts[digit] = position;
+                position += digitCount;
+            }
+            for (int k = 0; k < count; k++) {
+                to[counts[(int) (from[k] >>> shift) & RADIX_MASK]++] = from[k];
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        mySortKeys = from;
+        mySortScratch = to;
+        return count;
+    }
+
+    /**
+     * Copies the box bounds of a sorted run of entries next to each other.
+     */
+    private void copyBounds(final int theFrom, final int theTo) {
+        float[] sweepMin = myMin[mySweepAxis];
+        float[] sweepMax = myMax[mySweepAxis];
+        float[] bandMin = myMin[myBandAxis];
+        float[] bandMax = myMax[myBandAxis];
+        float[] otherMin = myMin[myOtherAxis];
+        float[] otherMax = myMax[myOtherAxis];
+        for (int e = theFrom; e < theTo; e++) {
+            int i = myEntries[e];
+            mySweepMin[e] = sweepMin[i];
+            mySweepMax[e] = sweepMax[i];
+            myBandMin[e] = bandMin[i];
+            myBandMax[e] = bandMax[i];
+            myOtherMin[e] = otherMin[i];
+            myOtherMax[e] = otherMax[i];
+        }
+    }
+
+    /**
+     * Returns the band that contains a position on the band axis.
+     */
+    private int bandOf(final float theValue) {
+        return Math.min(myBandCount - 1, (int) ((theValue - myBottom) / myBandHeight));
+    }
+
+    /**
+     * Records a contact, growing the buffers if needed.
+     */
+    private void addContact(final int theFirst, final int theSecond, final float theTime) {
+        if (myContactCount == myFirsts.length) {
+            int capacity = Math.max(16, myFirsts.length * 2);
+            myFirsts = Arrays.copyOf(myFirsts, capacity);
+            mySeconds = Arrays.copyOf(mySeconds, capacity);
+            myTimes = Arrays.copyOf(myTimes, capacity);
+            myOrder = new long[capacity];
+        }
+        myFirsts[myContactCount] = theFirst;
+        mySeconds[myContactCount] = theSecond;
+        myTimes[myContactCount] = theTime;
+        myContactCount++;
+    }
+
+    /**
+     * Orders the contacts by moment, then by the order they were found.
+     */
+    private void sortContacts() {
+        for (int k = 0; k < myContactCount; k++) {
+            myOrder[k] = ((long) Float.floatToIntBits(myTimes[k]) << 32) | k;
+        }
+        Arrays.sort(myOrder, 0, myContactCount);
+    }
+
+    /**
+     * Maps a contact number to where the contact is stored.
+     */
+    private int contact(final int theContact) {
+        if (theContact < 0 || theContact >= myContactCount) {
+            throw new IndexOutOfBoundsException("No contact " + theContact);
+        }
+        return (int) (myOrder[theContact] & INDEX_MASK);
+    }
+
+    /**
+     * Maps a float to an int with the same ordering.
+     */
+    private static int sortable(final float theValue) {
+        int bits = Float.floatToIntBits(theValue);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+}
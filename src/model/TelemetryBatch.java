@@ -0,0 +1,215 @@
+package model;
+
+/**
+ * The telemetry of one tick, as returned by
+ * {@link TelemetryGenerator#processAllDrones(float)}.
+ * <p>
+ * A batch has one entry per drone stepped in the tick, in fleet slot order.
+ * Each entry holds what the drone reported before the tick and what it
+ * reports now, in two sets of primitive {@link TelemetryColumns} indexed by
+ * entry, together with whether the current report is spoofed and whether
+ * the drone is out of the simulation (crashed, collided or out of battery).
+ * Detectors, exporters and the dashboard read the columns directly, so a
+ * tick allocates no records or map entries.
+ * <p>
+ * The batch is a copy, so it stays readable after the fleet changes, for
+ * example when a crashed drone is removed. The generator owns two batches
+ * and fills them in turn: the batch of tick N is not written again until
+ * the batch of tick N+1 has been handed out, so a consumer may keep reading
+ * tick N while the producer fills tick N+1, but must be done with it before
+ * the tick after that.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class TelemetryBatch {
+
+    /** Reports from before the tick, by entry. */
+    private final TelemetryColumns myPrevious;
+
+    /** Reports of the tick, by entry. */
+    private final TelemetryColumns myCurrent;
+
+    /** Fleet slot of each entry's drone at the time of the tick. */
+    private int[] mySlots;
+
+    /** Whether each entry's current report is spoofed. */
+    private boolean[] mySpoofed;
+
+    /** Whether each entry's drone is out of the simulation. */
+    private boolean[] myRemoved;
+
+    /** Number of entries. */
+    private int mySize;
+
+    /** Timestamp of the tick in milliseconds. */
+    private long myTimeStamp;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param theCapacity number of entries to preallocate.
+     */
+    TelemetryBatch(final int theCapacity) {
+        int capacity = Math.max(1, theCapacity);
+        myPrevious = new TelemetryColumns(capacity);
+        myCurrent = new TelemetryColumns(capacity);
+        mySlots = new int[capacity];
+        mySpoofed = new boolean[capacity];
+        myRemoved = new boolean[capacity];
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of drones stepped in the tick.
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Returns the reports from before the tick, indexed by entry.
+     *
+     * @return the previous reports.
+     */
+    public TelemetryColumns getPrevious() {
+        return myPrevious;
+    }
+
+    /**
+     * Returns the reports of the tick, indexed by entry.
+     *
+     * @return the current reports.
+     */
+    public TelemetryColumns getCurrent() {
+        return myCurrent;
+    }
+
+    /**
+     * Returns the fleet slot an entry's drone had in the tick. Slots shift
+     * when drones are removed, so this is only the drone's slot until the
+     * fleet changes.
+     *
+     * @param theEntry the entry.
+     * @return the drone's fleet slot.
+     */
+    public int getSlot(final int theEntry) {
+        return mySlots[theEntry];
+    }
+
+    /**
+     * Returns whether an entry's current report is spoofed, that is, differs
+     * from where the drone really is.
+     *
+     * @param theEntry the entry.
+     * @return true if the report is spoofed.
+     */
+    public boolean isSpoofed(final int theEntry) {
+        return mySpoofed[theEntry];
+    }
+
+    /**
+     * Returns whether an entry's drone is out of the simulation at the end of
+     * the tick, so consumers can stop tracking it.
+     *
+     * @param theEntry the entry.
+     * @return true if the drone is dead.
+     */
+    public boolean isRemoved(final int theEntry) {
+        return myRemoved[theEntry];
+    }
+
+    /**
+     * Returns the timestamp of the tick.
+     *
+     * @return milliseconds.
+     */
+    public long getTimeStamp() {
+        return myTimeStamp;
+    }
+
+    /**
+     * Finds the entry of a drone by a linear search, for occasional lookups.
+     *
+     * @param theId the drone's ID.
+     * @return the drone's entry, or -1 if it was not stepped in the tick.
+     */
+    public int indexOf(final int theId) {
+        int[] ids = myCurrent.myIds;
+        for (int entry = 0; entry < mySize; entry++) {
+            if (ids[entry] == theId) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Makes this batch a copy of another. The other batch may be written
+     * while it is copied: the copy is then inconsistent, and the caller has
+     * to detect that, but copying never reads past the end of a column.
+     *
+     * @param theSource the batch to copy.
+     */
+    void copyFrom(final TelemetryBatch theSource) {
+        int[] slots = theSource.mySlots;
+        boolean[] spoofed = theSource.mySpoofed;
+        boolean[] removed = theSource.myRemoved;
+        int size = Math.min(theSource.mySize, Math.min(slots.length, Math.min(spoofed.length, removed.length)));
+        size = myPrevious.copyFrom(theSource.myPrevious, size);
+        size = myCurrent.copyFrom(theSource.myCurrent, size);
+        ensureCapacity(size);
+        System.arraycopy(slots, 0, mySlots, 0, size);
+        System.arraycopy(spoofed, 0, mySpoofed, 0, size);
+        System.arraycopy(removed, 0, myRemoved, 0, size);
+        mySize = size;
+        myTimeStamp = theSource.myTimeStamp;
+    }
+
+    /**
+     * Empties the batch for a new tick.
+     *
+     * @param theCapacity the most entries the tick can add.
+     * @param theTimeStamp timestamp of the tick.
+     */
+    void reset(final int theCapacity, final long theTimeStamp) {
+        myPrevious.ensureCapacity(theCapacity);
+        myCurrent.ensureCapacity(theCapacity);
+        ensureCapacity(theCapacity);
+        mySize = 0;
+        myTimeStamp = theTimeStamp;
+    }
+
+    /**
+     * Grows the slot and flag columns so they hold at least the given
+     * number of entries.
+     *
+     * @param theCapacity the required number of entries.
+     */
+    private void ensureCapacity(final int theCapacity) {
+        if (mySlots.length < theCapacity) {
+            mySlots = new int[theCapacity];
+            mySpoofed = new boolean[theCapacity];
+            myRemoved = new boolean[theCapacity];
+        }
+    }
+
+    /**
+     * Adds an entry for a fleet slot.
+     *
+     * @param theSlot the drone's fleet slot.
+     * @param thePrevious reports from before the tick, by slot.
+     * @param theCurrent reports of the tick, by slot.
+     * @param theSpoofed whether the current report is spoofed.
+     * @param theRemoved whether the drone is dead.
+     */
+    void add(final int theSlot, final TelemetryColumns thePrevious, final TelemetryColumns theCurrent,
+             final boolean theSpoofed, final boolean theRemoved) {
+        int entry = mySize++;
+        mySlots[entry] = theSlot;
+        myPrevious.copy(entry, thePrevious, theSlot);
+        myCurrent.copy(entry, theCurrent, theSlot);
+        mySpoofed[entry] = theSpoofed;
+        myRemoved[entry] = theRemoved;
+    }
+}
@@ -0,0 +1,588 @@
+package model;
+
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands each tick's {@link TelemetryBatch} from the simulation thread to
+ * consumers that run on threads of their own, such as anomaly detection,
+ * persistence, alerting and drawing, so a slow consumer does not hold up the
+ * physics.
+ * <p>
+ * The bus is a ring of preallocated batches with one producer. The producer
+ * {@linkplain #publish copies} a tick into the next slot of the ring and
+ * advances its sequence; every consumer keeps its own cursor, the sequence
+ * of the last tick it handled, and reads slots up to the producer's
+ * sequence. Nothing is locked: the cursors are the only shared state, and a
+ * consumer reading up to a published sequence sees everything written into
+ * the slots before it was published.
+ * <p>
+ * Consumers come in two kinds:
+ * <ul>
+ *     <li>A <em>gating</em> consumer sees every tick, in order. The producer
+ *     does not reuse a slot until every gating consumer has handled it, so
+ *     it only waits when a gating consumer falls a whole ring behind.</li>
+ *     <li>A <em>lossy</em> consumer never holds up the producer. When it
+ *     falls a whole ring behind, it skips to the oldest tick still in the
+ *     ring and counts the ticks it dropped. It handles a private copy of
+ *     each tick, so the producer can overwrite the slot meanwhile. Each
+ *     slot carries a stamp, odd while the producer writes the slot, as in a
+ *     sequence lock: a copy only counts if the slot had the tick's even
+ *     stamp both before and after copying, otherwise the tick is dropped.</li>
+ * </ul>
+ * A consumer can also run after other gating consumers, and then only reads
+ * a tick once they have handled it. Each slot carries a list of
+ * {@link AnomalyReport}s next to the batch: the producer puts reports it
+ * already has there, such as predicted conflicts, an upstream consumer such
+ * as detection adds the anomalies it finds, and downstream consumers such
+ * as persistence and alerting read them.
+ * <p>
+ * Consumers are added before {@link #start()}; the producer is whichever
+ * single thread calls {@link #publish}. Each consumer reports its lag
+ * behind the producer, see {@link Consumer}.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class TelemetryBus implements AutoCloseable {
+
+    /** Busy-wait rounds before a waiting thread starts to park. */
+    private static final int SPINS = 100;
+
+    /** How long a waiting thread parks between checks, in nanoseconds. */
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Handles the ticks a consumer reads from the bus.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * Handles one tick. The batch and reports are only valid during the
+         * call. A gating consumer that others run after may add reports.
+         *
+         * @param theBatch the tick's telemetry.
+         * @param theReports the tick's anomaly reports so far.
+         * @param theSequence the tick's sequence number on the bus, from 0.
+         */
+        void onTelemetry(TelemetryBatch theBatch, List<AnomalyReport> theReports, long theSequence);
+    }
+
+    /** One slot of the ring. */
+    private static final class Slot {
+
+        /** {@link #stamp} of the tick in the slot; one less while the producer writes the slot. */
+        private final AtomicLong myStamp = new AtomicLong(stamp(-1));
+
+        /** The tick's telemetry. */
+        private final TelemetryBatch myBatch = new TelemetryBatch(16);
+
+        /** The tick's anomaly reports. */
+        private final Reports myReports = new Reports();
+    }
+
+    /**
+     * The anomaly reports of a slot: a list that only grows at its end and
+     * can be copied while another thread rewrites it.
+     */
+    private static final class Reports extends AbstractList<AnomalyReport> {
+
+        /** The reports, followed by unused room. */
+        private AnomalyReport[] myReports = new AnomalyReport[4];
+
+        /** Number of reports. */
+        private int mySize;
+
+        @Override
+        public AnomalyReport get(final int theIndex) {
+            Objects.checkIndex(theIndex, mySize);
+            return myReports[theIndex];
+        }
+
+        @Override
+        public int size() {
+            return mySize;
+        }
+
+        @Override
+        public boolean add(final AnomalyReport theReport) {
+            if (mySize == myReports.length) {
+                myReports = Arrays.copyOf(myReports, mySize * 2);
+            }
+            myReports[mySize++] = theReport;
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(myReports, 0, mySize, null);
+            mySize = 0;
+        }
+
+        /**
+         * Makes this list a copy of another, which may be written meanwhile;
+         * never reads past the end of the other list's array.
+         *
+         * @param theSource the list to copy.
+         */
+        private void copyFrom(final Reports theSource) {
+            AnomalyReport[] reports = theSource.myReports;
+            int size = Math.min(theSource.mySize, reports.length);
+            clear();
+            if (myReports.length < size) {
+                myReports = new AnomalyReport[reports.length];
+            }
+            System.arraycopy(reports, 0, myReports, 0, size);
+            mySize = size;
+        }
+    }
+
+    /**
+     * A consumer of the bus, running on its own thread, with its lag
+     * metrics. All getters may be called from any thread.
+     */
+    public final class Consumer {
+
+        /** Name, used for the thread and in messages. */
+        private final String myName;
+
+        /** Whether the producer waits for this consumer. */
+        private final boolean myGating;
+
+        /** Handles the ticks. */
+        private final Handler myHandler;
+
+        /** Consumers whose ticks this one reads only after they have handled them. */
+        private final Consumer[] myAfter;
+
+        /** Sequence of the last tick handled, or -1. */
+        private final AtomicLong myCursor = new AtomicLong(-1);
+
+        /** Ticks handled. */
+        private volatile long myHandled;
+
+        /** Ticks skipped because the producer overwrote them first. */
+        private volatile long myDropped;
+
+        /** Highest lag seen when starting on a tick. */
+        private volatile long myMaxLag;
+
+        /** Whether the consumer's thread has finished. */
+        private volatile boolean myStopped;
+
+        /** Private copy of the tick a lossy consumer is handling, or null. */
+        private final Slot myCopy;
+
+        /** The consumer's thread. */
+        private final Thread myThread;
+
+        private Consumer(final String theName, final boolean theGating, final Handler theHandler,
+                         final Consumer[] theAfter) {
+            myName = theName;
+            myGating = theGating;
+            myHandler = theHandler;
+            myAfter = theAfter;
+            myCopy = theGating ? null : new Slot();
+            myThread = new Thread(this::run, "telemetry-" + theName);
+            myThread.setDaemon(true);
+        }
+
+        /**
+         * @return the consumer's name.
+         */
+        public String getName() {
+            return myName;
+        }
+
+        /**
+         * @return true if the producer waits for this consumer.
+         */
+        public boolean isGating() {
+            return myGating;
+        }
+
+        /**
+         * Returns the sequence of the last tick this consumer handled or skipped.
+         *
+         * @return the sequence, or -1 before the first tick.
+         */
+        public long getSequence() {
+            return myCursor.get();
+        }
+
+        /**
+         * Returns how many published ticks this consumer has not reached yet.
+         *
+         * @return the current lag in ticks.
+         */
+        public long getLag() {
+            return Math.max(0, myPublished.get() - myCursor.get());
+        }
+
+        /**
+         * Returns the highest lag this consumer has had.
+         *
+         * @return the maximum lag in ticks.
+         */
+        public long getMaxLag() {
+            return myMaxLag;
+        }
+
+        /**
+         * @return the number of ticks handled.
+         */
+        public long getHandled() {
+            return myHandled;
+        }
+
+        /**
+         * Returns how many ticks this consumer skipped because it fell a
+         * whole ring behind. Always 0 for a gating consumer.
+         *
+         * @return the number of ticks dropped.
+         */
+        public long getDropped() {
+            return myDropped;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: lag %d, max lag %d, handled %d, dropped %d",
+                    myName, getLag(), myMaxLag, myHandled, myDropped);
+        }
+
+        /**
+         * Returns the highest sequence this consumer may read.
+         */
+        private long available() {
+            long available = myPublished.get();
+            for (Consumer after : myAfter) {
+                available = Math.min(available, after.myCursor.get());
+            }
+            return available;
+        }
+
+        /**
+         * Returns whether no more ticks will become available.
+         */
+        private boolean finished() {
+            if (myRunning) {
+                return false;
+            }
+            for (Consumer after : myAfter) {
+                if (!after.myStopped) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The consumer's thread: handles ticks as they become available
+         * until the bus is closed and everything published is handled.
+         */
+        private void run() {
+            long next = 0;
+            int idle = 0;
+            try {
+                while (true) {
+                    long available = available();
+                    if (available < next) {
+                        if (finished() && available() < next) {
+                            return;
+                        }
+                        idle = idle(idle);
+                        continue;
+                    }
+                    idle = 0;
+                    long lag = myPublished.get() - next + 1;
+                    if (lag > myMaxLag) {
+                        myMaxLag = lag;
+                    }
+                    if (myGating) {
+                        Slot slot = mySlots[(int) (next & myMask)];
+                        handle(slot, next);
+                    } else {
+                        // The producer may already be writing the slot of the tick a ring before the next one.
+                        long oldest = myPublished.get() - mySlots.length + 2;
+                        if (next < oldest) {
+                            myDropped += oldest - next;
+                            myCursor.set(oldest - 1);
+                            next = oldest;
+                            continue;
+                        }
+                        if (!copy(next)) {
+                            myDropped++;
+                            myCursor.set(next);
+                            next++;
+                            continue;
+                        }
+                        handle(myCopy, next);
+                    }
+                    myHandled++;
+                    myCursor.set(next);
+                    next++;
+                }
+            } finally {
+                myStopped = true;
+            }
+        }
+
+        /**
+         * Copies a tick into this lossy consumer's private slot.
+         *
+         * @return false if the producer overwrote the tick before or while it was copied.
+         */
+        private boolean copy(final long theSequence) {
+            Slot slot = mySlots[(int) (theSequence & myMask)];
+            long stamp = stamp(theSequence);
+            if (slot.myStamp.getAcquire() != stamp) {
+                return false;
+            }
+            myCopy.myBatch.copyFrom(slot.myBatch);
+            myCopy.myReports.copyFrom(slot.myReports);
+            // Keeps the reads of the copy before the second read of the stamp.
+            VarHandle.acquireFence();
+            return slot.myStamp.getOpaque() == stamp;
+        }
+
+        /**
+         * Passes one tick to the handler, which must not stop the consumer.
+         */
+        private void handle(final Slot theSlot, final long theSequence) {
+            try {
+                myHandler.onTelemetry(theSlot.myBatch, theSlot.myReports, theSequence);
+            } catch (RuntimeException e) {
+                System.err.println("Error in telemetry consumer " + myName + " (consumer will continue)");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** The ring. */
+    private final Slot[] mySlots;
+
+    /** Ring length minus one, to turn sequences into indexes. */
+    private final int myMask;
+
+    /** Sequence of the last tick published, or -1. */
+    private final AtomicLong myPublished = new AtomicLong(-1);
+
+    /** Consumers in the order they were added. */
+    private final List<Consumer> myConsumers = new ArrayList<>();
+
+    /** The gating consumers, fixed when the bus starts. */
+    private Consumer[] myGating = new Consumer[0];
+
+    /** Whether the bus has been started. */
+    private boolean myStarted;
+
+    /** Whether the bus accepts ticks; cleared by {@link #close()}. */
+    private volatile boolean myRunning;
+
+    /** Publishes that had to wait for a gating consumer. */
+    private volatile long myProducerWaits;
+
+    /**
+     * Creates a bus.
+     *
+     * @param theCapacity number of ticks the ring holds; a power of two, at least 2.
+     * @throws IllegalArgumentException if the capacity is not a power of two of at least 2.
+     */
+    public TelemetryBus(final int theCapacity) {
+        if (theCapacity < 2 || Integer.bitCount(theCapacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2");
+        }
+        mySlots = new Slot[theCapacity];
+        for (int i = 0; i < theCapacity; i++) {
+            mySlots[i] = new Slot();
+        }
+        myMask = theCapacity - 1;
+    }
+
+    /**
+     * Adds a consumer. Consumers are started by {@link #start()}.
+     *
+     * @param theName the consumer's name.
+     * @param theGating true if the consumer must see every tick, so the
+     *                  producer waits for it; false if it may drop ticks.
+     * @param theHandler handles the ticks.
+     * @param theAfter gating consumers that must handle a tick before this one reads it.
+     * @return the consumer, for its metrics.
+     * @throws IllegalStateException if the bus has been started.
+     * @throws IllegalArgumentException if a consumer to run after is lossy
+     *                                  or belongs to another bus.
+     */
+    public Consumer addConsumer(final String theName, final boolean theGating, final Handler theHandler,
+                                final Consumer... theAfter) {
+        if (myStarted) {
+            throw new IllegalStateException("Consumers must be added before the bus starts");
+        }
+        for (Consumer after : theAfter) {
+            if (!after.myGating || !myConsumers.contains(after)) {
+                throw new IllegalArgumentException("Consumers can only run after gating consumers of the same bus");
+            }
+        }
+        Consumer consumer = new Consumer(theName, theGating, theHandler, theAfter.clone());
+        myConsumers.add(consumer);
+        return consumer;
+    }
+
+    /**
+     * Starts the consumers' threads.
+     *
+     * @throws IllegalStateException if the bus has been started before.
+     */
+    public void start() {
+        if (myStarted) {
+            throw new IllegalStateException("Bus already started");
+        }
+        myStarted = true;
+        myRunning = true;
+        myGating = myConsumers.stream().filter(Consumer::isGating).toArray(Consumer[]::new);
+        for (Consumer consumer : myConsumers) {
+            consumer.myThread.start();
+        }
+    }
+
+    /**
+     * Copies a tick into the ring and makes it available to the consumers.
+     * Waits only if a gating consumer is still handling the tick a whole
+     * ring ago. Must only be called from one thread.
+     *
+     * @param theBatch the tick's telemetry; copied, so it may be reused afterwards.
+     * @param theReports anomaly reports the producer already has for the tick; copied.
+     * @return the tick's sequence number.
+     * @throws IllegalStateException if the bus is not running, or a gating consumer
+     *                               has stopped while the producer waits for it.
+     */
+    public long publish(final TelemetryBatch theBatch, final List<AnomalyReport> theReports) {
+        if (!myRunning) {
+            throw new IllegalStateException("Bus is not running");
+        }
+        long next = myPublished.get() + 1;
+        long wrap = next - mySlots.length;
+        if (wrap >= 0 && slowestGating() < wrap) {
+            myProducerWaits++;
+            int idle = 0;
+            while (slowestGating() < wrap) {
+                if (!myRunning) {
+                    throw new IllegalStateException("Bus closed while publishing");
+                }
+                for (Consumer consumer : myGating) {
+                    if (consumer.myStopped) {
+                        throw new IllegalStateException("Telemetry consumer " + consumer.myName + " stopped");
+                    }
+                }
+                idle = idle(idle);
+            }
+        }
+        Slot slot = mySlots[(int) (next & myMask)];
+        slot.myStamp.setOpaque(stamp(next) - 1);
+        // Keeps the odd stamp before the writes to the slot, so a reader that sees any of them sees it too.
+        VarHandle.releaseFence();
+        slot.myBatch.copyFrom(theBatch);
+        slot.myReports.clear();
+        slot.myReports.addAll(theReports);
+        slot.myStamp.setRelease(stamp(next));
+        myPublished.set(next);
+        return next;
+    }
+
+    /**
+     * Returns the stamp of a slot holding a tick: even, and different for
+     * every tick that uses the slot.
+     *
+     * @param theSequence the tick's sequence.
+     * @return twice the sequence plus two.
+     */
+    private static long stamp(final long theSequence) {
+        return 2 * theSequence + 2;
+    }
+
+    /**
+     * Returns the lowest cursor of the gating consumers.
+     */
+    private long slowestGating() {
+        long slowest = Long.MAX_VALUE;
+        for (Consumer consumer : myGating) {
+            slowest = Math.min(slowest, consumer.myCursor.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * Waits a little: spins at first, then parks.
+     *
+     * @param theIdle how many times the caller has waited in a row.
+     * @return the new count.
+     */
+    private static int idle(final int theIdle) {
+        if (theIdle < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return theIdle + 1;
+    }
+
+    /**
+     * Returns the number of ticks published.
+     *
+     * @return the sequence of the last tick plus one.
+     */
+    public long getPublished() {
+        return myPublished.get() + 1;
+    }
+
+    /**
+     * Returns how many publishes had to wait for a gating consumer.
+     *
+     * @return the number of waits.
+     */
+    public long getProducerWaits() {
+        return myProducerWaits;
+    }
+
+    /**
+     * Returns the number of ticks the ring holds.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return mySlots.length;
+    }
+
+    /**
+     * Returns the consumers, for their metrics.
+     *
+     * @return the consumers in the order they were added.
+     */
+    public List<Consumer> getConsumers() {
+        return List.copyOf(myConsumers);
+    }
+
+    /**
+     * Stops accepting ticks, lets every consumer handle what has been
+     * published (lossy consumers may still skip ticks they have fallen a
+     * ring behind on) and waits for their threads to finish.
+     */
+    @Override
+    public void close() {
+        myRunning = false;
+        for (Consumer consumer : myConsumers) {
+            try {
+                consumer.myThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
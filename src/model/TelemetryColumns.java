@@ -0,0 +1,274 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Telemetry values of a fleet stored as parallel primitive columns, one entry
+ * per fleet slot.
+ * <p>
+ * A {@link TelemetryRecord} holds the same fields, but creating one record
+ * per drone per tick allocates. The simulation tick writes its reports into
+ * these columns instead, and consumers that only need a few fields read them
+ * directly. {@link #toRecord(int)} turns one slot back into a record for code
+ * that works with records.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class TelemetryColumns {
+
+    /** Drone IDs, by slot. */
+    int[] myIds;
+
+    /** Reported longitudes, by slot. */
+    float[] myLongitudes;
+
+    /** Reported latitudes, by slot. */
+    float[] myLatitudes;
+
+    /** Reported altitudes, by slot. */
+    float[] myAltitudes;
+
+    /** Reported velocities, by slot. */
+    float[] myVelocities;
+
+    /** Reported battery levels, by slot. */
+    float[] myBatteries;
+
+    /** Reported headings in degrees, by slot. */
+    float[] myHeadings;
+
+    /** Report timestamps in milliseconds, by slot. */
+    long[] myTimeStamps;
+
+    /** Whether a slot holds a report at all. */
+    boolean[] myPresent;
+
+    /**
+     * Creates empty columns.
+     *
+     * @param theCapacity number of slots to preallocate.
+     */
+    public TelemetryColumns(final int theCapacity) {
+        int capacity = Math.max(1, theCapacity);
+        myIds = new int[capacity];
+        myLongitudes = new float[capacity];
+        myLatitudes = new float[capacity];
+        myAltitudes = new float[capacity];
+        myVelocities = new float[capacity];
+        myBatteries = new float[capacity];
+        myHeadings = new float[capacity];
+        myTimeStamps = new long[capacity];
+        myPresent = new boolean[capacity];
+    }
+
+    /**
+     * Returns whether a slot holds a report.
+     *
+     * @param theSlot the slot.
+     * @return true if the slot has been written.
+     */
+    public boolean isPresent(final int theSlot) {
+        return myPresent[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the drone ID reported at the slot.
+     */
+    public int getId(final int theSlot) {
+        return myIds[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported longitude.
+     */
+    public float getLongitude(final int theSlot) {
+        return myLongitudes[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported latitude.
+     */
+    public float getLatitude(final int theSlot) {
+        return myLatitudes[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported altitude.
+     */
+    public float getAltitude(final int theSlot) {
+        return myAltitudes[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported velocity.
+     */
+    public float getVelocity(final int theSlot) {
+        return myVelocities[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported battery level.
+     */
+    public float getBatteryLevel(final int theSlot) {
+        return myBatteries[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the reported heading in degrees.
+     */
+    public float getOrientation(final int theSlot) {
+        return myHeadings[theSlot];
+    }
+
+    /**
+     * @param theSlot the slot.
+     * @return the report timestamp in milliseconds.
+     */
+    public long getTimeStamp(final int theSlot) {
+        return myTimeStamps[theSlot];
+    }
+
+    /**
+     * Creates a record from one slot.
+     *
+     * @param theSlot the slot.
+     * @return a new TelemetryRecord, or null if the slot holds no report.
+     */
+    public TelemetryRecord toRecord(final int theSlot) {
+        if (!myPresent[theSlot]) {
+            return null;
+        }
+        return new TelemetryRecord(myIds[theSlot], myLongitudes[theSlot], myLatitudes[theSlot],
+                myAltitudes[theSlot], myVelocities[theSlot], myBatteries[theSlot], myHeadings[theSlot],
+                myTimeStamps[theSlot]);
+    }
+
+    /**
+     * Writes a report into a slot.
+     */
+    void set(final int theSlot, final int theId, final float theLongitude, final float theLatitude,
+             final float theAltitude, final float theVelocity, final float theBattery,
+             final float theHeading, final long theTimeStamp) {
+        myIds[theSlot] = theId;
+        myLongitudes[theSlot] = theLongitude;
+        myLatitudes[theSlot] = theLatitude;
+        myAltitudes[theSlot] = theAltitude;
+        myVelocities[theSlot] = theVelocity;
+        myBatteries[theSlot] = theBattery;
+        myHeadings[theSlot] = theHeading;
+        myTimeStamps[theSlot] = theTimeStamp;
+        myPresent[theSlot] = true;
+    }
+
+    /**
+     * Writes a record into a slot; a null record clears it.
+     */
+    void set(final int theSlot, final TelemetryRecord theRecord) {
+        if (theRecord == null) {
+            myPresent[theSlot] = false;
+            return;
+        }
+        set(theSlot, theRecord.id(), theRecord.longitude(), theRecord.latitude(), theRecord.altitude(),
+                theRecord.velocity(), theRecord.batteryLevel(), theRecord.orientation(), theRecord.timeStamp());
+    }
+
+    /**
+     * Copies one slot of another set of columns into a slot of this one.
+     */
+    void copy(final int theSlot, final TelemetryColumns theSource, final int theSourceSlot) {
+        myIds[theSlot] = theSource.myIds[theSourceSlot];
+        myLongitudes[theSlot] = theSource.myLongitudes[theSourceSlot];
+        myLatitudes[theSlot] = theSource.myLatitudes[theSourceSlot];
+        myAltitudes[theSlot] = theSource.myAltitudes[theSourceSlot];
+        myVelocities[theSlot] = theSource.myVelocities[theSourceSlot];
+        myBatteries[theSlot] = theSource.myBatteries[theSourceSlot];
+        myHeadings[theSlot] = theSource.myHeadings[theSourceSlot];
+        myTimeStamps[theSlot] = theSource.myTimeStamps[theSourceSlot];
+        myPresent[theSlot] = theSource.myPresent[theSourceSlot];
+    }
+
+    /**
+     * Copies the first slots of another set of columns over this one,
+     * growing this one if needed. Copies fewer slots if the other columns
+     * are shorter, as they can appear to be while another thread grows them.
+     *
+     * @param theSource the columns to copy.
+     * @param theCount number of slots to copy.
+     * @return the number of slots copied.
+     */
+    int copyFrom(final TelemetryColumns theSource, final int theCount) {
+        // Read every column once, so a column replaced meanwhile is not indexed past its end.
+        int[] ids = theSource.myIds;
+        float[] longitudes = theSource.myLongitudes;
+        float[] latitudes = theSource.myLatitudes;
+        float[] altitudes = theSource.myAltitudes;
+        float[] velocities = theSource.myVelocities;
+        float[] batteries = theSource.myBatteries;
+        float[] headings = theSource.myHeadings;
+        long[] timeStamps = theSource.myTimeStamps;
+        boolean[] present = theSource.myPresent;
+        int count = Math.min(theCount, Math.min(ids.length, Math.min(longitudes.length, latitudes.length)));
+        count = Math.min(count, Math.min(altitudes.length, Math.min(velocities.length, batteries.length)));
+        count = Math.min(count, Math.min(headings.length, Math.min(timeStamps.length, present.length)));
+        ensureCapacity(count);
+        System.arraycopy(ids, 0, myIds, 0, count);
+        System.arraycopy(longitudes, 0, myLongitudes, 0, count);
+        System.arraycopy(latitudes, 0, myLatitudes, 0, count);
+        System.arraycopy(altitudes, 0, myAltitudes, 0, count);
+        System.arraycopy(velocities, 0, myVelocities, 0, count);
+        System.arraycopy(batteries, 0, myBatteries, 0, count);
+        System.arraycopy(headings, 0, myHeadings, 0, count);
+        System.arraycopy(timeStamps, 0, myTimeStamps, 0, count);
+        System.arraycopy(present, 0, myPresent, 0, count);
+        return count;
+    }
+
+    /**
+     * Removes a slot by shifting the following slots down.
+     *
+     * @param theSlot the slot to remove.
+     * @param theSize number of occupied slots before the removal.
+     */
+    void remove(final int theSlot, final int theSize) {
+        int tail = theSize - theSlot - 1;
+        if (tail > 0) {
+            System.arraycopy(myIds, theSlot + 1, myIds, theSlot, tail);
+            System.arraycopy(myLongitudes, theSlot + 1, myLongitudes, theSlot, tail);
+            System.arraycopy(myLatitudes, theSlot + 1, myLatitudes, theSlot, tail);
+            System.arraycopy(myAltitudes, theSlot + 1, myAltitudes, theSlot, tail);
+            System.arraycopy(myVelocities, theSlot + 1, myVelocities, theSlot, tail);
+            System.arraycopy(myBatteries, theSlot + 1, myBatteries, theSlot, tail);
+            System.arraycopy(myHeadings, theSlot + 1, myHeadings, theSlot, tail);
+            System.arraycopy(myTimeStamps, theSlot + 1, myTimeStamps, theSlot, tail);
+            System.arraycopy(myPresent, theSlot + 1, myPresent, theSlot, tail);
+        }
+        myPresent[theSize - 1] = false;
+    }
+
+    /**
+     * Grows the columns so they hold at least the given number of slots.
+     *
+     * @param theCapacity the required number of slots.
+     */
+    void ensureCapacity(final int theCapacity) {
+        if (myIds.length >= theCapacity) {
+            return;
+        }
+        myIds = Arrays.copyOf(myIds, theCapacity);
+        myLongitudes = Arrays.copyOf(myLongitudes, theCapacity);
+        myLatitudes = Arrays.copyOf(myLatitudes, theCapacity);
+        myAltitudes = Arrays.copyOf(myAltitudes, theCapacity);
+        myVelocities = Arrays.copyOf(myVelocities, theCapacity);
+        myBatteries = Arrays.copyOf(myBatteries, theCapacity);
+        myHeadings = Arrays.copyOf(myHeadings, theCapacity);
+        myTimeStamps = Arrays.copyOf(myTimeStamps, theCapacity);
+        myPresent = Arrays.copyOf(myPresent, theCapacity);
+    }
+}
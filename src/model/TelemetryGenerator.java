@@ -1,6 +1,8 @@
 package model;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * TelemetryGenerator manages the simulation of multiple drones by producing
@@ -18,7 +20,27 @@ import java.util.*;
  *     <li>Checks for collisions between drones.</li>
  * </ul>
  * <p>
- * This class follows the Singleton pattern—only one generator instance may exist.
+ * Drone state is kept in a {@link FleetState}, so both passes walk primitive
+ * arrays in slot order rather than calling through each drone object.
+ * {@link #tick(float)} writes each tick's reports into preallocated
+ * {@link TelemetryColumns} and allocates nothing once the buffers have grown
+ * to the fleet size; {@link #processAllDrones(float)} wraps it for callers that
+ * want {@link TelemetryRecord} objects.
+ * <p>
+ * Anomaly decisions, anomaly types and spoof offsets are drawn from each
+ * drone's own random stream (see {@link SplitMix64}), so the outcome of a tick
+ * does not depend on the order in which drones are visited. This lets the
+ * movement and telemetry passes run on several threads (see
+ * {@link #setParallelism(int)}) and still match a serial run with the same seed.
+ * <p>
+ * A {@link LevelOfDetail} policy (see {@link #setLevelOfDetail}) lets the
+ * generator leave unwatched, isolated drones unsimulated for a few ticks at a
+ * time and catch them up exactly; {@link #isStepped(int)} tells which drones
+ * were stepped and reported in the latest tick.
+ * <p>
+ * The GUI shares one generator through {@link #getInstance(float)}. Each
+ * {@link SimulationEngine} owns a generator of its own, so independent
+ * simulations can run side by side in one process.
  *
  * @author Yusuf Shakhpaz
  */
@@ -30,6 +52,12 @@ public class TelemetryGenerator {
     /** Drone Collision Threshold **/
     private final float COLLISION_THRESHOLD = 4;
 
+    /** Smallest number of slots worth handing to a separate thread. */
+    private static final int MIN_PARTITION_SIZE = 1024;
+
+    /** Partitions created per thread, so uneven partitions still balance out. */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
     /**
      * Percentage chance (0–100+) that a drone will generate an anomalous update
      * instead of a normal movement.
@@ -39,65 +67,319 @@ public class TelemetryGenerator {
      */
     private final float RANDOM_PERCENT;
 
-    /** Singleton instance of the TelemetryGenerator. */
+    /** Shared instance returned by {@link #getInstance(float)}. */
     public static TelemetryGenerator instance;
 
-    /** List of all drones being simulated. */
-    ArrayList<DroneInterface> myDrones;
+    /** Structure-of-arrays store holding the state of every simulated drone. */
+    private final FleetState myFleet;
+
+    /** Whether each fleet slot sent spoofed telemetry this tick. */
+    private boolean[] mySpoofed = new boolean[0];
+
+    /** Whether each fleet slot makes a normal move this tick. */
+    private boolean[] myMoving = new boolean[0];
+
+    /** Whether each fleet slot made an anomalous move this tick. */
+    private boolean[] myAnomalous = new boolean[0];
+
+    /** Kernel that makes the tick's normal moves. */
+    private Kinematics myKinematics = Kinematics.getDefault();
+
+    /** Telemetry each slot reported before the latest tick. */
+    private final TelemetryColumns myPrevious = new TelemetryColumns(16);
+
+    /** Batches handed out by {@link #processAllDrones(float)}, filled in turn. */
+    private final TelemetryBatch[] myBatches = {new TelemetryBatch(16), new TelemetryBatch(16)};
+
+    /** Index in {@link #myBatches} of the batch handed out last. */
+    private int myBatchIndex;
+
+    /** Time step of the tick in progress, read by the partition work. */
+    private float myDeltaTime;
+
+    /** Clock read once per tick to stamp that tick's reports. */
+    private SimulationClock myClock = WallClock.INSTANCE;
+
+    /** Timestamp given to the reports of the tick in progress, or {@code Long.MIN_VALUE} before the first tick. */
+    private long myTimeStamp = Long.MIN_VALUE;
 
-    /** Random generator used for determining anomaly occurrence and spoof offsets. */
-    private final Random myRandom = new Random();
+    /** Timestamp given to the reports of the tick before. */
+    private long myPreviousTimeStamp;
 
+    /** Movement pass, kept in a field so ticks do not allocate a lambda. */
+    private final RangeWork myMoveWork = (from, to, scratch) -> moveRange(from, to, myDeltaTime, scratch);
+
+    /** Telemetry pass, kept in a field so ticks do not allocate a lambda. */
+    private final RangeWork myTelemetryWork = (from, to, scratch) -> telemetryRange(from, to);
+
+    /** Scratch space for moves made on the calling thread. */
+    private final float[] myScratch = new float[4];
+
+    /** Number of threads used to advance drones; 1 means serial. */
+    private int myParallelism = 1;
+
+    /** Pool that runs the per-partition work in parallel mode, or null in serial mode. */
+    private ForkJoinPool myPool;
 
     /**
-     * Private constructor for singleton access.
+     * Swept collision detection over each tick's motion. The threshold is a
+     * squared distance, so the collision radius is its square root.
+     */
+    private final SweepAndPrune mySweep = new SweepAndPrune((float) Math.sqrt(COLLISION_THRESHOLD));
+
+    /** Where each slot started the tick in progress, per axis. */
+    private float[] myStartLongitudes = new float[0];
+    private float[] myStartLatitudes = new float[0];
+    private float[] myStartAltitudes = new float[0];
+
+    /** Moment within the tick at which each slot crashed, for slots that crashed this tick. */
+    private float[] myCrashTimes = new float[0];
+
+    /** Whether each fleet slot was stepped and reported this tick. */
+    private boolean[] myStepped = new boolean[0];
+
+    /** Level-of-detail policy, or null to step every drone every tick. */
+    private LevelOfDetail myDetail;
+
+    /** Ticks run so far, which places window starts for the level-of-detail policy. */
+    private long myTickCount;
+
+    /** Whether the tick in progress starts a level-of-detail window. */
+    private boolean myWindowStart;
+
+    /** Drones by position, built at each window start to find isolated drones. */
+    private SpatialHashGrid myNeighbours;
+
+    /** Distance from a cruising drone's path within which another drone keeps it at full rate. */
+    private float myIsolation;
+
+
+    /**
+     * Creates a generator that simulates the drones of a fleet.
      *
      * @param theRandomPercent probability of generating an anomaly (0–100).
+     * @param theFleet the fleet to simulate.
      */
-    private TelemetryGenerator(float theRandomPercent) {
-        myDrones = new ArrayList<>();
+    TelemetryGenerator(final float theRandomPercent, final FleetState theFleet) {
+        myFleet = Objects.requireNonNull(theFleet);
         RANDOM_PERCENT = theRandomPercent;
     }
 
     /**
-     * Retrieves the singleton instance of the TelemetryGenerator.
-     * Creates a new instance if one does not already exist.
+     * Retrieves the shared instance of the TelemetryGenerator.
+     * Creates a new instance if one does not already exist. Its drones are
+     * numbered by the {@linkplain IdAllocator#shared() shared allocator}; use a
+     * {@link SimulationEngine} for a simulation that is independent of any
+     * other in the process.
      *
      * @param theRandomPercent anomaly probability for new instance creation.
      * @return the global TelemetryGenerator instance.
      */
     public static synchronized TelemetryGenerator getInstance(float theRandomPercent) {
         if (instance == null) {
-            instance = new TelemetryGenerator(theRandomPercent);
+            instance = new TelemetryGenerator(theRandomPercent, new FleetState(16));
         }
         return instance;
     }
 
     /**
-     * Returns the list of drones currently registered to the generator.
+     * Seeds the random streams of every drone in the simulation. Runs with the
+     * same seed, the same drones added in the same order and the same sequence
+     * of ticks draw identical anomalies and spoof offsets, in serial or
+     * parallel mode.
+     *
+     * @param theSeed the seed.
+     */
+    public void setSeed(final long theSeed) {
+        myFleet.reseed(theSeed);
+    }
+
+    /**
+     * Selects serial or parallel tick execution. With more than one thread,
+     * the movement and telemetry passes are split into contiguous slot ranges
+     * that run on a dedicated {@link ForkJoinPool}; the collision phase always
+     * runs on the calling thread in between.
+     *
+     * @param theThreads number of threads to use; 1 selects serial mode.
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setParallelism(final int theThreads) {
+        if (theThreads < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (myPool != null) {
+            myPool.shutdown();
+            myPool = null;
+        }
+        myParallelism = theThreads;
+        if (theThreads > 1) {
+            myPool = new ForkJoinPool(theThreads);
+        }
+    }
+
+    /**
+     * Sets the clock that stamps telemetry. It is read once at the start of
+     * every tick and all of that tick's records share the timestamp; the
+     * fleet also uses it for records created between ticks.
+     *
+     * @param theClock the clock; {@link WallClock} by default.
+     */
+    public void setClock(final SimulationClock theClock) {
+        myClock = Objects.requireNonNull(theClock);
+        myFleet.setClock(theClock);
+    }
+
+    /**
+     * Returns the clock that stamps telemetry.
+     *
+     * @return the current clock.
+     */
+    public SimulationClock getClock() {
+        return myClock;
+    }
+
+    /**
+     * Returns the chance of an anomaly per drone update.
+     *
+     * @return the anomaly probability (0–100).
+     */
+    public float getAnomalyPercent() {
+        return RANDOM_PERCENT;
+    }
+
+    /**
+     * Returns the number of threads used to advance drones.
+     *
+     * @return the configured parallelism; 1 means serial.
+     */
+    public int getParallelism() {
+        return myParallelism;
+    }
+
+    /**
+     * Replaces the kernel that makes each tick's normal moves. Every kernel
+     * gives the same fleet state, so this only changes how fast ticks run.
+     *
+     * @param theKinematics the kernel, e.g. {@link Kinematics#scalar()}.
+     */
+    public void setKinematics(final Kinematics theKinematics) {
+        myKinematics = Objects.requireNonNull(theKinematics);
+    }
+
+    /**
+     * Returns the kernel that makes each tick's normal moves.
+     *
+     * @return the kinematics in use; {@link Kinematics#getDefault()} unless replaced.
+     */
+    public Kinematics getKinematics() {
+        return myKinematics;
+    }
+
+    /**
+     * Sets the level-of-detail policy. Drones it leaves behind are caught up
+     * in the next tick if the policy is removed. Windows start at whole
+     * multiples of the window length in ticks run by the generator, counted
+     * from its first tick, so a policy set after a checkpoint is restored
+     * keeps the windows of the captured simulation.
+     *
+     * @param theDetail the policy, or null to step every drone every tick.
+     */
+    public void setLevelOfDetail(final LevelOfDetail theDetail) {
+        myDetail = theDetail;
+    }
+
+    /**
+     * Returns the level-of-detail policy.
+     *
+     * @return the policy, or null if every drone is stepped every tick.
+     */
+    public LevelOfDetail getLevelOfDetail() {
+        return myDetail;
+    }
+
+    /**
+     * Returns the number of ticks run so far, which a {@link FleetCheckpoint}
+     * saves so the restored simulation starts its windows on the same ticks.
+     *
+     * @return the tick count.
+     */
+    long tickCount() {
+        return myTickCount;
+    }
+
+    /**
+     * Continues the tick count of a restored simulation.
+     *
+     * @param theTickCount ticks the captured simulation had run.
+     */
+    void restoreTickCount(final long theTickCount) {
+        myTickCount = theTickCount;
+    }
+
+    /**
+     * Returns whether a drone was stepped in the latest tick. A drone the
+     * {@linkplain #setLevelOfDetail level-of-detail policy} left behind was
+     * not, and its current telemetry is still the report of an earlier tick,
+     * so it should not be given to the anomaly detector again.
+     *
+     * @param theSlot the drone's fleet slot.
+     * @return false if the drone was left behind in the latest tick.
+     */
+    public boolean isStepped(final int theSlot) {
+        return theSlot >= myStepped.length || myStepped[theSlot];
+    }
+
+    /**
+     * Returns the list of drones currently registered to the generator, in
+     * fleet slot order. The list is a snapshot and is not updated afterwards.
      *
      * @return list of simulated drones.
      */
     public ArrayList<DroneInterface> getMyDrones() {
-        return myDrones;
+        ArrayList<DroneInterface> drones = new ArrayList<>(myFleet.size());
+        for (int slot = 0; slot < myFleet.size(); slot++) {
+            drones.add(myFleet.getDrone(slot));
+        }
+        return drones;
     }
 
     /**
-     * Adds a drone to the simulation.
+     * Returns the fleet store holding the state of the simulated drones.
+     * Drones created directly in this fleet are part of the simulation
+     * straight away.
+     *
+     * @return the generator's fleet store.
+     */
+    public FleetState getFleet() {
+        return myFleet;
+    }
+
+    /**
+     * Adds a drone to the simulation. The drone's state is moved into the
+     * generator's fleet store; drones that already live there are left as is.
      *
      * @param theDrone drone to be added.
+     * @throws IllegalArgumentException if the drone is not a fleet-backed {@link Drone}.
      */
     public void addDrone(final DroneInterface theDrone) {
-        myDrones.add(theDrone);
+        if (!(theDrone instanceof Drone drone)) {
+            throw new IllegalArgumentException("Only fleet-backed drones can be simulated");
+        }
+        if (drone.getFleet() != myFleet) {
+            myFleet.adopt(drone);
+        }
     }
 
     /**
-     * Removes a drone from the simulation.
+     * Removes a drone from the simulation. The drone keeps its state in a
+     * private fleet store so it can still be inspected afterwards.
      *
      * @param theDrone drone to remove.
      */
     public void removeDrone(final DroneInterface theDrone) {
-        myDrones.remove((theDrone));
+        if (theDrone instanceof Drone drone && drone.getFleet() == myFleet) {
+            new FleetState(1).adopt(drone);
+        }
     }
 
     /**
@@ -109,79 +391,412 @@ public class TelemetryGenerator {
      *     <li>Randomly chooses normal or anomalous movement.</li>
      *     <li>Checks for collisions between drones after all movements.</li>
      *     <li>Generates spoofed telemetry if the anomaly was SPOOFING.</li>
-     *     <li>Produces a mapping of the drone to its previous and current
-     *         telemetry records.</li>
+     *     <li>Collects every drone's previous and current telemetry into a
+     *         {@link TelemetryBatch}.</li>
      * </ul>
      * Collision detection is performed after all drones move but before telemetry
      * generation, ensuring that collided drones send their dead state (0 altitude,
      * 0 battery) to the UI.
+     * <p>
+     * This runs {@link #tick(float)} and then copies the stepped slots' reports
+     * into one of two batches the generator fills in turn, so a steady-state
+     * call allocates nothing and the returned batch stays valid while the
+     * next tick is produced. See {@link TelemetryBatch} for how long it may be
+     * read.
+     *
+     * @param deltaTime elapsed simulation time since the last update step.
+     * @return the tick's telemetry, in fleet slot order; drones the
+     *         level-of-detail policy left behind are not included.
+     */
+    public TelemetryBatch processAllDrones(final float deltaTime) {
+        return processAllDrones(deltaTime, myClock.nextTick());
+    }
+
+    /**
+     * Processes movement updates for all drones, stamping every record of the
+     * tick with the given time instead of reading the clock.
      *
      * @param deltaTime elapsed simulation time since the last update step.
-     * @return a map associating each drone with its previous and current
-     *         {@link TelemetryRecord}.
+     * @param theTimeStamp timestamp (milliseconds) given to this tick's records.
+     * @return the tick's telemetry.
+     * @see #processAllDrones(float)
      */
-    public Map<DroneInterface, TelemetryRecord[]> processAllDrones(final float deltaTime) {
+    public TelemetryBatch processAllDrones(final float deltaTime, final long theTimeStamp) {
+        tick(deltaTime, theTimeStamp);
+
+        FleetState fleet = myFleet;
+        int count = fleet.size();
+        myBatchIndex ^= 1;
+        TelemetryBatch batch = myBatches[myBatchIndex];
+        batch.reset(count, theTimeStamp);
+        TelemetryColumns current = fleet.myReported;
+        for (int slot = 0; slot < count; slot++) {
+            if (myStepped[slot]) {
+                batch.add(slot, myPrevious, current, mySpoofed[slot], !fleet.myAlive[slot]);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Advances every drone by one tick without creating any objects.
+     * <p>
+     * Runs the same movement, collision and telemetry passes as
+     * {@link #processAllDrones(float)}, but the reports stay in columns:
+     * afterwards {@link #getPreviousTelemetry()} holds what each slot reported
+     * before this tick and {@link #getCurrentTelemetry()} what it reports now.
+     * Both are overwritten by the next tick. In serial mode a steady-state tick
+     * allocates nothing; parallel mode allocates a few fork/join tasks.
+     *
+     * @param deltaTime elapsed simulation time since the last update step.
+     */
+    public void tick(final float deltaTime) {
+        tick(deltaTime, myClock.nextTick());
+    }
+
+    /**
+     * Advances every drone by one tick, stamping every report of the tick with
+     * the given time instead of reading the clock.
+     *
+     * @param deltaTime elapsed simulation time since the last update step.
+     * @param theTimeStamp timestamp (milliseconds) given to this tick's reports.
+     * @see #tick(float)
+     */
+    public void tick(final float deltaTime, final long theTimeStamp) {
+        FleetState fleet = myFleet;
+        int count = fleet.size();
+        if (mySpoofed.length < count) {
+            int capacity = fleet.myIds.length;
+            mySpoofed = new boolean[capacity];
+            myMoving = new boolean[capacity];
+            myAnomalous = new boolean[capacity];
+            myStartLongitudes = new float[capacity];
+            myStartLatitudes = new float[capacity];
+            myStartAltitudes = new float[capacity];
+            myCrashTimes = new float[capacity];
+            myStepped = new boolean[capacity];
+        }
+        myPrevious.copyFrom(fleet.myReported, count);
+        myDeltaTime = deltaTime;
+        // A drone restored in the middle of a window is caught up in the first tick.
+        myPreviousTimeStamp = myTimeStamp == Long.MIN_VALUE
+                ? theTimeStamp - Math.round(deltaTime * 1000.0) : myTimeStamp;
+        myTimeStamp = theTimeStamp;
+        myWindowStart = myDetail != null && myTickCount % myDetail.getWindow() == 0;
+        if (myWindowStart) {
+            findNeighbours(count, deltaTime);
+        }
 
-        // Track which drones were spoofed during movement
-        Map<DroneInterface, Boolean> spoofedMap = new HashMap<>();
-        
         // First pass: Move all drones
-        for (DroneInterface drone : myDrones) {
-            if (!drone.isAlive()) {
+        runPartitioned(count, myMoveWork);
+        if (myWindowStart) {
+            myDetail.windowStarted();
+        }
+        myTickCount++;
+
+        // Check collisions after all drones have moved, but before generating telemetry
+        // This ensures collided drones send their dead state (0 altitude, 0 battery) to the UI
+        checkCollisions();
+
+        // Second pass: Generate telemetry for all drones (including ones that just collided)
+        runPartitioned(count, myTelemetryWork);
+    }
+
+    /**
+     * Returns the telemetry each drone reported before the latest tick,
+     * indexed by fleet slot.
+     *
+     * @return the previous reports.
+     */
+    public TelemetryColumns getPreviousTelemetry() {
+        return myPrevious;
+    }
+
+    /**
+     * Returns the telemetry each drone reported in the latest tick, indexed by
+     * fleet slot.
+     *
+     * @return the current reports.
+     */
+    public TelemetryColumns getCurrentTelemetry() {
+        return myFleet.myReported;
+    }
+
+    /**
+     * Returns the anomaly a drone was given in the latest tick, which is what
+     * the anomaly detector should find in that tick's telemetry.
+     *
+     * @param theSlot the drone's fleet slot.
+     * @return the anomaly, or null if the drone moved normally, was dead or
+     *         was added after the tick.
+     */
+    public AnomalyEnum getInjectedAnomaly(final int theSlot) {
+        return theSlot < myAnomalous.length && myAnomalous[theSlot] ? myFleet.lastAnomaly(theSlot) : null;
+    }
+
+    /**
+     * Moves every live drone in a slot range, choosing a normal or anomalous
+     * move from each drone's own random stream. Anomaly ticks are scheduled
+     * by geometric gaps (see {@link FleetState#anomalyDue}), so drones only
+     * draw random numbers when an anomaly is due. Anomalies are applied one
+     * drone at a time; the normal moves are then made together by the
+     * generator's {@link Kinematics}.
+     * <p>
+     * With a level-of-detail policy, a drone that is isolated and not
+     * observed at the start of a window, and whose moves over the window are
+     * plain cruising (see {@link FleetState#canCruise}), is left where it is
+     * until the window ends or it becomes observed, and is then caught up by
+     * {@link FleetState#cruise}. Its previous telemetry is then replaced by
+     * what it would have reported in the tick before, so the anomaly detector
+     * compares the same pair of reports as for a drone stepped every tick.
+     *
+     * @param theFrom first slot (inclusive).
+     * @param theTo last slot (exclusive).
+     * @param deltaTime elapsed simulation time.
+     * @param theScratch scratch space owned by the calling thread.
+     */
+    private void moveRange(final int theFrom, final int theTo, final float deltaTime, final float[] theScratch) {
+        FleetState fleet = myFleet;
+        LevelOfDetail detail = myDetail;
+        long stepped = 0;
+        long deferred = 0;
+        for (int slot = theFrom; slot < theTo; slot++) {
+            mySpoofed[slot] = false;
+            myMoving[slot] = false;
+            myAnomalous[slot] = false;
+            myStepped[slot] = true;
+            if (!fleet.myAlive[slot]) {
+                continue;
+            }
+            myStartLongitudes[slot] = fleet.myLongitudes[slot];
+            myStartLatitudes[slot] = fleet.myLatitudes[slot];
+            myStartAltitudes[slot] = fleet.myAltitudes[slot];
+
+            int lag = fleet.myDeferred[slot];
+            if (lag > 0) {
+                if (detail != null && lag + 1 < detail.getWindow() && !observed(detail, slot)) {
+                    fleet.myDeferred[slot] = lag + 1;
+                    myStepped[slot] = false;
+                    deferred++;
+                } else {
+                    // Report the tick before as it would have been, so this tick's pair of reports
+                    // is the one a drone stepped every tick gives.
+                    fleet.myDeferred[slot] = 0;
+                    fleet.cruise(slot, lag, deltaTime);
+                    fleet.report(slot, myPrevious, 0, 0, 0, myPreviousTimeStamp);
+                    fleet.cruise(slot, 1, deltaTime);
+                    stepped++;
+                }
+                continue;
+            }
+            if (myWindowStart && !observed(detail, slot)
+                    && fleet.canCruise(slot, detail.getWindow(), deltaTime, RANDOM_PERCENT / 100.0f)
+                    && isolated(slot, deltaTime)) {
+                fleet.myDeferred[slot] = 1;
+                myStepped[slot] = false;
+                deferred++;
                 continue;
             }
 
-            boolean spoofed = false;
-            if (myRandom.nextFloat() < (RANDOM_PERCENT / 100.0f)) {
-                getRandomMove(drone, deltaTime);
-                if (drone.getMyLastAnomaly() == AnomalyEnum.SPOOFING) {
-                    spoofed = true;
+            stepped++;
+            if (fleet.anomalyDue(slot, RANDOM_PERCENT / 100.0f)) {
+                fleet.moveRandom(slot, deltaTime, theScratch);
+                myAnomalous[slot] = true;
+                if (fleet.lastAnomaly(slot) == AnomalyEnum.SPOOFING) {
+                    mySpoofed[slot] = true;
                 }
             } else {
-                getMove(drone, deltaTime);
+                myMoving[slot] = true;
             }
-            
-            spoofedMap.put(drone, spoofed);
         }
+        myKinematics.move(fleet, myMoving, theFrom, theTo, deltaTime, theScratch);
+        if (detail != null) {
+            detail.count(stepped, deferred);
+        }
+    }
 
-        // Check collisions after all drones have moved, but before generating telemetry
-        // This ensures collided drones send their dead state (0 altitude, 0 battery) to the UI
-        checkCollisions();
+    /**
+     * Returns whether a drone is observed by the level-of-detail policy.
+     *
+     * @param theDetail the policy.
+     * @param theSlot the drone's slot.
+     * @return true if the drone must be stepped every tick.
+     */
+    private boolean observed(final LevelOfDetail theDetail, final int theSlot) {
+        FleetState fleet = myFleet;
+        return theDetail.isObserved(fleet.myIds[theSlot], fleet.myLongitudes[theSlot], fleet.myLatitudes[theSlot]);
+    }
 
-        // Second pass: Generate telemetry for all drones (including ones that just collided)
-        Map<DroneInterface, TelemetryRecord[]> map = new HashMap<>();
-        for (DroneInterface drone : myDrones) {
-
-            TelemetryRecord prev = drone.getPreviousTelemetryRecord();
-            boolean spoofed = spoofedMap.getOrDefault(drone, false);
-
-            TelemetryRecord curr;
-            if (spoofed) {
-                float offsetLon = (myRandom.nextFloat() * 2 - 1) * SPOOFING_CHANGE;
-                float offsetLat = (myRandom.nextFloat() * 2 - 1) * SPOOFING_CHANGE;
-                float offsetAlt = (myRandom.nextFloat() * 2 - 1) * SPOOFING_CHANGE;
-
-                curr = new TelemetryRecord(
-                        drone.getId(),
-                        drone.getLongitude() + offsetLon,
-                        drone.getLatitude() + offsetLat,
-                        drone.getAltitude() + offsetAlt,
-                        drone.getVelocity(),
-                        drone.getBatteryLevel(),
-                        drone.getOrientation().getDegree(),
-                        System.currentTimeMillis()
-                );
+    /**
+     * Indexes the live drones by position at the start of a level-of-detail
+     * window. The positions are also stored as the drones' start positions,
+     * which the movement pass writes again with the same values, so
+     * {@link #isolated} can read them while other partitions are moving
+     * their drones.
+     *
+     * @param theCount number of slots.
+     * @param theDeltaTime time step of the ticks in the window.
+     */
+    private void findNeighbours(final int theCount, final float theDeltaTime) {
+        float isolation = (float) Math.sqrt(COLLISION_THRESHOLD)
+                + NavigationSystem.MAX_VELOCITY * theDeltaTime * myDetail.getWindow();
+        if (myNeighbours == null || isolation != myIsolation) {
+            myNeighbours = new SpatialHashGrid(isolation);
+            myIsolation = isolation;
+        }
+        FleetState fleet = myFleet;
+        myNeighbours.clear(theCount);
+        for (int slot = 0; slot < theCount; slot++) {
+            if (fleet.myAlive[slot]) {
+                myStartLongitudes[slot] = fleet.myLongitudes[slot];
+                myStartLatitudes[slot] = fleet.myLatitudes[slot];
+                myNeighbours.insert(slot, myStartLongitudes[slot], myStartLatitudes[slot], 0);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a drone that will cruise along its segment for a whole
+     * window cannot meet another drone before the window ends.
+     * <p>
+     * The cruising drone's path over the window is known. Any other drone
+     * covers at most {@link NavigationSystem#MAX_VELOCITY} across the ground,
+     * so while it stays further than a window's flight plus the collision
+     * radius from every point of that path, the two cannot meet at any
+     * moment of the window, whether the cruising drone is at its true
+     * position or at the one it last reported. Altitude anomalies can move
+     * drones up and down faster than that, so only the ground distance is
+     * used.
+     *
+     * @param theSlot the drone's slot.
+     * @param theDeltaTime time step of the ticks in the window.
+     * @return true if no other live drone is within reach of the drone's path.
+     */
+    private boolean isolated(final int theSlot, final float theDeltaTime) {
+        FleetState fleet = myFleet;
+        SpatialHashGrid grid = myNeighbours;
+        float reach = myIsolation;
+        float flight = NavigationSystem.MAX_VELOCITY * theDeltaTime * myDetail.getWindow();
+        float fromLongitude = myStartLongitudes[theSlot];
+        float fromLatitude = myStartLatitudes[theSlot];
+        float pathLongitude = fleet.myDirectionLongitudes[theSlot] * flight;
+        float pathLatitude = fleet.myDirectionLatitudes[theSlot] * flight;
+        float pathSquared = pathLongitude * pathLongitude + pathLatitude * pathLatitude;
+        int minX = grid.cellOf(Math.min(fromLongitude, fromLongitude + pathLongitude) - reach);
+        int maxX = grid.cellOf(Math.max(fromLongitude, fromLongitude + pathLongitude) + reach);
+        int minY = grid.cellOf(Math.min(fromLatitude, fromLatitude + pathLatitude) - reach);
+        int maxY = grid.cellOf(Math.max(fromLatitude, fromLatitude + pathLatitude) + reach);
+        int cellZ = grid.cellOf(0);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int other = grid.firstInCell(x, y, cellZ); other != SpatialHashGrid.NONE;
+                     other = grid.next(other)) {
+                    if (other == theSlot) {
+                        continue;
+                    }
+                    // Distance from the other drone to the closest point of the path.
+                    float dx = myStartLongitudes[other] - fromLongitude;
+                    float dy = myStartLatitudes[other] - fromLatitude;
+                    float along = pathSquared == 0 ? 0
+                            : Math.clamp((dx * pathLongitude + dy * pathLatitude) / pathSquared, 0, 1);
+                    dx -= pathLongitude * along;
+                    dy -= pathLatitude * along;
+                    if (dx * dx + dy * dy <= reach * reach) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the current telemetry of every drone in a slot range,
+     * applying spoof offsets to drones that were spoofed this tick.
+     *
+     * @param theFrom first slot (inclusive).
+     * @param theTo last slot (exclusive).
+     */
+    private void telemetryRange(final int theFrom, final int theTo) {
+        FleetState fleet = myFleet;
+        TelemetryColumns current = fleet.myReported;
+        for (int slot = theFrom; slot < theTo; slot++) {
+            if (!myStepped[slot]) {
+                continue;
+            }
+            if (mySpoofed[slot]) {
+                float offsetLon = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+                float offsetLat = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+                float offsetAlt = (SplitMix64.nextFloat(fleet.myRngStates, slot) * 2 - 1) * SPOOFING_CHANGE;
+
+                fleet.report(slot, current, offsetLon, offsetLat, offsetAlt, myTimeStamp);
             } else {
-                curr = drone.generateTelemetryRecord();
+                fleet.report(slot, current, 0, 0, 0, myTimeStamp);
             }
+        }
+    }
 
-            map.put(drone, new TelemetryRecord[]{prev, curr});
-            drone.setPrevTelemetryRecord(curr);
+    /**
+     * Runs work over the slot range {@code [0, theCount)}: directly on the
+     * calling thread in serial mode, or split into contiguous partitions on the
+     * generator's pool in parallel mode.
+     *
+     * @param theCount number of slots.
+     * @param theWork the work to run for each partition.
+     */
+    private void runPartitioned(final int theCount, final RangeWork theWork) {
+        if (myPool == null || theCount < MIN_PARTITION_SIZE * 2) {
+            theWork.run(0, theCount, myScratch);
+            return;
         }
+        int partitions = Math.min(myParallelism * PARTITIONS_PER_THREAD, theCount / MIN_PARTITION_SIZE);
+        myPool.invoke(new RangeTask(theWork, 0, theCount, Math.ceilDiv(theCount, partitions)));
+    }
 
-        return map;
+    /**
+     * Work applied to a contiguous range of fleet slots.
+     */
+    @FunctionalInterface
+    private interface RangeWork {
+        /**
+         * @param theFrom first slot (inclusive).
+         * @param theTo last slot (exclusive).
+         * @param theScratch scratch space owned by the running thread.
+         */
+        void run(int theFrom, int theTo, float[] theScratch);
     }
 
+    /**
+     * Fork/join task that splits a slot range in half until it is no larger
+     * than one partition, then runs the work on it.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /** The work to run; tasks are never serialized. */
+        private final transient RangeWork myWork;
+        private final int myFrom;
+        private final int myTo;
+        private final int myPartitionSize;
+
+        private RangeTask(final RangeWork theWork, final int theFrom, final int theTo, final int thePartitionSize) {
+            myWork = theWork;
+            myFrom = theFrom;
+            myTo = theTo;
+            myPartitionSize = thePartitionSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (myTo - myFrom <= myPartitionSize) {
+                myWork.run(myFrom, myTo, new float[4]);
+                return;
+            }
+            int middle = (myFrom + myTo) >>> 1;
+            invokeAll(new RangeTask(myWork, myFrom, middle, myPartitionSize),
+                    new RangeTask(myWork, middle, myTo, myPartitionSize));
+        }
+    }
 
     /**
      * Applies a random anomaly movement to the specified drone.
@@ -215,34 +830,59 @@ public class TelemetryGenerator {
     }
 
     /**
-     * Detects collisions between drones by testing proximity in 3D space.
+     * Detects collisions between drones over the whole tick.
      * <p>
-     * Two drones are considered collided if the squared distance between them
-     * is less than a fixed threshold. A collision marks both drones as crashed.
+     * Each drone is taken to fly in a straight line from where it started the
+     * tick to where it ended it. Two drones collide if, at some moment during
+     * the tick, they are closer than the collision radius, so fast drones that
+     * pass through each other between two ticks still collide, whatever the
+     * tick length. A collision marks both drones as crashed where they met.
      * <p>
+     * Candidate pairs come from a {@link SweepAndPrune} broad phase over the
+     * drones' motion segments. Collisions are applied in the order they happen:
+     * a drone that has already crashed earlier in the tick cannot hit a drone
+     * it would only have reached later.
      */
     private void checkCollisions() {
-        for (int i = 0; i < myDrones.size(); i++) {
-            DroneInterface a = myDrones.get(i);
-            if (!a.isAlive()) continue;
-
-            for (int j = i + 1; j < myDrones.size(); j++) {
-                DroneInterface b = myDrones.get(j);
-                if (!b.isAlive()) continue;
-
-                float dx = a.getLongitude() - b.getLongitude();
-                float dy = a.getLatitude() - b.getLatitude();
-                float dz = a.getAltitude() - b.getAltitude();
-
-                float distanceSq = dx*dx + dy*dy + dz*dz;
-
-                // collision threshold (adjust if needed)
-                if (distanceSq < COLLISION_THRESHOLD) {
-                    a.collided();
-                    b.collided();
-                }
+        FleetState fleet = myFleet;
+        float[] longitudes = fleet.myLongitudes;
+        float[] latitudes = fleet.myLatitudes;
+        boolean[] alive = fleet.myAlive;
+
+        int count = fleet.size();
+        int contacts = mySweep.findContacts(myStartLongitudes, myStartLatitudes, myStartAltitudes,
+                longitudes, latitudes, fleet.myAltitudes, alive, count);
+
+        for (int c = 0; c < contacts; c++) {
+            int i = mySweep.getFirst(c);
+            int j = mySweep.getSecond(c);
+            float time = mySweep.getTime(c);
+            // Contacts come earliest first, so a crashed drone only counts at its own crash moment.
+            if ((!alive[i] && myCrashTimes[i] != time) || (!alive[j] && myCrashTimes[j] != time)) {
+                continue;
             }
+            crash(i, time);
+            crash(j, time);
+        }
+    }
+
+    /**
+     * Crashes a drone at the point it had reached at the given moment of the tick.
+     *
+     * @param theSlot the drone's slot.
+     * @param theTime the moment of the crash, from 0 (start of the tick) to 1 (end).
+     */
+    private void crash(final int theSlot, final float theTime) {
+        FleetState fleet = myFleet;
+        if (!fleet.myAlive[theSlot]) {
+            return;
         }
+        fleet.myLongitudes[theSlot] = myStartLongitudes[theSlot]
+                + (fleet.myLongitudes[theSlot] - myStartLongitudes[theSlot]) * theTime;
+        fleet.myLatitudes[theSlot] = myStartLatitudes[theSlot]
+                + (fleet.myLatitudes[theSlot] - myStartLatitudes[theSlot]) * theTime;
+        fleet.collide(theSlot);
+        myCrashTimes[theSlot] = theTime;
     }
 
 }
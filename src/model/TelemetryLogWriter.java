@@ -0,0 +1,62 @@
+package model;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * An interface for persistent logs of drone telemetry.
+ * <p>
+ * {@link PersistentExporter} writes CSV text, {@link BinaryTelemetryExporter}
+ * writes the compact binary format and {@link MappedTelemetryLog} writes CSV
+ * segments into a directory; {@link #forFile(String)} picks one by the
+ * log's path. Either log can be read back with
+ * {@link TelemetrySource#open(java.nio.file.Path)}.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public interface TelemetryLogWriter {
+
+    /**
+     * Opens a new log, replacing any file at the path.
+     *
+     * @param filepath      The filepath of the log output.
+     * @param theHeader     The names of the columns to log, as in {@link TelemetrySource#COLUMNS}.
+     */
+    void startTelemetryLog(String filepath, List<String> theHeader);
+
+    /**
+     * Closes the log, writing out anything still buffered.
+     */
+    void closeTelemetryLog();
+
+    /**
+     * Logs one report.
+     *
+     * @param theTelemetryData      The report.
+     * @param theHeader             The columns to log, as passed to {@link #startTelemetryLog(String, List)}.
+     */
+    void logTelemetryData(TelemetryRecord theTelemetryData, List<String> theHeader);
+
+    /**
+     * Logs the current report of every drone in a tick's batch.
+     *
+     * @param theBatch              The tick's telemetry.
+     * @param theHeader             The columns to log, as passed to {@link #startTelemetryLog(String, List)}.
+     */
+    void logTelemetryBatch(TelemetryBatch theBatch, List<String> theHeader);
+
+    /**
+     * Creates the writer for a log: segments for paths ending in a separator,
+     * which name a directory, binary for names ending in
+     * {@value BinaryTelemetryExporter#EXTENSION}, CSV otherwise.
+     *
+     * @param thePath the log's path.
+     * @return a writer whose log is not open yet.
+     */
+    static TelemetryLogWriter forFile(final String thePath) {
+        if (thePath.endsWith("/") || thePath.endsWith(File.separator)) {
+            return new MappedTelemetryLog();
+        }
+        return thePath.endsWith(BinaryTelemetryExporter.EXTENSION) ? new BinaryTelemetryExporter() : new PersistentExporter();
+    }
+}
@@ -0,0 +1,242 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Plays a recorded telemetry log back as the ticks it was recorded in.
+ * <p>
+ * Consecutive reports with the same timestamp form one tick, which
+ * {@link #next()} returns as a {@link TelemetryBatch}, just as
+ * {@link TelemetryGenerator#processAllDrones(float)} returns a live tick. Each
+ * entry's previous report is the drone's last report earlier in the log, so
+ * {@link AnomalyDetector} sees the same pairs it saw live and finds the same
+ * anomalies. A drone's first report has no previous report and is not
+ * checked. Batches have no spoofed or removed entries, since logs do not
+ * record them, and {@link TelemetryBatch#getSlot(int)} is the entry's
+ * position in the tick.
+ * <p>
+ * The replay keeps two batches and fills them in turn, with the same
+ * contract as the generator's. It does not pace itself: callers that want
+ * real time, or a multiple of it, wait between ticks on the recorded
+ * timestamps. {@link #seek(long)} moves to any tick, and a replay that
+ * seeks gives the same batches from there as one played from the start.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public final class TelemetryReplay implements AutoCloseable {
+
+    /** Highest drone ID the replay tracks, as in {@link BaselineCalculator}. */
+    private static final int MAX_DRONE_ID = 1 << 24;
+
+    /** Drones to preallocate room for. */
+    private static final int INITIAL_DRONES = 64;
+
+    /** The log. */
+    private final TelemetrySource mySource;
+
+    /** Each drone's last report, by drone ID. */
+    private TelemetryColumns myLast = new TelemetryColumns(INITIAL_DRONES);
+
+    /** The reports of the tick being read, by entry. */
+    private TelemetryColumns myTick = new TelemetryColumns(INITIAL_DRONES);
+
+    /** The previous report of each entry of the tick being read. */
+    private TelemetryColumns myTickPrevious = new TelemetryColumns(INITIAL_DRONES);
+
+    /** The two batches handed out in turn. */
+    private final TelemetryBatch[] myBatches = {new TelemetryBatch(INITIAL_DRONES), new TelemetryBatch(INITIAL_DRONES)};
+
+    /** Index of the batch handed out last. */
+    private int myBatchIndex;
+
+    /** Whether a report of the next tick has been read ahead. */
+    private boolean myPending;
+
+    /** Slot of {@link #myTick} holding the report read ahead. */
+    private int myPendingSlot;
+
+    /** Whether the log has no reports left after the pending one. */
+    private boolean myEnded;
+
+    /** Timestamp of the tick returned last, or {@link Long#MIN_VALUE} before the first. */
+    private long myTimeStamp = Long.MIN_VALUE;
+
+    /** Number of ticks returned since the start of the log. */
+    private long myTicks;
+
+    /**
+     * Creates a replay of a log, positioned at its first tick.
+     *
+     * @param theSource the log.
+     */
+    public TelemetryReplay(final TelemetrySource theSource) {
+        mySource = theSource;
+    }
+
+    /**
+     * Reads the next tick of the log.
+     *
+     * @return the tick's telemetry, or null when the log has ended.
+     * @throws IOException if the log cannot be read.
+     */
+    public TelemetryBatch next() throws IOException {
+        int size = readTick();
+        if (size == 0) {
+            return null;
+        }
+        long time = myTick.getTimeStamp(0);
+        for (int entry = 0; entry < size; entry++) {
+            int id = myTick.getId(entry);
+            myTickPrevious.copy(entry, myLast, id);
+            myLast.copy(id, myTick, entry);
+        }
+        myBatchIndex ^= 1;
+        TelemetryBatch batch = myBatches[myBatchIndex];
+        batch.reset(size, time);
+        for (int entry = 0; entry < size; entry++) {
+            batch.add(entry, myTickPrevious, myTick, false, false);
+        }
+        myTimeStamp = time;
+        myTicks++;
+        return batch;
+    }
+
+    /**
+     * Moves to the first tick at or after a time, so that {@link #next()}
+     * returns it. Moving back reads the log again from the start.
+     *
+     * @param theTime the timestamp to move to, in milliseconds.
+     * @throws IOException if the log cannot be read.
+     */
+    public void seek(final long theTime) throws IOException {
+        if (theTime <= myTimeStamp) {
+            rewind();
+        }
+        while (peek() && myTick.getTimeStamp(0) < theTime) {
+            // Skipped ticks still update each drone's last report.
+            int size = readTick();
+            for (int entry = 0; entry < size; entry++) {
+                myLast.copy(myTick.getId(entry), myTick, entry);
+            }
+            myTimeStamp = myTick.getTimeStamp(0);
+            myTicks++;
+        }
+    }
+
+    /**
+     * Goes back to the start of the log and forgets every drone.
+     *
+     * @throws IOException if the log cannot be reopened.
+     */
+    public void rewind() throws IOException {
+        mySource.rewind();
+        myLast = new TelemetryColumns(INITIAL_DRONES);
+        myPending = false;
+        myEnded = false;
+        myTimeStamp = Long.MIN_VALUE;
+        myTicks = 0;
+    }
+
+    /**
+     * Returns the timestamp of the tick returned or skipped last.
+     *
+     * @return milliseconds, or {@link Long#MIN_VALUE} at the start of the log.
+     */
+    public long getTimeStamp() {
+        return myTimeStamp;
+    }
+
+    /**
+     * Returns the timestamp of the tick {@link #next()} will return.
+     *
+     * @return milliseconds, or {@link Long#MAX_VALUE} if the log has ended.
+     * @throws IOException if the log cannot be read.
+     */
+    public long getNextTimeStamp() throws IOException {
+        return peek() ? myTick.getTimeStamp(0) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns how many ticks have been returned or skipped since the start of the log.
+     *
+     * @return the number of ticks.
+     */
+    public long getTicks() {
+        return myTicks;
+    }
+
+    /**
+     * Reads the first report of the next tick ahead, if it is not read yet.
+     *
+     * @return false if the log has ended.
+     * @throws IOException if the log cannot be read.
+     */
+    private boolean peek() throws IOException {
+        if (!myPending && !myEnded) {
+            myPending = read(0);
+            myPendingSlot = 0;
+            myEnded = !myPending;
+        } else if (myPending && myPendingSlot != 0) {
+            myTick.copy(0, myTick, myPendingSlot);
+            myPendingSlot = 0;
+        }
+        return myPending;
+    }
+
+    /**
+     * Reads every report of the next tick into the first slots of
+     * {@link #myTick}, reading the first report of the tick after it ahead.
+     *
+     * @return the number of reports in the tick, or 0 if the log has ended.
+     * @throws IOException if the log cannot be read.
+     */
+    private int readTick() throws IOException {
+        if (!peek()) {
+            return 0;
+        }
+        long time = myTick.getTimeStamp(0);
+        int size = 1;
+        while (true) {
+            myTick.ensureCapacity(size + 1);
+            if (!read(size)) {
+                myEnded = true;
+                myPending = false;
+                break;
+            }
+            if (myTick.getTimeStamp(size) != time) {
+                break;
+            }
+            size++;
+        }
+        myTickPrevious.ensureCapacity(size);
+        // The report that starts the next tick stays after this one until the next peek.
+        myPendingSlot = size;
+        return size;
+    }
+
+    /**
+     * Reads one report into a slot of {@link #myTick}.
+     *
+     * @param theSlot the slot.
+     * @return false if the log has ended.
+     * @throws IOException if the log cannot be read.
+     */
+    private boolean read(final int theSlot) throws IOException {
+        while (mySource.next(myTick, theSlot)) {
+            int id = myTick.getId(theSlot);
+            if (id >= 0 && id <= MAX_DRONE_ID) {
+                if (id >= myLast.myIds.length) {
+                    myLast.ensureCapacity(Math.min(MAX_DRONE_ID + 1, Math.max(id + 1, myLast.myIds.length * 2)));
+                }
+                return true;
+            }
+            System.err.println("Skipping report with out of range drone ID: " + id);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mySource.close();
+    }
+}
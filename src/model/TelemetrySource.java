@@ -0,0 +1,75 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A recorded telemetry log read one report at a time, in the order it was
+ * written, for {@link TelemetryReplay}.
+ * <p>
+ * Reports are read straight into {@link TelemetryColumns}, so a source
+ * creates no records. A log that leaves out a column reports a fixed value
+ * for it, chosen so the anomaly detector's checks on that column never fire:
+ * 0 for the position, speed and heading, {@link #MISSING_ALTITUDE} for the
+ * altitude and {@link #MISSING_BATTERY} for the battery.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public interface TelemetrySource extends Closeable {
+
+    /** Names of the columns a log can hold, as written by {@link TelemetryLogWriter}s. */
+    List<String> COLUMNS = List.of("id", "longitude", "latitude", "altitude",
+            "velocity", "batteryLevel", "orientation", "timestamp");
+
+    /** Altitude reported by logs without an altitude column, in meters. */
+    float MISSING_ALTITUDE = 100;
+
+    /** Battery level reported by logs without a battery column. */
+    float MISSING_BATTERY = 100;
+
+    /**
+     * Opens a log written by any {@link TelemetryLogWriter}: a directory is
+     * read as a {@link MappedTelemetryLog}'s segments, and a file is told to
+     * be binary or CSV by its first bytes.
+     *
+     * @param thePath the log file or directory.
+     * @return a source positioned at the first report.
+     * @throws IOException if the log cannot be read or its header is unusable.
+     */
+    static TelemetrySource open(final Path thePath) throws IOException {
+        if (Files.isDirectory(thePath)) {
+            return new SegmentedTelemetrySource(thePath);
+        }
+        if (BinaryTelemetrySource.isBinary(thePath)) {
+            return new BinaryTelemetrySource(thePath);
+        }
+        return new CsvTelemetrySource(thePath);
+    }
+
+    /**
+     * Returns the columns the log holds, in the order it names them.
+     *
+     * @return names from {@link #COLUMNS}.
+     */
+    List<String> getColumns();
+
+    /**
+     * Reads the next report into a slot of the given columns.
+     *
+     * @param theInto the columns to write to.
+     * @param theSlot the slot to write.
+     * @return false if the log has no reports left.
+     * @throws IOException if the log cannot be read.
+     */
+    boolean next(TelemetryColumns theInto, int theSlot) throws IOException;
+
+    /**
+     * Goes back to the first report of the log.
+     *
+     * @throws IOException if the log cannot be reopened.
+     */
+    void rewind() throws IOException;
+}
@@ -0,0 +1,32 @@
+package model;
+
+/**
+ * A {@link SimulationClock} that follows the system clock.
+ *
+ * @author Yusuf Shakhpaz
+ */
+public class WallClock implements SimulationClock {
+
+    /** Shared instance; the clock has no state. */
+    public static final WallClock INSTANCE = new WallClock();
+
+    /**
+     * Returns the system time.
+     *
+     * @return {@link System#currentTimeMillis()}.
+     */
+    @Override
+    public long nextTick() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the system time.
+     *
+     * @return {@link System#currentTimeMillis()}.
+     */
+    @Override
+    public long now() {
+        return System.currentTimeMillis();
+    }
+}
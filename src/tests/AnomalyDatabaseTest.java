@@ -108,4 +108,17 @@ class AnomalyDatabaseTest {
         assertEquals(1, results.size());
         assertEquals(testReport1.id(), results.getFirst().id());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testInsertReportsBatch() {
+        db.insertReports(List.of(testReport1, testReport2));
+
+        assertEquals(2, db.findAllReports().size());
+        assertEquals(testReport2.id(), db.findReportsByDroneID(102).getFirst().id());
+
+        // Single inserts still commit on their own after a batch.
+        db.insertReport(new AnomalyReport(UUID.randomUUID(), System.currentTimeMillis(),
+                AnomalyEnum.ALTITUDE.toString(), 103, "Climb", "Climbed too fast."));
+        assertEquals(3, db.findAllReports().size());
+    }
+}
@@ -3,6 +3,13 @@ package tests;
 import model.AnomalyDetector;
 import model.AnomalyEnum;
 import model.AnomalyReport;
+import model.ConflictDetector;
+import model.DroneGenerator;
+import model.EventDrivenEngine;
+import model.FleetState;
+import model.RouteGenerator;
+import model.RoutePoint;
+import model.TelemetryColumns;
 import model.TelemetryRecord;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +21,8 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -71,6 +80,21 @@ class AnomalyDetectorTest {
 
     // --- Hard Rule Tests (Safety Checks) ---
 
+    @Test
+    void testSeededDetectorsGiveSameReportIds() {
+        AnomalyDetector a = new AnomalyDetector(7L);
+        AnomalyDetector b = new AnomalyDetector(7L);
+        TelemetryRecord prev = createRecord(0, 0, 50, 0, 50, 0, 1000);
+        TelemetryRecord curr = createRecord(0, 0, 0, 0, 50, 0, 2000);
+
+        for (int i = 0; i < 3; i++) {
+            AnomalyReport reportA = a.detect(prev, curr);
+            AnomalyReport reportB = b.detect(prev, curr);
+            assertEquals(reportA, reportB);
+            assertEquals(4, reportA.id().version());
+        }
+    }
+
     @Test
     void testNoAnomaly() {
         // Normal behavior: small movement, normal battery drain
@@ -171,6 +195,20 @@ class AnomalyDetectorTest {
         assertTrue(report.simpleReport().contains(AnomalyEnum.ACCELERATION.toString()));
     }
 
+    @Test
+    void testAccelerationUsesRecordTimestamps() {
+        // The same change in velocity is normal over a long simulated interval
+        long startTime = 300000;
+        TelemetryRecord init = createRecord(0, 0, 100, 0, 90, 0, startTime);
+        detector.detect(init, init);
+
+        TelemetryRecord prev = createRecord(0, 0, 100, 5, 89, 0, startTime + 2000);
+        TelemetryRecord curr = createRecord(0, 0, 100, 25, 89, 0, startTime + 2000 + 3_600_000);
+
+        AnomalyReport report = detector.detect(prev, curr);
+        assertTrue(report == null || !report.simpleReport().contains(AnomalyEnum.ACCELERATION.toString()));
+    }
+
     @Test
     void testBatteryDrain() {
         // Logic constraint: Z-Score > 3.0
@@ -263,4 +301,58 @@ class AnomalyDetectorTest {
         assertNotNull(report, "Should detect suspicious orientation drift");
         assertTrue(report.simpleReport().contains(AnomalyEnum.OFF_COURSE.toString()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testColumnDetectionMatchesRecords() {
+        // A seeded fleet with frequent anomalies, sampled every few seconds.
+        FleetState fleet = new FleetState(40);
+        RouteGenerator routes = new RouteGenerator(3);
+        for (int i = 0; i < 40; i++) {
+            new DroneGenerator().createDrone(fleet, 0, 40, routes.generateRoute());
+        }
+        EventDrivenEngine engine = new EventDrivenEngine(fleet, 0.5f, 5);
+        AnomalyDetector byRecord = new AnomalyDetector(11L);
+        AnomalyDetector byColumn = new AnomalyDetector(11L);
+
+        int found = 0;
+        for (int tick = 10; tick <= 6000; tick += 10) {
+            engine.advanceTo(tick);
+            engine.sample(tick * 500L);
+            TelemetryColumns previous = engine.getPreviousTelemetry();
+            TelemetryColumns current = engine.getCurrentTelemetry();
+            for (int slot = 0; slot < fleet.size(); slot++) {
+                AnomalyReport expected = previous.isPresent(slot)
+                        ? byRecord.detect(previous.toRecord(slot), current.toRecord(slot)) : null;
+                assertEquals(expected, byColumn.detect(previous, current, slot));
+                if (expected != null) {
+                    found++;
+                }
+            }
+        }
+        assertTrue(found > 0);
+    }
+
+    @Test
+    void testConflictReportedOnce() {
+        // Two drones flying head-on, 60 units apart.
+        FleetState fleet = new FleetState(2);
+        new DroneGenerator().createDrone(fleet, 10, 100, new ArrayList<>(List.of(new RoutePoint(0, 0, 100), new RoutePoint(200, 0, 100))));
+        new DroneGenerator().createDrone(fleet, 10, 100, new ArrayList<>(List.of(new RoutePoint(60, 0, 100), new RoutePoint(-200, 0, 100))));
+        EventDrivenEngine engine = new EventDrivenEngine(fleet, 0.5f, 0);
+        ConflictDetector conflicts = new ConflictDetector();
+
+        engine.advanceTo(1);
+        engine.sample(500);
+        assertEquals(1, conflicts.update(fleet, 0.5f));
+        AnomalyReport report = detector.detectConflict(engine.getCurrentTelemetry(), conflicts, 0);
+        assertNotNull(report);
+        assertEquals(AnomalyEnum.CONFLICT.toString(), report.anomalyType());
+        assertEquals(fleet.getDrone(0).getId(), report.droneId());
+        assertTrue(report.detailedReport().contains("drone number " + fleet.getDrone(1).getId()));
+
+        engine.advanceTo(2);
+        engine.sample(1000);
+        assertEquals(1, conflicts.update(fleet, 0.5f));
+        assertNull(detector.detectConflict(engine.getCurrentTelemetry(), conflicts, 0));
+    }
+}
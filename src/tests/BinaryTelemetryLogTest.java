@@ -0,0 +1,167 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for BinaryTelemetryExporter and BinaryTelemetrySource classes
+ * @author Yusuf
+ */
+public class BinaryTelemetryLogTest {
+
+    private static final List<String> FULL = TelemetrySource.COLUMNS;
+
+    private static final List<String> BASELINE = List.of("id", "velocity", "batteryLevel", "orientation", "timestamp");
+
+    @TempDir
+    Path tempDir;
+
+    // Logs a seeded run with every writer given and returns every report logged.
+    private List<TelemetryRecord> record(int theTicks, List<String> theHeader, TelemetryLogWriter... theWriters) {
+        SimulationEngine engine = engine(2, 8, 20);
+        List<TelemetryRecord> logged = new ArrayList<>();
+        for (int tick = 0; tick < theTicks; tick++) {
+            TelemetryBatch batch = engine.getGenerator().processAllDrones(DELTA_TIME);
+            for (TelemetryLogWriter writer : theWriters) {
+                writer.logTelemetryBatch(batch, theHeader);
+            }
+            for (int entry = 0; entry < batch.size(); entry++) {
+                logged.add(batch.getCurrent().toRecord(entry));
+            }
+        }
+        for (TelemetryLogWriter writer : theWriters) {
+            writer.closeTelemetryLog();
+        }
+        return logged;
+    }
+
+    private TelemetryLogWriter open(Path thePath, List<String> theHeader) {
+        TelemetryLogWriter writer = TelemetryLogWriter.forFile(thePath.toString());
+        writer.startTelemetryLog(thePath.toString(), theHeader);
+        return writer;
+    }
+
+    private List<TelemetryRecord> read(Path thePath) throws IOException {
+        List<TelemetryRecord> result = new ArrayList<>();
+        try (TelemetrySource source = TelemetrySource.open(thePath)) {
+            TelemetryColumns report = new TelemetryColumns(1);
+            while (source.next(report, 0)) {
+                result.add(report.toRecord(0));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void everyValueIsReadBackExactly() throws IOException {
+        Path log = tempDir.resolve("run.tlog");
+        TelemetryLogWriter writer = open(log, FULL);
+        assertInstanceOf(BinaryTelemetryExporter.class, writer);
+        // More reports than fit in one block.
+        List<TelemetryRecord> logged = record(300, FULL, writer);
+
+        assertTrue(BinaryTelemetrySource.isBinary(log));
+        try (TelemetrySource source = TelemetrySource.open(log)) {
+            assertInstanceOf(BinaryTelemetrySource.class, source);
+            assertEquals(FULL, source.getColumns());
+        }
+        List<TelemetryRecord> read = read(log);
+        assertEquals(logged, read);
+    }
+
+    @Test
+    void binaryLogMatchesTheCsvLog() throws IOException {
+        Path csv = tempDir.resolve("run.csv");
+        Path binary = tempDir.resolve("run.tlog");
+        record(300, BASELINE, open(csv, BASELINE), open(binary, BASELINE));
+
+        assertFalse(BinaryTelemetrySource.isBinary(csv));
+        assertEquals(read(csv), read(binary));
+        assertTrue(Files.size(csv) >= 4 * Files.size(binary), Files.size(csv) + " vs " + Files.size(binary));
+
+        // Replays of either log are the same, also after seeking back.
+        try (TelemetryReplay fromCsv = new TelemetryReplay(TelemetrySource.open(csv));
+             TelemetryReplay fromBinary = new TelemetryReplay(TelemetrySource.open(binary))) {
+            fromBinary.seek(50_000);
+            fromBinary.seek(0);
+            TelemetryBatch expected;
+            while ((expected = fromCsv.next()) != null) {
+                TelemetryBatch actual = fromBinary.next();
+                assertEquals(expected.getTimeStamp(), actual.getTimeStamp());
+                assertEquals(expected.size(), actual.size());
+                for (int entry = 0; entry < expected.size(); entry++) {
+                    assertEquals(expected.getPrevious().toRecord(entry), actual.getPrevious().toRecord(entry));
+                    assertEquals(expected.getCurrent().toRecord(entry), actual.getCurrent().toRecord(entry));
+                }
+            }
+            assertNull(fromBinary.next());
+        }
+    }
+
+    @Test
+    void baselineIsCalculatedFromEitherLog() throws IOException {
+        Path csv = tempDir.resolve("run.csv");
+        Path binary = tempDir.resolve("run.tlog");
+        record(400, BASELINE, open(csv, BASELINE), open(binary, BASELINE));
+        Path fromCsv = tempDir.resolve("csv.properties");
+        Path fromBinary = tempDir.resolve("binary.properties");
+        new BaselineCalculator().calculateAndSaveStats(csv.toString(), fromCsv.toString());
+        new BaselineCalculator().calculateAndSaveStats(binary.toString(), fromBinary.toString());
+
+        Properties expected = load(fromCsv);
+        Properties actual = load(fromBinary);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.keySet(), actual.keySet());
+        // The binary log holds the simulator's floats, the CSV log their decimal text.
+        for (String key : expected.stringPropertyNames()) {
+            double value = Double.parseDouble(expected.getProperty(key));
+            assertEquals(value, Double.parseDouble(actual.getProperty(key)), Math.abs(value) * 1e-6, key);
+        }
+    }
+
+    private Properties load(Path thePath) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(thePath)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    @Test
+    void logNeedsIdsAndTimestamps() {
+        BinaryTelemetryExporter writer = new BinaryTelemetryExporter();
+        String path = tempDir.resolve("bad.tlog").toString();
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.startTelemetryLog(path, List.of("velocity", "timestamp")));
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.startTelemetryLog(path, List.of("id", "speed", "timestamp")));
+    }
+
+    @Test
+    void damagedLogsAreRejected() throws IOException {
+        Path log = tempDir.resolve("run.tlog");
+        record(20, FULL, open(log, FULL));
+        byte[] bytes = Files.readAllBytes(log);
+
+        Path truncated = tempDir.resolve("truncated.tlog");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> read(truncated));
+
+        Path newer = tempDir.resolve("newer.tlog");
+        byte[] changed = bytes.clone();
+        changed[4] = 9;
+        Files.write(newer, changed);
+        assertThrows(IOException.class, () -> new BinaryTelemetrySource(newer));
+    }
+}
@@ -0,0 +1,124 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CompiledRoute class
+ * @author Yusuf
+ */
+public class CompiledRouteTest {
+
+    private static final float DELTA_TIME = 0.5f;
+
+    private ArrayList<RoutePoint> route(float... thePoints) {
+        ArrayList<RoutePoint> route = new ArrayList<>();
+        for (int i = 0; i < thePoints.length; i += 3) {
+            route.add(new RoutePoint(thePoints[i], thePoints[i + 1], thePoints[i + 2]));
+        }
+        return route;
+    }
+
+    @Test
+    void rejectsEmptyRoutes() {
+        assertThrows(IllegalArgumentException.class, () -> new CompiledRoute(null));
+        assertThrows(IllegalArgumentException.class, () -> new CompiledRoute(List.of()));
+    }
+
+    @Test
+    void segmentsEndAtEachPointAndWrap() {
+        ArrayList<RoutePoint> points = route(0, 0, 10, 30, 40, 10, 30, 40, 10);
+        CompiledRoute compiled = new CompiledRoute(points);
+
+        assertEquals(3, compiled.size());
+        assertSame(points.get(1), compiled.getPoint(1));
+        // Into point 1 from point 0.
+        assertEquals(50f, compiled.getSegmentLength(1), 1e-5);
+        assertEquals(0.6f, compiled.getDirection(1, NavigationSystem.LONGITUDE), 1e-6);
+        assertEquals(0.8f, compiled.getDirection(1, NavigationSystem.LATITUDE), 1e-6);
+        assertEquals(0f, compiled.getDirection(1, NavigationSystem.ALTITUDE));
+        assertEquals(36.87f, compiled.getHeading(1), 1e-2);
+        // Point 2 repeats point 1, so its segment has neither length nor direction.
+        assertEquals(0f, compiled.getSegmentLength(2));
+        assertEquals(0f, compiled.getDirection(2, NavigationSystem.LONGITUDE));
+        assertTrue(Float.isNaN(compiled.getHeading(2)));
+        // Into point 0, wrapping around from the last point.
+        assertEquals(50f, compiled.getSegmentLength(0), 1e-5);
+        assertEquals(-0.6f, compiled.getDirection(0, NavigationSystem.LONGITUDE), 1e-6);
+    }
+
+    @Test
+    void singlePointRouteStaysPut() {
+        Drone drone = new DroneGenerator().createDrone(new FleetState(1), 3, 100, route(5, 5, 5));
+        for (int i = 0; i < 5; i++) {
+            drone.getNextMove(DELTA_TIME);
+            assertEquals(5f, drone.getLongitude());
+            assertEquals(5f, drone.getAltitude());
+            assertEquals(3f, drone.getVelocity());
+        }
+    }
+
+    @Test
+    void compiledMovesMatchMeasuredSteps() {
+        Random random = new Random(14);
+        FleetState fleet = new FleetState(50);
+        for (int d = 0; d < 50; d++) {
+            ArrayList<RoutePoint> points = new ArrayList<>();
+            for (int i = 0; i < 2 + random.nextInt(5); i++) {
+                points.add(new RoutePoint(random.nextFloat() * 500, random.nextFloat() * 500,
+                        1 + random.nextFloat() * 300));
+            }
+            // Repeated waypoints give zero-length segments.
+            if (d % 10 == 0) {
+                points.add(points.getLast());
+            }
+            Drone drone = new DroneGenerator().createDrone(fleet, random.nextFloat() * 10, 100, points);
+            NavigationSystem reference = new NavigationSystem(points);
+            float longitude = drone.getLongitude();
+            float latitude = drone.getLatitude();
+            float altitude = drone.getAltitude();
+            float velocity = drone.getVelocity();
+            float heading = drone.getOrientation().getDegree();
+
+            for (int tick = 0; tick < 400; tick++) {
+                NavigationSystem.MovementResult expected = reference.calculateNextMove(longitude, latitude,
+                        altitude, velocity, DELTA_TIME);
+                drone.getNextMove(DELTA_TIME);
+                assertEquals(expected.longitude, drone.getLongitude(), 1e-2);
+                assertEquals(expected.latitude, drone.getLatitude(), 1e-2);
+                assertEquals(expected.altitude, drone.getAltitude(), 1e-2);
+                assertEquals(expected.velocity, drone.getVelocity(), 1e-5);
+                assertSame(reference.getNextPoint(), drone.getNextPoint());
+                float expectedHeading = Orientation.heading(longitude, latitude, expected.longitude,
+                        expected.latitude, heading);
+                float turn = Math.abs(expectedHeading - drone.getOrientation().getDegree());
+                assertTrue(Math.min(turn, 360 - turn) < 0.1f);
+                // Follow the drone, so rounding differences do not add up over the run.
+                longitude = drone.getLongitude();
+                latitude = drone.getLatitude();
+                altitude = drone.getAltitude();
+                velocity = drone.getVelocity();
+                heading = drone.getOrientation().getDegree();
+            }
+        }
+    }
+
+    @Test
+    void movedDroneHeadsForTheWaypointFromWhereItIs() {
+        ArrayList<RoutePoint> points = route(0, 0, 100, 100, 0, 100);
+        Drone drone = new DroneGenerator().createDrone(new FleetState(1), 10, 100, points);
+        drone.getNextMove(DELTA_TIME);
+        drone.setLatitude(40);
+
+        NavigationSystem.MovementResult expected = new NavigationSystem(points).calculateNextMove(
+                drone.getLongitude(), 40, 100, drone.getVelocity(), DELTA_TIME);
+        drone.getNextMove(DELTA_TIME);
+        assertEquals(expected.longitude, drone.getLongitude(), 1e-4);
+        assertEquals(expected.latitude, drone.getLatitude(), 1e-4);
+        assertTrue(drone.getLatitude() < 40);
+    }
+}
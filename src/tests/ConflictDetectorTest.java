@@ -0,0 +1,250 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Field;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConflictDetector class
+ * @author Yusuf
+ */
+public class ConflictDetectorTest {
+
+    private static final float SEPARATION = 5;
+    private static final float HORIZON = 10;
+
+    // Top speed of a normal flight, which caps how far a leg is projected.
+    private static final float MAX_VELOCITY = 10;
+
+    @BeforeEach
+    void resetSingleton() throws Exception {
+        Field f = TelemetryGenerator.class.getDeclaredField("instance");
+        f.setAccessible(true);
+        f.set(null, null);
+    }
+
+    private ArrayList<RoutePoint> route(float... thePoints) {
+        ArrayList<RoutePoint> route = new ArrayList<>();
+        for (int i = 0; i < thePoints.length; i += 3) {
+            route.add(new RoutePoint(thePoints[i], thePoints[i + 1], thePoints[i + 2]));
+        }
+        return route;
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConflictDetector(0, HORIZON));
+        assertThrows(IllegalArgumentException.class, () -> new ConflictDetector(SEPARATION, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConflictDetector(SEPARATION, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new ConflictDetector(SEPARATION, 5000));
+        ConflictDetector detector = new ConflictDetector();
+        assertThrows(IllegalArgumentException.class, () -> detector.update(new FleetState(1), -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> detector.getFirst(0));
+    }
+
+    @Test
+    void timeToClosestApproachCases() {
+        // Closing head-on at 20 units/s from 60 apart.
+        assertEquals(3f, ConflictDetector.timeToClosestApproach(60, 0, 0, -20, 0, 0, 10), 1e-6);
+        // Moving apart: closest now.
+        assertEquals(0f, ConflictDetector.timeToClosestApproach(60, 0, 0, 20, 0, 0, 10));
+        // Same velocity: the distance never changes.
+        assertEquals(0f, ConflictDetector.timeToClosestApproach(3, 4, 0, 0, 0, 0, 10));
+        // Closest approach after the window ends.
+        assertEquals(2f, ConflictDetector.timeToClosestApproach(60, 0, 0, -20, 0, 0, 2));
+        // Passing at right angles: closest when the offset is perpendicular to the motion.
+        assertEquals(5f, ConflictDetector.timeToClosestApproach(50, 10, 0, -10, 0, 0, 10), 1e-6);
+    }
+
+    @Test
+    void headOnDronesConflictBeforeTheyMeet() {
+        FleetState fleet = new FleetState(2);
+        new DroneGenerator().createDrone(fleet, 10, 100, route(0, 0, 100, 200, 0, 100));
+        new DroneGenerator().createDrone(fleet, 10, 100, route(60, 0, 100, -200, 0, 100));
+        ConflictDetector detector = new ConflictDetector(SEPARATION, HORIZON);
+
+        assertEquals(1, detector.update(fleet, 0.5f));
+        assertEquals(0, detector.getFirst(0));
+        assertEquals(1, detector.getSecond(0));
+        assertEquals(3f, detector.getTimeToClosestApproach(0), 1e-4);
+        assertEquals(0f, detector.getMissDistance(0), 1e-3);
+        assertTrue(detector.isNew(0));
+
+        // Still in conflict a moment later, but no longer new.
+        fleet.getDrone(0).getNextMove(0.5f);
+        fleet.getDrone(1).getNextMove(0.5f);
+        assertEquals(1, detector.update(fleet, 0.5f));
+        assertFalse(detector.isNew(0));
+    }
+
+    @Test
+    void pathsCrossingAtDifferentTimesDoNotConflict() {
+        FleetState fleet = new FleetState(2);
+        // Both pass (50, 0, 100): the first after 5 seconds, the second after 9.
+        new DroneGenerator().createDrone(fleet, 10, 100, route(0, 0, 100, 200, 0, 100));
+        new DroneGenerator().createDrone(fleet, 10, 100, route(50, -90, 100, 50, 200, 100));
+        ConflictDetector detector = new ConflictDetector(SEPARATION, HORIZON);
+
+        assertEquals(0, detector.update(fleet, 0.5f));
+    }
+
+    @Test
+    void conflictsBeyondTheHorizonOrAfterTheWaypointAreIgnored() {
+        FleetState fleet = new FleetState(4);
+        // Closing at 20 units/s from 300 apart: closest after 15 seconds.
+        new DroneGenerator().createDrone(fleet, 10, 100, route(0, 0, 100, 400, 0, 100));
+        new DroneGenerator().createDrone(fleet, 10, 100, route(300, 0, 100, -100, 0, 100));
+        // Would meet after 3 seconds, but one of them turns at its waypoint after 1.
+        new DroneGenerator().createDrone(fleet, 10, 100, route(0, 50, 100, 10, 50, 100));
+        new DroneGenerator().createDrone(fleet, 10, 100, route(60, 50, 100, -200, 50, 100));
+        ConflictDetector detector = new ConflictDetector(SEPARATION, HORIZON);
+
+        assertEquals(0, detector.update(fleet, 0.5f));
+    }
+
+    @Test
+    void deadDronesAreIgnored() {
+        FleetState fleet = new FleetState(2);
+        new DroneGenerator().createDrone(fleet, 10, 100, route(0, 0, 100, 200, 0, 100));
+        Drone other = new DroneGenerator().createDrone(fleet, 10, 100, route(2, 0, 100, 200, 0, 100));
+        ConflictDetector detector = new ConflictDetector(SEPARATION, HORIZON);
+        assertEquals(1, detector.update(fleet, 0.5f));
+
+        other.collided();
+        assertEquals(0, detector.update(fleet, 0.5f));
+    }
+
+    @Test
+    void matchesEveryPairCheckAsTheFleetChanges() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        gen.setClock(new SimulatedClock(0, 500));
+        FleetState fleet = gen.getFleet();
+        Random random = new Random(13);
+        for (int i = 0; i < 600; i++) {
+            addRandomDrone(fleet, random);
+        }
+        ConflictDetector detector = new ConflictDetector(SEPARATION, HORIZON);
+
+        Set<Long> previous = Set.of();
+        int found = 0;
+        int reported = 0;
+        for (int tick = 0; tick < 40; tick++) {
+            gen.tick(0.5f);
+            detector.update(fleet, 0.5f);
+            Map<Long, float[]> expected = everyPair(fleet);
+
+            Set<Long> actual = new HashSet<>();
+            float lastTime = 0;
+            for (int i = 0; i < detector.getConflictCount(); i++) {
+                int first = detector.getFirst(i);
+                int second = detector.getSecond(i);
+                assertTrue(first < second);
+                long key = key(fleet, first, second);
+                float[] pair = expected.get(key);
+                if (pair == null) {
+                    // Only a pair right on the separation minimum may differ by rounding.
+                    assertEquals(SEPARATION, detector.getMissDistance(i), 1e-3);
+                    continue;
+                }
+                assertEquals(pair[0], detector.getTimeToClosestApproach(i), 1e-3);
+                assertEquals(pair[1], detector.getMissDistance(i), 1e-3);
+                assertTrue(detector.getTimeToClosestApproach(i) >= lastTime);
+                lastTime = detector.getTimeToClosestApproach(i);
+                assertEquals(!previous.contains(key), detector.isNew(i));
+                actual.add(key);
+                if (detector.isNew(i)) {
+                    reported++;
+                }
+            }
+            for (Map.Entry<Long, float[]> pair : expected.entrySet()) {
+                if (!actual.contains(pair.getKey())) {
+                    assertEquals(SEPARATION, pair.getValue()[1], 1e-3);
+                }
+            }
+            found += actual.size();
+            previous = actual;
+
+            // Drones leave from the middle of the fleet and join at its end.
+            if (tick % 5 == 4) {
+                for (int i = 0; i < 20; i++) {
+                    gen.removeDrone(fleet.getDrone(random.nextInt(fleet.size())));
+                }
+                for (int i = 0; i < 25; i++) {
+                    addRandomDrone(fleet, random);
+                }
+            }
+        }
+        assertTrue(found > 0);
+        assertTrue(reported > 0);
+        assertTrue(reported < found);
+    }
+
+    private void addRandomDrone(FleetState theFleet, Random theRandom) {
+        ArrayList<RoutePoint> route = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            route.add(new RoutePoint(theRandom.nextFloat() * 150, theRandom.nextFloat() * 150,
+                    1 + theRandom.nextFloat() * 150));
+        }
+        new DroneGenerator().createDrone(theFleet, theRandom.nextFloat() * 10, 100, route);
+    }
+
+    private long key(FleetState theFleet, int theFirst, int theSecond) {
+        int a = theFleet.getDrone(theFirst).getId();
+        int b = theFleet.getDrone(theSecond).getId();
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    // Projects every live drone the way the detector does and tests every pair.
+    private Map<Long, float[]> everyPair(FleetState theFleet) {
+        int count = theFleet.size();
+        float[][] legs = new float[count][];
+        for (int slot = 0; slot < count; slot++) {
+            Drone drone = theFleet.getDrone(slot);
+            if (!drone.isAlive()) {
+                continue;
+            }
+            RoutePoint next = drone.getNextPoint();
+            float dx = next.getLongitude() - drone.getLongitude();
+            float dy = next.getLatitude() - drone.getLatitude();
+            float dz = next.getAltitude() - drone.getAltitude();
+            float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            float speed = drone.getVelocity();
+            float duration = HORIZON;
+            float scale = 0;
+            if (distance > 0.0001f && speed > 0) {
+                duration = Math.min(duration, Math.min(distance, HORIZON * MAX_VELOCITY) / speed);
+                scale = speed / distance;
+            }
+            legs[slot] = new float[]{drone.getLongitude(), drone.getLatitude(), drone.getAltitude(),
+                    dx * scale, dy * scale, dz * scale, duration};
+        }
+
+        Map<Long, float[]> pairs = new HashMap<>();
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                if (legs[a] == null || legs[b] == null) {
+                    continue;
+                }
+                float dx = legs[b][0] - legs[a][0];
+                float dy = legs[b][1] - legs[a][1];
+                float dz = legs[b][2] - legs[a][2];
+                float vx = legs[b][3] - legs[a][3];
+                float vy = legs[b][4] - legs[a][4];
+                float vz = legs[b][5] - legs[a][5];
+                float time = ConflictDetector.timeToClosestApproach(dx, dy, dz, vx, vy, vz,
+                        Math.min(legs[a][6], legs[b][6]));
+                float cx = dx + vx * time;
+                float cy = dy + vy * time;
+                float cz = dz + vz * time;
+                float distance = (float) Math.sqrt(cx * cx + cy * cy + cz * cz);
+                if (distance <= SEPARATION) {
+                    pairs.put(key(theFleet, a, b), new float[]{time, distance});
+                }
+            }
+        }
+        return pairs;
+    }
+}
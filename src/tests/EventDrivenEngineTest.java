@@ -0,0 +1,157 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for EventDrivenEngine class
+ * @author Yusuf
+ */
+public class EventDrivenEngineTest {
+
+    private static final float DT = 0.5f;
+
+    private static final int DRONES = 50;
+
+    /** Builds a fleet whose routes mix long legs with legs inside the slow-down zone. */
+    private FleetState buildFleet(final int theBattery) {
+        FleetState fleet = new FleetState(DRONES);
+        RouteGenerator routes = new RouteGenerator(7);
+        for (int i = 0; i < DRONES; i++) {
+            ArrayList<RoutePoint> route;
+            if (i % 5 == 0) {
+                route = new ArrayList<>();
+                route.add(new RoutePoint(i, 0f, 10f));
+                route.add(new RoutePoint(i + 11.37f, 4.13f, 10f));
+                route.add(new RoutePoint(i + 11.37f, 4.13f, 47.71f));
+            } else {
+                route = routes.generateRoute();
+            }
+            new DroneGenerator().createDrone(fleet, (i % 4) * 2.5f, theBattery, route);
+        }
+        return fleet;
+    }
+
+    @Test
+    void matchesTickByTickMovement() {
+        FleetState ticked = buildFleet(30);
+        FleetState evented = buildFleet(30);
+        EventDrivenEngine engine = new EventDrivenEngine(evented, DT, 0);
+        long[] tickedDeaths = new long[DRONES];
+        long[] eventDeaths = new long[DRONES];
+        engine.setListener((slot, type, tick) -> {
+            if (type == EventDrivenEngine.EventType.BATTERY_EMPTY) {
+                eventDeaths[slot] = tick;
+            }
+        });
+
+        for (int tick = 1; tick <= 6000; tick++) {
+            for (int slot = 0; slot < DRONES; slot++) {
+                Drone drone = ticked.getDrone(slot);
+                if (drone.isAlive()) {
+                    drone.getNextMove(DT);
+                    if (!drone.isAlive()) {
+                        tickedDeaths[slot] = tick;
+                    }
+                }
+            }
+            if (tick % 50 != 0) {
+                continue;
+            }
+            engine.advanceTo(tick);
+            engine.sample(tick);
+            TelemetryColumns sampled = engine.getCurrentTelemetry();
+            for (int slot = 0; slot < DRONES; slot++) {
+                Drone expected = ticked.getDrone(slot);
+                if (!expected.isAlive() || !evented.getDrone(slot).isAlive()) {
+                    // Checked below: float rounding may move a death by a tick.
+                    continue;
+                }
+                String where = "slot " + slot + " at tick " + tick;
+                assertEquals(expected.getLongitude(), sampled.getLongitude(slot), 0.01, where);
+                assertEquals(expected.getLatitude(), sampled.getLatitude(slot), 0.01, where);
+                assertEquals(expected.getAltitude(), sampled.getAltitude(slot), 0.01, where);
+                assertEquals(expected.getVelocity(), sampled.getVelocity(slot), 0.001, where);
+                assertEquals(expected.getBatteryLevel(), sampled.getBatteryLevel(slot), 0.01, where);
+                assertEquals(expected.getOrientation().getDegree(), sampled.getOrientation(slot), 0.01, where);
+            }
+        }
+        // The batteries were low enough for every drone to run out.
+        for (int slot = 0; slot < DRONES; slot++) {
+            assertTrue(tickedDeaths[slot] > 0);
+            assertEquals(tickedDeaths[slot], eventDeaths[slot], 1, "slot " + slot);
+        }
+    }
+
+    @Test
+    void reportsEventsInTickOrder() {
+        FleetState fleet = buildFleet(20);
+        EventDrivenEngine engine = new EventDrivenEngine(fleet, DT, 1);
+        List<long[]> events = new ArrayList<>();
+        int[] counts = new int[EventDrivenEngine.EventType.values().length];
+        engine.setListener((slot, type, tick) -> {
+            events.add(new long[] {tick, slot});
+            counts[type.ordinal()]++;
+        });
+
+        engine.advanceTo(100_000);
+
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i - 1)[0] <= events.get(i)[0]);
+        }
+        assertEquals(events.size(), engine.getEventCount());
+        assertTrue(counts[EventDrivenEngine.EventType.WAYPOINT.ordinal()] > 0);
+        assertTrue(counts[EventDrivenEngine.EventType.ANOMALY.ordinal()] > 0);
+        // Each drone warns at most once and dies at most once.
+        assertTrue(counts[EventDrivenEngine.EventType.BATTERY_WARNING.ordinal()] <= DRONES);
+        assertTrue(counts[EventDrivenEngine.EventType.BATTERY_EMPTY.ordinal()] <= DRONES);
+        for (int slot = 0; slot < DRONES; slot++) {
+            assertFalse(fleet.getDrone(slot).isAlive());
+        }
+    }
+
+    @Test
+    void sparseSamplingCostsEventsNotTicks() {
+        FleetState fleet = buildFleet(100);
+        EventDrivenEngine engine = new EventDrivenEngine(fleet, DT, 0);
+
+        engine.advanceTo(1000);
+        engine.sample(0);
+
+        // A thousand ticks for fifty drones, but only a few dozen legs each.
+        assertTrue(engine.getEventCount() < 1000 * DRONES / 20, "events: " + engine.getEventCount());
+        assertEquals(1000, engine.getTick());
+    }
+
+    @Test
+    void sampleMovesReportsToPrevious() {
+        FleetState fleet = buildFleet(100);
+        EventDrivenEngine engine = new EventDrivenEngine(fleet, DT, 0);
+
+        engine.advanceTo(10);
+        engine.sample(10);
+        float longitude = engine.getCurrentTelemetry().getLongitude(1);
+        engine.advanceTo(20);
+        engine.sample(20);
+
+        assertEquals(longitude, engine.getPreviousTelemetry().getLongitude(1));
+        assertEquals(10, engine.getPreviousTelemetry().getTimeStamp(1));
+        assertEquals(20, engine.getCurrentTelemetry().getTimeStamp(1));
+    }
+
+    @Test
+    void cannotGoBackInTime() {
+        EventDrivenEngine engine = new EventDrivenEngine(buildFleet(100), DT, 0);
+        engine.advanceTo(5);
+        assertThrows(IllegalArgumentException.class, () -> engine.advanceTo(4));
+    }
+
+    @Test
+    void rejectsStepsLongerThanTheSlowDownZone() {
+        assertThrows(IllegalArgumentException.class, () -> new EventDrivenEngine(buildFleet(100), 3f, 0));
+        assertThrows(IllegalArgumentException.class, () -> new EventDrivenEngine(buildFleet(100), 0f, 0));
+    }
+}
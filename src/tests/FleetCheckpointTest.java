@@ -0,0 +1,142 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for FleetCheckpoint and CheckpointWriter classes
+ * @author Yusuf
+ */
+public class FleetCheckpointTest {
+
+    private static final int DRONES = 200;
+
+    @TempDir
+    Path myDir;
+
+    // A busy fleet: frequent anomalies, so streams, countdowns and off-segment slots all matter.
+    private SimulationEngine busy(long theSeed) {
+        return engine(20, theSeed, DRONES);
+    }
+
+    @Test
+    void restoredSimulationContinuesExactly() throws IOException {
+        SimulationEngine original = busy(5);
+        run(original, 150);
+        Path file = myDir.resolve("fleet.ckpt");
+        FleetCheckpoint.capture(original).write(file);
+
+        FleetCheckpoint checkpoint = FleetCheckpoint.read(file);
+        assertEquals(DRONES, checkpoint.size());
+        assertEquals(START + 150 * STEP, checkpoint.getTime());
+        assertEquals(20, checkpoint.getAnomalyPercent());
+        SimulationEngine restored = checkpoint.restore(new SimulatedClock(checkpoint.getTime(), STEP));
+
+        for (int slot = 0; slot < DRONES; slot++) {
+            Drone before = original.getFleet().getDrone(slot);
+            Drone after = restored.getFleet().getDrone(slot);
+            assertEquals(before.getId(), after.getId());
+            assertEquals(before.getBatteryLevel(), after.getBatteryLevel());
+            assertEquals(before.isAlive(), after.isAlive());
+        }
+        assertArrayEquals(run(original, 150), run(restored, 150));
+    }
+
+    @Test
+    void capturedCopyIsNotChangedByLaterTicks() throws IOException {
+        SimulationEngine original = busy(6);
+        run(original, 40);
+        FleetCheckpoint checkpoint = FleetCheckpoint.capture(original);
+        float[] expected = run(checkpoint.restore(new SimulatedClock(checkpoint.getTime(), STEP)), 60);
+
+        run(original, 60);
+        Path file = myDir.resolve("later.ckpt");
+        checkpoint.write(file);
+        FleetCheckpoint read = FleetCheckpoint.read(file);
+        assertArrayEquals(expected, run(read.restore(new SimulatedClock(read.getTime(), STEP)), 60));
+    }
+
+    @Test
+    void restoredEngineNumbersNewDronesAfterTheRestoredOnes() {
+        SimulationEngine original = busy(7);
+        SimulationEngine restored = FleetCheckpoint.capture(original).restore(new SimulatedClock(0, STEP));
+        assertEquals(DRONES + 1, restored.createDrone(new RouteGenerator(1).generateRoute()).getId());
+    }
+
+    @Test
+    void restoredEngineReusesTheReleasedIds() throws IOException {
+        SimulationEngine original = busy(11);
+        run(original, 10);
+        original.retireDrone(original.getFleet().getDrone(4));
+        original.retireDrone(original.getFleet().getDrone(40));
+        Path file = myDir.resolve("released.ckpt");
+        FleetCheckpoint.capture(original).write(file);
+        FleetCheckpoint read = FleetCheckpoint.read(file);
+        SimulationEngine restored = read.restore(new SimulatedClock(read.getTime(), STEP));
+
+        assertEquals(original.getIdAllocator().inUse(), restored.getIdAllocator().inUse());
+        RouteGenerator routes = new RouteGenerator(11);
+        RouteGenerator sameRoutes = new RouteGenerator(11);
+        for (int i = 0; i < 3; i++) {
+            int id = original.createDrone(routes.generateRoute()).getId();
+            assertEquals(id, restored.createDrone(sameRoutes.generateRoute()).getId());
+        }
+        assertArrayEquals(run(original, 40), run(restored, 40));
+    }
+
+    @Test
+    void emptyFleetRoundTrips() throws IOException {
+        Path file = myDir.resolve("empty.ckpt");
+        FleetCheckpoint.capture(new SimulationEngine(0, 1, new SimulatedClock(0, STEP))).write(file);
+        SimulationEngine restored = FleetCheckpoint.read(file).restore(new SimulatedClock(0, STEP));
+        assertEquals(0, restored.getFleet().size());
+        restored.tick(DELTA_TIME);
+    }
+
+    @Test
+    void restoreNeedsAnEmptyFleet() {
+        SimulationEngine original = busy(8);
+        FleetCheckpoint checkpoint = FleetCheckpoint.capture(original);
+        assertThrows(IllegalStateException.class, () -> checkpoint.restore(original.getGenerator()));
+    }
+
+    @Test
+    void readRejectsFilesThatAreNotCheckpoints() throws IOException {
+        Path text = myDir.resolve("text.ckpt");
+        Files.writeString(text, "not a checkpoint at all");
+        assertThrows(IOException.class, () -> FleetCheckpoint.read(text));
+
+        Path file = myDir.resolve("fleet.ckpt");
+        FleetCheckpoint.capture(busy(9)).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = myDir.resolve("truncated.ckpt");
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> FleetCheckpoint.read(truncated));
+    }
+
+    @Test
+    void writerSavesInTheBackgroundWhileTheSimulationTicks() throws IOException {
+        SimulationEngine original = busy(10);
+        Path file = myDir.resolve("background.ckpt");
+        float[] expected;
+        try (CheckpointWriter writer = new CheckpointWriter()) {
+            for (int i = 0; i < 5; i++) {
+                run(original, 20);
+                writer.save(original, file);
+            }
+            expected = run(original, 30);
+        }
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(myDir.resolve("background.ckpt.tmp")));
+
+        FleetCheckpoint read = FleetCheckpoint.read(file);
+        assertEquals(START + 100 * STEP, read.getTime());
+        assertArrayEquals(expected, run(read.restore(new SimulatedClock(read.getTime(), STEP)), 30));
+    }
+}
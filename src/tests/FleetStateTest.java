@@ -0,0 +1,115 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.*;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FleetState class
+ * @author Yusuf
+ */
+public class FleetStateTest {
+
+    @BeforeEach
+    void resetSingleton() throws Exception {
+        Field f = TelemetryGenerator.class.getDeclaredField("instance");
+        f.setAccessible(true);
+        f.set(null, null);
+    }
+
+    private ArrayList<RoutePoint> buildRoute(float theStart) {
+        ArrayList<RoutePoint> route = new ArrayList<>();
+        route.add(new RoutePoint(theStart, theStart, 10f));
+        route.add(new RoutePoint(theStart + 100f, theStart, 10f));
+        return route;
+    }
+
+    @Test
+    void dronesCreatedInFleetOccupyDenseSlots() {
+        FleetState fleet = new FleetState(1);
+        Drone a = new DroneGenerator().createDrone(fleet, 1f, 100, buildRoute(0f));
+        Drone b = new DroneGenerator().createDrone(fleet, 2f, 90, buildRoute(5f));
+        Drone c = new DroneGenerator().createDrone(fleet, 3f, 80, buildRoute(10f));
+
+        assertEquals(3, fleet.size());
+        assertSame(a, fleet.getDrone(0));
+        assertSame(b, fleet.getDrone(1));
+        assertSame(c, fleet.getDrone(2));
+        assertEquals(2f, b.getVelocity(), 0.0001);
+        assertEquals(90f, b.getBatteryLevel(), 0.0001);
+        assertEquals(10f, c.getLongitude(), 0.0001);
+    }
+
+    @Test
+    void addDroneMovesStateIntoGeneratorFleet() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Drone d = new Drone(5f, 100, buildRoute(0f));
+        d.setBatteryLevel(42f);
+        d.setOrientation(370f);
+        d.setNextRoute();
+        RoutePoint next = d.getNextPoint();
+        int id = d.getId();
+
+        gen.addDrone(d);
+
+        assertEquals(1, gen.getFleet().size());
+        assertSame(d, gen.getFleet().getDrone(0));
+        assertEquals(id, d.getId());
+        assertEquals(42f, d.getBatteryLevel(), 0.0001);
+        assertEquals(10f, d.getOrientation().getDegree(), 0.0001);
+        assertSame(next, d.getNextPoint());
+        assertNotNull(d.getPreviousTelemetryRecord());
+    }
+
+    @Test
+    void removeDroneKeepsOtherViewsBound() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        DroneGenerator droneGen = new DroneGenerator();
+        DroneInterface a = droneGen.createDrone(gen.getFleet(), buildRoute(0f));
+        DroneInterface b = droneGen.createDrone(gen.getFleet(), buildRoute(20f));
+        DroneInterface c = droneGen.createDrone(gen.getFleet(), buildRoute(40f));
+        gen.addDrone(a);
+        gen.addDrone(b);
+        gen.addDrone(c);
+
+        gen.removeDrone(b);
+
+        assertEquals(2, gen.getFleet().size());
+        assertSame(a, gen.getFleet().getDrone(0));
+        assertSame(c, gen.getFleet().getDrone(1));
+        assertEquals(40f, c.getLongitude(), 0.0001);
+
+        // The removed drone still reports its own state
+        assertEquals(20f, b.getLongitude(), 0.0001);
+        assertTrue(b.isAlive());
+    }
+
+    @Test
+    void fleetDronesMoveLikeStandaloneDrones() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Drone standalone = new Drone(1f, 100, buildRoute(0f));
+        Drone fleetDrone = new DroneGenerator().createDrone(gen.getFleet(), 1f, 100, buildRoute(0f));
+        gen.addDrone(fleetDrone);
+
+        for (int i = 0; i < 40; i++) {
+            standalone.getNextMove(0.5f);
+            gen.processAllDrones(0.5f);
+        }
+
+        assertEquals(standalone.getLongitude(), fleetDrone.getLongitude(), 0.0001);
+        assertEquals(standalone.getVelocity(), fleetDrone.getVelocity(), 0.0001);
+        assertEquals(standalone.getBatteryLevel(), fleetDrone.getBatteryLevel(), 0.0001);
+        assertEquals(standalone.getOrientation().getDegree(), fleetDrone.getOrientation().getDegree(), 0.0001);
+    }
+
+    @Test
+    void addDroneIgnoresDronesAlreadyInFleet() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Drone d = new DroneGenerator().createDrone(gen.getFleet(), 1f, 100, buildRoute(0f));
+        gen.addDrone(d);
+        gen.addDrone(d);
+        assertEquals(1, gen.getMyDrones().size());
+    }
+}
@@ -0,0 +1,184 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for Kinematics class
+ * @author Yusuf
+ */
+public class KinematicsTest {
+
+    private static final float DELTA_TIME = 0.5f;
+
+    // Enough drones that every vector width leaves a scalar tail.
+    private static final int DRONES = 203;
+
+    @BeforeEach
+    void resetSingleton() throws Exception {
+        Field f = TelemetryGenerator.class.getDeclaredField("instance");
+        f.setAccessible(true);
+        f.set(null, null);
+    }
+
+    // Builds the same seeded fleet every time: drones of every speed, some off their segment.
+    private FleetState fleet() {
+        FleetState fleet = new FleetState(DRONES);
+        RouteGenerator routes = new RouteGenerator(15);
+        for (int i = 0; i < DRONES; i++) {
+            ArrayList<RoutePoint> route = routes.generateRoute();
+            if (i % 17 == 0) {
+                // A repeated waypoint gives a zero-length segment.
+                route.add(route.getLast());
+            }
+            Drone drone = new DroneGenerator().createDrone(fleet, i % 11, 100, route);
+            if (i % 13 == 0) {
+                drone.setAltitude(drone.getAltitude() + 5);
+            }
+            if (i % 29 == 0) {
+                // Almost empty, so the battery runs out during the test.
+                drone.setBatteryLevel(0.1f);
+            }
+        }
+        return fleet;
+    }
+
+    // Drones on routes that run along the ground, where the altitude clamp must not pull them off their segments.
+    private FleetState groundFleet() {
+        FleetState fleet = new FleetState(DRONES);
+        for (int i = 0; i < DRONES; i++) {
+            ArrayList<RoutePoint> route = new ArrayList<>();
+            route.add(new RoutePoint(0f, 50f, 0f));
+            route.add(new RoutePoint(i % 7 + 1f, 50f - i % 5, 0f));
+            // Some routes climb away, others dip below the ground, which does pull them off.
+            route.add(new RoutePoint(-(i % 3) - 1f, 48f, i % 2 == 0 ? -5f : 20f));
+            new DroneGenerator().createDrone(fleet, i % 11, 100, route);
+        }
+        return fleet;
+    }
+
+    private void assertSameFleet(FleetState theExpected, FleetState theActual) {
+        for (int slot = 0; slot < DRONES; slot++) {
+            Drone expected = theExpected.getDrone(slot);
+            Drone actual = theActual.getDrone(slot);
+            assertEquals(expected.getLongitude(), actual.getLongitude());
+            assertEquals(expected.getLatitude(), actual.getLatitude());
+            assertEquals(expected.getAltitude(), actual.getAltitude());
+            assertEquals(expected.getVelocity(), actual.getVelocity());
+            assertEquals(expected.getBatteryLevel(), actual.getBatteryLevel());
+            assertEquals(expected.getOrientation().getDegree(), actual.getOrientation().getDegree());
+            assertEquals(expected.isAlive(), actual.isAlive());
+            assertEquals(expected.getNextPoint().getLongitude(), actual.getNextPoint().getLongitude());
+            assertEquals(expected.getNextPoint().getLatitude(), actual.getNextPoint().getLatitude());
+        }
+    }
+
+    // Moves every live drone the way a single Drone moves itself.
+    private void moveOneByOne(FleetState theFleet) {
+        for (int slot = 0; slot < theFleet.size(); slot++) {
+            Drone drone = theFleet.getDrone(slot);
+            if (drone.isAlive()) {
+                drone.getNextMove(DELTA_TIME);
+            }
+        }
+    }
+
+    private void assertMatchesDroneMoves(Kinematics theKinematics, Supplier<FleetState> theFleet) {
+        FleetState expected = theFleet.get();
+        FleetState actual = theFleet.get();
+        for (int tick = 0; tick < 300; tick++) {
+            moveOneByOne(expected);
+            theKinematics.moveAll(actual, DELTA_TIME);
+            assertSameFleet(expected, actual);
+            if (tick == 100) {
+                // Knock a few drones off their segments halfway through.
+                for (int slot = 0; slot < DRONES; slot += 7) {
+                    expected.getDrone(slot).setLatitude(expected.getDrone(slot).getLatitude() + 3);
+                    actual.getDrone(slot).setLatitude(actual.getDrone(slot).getLatitude() + 3);
+                }
+            }
+        }
+    }
+
+    @Test
+    void scalarMatchesDroneMoves() {
+        assertEquals("scalar", Kinematics.scalar().getName());
+        assertMatchesDroneMoves(Kinematics.scalar(), this::fleet);
+        assertMatchesDroneMoves(Kinematics.scalar(), this::groundFleet);
+    }
+
+    @Test
+    void vectorMatchesDroneMoves() {
+        Kinematics vector = Kinematics.vector();
+        assumeTrue(vector != null, "jdk.incubator.vector is not available");
+        assertMatchesDroneMoves(vector, this::fleet);
+    }
+
+    @Test
+    void vectorMatchesDroneMovesNearTheGround() {
+        Kinematics vector = Kinematics.vector();
+        assumeTrue(vector != null, "jdk.incubator.vector is not available");
+        assertMatchesDroneMoves(vector, this::groundFleet);
+    }
+
+    @Test
+    void defaultFallsBackToScalar() {
+        String previous = System.getProperty(Kinematics.PROPERTY);
+        try {
+            System.clearProperty(Kinematics.PROPERTY);
+            assertSame(Kinematics.scalar(), Kinematics.getDefault());
+            assertSame(Kinematics.scalar(), TelemetryGenerator.getInstance(0).getKinematics());
+            System.setProperty(Kinematics.PROPERTY, "vector");
+            assertSame(Kinematics.vector() == null ? Kinematics.scalar() : Kinematics.vector(),
+                    Kinematics.getDefault());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(Kinematics.PROPERTY);
+            } else {
+                System.setProperty(Kinematics.PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    void generatorTicksAreTheSameWithEveryKernel() throws Exception {
+        List<Kinematics> kernels = new ArrayList<>(List.of(Kinematics.scalar()));
+        if (Kinematics.vector() != null) {
+            kernels.add(Kinematics.vector());
+        }
+        float[][] results = new float[kernels.size()][];
+        for (int k = 0; k < kernels.size(); k++) {
+            resetSingleton();
+            TelemetryGenerator gen = TelemetryGenerator.getInstance(2);
+            gen.setClock(new SimulatedClock(0, 500));
+            gen.setKinematics(kernels.get(k));
+            RouteGenerator routes = new RouteGenerator(16);
+            for (int i = 0; i < DRONES; i++) {
+                new DroneGenerator().createDrone(gen.getFleet(), routes.generateRoute());
+            }
+            gen.setSeed(16);
+            for (int tick = 0; tick < 60; tick++) {
+                gen.tick(DELTA_TIME);
+            }
+            TelemetryColumns current = gen.getCurrentTelemetry();
+            FleetState fleet = gen.getFleet();
+            results[k] = new float[fleet.size() * 3];
+            for (int slot = 0; slot < fleet.size(); slot++) {
+                results[k][slot * 3] = current.getLongitude(slot);
+                results[k][slot * 3 + 1] = current.getAltitude(slot);
+                results[k][slot * 3 + 2] = current.getBatteryLevel(slot);
+            }
+        }
+        for (int k = 1; k < kernels.size(); k++) {
+            assertArrayEquals(results[0], results[k]);
+        }
+        assertThrows(NullPointerException.class, () -> TelemetryGenerator.getInstance(0).setKinematics(null));
+    }
+}
@@ -0,0 +1,179 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for LevelOfDetail class and its use by TelemetryGenerator
+ * @author Yusuf
+ */
+public class LevelOfDetailTest {
+
+    private static final int WINDOW = 4;
+
+    private static final int DRONES = 14;
+
+    @TempDir
+    Path myDir;
+
+    // Drones on long straight routes far apart, plus a pair that fly close together.
+    private SimulationEngine spread(float theAnomalyPercent) {
+        SimulationEngine engine = engine(theAnomalyPercent, 3, 0);
+        for (int i = 0; i < DRONES - 2; i++) {
+            engine.createDrone(route(-165 + i * 30, -80, -165 + i * 30, 80));
+        }
+        engine.createDrone(route(174, -80, 174, 80));
+        engine.createDrone(route(177, -80, 177, 80));
+        return engine;
+    }
+
+    private ArrayList<RoutePoint> route(float theLon1, float theLat1, float theLon2, float theLat2) {
+        return new ArrayList<>(List.of(new RoutePoint(theLon1, theLat1, 100), new RoutePoint(theLon2, theLat2, 100)));
+    }
+
+    @Test
+    void caughtUpDronesMatchFullRateExactly() {
+        SimulationEngine full = spread(2);
+        SimulationEngine coarse = spread(2);
+        LevelOfDetail detail = new LevelOfDetail(WINDOW);
+        coarse.setLevelOfDetail(detail);
+        for (int tick = 0; tick < 700; tick++) {
+            full.tick(DELTA_TIME);
+            coarse.tick(DELTA_TIME);
+        }
+        // Removing the policy catches every drone up in the next tick.
+        coarse.setLevelOfDetail(null);
+        full.tick(DELTA_TIME);
+        coarse.tick(DELTA_TIME);
+
+        assertArrayEquals(state(full), state(coarse));
+        assertTrue(detail.getDeferredTicks() > 0);
+    }
+
+    // Every anomaly the detector finds, as tick, drone ID and type.
+    private List<String> detect(SimulationEngine theEngine, int theTicks) {
+        AnomalyDetector detector = new AnomalyDetector(11);
+        List<String> found = new ArrayList<>();
+        for (int tick = 0; tick < theTicks; tick++) {
+            theEngine.tick(DELTA_TIME);
+            TelemetryGenerator gen = theEngine.getGenerator();
+            for (int slot = 0; slot < theEngine.getFleet().size(); slot++) {
+                if (!gen.isStepped(slot)) {
+                    continue;
+                }
+                AnomalyReport report = detector.detect(gen.getPreviousTelemetry(), gen.getCurrentTelemetry(), slot);
+                if (report != null) {
+                    found.add(tick + " " + report.droneId() + " " + report.anomalyType());
+                }
+            }
+        }
+        return found;
+    }
+
+    @Test
+    void detectorFindsTheSameAnomalies() {
+        SimulationEngine coarse = spread(2);
+        coarse.setLevelOfDetail(new LevelOfDetail(WINDOW));
+        List<String> expected = detect(spread(2), 700);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, detect(coarse, 700));
+        assertTrue(coarse.getSavedFraction() > 0);
+    }
+
+    @Test
+    void engineReportsTheUpdatesSaved() {
+        SimulationEngine engine = spread(0);
+        assertEquals(0, engine.getSavedFraction());
+        LevelOfDetail detail = new LevelOfDetail(WINDOW);
+        engine.setLevelOfDetail(detail);
+        for (int tick = 0; tick < 200; tick++) {
+            engine.tick(DELTA_TIME);
+        }
+        assertEquals(DRONES * 200, detail.getSteppedTicks() + detail.getDeferredTicks());
+        assertTrue(engine.getSavedFraction() > 0.1, "saved " + engine.getSavedFraction());
+    }
+
+    @Test
+    void neighboursAreSteppedEveryTick() {
+        SimulationEngine engine = spread(0);
+        engine.setLevelOfDetail(new LevelOfDetail(WINDOW));
+        for (int tick = 0; tick < 100; tick++) {
+            engine.tick(DELTA_TIME);
+            assertTrue(engine.getGenerator().isStepped(DRONES - 2));
+            assertTrue(engine.getGenerator().isStepped(DRONES - 1));
+        }
+    }
+
+    @Test
+    void observedDronesAreSteppedEveryTick() {
+        SimulationEngine engine = spread(0);
+        LevelOfDetail detail = new LevelOfDetail(WINDOW);
+        detail.setSelected(engine.getFleet().getDrone(3).getId());
+        detail.setFocus(-20, -90, 20, 90);
+        engine.setLevelOfDetail(detail);
+        for (int tick = 0; tick < 100; tick++) {
+            engine.tick(DELTA_TIME);
+            assertTrue(engine.getGenerator().isStepped(3));
+            assertTrue(engine.getGenerator().isStepped(5));
+            assertTrue(engine.getGenerator().isStepped(6));
+        }
+        assertTrue(detail.getDeferredTicks() > 0);
+
+        detail.clearFocus();
+        detail.setSelected(LevelOfDetail.NONE);
+        engine.tick(DELTA_TIME);
+        engine.tick(DELTA_TIME);
+        while (engine.getGenerator().isStepped(5)) {
+            engine.tick(DELTA_TIME);
+        }
+        // A promoted drone is caught up at the next tick.
+        detail.promote(engine.getFleet().getDrone(5).getId());
+        engine.tick(DELTA_TIME);
+        assertTrue(engine.getGenerator().isStepped(5));
+    }
+
+    // Which drones each tick stepped, with the state after the last tick.
+    private List<String> steps(SimulationEngine theEngine, int theTicks) {
+        List<String> result = new ArrayList<>();
+        for (int tick = 0; tick < theTicks; tick++) {
+            theEngine.tick(DELTA_TIME);
+            StringBuilder stepped = new StringBuilder();
+            for (int slot = 0; slot < theEngine.getFleet().size(); slot++) {
+                stepped.append(theEngine.getGenerator().isStepped(slot) ? '+' : '-');
+            }
+            result.add(stepped.toString());
+        }
+        result.add(Arrays.toString(state(theEngine)));
+        return result;
+    }
+
+    @Test
+    void restoredSimulationKeepsItsWindows() throws IOException {
+        SimulationEngine original = spread(2);
+        original.setLevelOfDetail(new LevelOfDetail(WINDOW));
+        // Capture in the middle of a window.
+        steps(original, 4 * WINDOW + 2);
+        Path file = myDir.resolve("lod.ckpt");
+        FleetCheckpoint.capture(original).write(file);
+        FleetCheckpoint checkpoint = FleetCheckpoint.read(file);
+        SimulationEngine restored = checkpoint.restore(new SimulatedClock(checkpoint.getTime(), STEP));
+        LevelOfDetail detail = new LevelOfDetail(WINDOW);
+        restored.setLevelOfDetail(detail);
+
+        assertEquals(steps(original, 100), steps(restored, 100));
+        assertTrue(detail.getDeferredTicks() > 0);
+    }
+
+    @Test
+    void windowMustBeAtLeastTwoTicks() {
+        assertThrows(IllegalArgumentException.class, () -> new LevelOfDetail(1));
+    }
+}
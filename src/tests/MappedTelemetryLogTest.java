@@ -0,0 +1,177 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for MappedTelemetryLog and SegmentedTelemetrySource classes
+ * @author Yusuf
+ */
+public class MappedTelemetryLogTest {
+
+    private static final List<String> HEADER = List.of("id", "velocity", "batteryLevel", "orientation", "timestamp");
+
+    @TempDir
+    Path tempDir;
+
+    // Logs a seeded run of 20 drones with every writer given, leaving the logs open.
+    private void record(int theTicks, TelemetryLogWriter... theWriters) {
+        SimulationEngine engine = engine(2, 8, 20);
+        for (int tick = 0; tick < theTicks; tick++) {
+            TelemetryBatch batch = engine.getGenerator().processAllDrones(DELTA_TIME);
+            for (TelemetryLogWriter writer : theWriters) {
+                writer.logTelemetryBatch(batch, HEADER);
+            }
+        }
+    }
+
+    // Number of bytes before a segment's unwritten end.
+    private int written(byte[] theSegment) {
+        int length = 0;
+        while (length < theSegment.length && theSegment[length] != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private List<TelemetryRecord> read(Path thePath) throws IOException {
+        List<TelemetryRecord> result = new ArrayList<>();
+        try (TelemetrySource source = TelemetrySource.open(thePath)) {
+            TelemetryColumns report = new TelemetryColumns(1);
+            while (source.next(report, 0)) {
+                result.add(report.toRecord(0));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void segmentsHoldTheLinesOfOneCsvLog() throws IOException {
+        Path csv = tempDir.resolve("run.csv");
+        Path directory = tempDir.resolve("run");
+        PersistentExporter exporter = new PersistentExporter();
+        exporter.startTelemetryLog(csv.toString(), HEADER);
+        MappedTelemetryLog log = new MappedTelemetryLog(MappedTelemetryLog.MIN_SEGMENT_SIZE, 10);
+        log.startTelemetryLog(directory.toString(), HEADER);
+        record(200, exporter, log);
+        exporter.closeTelemetryLog();
+        log.closeTelemetryLog();
+
+        List<String> expected = Files.readAllLines(csv);
+        List<Path> segments = MappedTelemetryLog.segments(directory);
+        assertTrue(segments.size() > 10, "segments: " + segments.size());
+        List<String> lines = new ArrayList<>();
+        List<String> index = new ArrayList<>();
+        index.add("segment,timestamp,length");
+        for (int number = 0; number < segments.size(); number++) {
+            // Segments keep their full size; the index says how much of each was written.
+            byte[] bytes = Files.readAllBytes(segments.get(number));
+            assertEquals(MappedTelemetryLog.MIN_SEGMENT_SIZE, bytes.length);
+            int length = written(bytes);
+            List<String> segmentLines = new String(bytes, 0, length, StandardCharsets.US_ASCII).lines().toList();
+            assertEquals(expected.get(0), segmentLines.get(0));
+            assertTrue(segmentLines.size() > 1);
+            index.add(number + "," + segmentLines.get(1).substring(segmentLines.get(1).lastIndexOf(',') + 1)
+                    + "," + length);
+            lines.addAll(segmentLines.subList(1, segmentLines.size()));
+        }
+        assertEquals(expected.subList(1, expected.size()), lines);
+        assertEquals(index, Files.readAllLines(directory.resolve(MappedTelemetryLog.INDEX)));
+
+        try (TelemetrySource source = TelemetrySource.open(directory)) {
+            assertInstanceOf(SegmentedTelemetrySource.class, source);
+        }
+        assertEquals(read(csv), read(directory));
+    }
+
+    @Test
+    void reportsCanBeReadBeforeTheLogIsClosed() throws IOException {
+        Path csv = tempDir.resolve("run.csv");
+        Path directory = tempDir.resolve("run");
+        PersistentExporter exporter = new PersistentExporter();
+        exporter.startTelemetryLog(csv.toString(), HEADER);
+        MappedTelemetryLog log = new MappedTelemetryLog(MappedTelemetryLog.MIN_SEGMENT_SIZE * 4, 10);
+        log.startTelemetryLog(directory.toString(), HEADER);
+        record(100, exporter, log);
+        exporter.closeTelemetryLog();
+
+        // As after a crash: the last segment is full size, its end never written.
+        List<TelemetryRecord> expected = read(csv);
+        assertEquals(expected, read(directory));
+        log.closeTelemetryLog();
+        assertEquals(expected, read(directory));
+    }
+
+    @Test
+    void segmentsAreReadUpToTheirIndexedLength() throws IOException {
+        Path directory = tempDir.resolve("run");
+        MappedTelemetryLog log = new MappedTelemetryLog(MappedTelemetryLog.MIN_SEGMENT_SIZE, 10);
+        log.startTelemetryLog(directory.toString(), HEADER);
+        record(50, log);
+        log.closeTelemetryLog();
+        List<TelemetryRecord> expected = read(directory);
+        assertFalse(expected.isEmpty());
+
+        // Whatever follows a segment's indexed length is not part of the log.
+        Path first = MappedTelemetryLog.segments(directory).get(0);
+        byte[] bytes = Files.readAllBytes(first);
+        byte[] stale = ("1,1,1,1,1" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(stale, 0, bytes, written(bytes), stale.length);
+        Files.write(first, bytes);
+        assertEquals(expected, read(directory));
+    }
+
+    @Test
+    void baselineIsCalculatedFromSegments() throws IOException {
+        Path csv = tempDir.resolve("run.csv");
+        Path directory = tempDir.resolve("run");
+        TelemetryLogWriter exporter = TelemetryLogWriter.forFile(csv.toString());
+        exporter.startTelemetryLog(csv.toString(), HEADER);
+        TelemetryLogWriter log = TelemetryLogWriter.forFile(directory + "/");
+        assertInstanceOf(MappedTelemetryLog.class, log);
+        log.startTelemetryLog(directory.toString(), HEADER);
+        record(400, exporter, log);
+        exporter.closeTelemetryLog();
+        log.closeTelemetryLog();
+
+        Path fromCsv = tempDir.resolve("csv.properties");
+        Path fromSegments = tempDir.resolve("segments.properties");
+        new BaselineCalculator().calculateAndSaveStats(csv.toString(), fromCsv.toString());
+        new BaselineCalculator().calculateAndSaveStats(directory.toString(), fromSegments.toString());
+        // Skip the comments naming the log and the date.
+        List<String> expected = Files.readAllLines(fromCsv).stream().filter(line -> !line.startsWith("#")).toList();
+        List<String> actual = Files.readAllLines(fromSegments).stream().filter(line -> !line.startsWith("#")).toList();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void startingALogReplacesItsSegments() throws IOException {
+        Path directory = tempDir.resolve("run");
+        MappedTelemetryLog log = new MappedTelemetryLog(MappedTelemetryLog.MIN_SEGMENT_SIZE, 10);
+        log.startTelemetryLog(directory.toString(), HEADER);
+        record(100, log);
+        log.closeTelemetryLog();
+        log.startTelemetryLog(directory.toString(), HEADER);
+        log.closeTelemetryLog();
+
+        assertEquals(1, MappedTelemetryLog.segments(directory).size());
+        assertTrue(read(directory).isEmpty());
+    }
+
+    @Test
+    void segmentsMustHoldReports() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedTelemetryLog(100, 1000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedTelemetryLog(MappedTelemetryLog.DEFAULT_SEGMENT_SIZE, 0));
+    }
+}
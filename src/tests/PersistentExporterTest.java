@@ -1,7 +1,6 @@
 package tests;
 
-import model.PersistentExporter;
-import model.TelemetryRecord;
+import model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -76,4 +75,33 @@ public class PersistentExporterTest {
             exporter.logTelemetryData(testData1, testHeader);
         });
     }
+
+    @Test
+    void testBatchMatchesRecords() throws IOException {
+        SimulationEngine engine = new SimulationEngine(50, 3, new SimulatedClock(1000, 500));
+        RouteGenerator routes = new RouteGenerator(3);
+        for (int i = 0; i < 20; i++) {
+            engine.createDrone(routes.generateRoute());
+        }
+        List<String> header = List.of("id", "longitude", "latitude", "altitude", "velocity",
+                "batteryLevel", "orientation", "timestamp");
+        Path batchFile = tempDir.resolve("batch-log.csv");
+        Path recordFile = tempDir.resolve("record-log.csv");
+        PersistentExporter records = new PersistentExporter();
+        exporter.startTelemetryLog(batchFile.toString(), header);
+        records.startTelemetryLog(recordFile.toString(), header);
+        for (int tick = 0; tick < 10; tick++) {
+            TelemetryBatch batch = engine.getGenerator().processAllDrones(0.5f);
+            exporter.logTelemetryBatch(batch, header);
+            for (int entry = 0; entry < batch.size(); entry++) {
+                records.logTelemetryData(batch.getCurrent().toRecord(entry), header);
+            }
+        }
+        exporter.closeTelemetryLog();
+        records.closeTelemetryLog();
+
+        List<String> lines = Files.readAllLines(batchFile);
+        assertEquals(1 + 10 * 20, lines.size());
+        assertEquals(Files.readAllLines(recordFile), lines);
+    }
 }
@@ -53,4 +53,21 @@ public class RouteGeneratorTest {
         assertTrue(p.getAltitude()  >= RouteGenerator.MIN_ALT && p.getAltitude()  <= RouteGenerator.MAX_ALT);
     }
 
+
+    @Test
+    void sameSeedGivesSameRoutes() {
+        RouteGenerator a = new RouteGenerator(42L);
+        RouteGenerator b = new RouteGenerator(42L);
+
+        for (int i = 0; i < 20; i++) {
+            ArrayList<RoutePoint> routeA = a.generateRoute();
+            ArrayList<RoutePoint> routeB = b.generateRoute();
+            assertEquals(routeA.size(), routeB.size());
+            for (int p = 0; p < routeA.size(); p++) {
+                assertEquals(routeA.get(p).getLongitude(), routeB.get(p).getLongitude());
+                assertEquals(routeA.get(p).getLatitude(), routeB.get(p).getLatitude());
+                assertEquals(routeA.get(p).getAltitude(), routeB.get(p).getAltitude());
+            }
+        }
+    }
 }
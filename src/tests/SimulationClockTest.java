@@ -0,0 +1,50 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SimulationClock implementations.
+ */
+public class SimulationClockTest {
+
+    @Test
+    void simulatedClockAdvancesOneStepPerTick() {
+        SimulatedClock clock = new SimulatedClock(1000, 500);
+        assertEquals(1000, clock.now());
+        assertEquals(1500, clock.nextTick());
+        assertEquals(2000, clock.nextTick());
+        assertEquals(2000, clock.now());
+    }
+
+    @Test
+    void simulatedClockRejectsNonPositiveStep() {
+        assertThrows(IllegalArgumentException.class, () -> new SimulatedClock(0, 0));
+    }
+
+    @Test
+    void replayClockReturnsRecordedTimesInOrder() {
+        ReplayClock clock = new ReplayClock(100, new long[]{200, 250, 900});
+        assertEquals(100, clock.now());
+        assertEquals(200, clock.nextTick());
+        assertEquals(250, clock.nextTick());
+        assertEquals(250, clock.now());
+        assertEquals(900, clock.nextTick());
+        assertFalse(clock.hasNextTick());
+        assertThrows(IllegalStateException.class, clock::nextTick);
+    }
+
+    @Test
+    void replayClockRejectsTimesGoingBackwards() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplayClock(0, new long[]{10, 5}));
+    }
+
+    @Test
+    void wallClockFollowsSystemTime() {
+        long before = System.currentTimeMillis();
+        long tick = WallClock.INSTANCE.nextTick();
+        assertTrue(tick >= before && tick <= System.currentTimeMillis());
+    }
+}
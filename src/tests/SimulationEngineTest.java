@@ -0,0 +1,133 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for SimulationEngine class
+ * @author Yusuf
+ */
+public class SimulationEngineTest {
+
+    private static final int DRONES = 300;
+
+    @BeforeEach
+    void resetSingleton() throws Exception {
+        Field f = TelemetryGenerator.class.getDeclaredField("instance");
+        f.setAccessible(true);
+        f.set(null, null);
+    }
+
+    @Test
+    void everyEngineNumbersItsDronesFromOne() {
+        // Drones made elsewhere in the process do not shift an engine's IDs.
+        new Drone(1f, 100, new RouteGenerator(1).generateRoute());
+        TelemetryGenerator.getInstance(0);
+
+        SimulationEngine first = engine(5, 3, DRONES);
+        SimulationEngine second = engine(5, 4, DRONES);
+        for (SimulationEngine engine : List.of(first, second)) {
+            assertEquals(DRONES, engine.getIdAllocator().issued());
+            for (int slot = 0; slot < DRONES; slot++) {
+                assertEquals(slot + 1, engine.getFleet().getDrone(slot).getId());
+            }
+        }
+        assertEquals(0, TelemetryGenerator.getInstance(0).getFleet().size());
+    }
+
+    @Test
+    void sameSeedGivesTheSameRun() {
+        float[] first = run(engine(5, 11, DRONES), 120);
+        float[] second = run(engine(5, 11, DRONES), 120);
+        assertArrayEquals(first, second);
+        assertFalse(Arrays.equals(first, run(engine(5, 12, DRONES), 120)));
+    }
+
+    @Test
+    void enginesRunConcurrentlyWithoutInterfering() throws Exception {
+        float[] expected = run(engine(5, 21, DRONES), 80);
+        float[] otherExpected = run(engine(5, 22, DRONES), 80);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<float[]>> runs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                long seed = i % 2 == 0 ? 21 : 22;
+                runs.add(pool.submit(() -> run(engine(5, seed, DRONES), 80)));
+            }
+            for (int i = 0; i < runs.size(); i++) {
+                assertArrayEquals(i % 2 == 0 ? expected : otherExpected, runs.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void engineOwnsItsClockAndSeed() {
+        SimulationClock clock = new SimulatedClock(0, 500);
+        SimulationEngine engine = new SimulationEngine(0, 9, clock);
+        assertSame(clock, engine.getClock());
+        assertSame(clock, engine.getGenerator().getClock());
+        assertEquals(9, engine.getSeed());
+        assertNotSame(TelemetryGenerator.getInstance(0), engine.getGenerator());
+
+        engine.createDrone(new RouteGenerator(9).generateRoute());
+        engine.tick(DELTA_TIME);
+        assertEquals(500, engine.getGenerator().getCurrentTelemetry().getTimeStamp(0));
+        assertThrows(NullPointerException.class, () -> new SimulationEngine(0, 9, null));
+    }
+
+    @Test
+    void closeStopsWorkerThreadsButKeepsTheFleet() {
+        SimulationEngine engine = engine(5, 31, DRONES);
+        engine.getGenerator().setParallelism(2);
+        engine.tick(DELTA_TIME);
+        engine.close();
+        assertEquals(1, engine.getGenerator().getParallelism());
+        engine.tick(DELTA_TIME);
+        assertEquals(DRONES, engine.getFleet().size());
+    }
+
+    @Test
+    void retiredDronesGiveTheirIdsToNewDrones() {
+        SimulationEngine engine = engine(5, 41, DRONES);
+        DroneInterface third = engine.getFleet().getDrone(2);
+        DroneInterface tenth = engine.getFleet().getDrone(9);
+        engine.retireDrone(third);
+        engine.retireDrone(tenth);
+        assertEquals(DRONES - 2, engine.getFleet().size());
+        assertEquals(DRONES - 2, engine.getIdAllocator().inUse());
+
+        RouteGenerator routes = new RouteGenerator(41);
+        assertEquals(10, engine.createDrone(routes.generateRoute()).getId());
+        assertEquals(3, engine.createDrone(routes.generateRoute()).getId());
+        assertEquals(DRONES + 1, engine.createDrone(routes.generateRoute()).getId());
+        assertEquals(DRONES + 1, engine.getIdAllocator().issued());
+        engine.tick(DELTA_TIME);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.retireDrone(third));
+    }
+
+    @Test
+    void allocatorRejectsIdsItDidNotHandOut() {
+        IdAllocator ids = new IdAllocator();
+        int first = ids.next();
+        ids.release(first);
+        assertThrows(IllegalStateException.class, () -> ids.release(first));
+        assertThrows(IllegalArgumentException.class, () -> ids.release(0));
+        assertThrows(IllegalArgumentException.class, () -> ids.release(2));
+        assertEquals(first, ids.next());
+        assertEquals(2, ids.next());
+    }
+}
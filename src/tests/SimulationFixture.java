@@ -0,0 +1,67 @@
+package tests;
+
+import model.*;
+
+/**
+ * Seeded engines and flattened fleet state shared by the simulation tests
+ * @author Yusuf
+ */
+final class SimulationFixture {
+
+    static final float DELTA_TIME = 0.5f;
+
+    static final long START = 1000;
+
+    static final long STEP = 500;
+
+    // Values recorded per drone by state().
+    static final int VALUES = 9;
+
+    private SimulationFixture() {
+    }
+
+    // An engine on a simulated clock with the given number of drones on seeded random routes.
+    static SimulationEngine engine(float theAnomalyPercent, long theSeed, int theDrones) {
+        SimulationEngine engine = new SimulationEngine(theAnomalyPercent, theSeed, new SimulatedClock(START, STEP));
+        RouteGenerator routes = new RouteGenerator(theSeed);
+        for (int i = 0; i < theDrones; i++) {
+            engine.createDrone(routes.generateRoute());
+        }
+        return engine;
+    }
+
+    // Every reported value of every drone after the latest tick, flattened.
+    static float[] state(SimulationEngine theEngine) {
+        float[] result = new float[theEngine.getFleet().size() * VALUES];
+        state(theEngine, result, 0);
+        return result;
+    }
+
+    // Ticks an engine and returns the state after every tick, flattened.
+    static float[] run(SimulationEngine theEngine, int theTicks) {
+        int size = theEngine.getFleet().size() * VALUES;
+        float[] result = new float[theTicks * size];
+        for (int tick = 0; tick < theTicks; tick++) {
+            theEngine.tick(DELTA_TIME);
+            state(theEngine, result, tick * size);
+        }
+        return result;
+    }
+
+    private static void state(SimulationEngine theEngine, float[] theInto, int theAt) {
+        TelemetryColumns previous = theEngine.getGenerator().getPreviousTelemetry();
+        TelemetryColumns current = theEngine.getGenerator().getCurrentTelemetry();
+        int at = theAt;
+        for (int slot = 0; slot < theEngine.getFleet().size(); slot++) {
+            theInto[at++] = current.getId(slot);
+            theInto[at++] = current.getLongitude(slot);
+            theInto[at++] = current.getLatitude(slot);
+            theInto[at++] = current.getAltitude(slot);
+            theInto[at++] = current.getVelocity(slot);
+            theInto[at++] = current.getBatteryLevel(slot);
+            theInto[at++] = current.getOrientation(slot);
+            theInto[at++] = current.getTimeStamp(slot) - previous.getTimeStamp(slot);
+            theInto[at++] = theEngine.getFleet().getDrone(slot).isAlive() ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package tests;
+
+import model.SpatialHashGrid;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SpatialHashGrid class
+ * @author Yusuf
+ */
+public class SpatialHashGridTest {
+
+    private List<Integer> cellContents(SpatialHashGrid grid, int x, int y, int z) {
+        List<Integer> found = new ArrayList<>();
+        for (int i = grid.firstInCell(x, y, z); i != SpatialHashGrid.NONE; i = grid.next(i)) {
+            found.add(i);
+        }
+        return found;
+    }
+
+    @Test
+    void constructorRejectsNonPositiveCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid(0f));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid(-2f));
+    }
+
+    @Test
+    void cellOfFloorsNegativeCoordinates() {
+        SpatialHashGrid grid = new SpatialHashGrid(2f);
+        assertEquals(0, grid.cellOf(0f));
+        assertEquals(0, grid.cellOf(1.99f));
+        assertEquals(1, grid.cellOf(2f));
+        assertEquals(-1, grid.cellOf(-0.01f));
+        assertEquals(-2, grid.cellOf(-2.5f));
+    }
+
+    @Test
+    void insertedIndicesAreFoundInTheirCell() {
+        SpatialHashGrid grid = new SpatialHashGrid(2f);
+        grid.clear(3);
+        grid.insert(0, 0.5f, 0.5f, 0.5f);
+        grid.insert(1, 1.5f, 1.5f, 1.5f);
+        grid.insert(2, 10f, 10f, 10f);
+
+        List<Integer> origin = cellContents(grid, 0, 0, 0);
+        assertEquals(2, origin.size());
+        assertTrue(origin.contains(0));
+        assertTrue(origin.contains(1));
+        assertEquals(List.of(2), cellContents(grid, 5, 5, 5));
+        assertTrue(cellContents(grid, 1, 1, 1).isEmpty());
+    }
+
+    @Test
+    void clearEmptiesTheGridAndGrows() {
+        SpatialHashGrid grid = new SpatialHashGrid(2f);
+        grid.clear(1);
+        grid.insert(0, 0f, 0f, 0f);
+        grid.clear(1000);
+        assertTrue(cellContents(grid, 0, 0, 0).isEmpty());
+
+        for (int i = 0; i < 1000; i++) {
+            grid.insert(i, i * 3f, -i * 3f, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            List<Integer> cell = cellContents(grid, grid.cellOf(i * 3f), grid.cellOf(-i * 3f), grid.cellOf(i));
+            assertTrue(cell.contains(i));
+        }
+    }
+}
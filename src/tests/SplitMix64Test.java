@@ -0,0 +1,54 @@
+package tests;
+
+import model.SplitMix64;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SplitMix64 class
+ * @author Yusuf
+ */
+public class SplitMix64Test {
+
+    @Test
+    void sameStateGivesSameNumbers() {
+        long[] a = {SplitMix64.stream(42, 3)};
+        long[] b = {SplitMix64.stream(42, 3)};
+        for (int i = 0; i < 100; i++) {
+            assertEquals(SplitMix64.nextLong(a, 0), SplitMix64.nextLong(b, 0));
+        }
+    }
+
+    @Test
+    void geometricGapsMatchPerTickChance() {
+        long[] states = {SplitMix64.stream(7, 0)};
+        double chance = 0.05;
+        int draws = 200_000;
+        long[] counts = new long[4];
+        double sum = 0;
+        for (int i = 0; i < draws; i++) {
+            long gap = SplitMix64.nextGeometric(states, 0, chance);
+            assertTrue(gap >= 1);
+            sum += gap;
+            if (gap <= counts.length) {
+                counts[(int) gap - 1]++;
+            }
+        }
+
+        // Mean 1/p, and P(gap = k) = (1 - p)^(k - 1) * p, as for one draw per tick.
+        assertEquals(1 / chance, sum / draws, 0.2);
+        for (int k = 1; k <= counts.length; k++) {
+            double expected = Math.pow(1 - chance, k - 1) * chance;
+            assertEquals(expected, (double) counts[k - 1] / draws, 0.003, "gap " + k);
+        }
+    }
+
+    @Test
+    void geometricGapEdgeCases() {
+        long[] states = {1};
+        assertEquals(1, SplitMix64.nextGeometric(states, 0, 1));
+        assertEquals(1, SplitMix64.nextGeometric(states, 0, 2));
+        assertEquals(Long.MAX_VALUE, SplitMix64.nextGeometric(states, 0, 0));
+        assertEquals(1, states[0]);
+    }
+}
@@ -0,0 +1,92 @@
+package tests;
+
+import model.SweepAndPrune;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SweepAndPrune class
+ * @author Yusuf
+ */
+public class SweepAndPruneTest {
+
+    @Test
+    void rejectsBadRadius() {
+        assertThrows(IllegalArgumentException.class, () -> new SweepAndPrune(0f));
+        assertThrows(IllegalArgumentException.class, () -> new SweepAndPrune(-2f));
+    }
+
+    @Test
+    void timeOfContactCases() {
+        // Already touching.
+        assertEquals(0f, SweepAndPrune.timeOfContact(1, 0, 0, 5, 0, 0, 4));
+        // Head-on from 10 apart, closing 20 per step: touch at 2 apart.
+        assertEquals(0.4f, SweepAndPrune.timeOfContact(10, 0, 0, -20, 0, 0, 4), 1e-6);
+        // Moving apart.
+        assertEquals(-1f, SweepAndPrune.timeOfContact(10, 0, 0, 20, 0, 0, 4));
+        // Closing, but not within one step.
+        assertEquals(-1f, SweepAndPrune.timeOfContact(10, 0, 0, -5, 0, 0, 4));
+        // Passing by 3 apart.
+        assertEquals(-1f, SweepAndPrune.timeOfContact(10, 3, 0, -20, 0, 0, 4));
+        // Standing still next to each other.
+        assertEquals(-1f, SweepAndPrune.timeOfContact(3, 0, 0, 0, 0, 0, 4));
+    }
+
+    @Test
+    void matchesEveryPairCheck() {
+        Random random = new Random(11);
+        int count = 2000;
+        float[][] start = new float[3][count];
+        float[][] end = new float[3][count];
+        boolean[] active = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                start[axis][i] = random.nextFloat() * 100f - 50f;
+                // Mostly short moves, with the odd long jump across several bands.
+                float reach = i % 50 == 0 ? 40f : 5f;
+                end[axis][i] = start[axis][i] + (random.nextFloat() * 2 - 1) * reach;
+            }
+            active[i] = i % 7 != 0;
+        }
+
+        SweepAndPrune sweep = new SweepAndPrune(2f);
+        int found = sweep.findContacts(start[0], start[1], start[2], end[0], end[1], end[2], active, count);
+
+        Map<Long, Float> expected = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (!active[i] || !active[j]) continue;
+                float time = SweepAndPrune.timeOfContact(
+                        start[0][i] - start[0][j], start[1][i] - start[1][j], start[2][i] - start[2][j],
+                        (end[0][i] - start[0][i]) - (end[0][j] - start[0][j]),
+                        (end[1][i] - start[1][i]) - (end[1][j] - start[1][j]),
+                        (end[2][i] - start[2][i]) - (end[2][j] - start[2][j]), 4f);
+                if (time >= 0) expected.put((long) i * count + j, time);
+            }
+        }
+
+        assertTrue(found > 20, "found " + found);
+        assertEquals(expected.size(), found);
+        float previous = 0;
+        for (int c = 0; c < found; c++) {
+            int i = sweep.getFirst(c);
+            int j = sweep.getSecond(c);
+            assertTrue(i < j);
+            assertEquals(expected.get((long) i * count + j), sweep.getTime(c));
+            assertTrue(sweep.getTime(c) >= previous);
+            previous = sweep.getTime(c);
+        }
+    }
+
+    @Test
+    void ignoresInactiveAndFindsNothingWhenEmpty() {
+        SweepAndPrune sweep = new SweepAndPrune(2f);
+        float[] zeros = new float[2];
+        assertEquals(0, sweep.findContacts(zeros, zeros, zeros, zeros, zeros, zeros, new boolean[2], 2));
+        assertEquals(1, sweep.findContacts(zeros, zeros, zeros, zeros, zeros, zeros, new boolean[]{true, true}, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> sweep.getFirst(1));
+    }
+}
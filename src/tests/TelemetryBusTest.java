@@ -0,0 +1,192 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.SimulationFixture.*;
+
+/**
+ * Tests for TelemetryBus class
+ * @author Yusuf
+ */
+public class TelemetryBusTest {
+
+    // Timestamp the engine gives the tick with the given sequence number.
+    private long timeOf(long theSequence) {
+        return START + (theSequence + 1) * STEP;
+    }
+
+    private void sleep(long theMillis) {
+        try {
+            Thread.sleep(theMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void gatingConsumersSeeEveryTickInOrder() {
+        SimulationEngine engine = engine(50, 4, 50);
+        AnomalyDetector detector = new AnomalyDetector(4);
+        List<Long> detected = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> found = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> stored = Collections.synchronizedList(new ArrayList<>());
+
+        TelemetryBus bus = new TelemetryBus(8);
+        TelemetryBus.Consumer detection = bus.addConsumer("detection", true, (batch, reports, sequence) -> {
+            detected.add(batch.getTimeStamp());
+            for (int entry = 0; entry < batch.size(); entry++) {
+                AnomalyReport report = detector.detect(batch, entry);
+                if (report != null) {
+                    reports.add(report);
+                }
+            }
+            found.add(reports.size());
+        });
+        bus.addConsumer("persistence", true, (batch, reports, sequence) -> stored.add(reports.size()), detection);
+        bus.start();
+        for (int tick = 0; tick < 100; tick++) {
+            bus.publish(engine.getGenerator().processAllDrones(DELTA_TIME), List.of());
+        }
+        bus.close();
+
+        assertEquals(100, bus.getPublished());
+        for (int sequence = 0; sequence < 100; sequence++) {
+            assertEquals(timeOf(sequence), detected.get(sequence));
+        }
+        // Persistence runs after detection, so it sees the reports detection added.
+        assertEquals(found, stored);
+        assertTrue(found.stream().mapToInt(Integer::intValue).sum() > 0);
+        for (TelemetryBus.Consumer consumer : bus.getConsumers()) {
+            assertEquals(100, consumer.getHandled());
+            assertEquals(0, consumer.getDropped());
+            assertEquals(0, consumer.getLag());
+            assertTrue(consumer.getMaxLag() <= bus.getCapacity());
+        }
+    }
+
+    @Test
+    void lossyConsumerDoesNotHoldUpTheProducer() {
+        SimulationEngine engine = engine(0, 4, 50);
+        ConcurrentHashMap<Long, Long> seen = new ConcurrentHashMap<>();
+        TelemetryBus bus = new TelemetryBus(4);
+        TelemetryBus.Consumer ui = bus.addConsumer("ui", false, (batch, reports, sequence) -> {
+            seen.put(sequence, batch.getTimeStamp());
+            sleep(20);
+        });
+        bus.start();
+        for (int tick = 0; tick < 200; tick++) {
+            bus.publish(engine.getGenerator().processAllDrones(DELTA_TIME), List.of());
+        }
+        bus.close();
+
+        assertEquals(0, bus.getProducerWaits());
+        assertTrue(ui.getDropped() > 0);
+        assertTrue(ui.getMaxLag() > bus.getCapacity());
+        assertEquals(200, ui.getHandled() + ui.getDropped());
+        assertEquals(ui.getHandled(), seen.size());
+        // Every tick it did handle was a whole copy of that tick.
+        seen.forEach((sequence, time) -> assertEquals(timeOf(sequence), time));
+    }
+
+    @Test
+    void lossyConsumerNeverHandlesATornTick() {
+        // Ticks of different sizes and times, published back to back so copies race the producer often.
+        TelemetryBatch[] batches = new TelemetryBatch[3];
+        for (int i = 0; i < batches.length; i++) {
+            SimulationEngine engine = engine(0, 4, new int[] {2000, 10, 400}[i]);
+            for (int tick = 0; tick <= i; tick++) {
+                batches[i] = engine.getGenerator().processAllDrones(DELTA_TIME);
+            }
+        }
+        AnomalyReport report = new AnomalyReport(UUID.randomUUID(), 1500L, "Conflict", 1, "simple", "detailed");
+        List<String> torn = Collections.synchronizedList(new ArrayList<>());
+        TelemetryBus bus = new TelemetryBus(2);
+        TelemetryBus.Consumer ui = bus.addConsumer("ui", false, (batch, reports, sequence) -> {
+            TelemetryBatch expected = batches[(int) (sequence % batches.length)];
+            boolean whole = batch.size() == expected.size() && batch.getTimeStamp() == expected.getTimeStamp()
+                    && reports.size() == sequence % 5;
+            for (int entry = 0; whole && entry < batch.size(); entry++) {
+                whole = batch.getCurrent().getTimeStamp(entry) == expected.getTimeStamp();
+            }
+            if (!whole) {
+                torn.add(sequence + ": " + batch.size() + " entries, " + reports.size() + " reports");
+            }
+        });
+        bus.start();
+        List<AnomalyReport> reports = new ArrayList<>();
+        for (int tick = 0; tick < 20_000; tick++) {
+            reports.clear();
+            for (int i = 0; i < tick % 5; i++) {
+                reports.add(report);
+            }
+            bus.publish(batches[tick % batches.length], reports);
+        }
+        bus.close();
+
+        assertEquals(List.of(), torn);
+        assertEquals(20_000, ui.getHandled() + ui.getDropped());
+        assertTrue(ui.getHandled() > 0);
+    }
+
+    @Test
+    void slowGatingConsumerMakesTheProducerWait() {
+        SimulationEngine engine = engine(0, 4, 50);
+        AtomicLong last = new AtomicLong(-1);
+        TelemetryBus bus = new TelemetryBus(4);
+        TelemetryBus.Consumer slow = bus.addConsumer("slow", true, (batch, reports, sequence) -> {
+            assertEquals(last.get() + 1, sequence);
+            last.set(sequence);
+            sleep(2);
+        });
+        bus.start();
+        for (int tick = 0; tick < 30; tick++) {
+            bus.publish(engine.getGenerator().processAllDrones(DELTA_TIME), List.of());
+            assertTrue(slow.getLag() <= bus.getCapacity());
+        }
+        bus.close();
+
+        assertTrue(bus.getProducerWaits() > 0);
+        assertEquals(30, slow.getHandled());
+        assertEquals(29, last.get());
+    }
+
+    @Test
+    void producerReportsReachConsumers() {
+        SimulationEngine engine = engine(0, 4, 50);
+        AnomalyReport conflict = new AnomalyReport(UUID.randomUUID(), 1500L, "Conflict", 1, "simple", "detailed");
+        List<Integer> counts = Collections.synchronizedList(new ArrayList<>());
+        TelemetryBus bus = new TelemetryBus(2);
+        bus.addConsumer("alerts", true, (batch, reports, sequence) -> counts.add(reports.size()));
+        bus.start();
+        bus.publish(engine.getGenerator().processAllDrones(DELTA_TIME), List.of(conflict));
+        bus.publish(engine.getGenerator().processAllDrones(DELTA_TIME), List.of());
+        bus.close();
+        assertEquals(List.of(1, 0), counts);
+    }
+
+    @Test
+    void busIsConfiguredBeforeItStarts() {
+        assertThrows(IllegalArgumentException.class, () -> new TelemetryBus(6));
+        assertThrows(IllegalArgumentException.class, () -> new TelemetryBus(1));
+
+        TelemetryBus bus = new TelemetryBus(4);
+        TelemetryBus.Consumer lossy = bus.addConsumer("ui", false, (batch, reports, sequence) -> { });
+        assertThrows(IllegalArgumentException.class,
+                () -> bus.addConsumer("after", true, (batch, reports, sequence) -> { }, lossy));
+        TelemetryBatch batch = engine(0, 4, 50).getGenerator().processAllDrones(DELTA_TIME);
+        assertThrows(IllegalStateException.class, () -> bus.publish(batch, List.of()));
+
+        bus.start();
+        assertThrows(IllegalStateException.class,
+                () -> bus.addConsumer("late", true, (b, reports, sequence) -> { }));
+        bus.close();
+        assertThrows(IllegalStateException.class, () -> bus.publish(batch, List.of()));
+    }
+}
@@ -2,9 +2,11 @@ package tests;
 
 import model.*;
 import org.junit.jupiter.api.*;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * A class to test TelemetryGenerator
@@ -71,13 +73,30 @@ public class TelemetryGeneratorTest {
         assertNotNull(d.getMyLastAnomaly());
     }
 
+    @Test
+    void injectedAnomalyIsOnlyReportedForTheTickItHappened() throws Exception {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(100);
+        Drone d = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, buildRoute());
+        assertNull(gen.getInjectedAnomaly(0));
+
+        gen.tick(0.5f);
+        assertEquals(d.getMyLastAnomaly(), gen.getInjectedAnomaly(0));
+        assertNotNull(gen.getInjectedAnomaly(0));
+
+        resetSingleton();
+        TelemetryGenerator calm = TelemetryGenerator.getInstance(0);
+        new DroneGenerator().createDrone(calm.getFleet(), 5f, 100, buildRoute());
+        calm.tick(0.5f);
+        assertNull(calm.getInjectedAnomaly(0));
+    }
+
     @Test
     void prevTelemetryRecordGetsUpdated() {
         TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
         Drone d = new Drone(5f, 100, buildRoute());
 
         gen.addDrone(d);
-        Map<DroneInterface, TelemetryRecord[]> map = gen.processAllDrones(1f);
+        gen.processAllDrones(1f);
 
         TelemetryRecord prev = d.getPreviousTelemetryRecord();
         assertNotNull(prev);
@@ -125,7 +144,7 @@ public class TelemetryGeneratorTest {
         float d1InitialAltitude = d1.getAltitude();
 
         // Process - collisions should happen and dead state telemetry should be sent
-        Map<DroneInterface, TelemetryRecord[]> map = gen.processAllDrones(1f);
+        TelemetryBatch batch = gen.processAllDrones(1f);
 
         // Both drones should be dead
         assertFalse(d1.isAlive());
@@ -137,22 +156,21 @@ public class TelemetryGeneratorTest {
         assertEquals(0f, d2.getAltitude(), 0.0001);
         assertEquals(0f, d2.getVelocity(), 0.0001);
 
-        // Most importantly: The telemetry map should contain the dead state telemetry
+        // Most importantly: The telemetry batch should contain the dead state telemetry
         // Since collisions happen before telemetry generation, the telemetry should show dead state
-        assertTrue(map.containsKey(d1));
-        assertTrue(map.containsKey(d2));
-
-        TelemetryRecord[] d1Records = map.get(d1);
-        TelemetryRecord[] d2Records = map.get(d2);
+        int d1Entry = batch.indexOf(d1.getId());
+        int d2Entry = batch.indexOf(d2.getId());
+        assertTrue(d1Entry >= 0);
+        assertTrue(d2Entry >= 0);
+        assertTrue(batch.isRemoved(d1Entry));
+        assertTrue(batch.isRemoved(d2Entry));
 
-        assertNotNull(d1Records);
-        assertNotNull(d2Records);
-        assertEquals(2, d1Records.length); // [prev, curr]
-        assertEquals(2, d2Records.length);
+        assertNotNull(batch.getPrevious().toRecord(d1Entry));
+        assertNotNull(batch.getPrevious().toRecord(d2Entry));
 
         // Current telemetry should show dead state (0 altitude, 0 battery)
-        TelemetryRecord d1Current = d1Records[1];
-        TelemetryRecord d2Current = d2Records[1];
+        TelemetryRecord d1Current = batch.getCurrent().toRecord(d1Entry);
+        TelemetryRecord d2Current = batch.getCurrent().toRecord(d2Entry);
 
         assertEquals(0f, d1Current.altitude(), 0.0001, "Collided drone should send 0 altitude in telemetry");
         assertEquals(0f, d1Current.velocity(), 0.0001, "Collided drone should send 0 velocity in telemetry");
@@ -176,23 +194,365 @@ public class TelemetryGeneratorTest {
         gen.addDrone(d2);
 
         // Process all drones
-        Map<DroneInterface, TelemetryRecord[]> map = gen.processAllDrones(1f);
+        TelemetryBatch batch = gen.processAllDrones(1f);
 
         // Verify that the telemetry sent shows the dead state, not the pre-collision state
-        TelemetryRecord[] d1Records = map.get(d1);
-        TelemetryRecord[] d2Records = map.get(d2);
+        int d1Entry = batch.indexOf(d1.getId());
+        int d2Entry = batch.indexOf(d2.getId());
 
-        if (d1Records != null && d1Records.length > 1) {
-            TelemetryRecord d1Current = d1Records[1];
+        if (d1Entry >= 0) {
+            TelemetryRecord d1Current = batch.getCurrent().toRecord(d1Entry);
             // The current telemetry should reflect the dead state after collision
             assertEquals(0f, d1Current.altitude(), 0.0001, 
                 "Telemetry should show dead state (0 altitude) after collision, not pre-collision state");
         }
 
-        if (d2Records != null && d2Records.length > 1) {
-            TelemetryRecord d2Current = d2Records[1];
+        if (d2Entry >= 0) {
+            TelemetryRecord d2Current = batch.getCurrent().toRecord(d2Entry);
             assertEquals(0f, d2Current.altitude(), 0.0001,
                 "Telemetry should show dead state (0 altitude) after collision, not pre-collision state");
         }
     }
+
+    @Test
+    void sweptCollisionsMatchPairwiseCheck() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Random random = new Random(42);
+
+        // Two identical fleets packed into a small box so many drones collide
+        List<Drone> simulated = new ArrayList<>();
+        List<Drone> reference = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ArrayList<RoutePoint> route = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                route.add(new RoutePoint(random.nextFloat() * 30f, random.nextFloat() * 30f,
+                        random.nextFloat() * 10f));
+            }
+            Drone d = new Drone(5f, 100, route);
+            simulated.add(d);
+            reference.add(new Drone(5f, 100, route));
+            gen.addDrone(d);
+        }
+
+        for (int tick = 0; tick < 5; tick++) {
+            gen.processAllDrones(0.5f);
+
+            // Check every pair of motion segments, then apply the hits earliest first.
+            int n = reference.size();
+            float[][] start = new float[n][];
+            for (int i = 0; i < n; i++) {
+                Drone d = reference.get(i);
+                start[i] = new float[]{d.getLongitude(), d.getLatitude(), d.getAltitude()};
+                if (d.isAlive()) d.getNextMove(0.5f);
+            }
+            List<float[]> hits = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Drone a = reference.get(i);
+                if (!a.isAlive()) continue;
+                for (int j = i + 1; j < n; j++) {
+                    Drone b = reference.get(j);
+                    if (!b.isAlive()) continue;
+                    float time = SweepAndPrune.timeOfContact(
+                            start[i][0] - start[j][0], start[i][1] - start[j][1], start[i][2] - start[j][2],
+                            (a.getLongitude() - start[i][0]) - (b.getLongitude() - start[j][0]),
+                            (a.getLatitude() - start[i][1]) - (b.getLatitude() - start[j][1]),
+                            (a.getAltitude() - start[i][2]) - (b.getAltitude() - start[j][2]), 4);
+                    if (time >= 0) hits.add(new float[]{time, i, j});
+                }
+            }
+            hits.sort(Comparator.comparingDouble(h -> h[0]));
+            float[] crashedAt = new float[n];
+            Arrays.fill(crashedAt, Float.NaN);
+            for (float[] hit : hits) {
+                int i = (int) hit[1];
+                int j = (int) hit[2];
+                boolean iFree = Float.isNaN(crashedAt[i]) || crashedAt[i] == hit[0];
+                boolean jFree = Float.isNaN(crashedAt[j]) || crashedAt[j] == hit[0];
+                if (iFree && jFree) {
+                    if (Float.isNaN(crashedAt[i])) crashedAt[i] = hit[0];
+                    if (Float.isNaN(crashedAt[j])) crashedAt[j] = hit[0];
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (!Float.isNaN(crashedAt[i])) reference.get(i).collided();
+            }
+
+            for (int i = 0; i < simulated.size(); i++) {
+                assertEquals(reference.get(i).isAlive(), simulated.get(i).isAlive(), "drone " + i + " tick " + tick);
+                assertEquals(reference.get(i).getAltitude(), simulated.get(i).getAltitude(), 0.0001);
+            }
+        }
+    }
+
+    @Test
+    void fastDronesCannotPassThroughEachOther() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+
+        // Head-on at full speed: 3 units apart before the tick, 7 units apart after it.
+        ArrayList<RoutePoint> east = new ArrayList<>();
+        east.add(new RoutePoint(0f, 0f, 50f));
+        east.add(new RoutePoint(100f, 0f, 50f));
+        ArrayList<RoutePoint> west = new ArrayList<>();
+        west.add(new RoutePoint(3f, 0f, 50f));
+        west.add(new RoutePoint(-100f, 0f, 50f));
+        Drone d1 = new DroneGenerator().createDrone(gen.getFleet(), 10f, 100, east);
+        Drone d2 = new DroneGenerator().createDrone(gen.getFleet(), 10f, 100, west);
+
+        gen.processAllDrones(0.5f);
+
+        assertFalse(d1.isAlive());
+        assertFalse(d2.isAlive());
+        // They met in the middle, a little before they would have touched centres.
+        assertEquals(0.5f, d1.getLongitude(), 0.01);
+        assertEquals(2.5f, d2.getLongitude(), 0.01);
+    }
+
+    @Test
+    void crossingPathsAtDifferentMomentsDoNotCollide() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+
+        // Both routes cross (10, 10), but the second drone gets there long after the first.
+        ArrayList<RoutePoint> first = new ArrayList<>();
+        first.add(new RoutePoint(0f, 10f, 50f));
+        first.add(new RoutePoint(100f, 10f, 50f));
+        ArrayList<RoutePoint> second = new ArrayList<>();
+        second.add(new RoutePoint(10f, -40f, 50f));
+        second.add(new RoutePoint(10f, 100f, 50f));
+        Drone d1 = new DroneGenerator().createDrone(gen.getFleet(), 10f, 100, first);
+        Drone d2 = new DroneGenerator().createDrone(gen.getFleet(), 10f, 100, second);
+
+        for (int tick = 0; tick < 20; tick++) {
+            gen.processAllDrones(0.5f);
+        }
+
+        assertTrue(d1.isAlive());
+        assertTrue(d2.isAlive());
+    }
+
+    private List<float[]> runSeededFleet(int theThreads) throws Exception {
+        resetSingleton();
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(5);
+        Random routes = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            ArrayList<RoutePoint> route = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                route.add(new RoutePoint(routes.nextFloat() * 200f - 100f, routes.nextFloat() * 100f - 50f,
+                        routes.nextFloat() * 50f));
+            }
+            new DroneGenerator().createDrone(gen.getFleet(), 1f, 100, route);
+        }
+        gen.setSeed(1234L);
+        gen.setParallelism(theThreads);
+
+        List<float[]> states = new ArrayList<>();
+        for (int tick = 0; tick < 20; tick++) {
+            TelemetryBatch batch = gen.processAllDrones(0.5f);
+            int entry = 0;
+            for (DroneInterface d : gen.getMyDrones()) {
+                TelemetryRecord curr = batch.getCurrent().toRecord(entry++);
+                states.add(new float[]{d.getLongitude(), d.getLatitude(), d.getAltitude(), d.getVelocity(),
+                        d.getBatteryLevel(), d.isAlive() ? 1 : 0, curr.longitude(), curr.latitude(),
+                        curr.altitude(), curr.orientation()});
+            }
+        }
+        gen.setParallelism(1);
+        return states;
+    }
+
+    @Test
+    void parallelTicksMatchSerialTicksForSameSeed() throws Exception {
+        List<float[]> serial = runSeededFleet(1);
+        List<float[]> parallel = runSeededFleet(4);
+
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertArrayEquals(serial.get(i), parallel.get(i));
+        }
+    }
+
+    @Test
+    void setParallelismRejectsLessThanOneThread() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        assertThrows(IllegalArgumentException.class, () -> gen.setParallelism(0));
+    }
+
+    @Test
+    void tickColumnsMatchProcessedRecords() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Drone d = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, buildRoute());
+
+        gen.processAllDrones(1f);
+        TelemetryRecord before = d.getPreviousTelemetryRecord();
+        gen.tick(1f);
+
+        assertEquals(before, gen.getPreviousTelemetry().toRecord(0));
+        TelemetryColumns current = gen.getCurrentTelemetry();
+        assertEquals(d.getId(), current.getId(0));
+        assertEquals(d.getLongitude(), current.getLongitude(0), 0.0001);
+        assertEquals(d.getBatteryLevel(), current.getBatteryLevel(0), 0.0001);
+        assertEquals(current.toRecord(0), d.getPreviousTelemetryRecord());
+    }
+
+    @Test
+    void steadyStateTickDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(20);
+        Random routes = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            ArrayList<RoutePoint> route = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                route.add(new RoutePoint(routes.nextFloat() * 2000f, routes.nextFloat() * 2000f,
+                        routes.nextFloat() * 50f));
+            }
+            new DroneGenerator().createDrone(gen.getFleet(), 1f, 100, route);
+        }
+        gen.setSeed(99L);
+
+        // Let buffers grow, classes load and the JIT settle before measuring. A
+        // deoptimization can rebuild objects the compiler had eliminated, so
+        // warm up until a window allocates nothing and keep the quietest window.
+        long threadId = Thread.currentThread().threadId();
+        for (int window = 0; window < 100; window++) {
+            if (allocatedOverTicks(threads, threadId, gen, 20) == 0) {
+                break;
+            }
+        }
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < 5; window++) {
+            allocated = Math.min(allocated, allocatedOverTicks(threads, threadId, gen, 200));
+        }
+
+        assertEquals(0, allocated, "tick allocated " + allocated + " bytes over 200 ticks");
+    }
+
+    // Bytes the current thread allocates over a number of ticks, less the cost of measuring.
+    private long allocatedOverTicks(com.sun.management.ThreadMXBean theThreads, long theThreadId,
+                                    TelemetryGenerator theGenerator, int theTicks) {
+        long calibrationStart = theThreads.getThreadAllocatedBytes(theThreadId);
+        long calibration = theThreads.getThreadAllocatedBytes(theThreadId) - calibrationStart;
+        long start = theThreads.getThreadAllocatedBytes(theThreadId);
+        for (int tick = 0; tick < theTicks; tick++) {
+            theGenerator.tick(0.5f);
+        }
+        return theThreads.getThreadAllocatedBytes(theThreadId) - start - calibration;
+    }
+
+    @Test
+    void batchesAreDoubleBufferedCopies() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        Drone a = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, buildRoute());
+        ArrayList<RoutePoint> apart = new ArrayList<>();
+        apart.add(new RoutePoint(0f, 50f, 0f));
+        apart.add(new RoutePoint(10f, 50f, 0f));
+        Drone b = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, apart);
+
+        TelemetryBatch first = gen.processAllDrones(0.5f);
+        TelemetryRecord aReport = first.getCurrent().toRecord(0);
+        assertEquals(2, first.size());
+        assertEquals(a.getPreviousTelemetryRecord(), aReport);
+
+        // Removing a drone does not touch the batch, and the next tick fills the other one.
+        gen.removeDrone(a);
+        TelemetryBatch second = gen.processAllDrones(0.5f);
+        assertNotSame(first, second);
+        assertEquals(aReport, first.getCurrent().toRecord(0));
+        assertEquals(1, second.size());
+        assertEquals(b.getId(), second.getCurrent().getId(0));
+        assertEquals(-1, second.indexOf(a.getId()));
+        assertEquals(first.getCurrent().toRecord(1), second.getPrevious().toRecord(0));
+
+        assertSame(first, gen.processAllDrones(0.5f));
+    }
+
+    @Test
+    void batchFlagsSpoofedReports() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(100);
+        Random routes = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            ArrayList<RoutePoint> route = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                route.add(new RoutePoint(routes.nextFloat() * 300f - 150f, routes.nextFloat() * 160f - 80f, 50f));
+            }
+            new DroneGenerator().createDrone(gen.getFleet(), 1f, 100, route);
+        }
+        gen.setSeed(5L);
+
+        int spoofed = 0;
+        for (int tick = 0; tick < 50; tick++) {
+            TelemetryBatch batch = gen.processAllDrones(0.5f);
+            for (int entry = 0; entry < batch.size(); entry++) {
+                int slot = batch.getSlot(entry);
+                assertEquals(gen.getFleet().getDrone(slot).getId(), batch.getCurrent().getId(entry));
+                assertEquals(!gen.getFleet().getDrone(slot).isAlive(), batch.isRemoved(entry));
+                boolean moved = batch.getCurrent().getLongitude(entry) != gen.getFleet().getDrone(slot).getLongitude();
+                if (batch.isSpoofed(entry)) {
+                    spoofed++;
+                    assertTrue(moved, "spoofed report matches the real position");
+                } else {
+                    assertFalse(moved);
+                }
+            }
+        }
+        assertTrue(spoofed > 0);
+    }
+
+    @Test
+    void tickStampsEveryRecordWithTheClockTime() {
+        TelemetryGenerator gen = TelemetryGenerator.getInstance(0);
+        gen.setClock(new SimulatedClock(10_000, 500));
+        Drone a = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, buildRoute());
+        Drone b = new DroneGenerator().createDrone(gen.getFleet(), 5f, 100, buildRoute());
+        assertEquals(10_000, a.getPreviousTelemetryRecord().timeStamp());
+
+        TelemetryBatch batch = gen.processAllDrones(0.5f);
+        assertEquals(10_500, batch.getTimeStamp());
+        assertEquals(10_500, batch.getCurrent().getTimeStamp(batch.indexOf(a.getId())));
+        assertEquals(10_500, batch.getCurrent().getTimeStamp(batch.indexOf(b.getId())));
+
+        gen.tick(0.5f);
+        assertEquals(10_500, gen.getPreviousTelemetry().getTimeStamp(1));
+        assertEquals(11_000, gen.getCurrentTelemetry().getTimeStamp(1));
+        gen.setClock(WallClock.INSTANCE);
+    }
+
+    private List<String> runSeededLog(int theThreads) {
+        SimulationSeed seed = new SimulationSeed(2024L);
+        SimulationEngine engine = new SimulationEngine(2, seed.getFleetSeed(), new SimulatedClock(1_000_000L, 500));
+        TelemetryGenerator gen = engine.getGenerator();
+        gen.setParallelism(theThreads);
+        RouteGenerator routes = new RouteGenerator(seed.getRouteSeed());
+        for (int i = 0; i < 3000; i++) {
+            engine.createDrone(routes.generateRoute());
+        }
+        AnomalyDetector detector = new AnomalyDetector(seed.getReportSeed());
+
+        List<String> log = new ArrayList<>();
+        for (int tick = 0; tick < 20; tick++) {
+            TelemetryBatch batch = gen.processAllDrones(0.5f);
+            for (int entry = 0; entry < batch.size(); entry++) {
+                log.add(batch.getCurrent().toRecord(entry).toString());
+                AnomalyReport report = detector.detect(batch, entry);
+                if (report != null) {
+                    log.add(report.toString());
+                }
+            }
+        }
+        engine.close();
+        return log;
+    }
+
+    @Test
+    void sameSeedGivesIdenticalTelemetryAndReports() {
+        List<String> first = runSeededLog(1);
+        List<String> second = runSeededLog(1);
+        List<String> parallel = runSeededLog(4);
+
+        assertTrue(first.stream().anyMatch(line -> line.startsWith("AnomalyReport")));
+        assertEquals(first, second);
+        assertEquals(first, parallel);
+    }
 }
@@ -0,0 +1,172 @@
+package tests;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TelemetryReplay and CsvTelemetrySource classes
+ * @author Yusuf
+ */
+public class TelemetryReplayTest {
+
+    private static final float DELTA_TIME = 0.5f;
+
+    private static final long START = 1000;
+
+    private static final long STEP = 500;
+
+    private static final int TICKS = 300;
+
+    private static final List<String> HEADER = List.of("id", "longitude", "latitude", "altitude",
+            "velocity", "batteryLevel", "orientation", "timestamp");
+
+    @TempDir
+    Path tempDir;
+
+    // Records a seeded run to a log and returns every anomaly found live, after the first tick.
+    private List<AnomalyReport> record(Path theLog) {
+        SimulationEngine engine = new SimulationEngine(2, 6, new SimulatedClock(START, STEP));
+        RouteGenerator routes = new RouteGenerator(6);
+        for (int i = 0; i < 20; i++) {
+            engine.createDrone(routes.generateRoute());
+        }
+        AnomalyDetector detector = new AnomalyDetector(9);
+        PersistentExporter exporter = new PersistentExporter();
+        exporter.startTelemetryLog(theLog.toString(), HEADER);
+        List<AnomalyReport> found = new ArrayList<>();
+        for (int tick = 0; tick < TICKS; tick++) {
+            TelemetryBatch batch = engine.getGenerator().processAllDrones(DELTA_TIME);
+            exporter.logTelemetryBatch(batch, HEADER);
+            // A replay has no report before the first one in the log.
+            if (tick == 0) {
+                continue;
+            }
+            for (int entry = 0; entry < batch.size(); entry++) {
+                AnomalyReport report = detector.detect(batch, entry);
+                if (report != null) {
+                    found.add(report);
+                }
+            }
+        }
+        exporter.closeTelemetryLog();
+        return found;
+    }
+
+    // Every report of every tick from the replay's position on, flattened.
+    private List<String> play(TelemetryReplay theReplay) throws IOException {
+        List<String> result = new ArrayList<>();
+        TelemetryBatch batch;
+        while ((batch = theReplay.next()) != null) {
+            for (int entry = 0; entry < batch.size(); entry++) {
+                result.add(batch.getTimeStamp() + " " + batch.getPrevious().toRecord(entry)
+                        + " " + batch.getCurrent().toRecord(entry));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void replayFindsTheAnomaliesFoundLive() throws IOException {
+        Path log = tempDir.resolve("run.csv");
+        List<AnomalyReport> live = record(log);
+        assertFalse(live.isEmpty());
+
+        AnomalyDetector detector = new AnomalyDetector(9);
+        List<AnomalyReport> replayed = new ArrayList<>();
+        try (TelemetryReplay replay = new TelemetryReplay(new CsvTelemetrySource(log))) {
+            TelemetryBatch batch;
+            while ((batch = replay.next()) != null) {
+                assertEquals(START + replay.getTicks() * STEP, batch.getTimeStamp());
+                assertEquals(20, batch.size());
+                for (int entry = 0; entry < batch.size(); entry++) {
+                    AnomalyReport report = detector.detect(batch, entry);
+                    if (report != null) {
+                        replayed.add(report);
+                    }
+                }
+            }
+            assertEquals(TICKS, replay.getTicks());
+        }
+        assertEquals(live, replayed);
+    }
+
+    @Test
+    void seekGivesTheSameTicksAsPlayingThrough() throws IOException {
+        Path log = tempDir.resolve("run.csv");
+        record(log);
+        long middle = START + 120 * STEP;
+        try (TelemetryReplay full = new TelemetryReplay(new CsvTelemetrySource(log));
+             TelemetryReplay seeking = new TelemetryReplay(new CsvTelemetrySource(log))) {
+            List<String> all = play(full);
+            List<String> tail = all.subList(all.size() - (TICKS - 119) * 20, all.size());
+
+            // Between ticks, the seek moves on to the next one.
+            seeking.seek(middle - STEP / 2);
+            assertEquals(middle, seeking.getNextTimeStamp());
+            assertEquals(tail, play(seeking));
+
+            // Seeking back reads the log again.
+            seeking.seek(middle);
+            assertEquals(119, seeking.getTicks());
+            assertEquals(tail, play(seeking));
+
+            seeking.seek(Long.MIN_VALUE);
+            assertEquals(all, play(seeking));
+            seeking.seek(Long.MAX_VALUE);
+            assertNull(seeking.next());
+        }
+    }
+
+    @Test
+    void logWithoutPositionsIsNotReportedAsCrashed() throws IOException {
+        Path log = tempDir.resolve("baseline.csv");
+        Files.writeString(log, """
+                id,velocity,batteryLevel,orientation,timestamp
+                1,1.3,99.9,90.0,1000
+                2,1.3,99.9,45.0,1000
+                1,1.3,99.8,90.0,1500
+                not a report
+                2,1.3,99.8,45.0,1500
+                1,1.3,99.7,90.0,2000
+                """);
+        AnomalyDetector detector = new AnomalyDetector(9);
+        try (TelemetryReplay replay = new TelemetryReplay(new CsvTelemetrySource(log))) {
+            TelemetryBatch first = replay.next();
+            assertEquals(2, first.size());
+            assertFalse(first.getPrevious().isPresent(0));
+            assertEquals(TelemetrySource.MISSING_ALTITUDE, first.getCurrent().getAltitude(0));
+            assertEquals(0, first.getCurrent().getLongitude(1));
+
+            TelemetryBatch second = replay.next();
+            assertEquals(2, second.size());
+            assertEquals(1000, second.getPrevious().getTimeStamp(1));
+            assertEquals(99.8f, second.getCurrent().getBatteryLevel(1));
+            for (int entry = 0; entry < second.size(); entry++) {
+                assertNull(detector.detect(second, entry));
+            }
+
+            TelemetryBatch third = replay.next();
+            assertEquals(1, third.size());
+            assertEquals(2000, third.getTimeStamp());
+            assertNull(replay.next());
+            assertEquals(Long.MAX_VALUE, replay.getNextTimeStamp());
+        }
+    }
+
+    @Test
+    void logMustNameIdsAndTimestamps() throws IOException {
+        Path log = tempDir.resolve("bad.csv");
+        Files.writeString(log, "velocity,batteryLevel\n1.3,99.9\n");
+        assertThrows(IOException.class, () -> new CsvTelemetrySource(log));
+        Path empty = tempDir.resolve("empty.csv");
+        Files.writeString(empty, "");
+        assertThrows(IOException.class, () -> new CsvTelemetrySource(empty));
+    }
+}
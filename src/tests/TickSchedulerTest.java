@@ -0,0 +1,125 @@
+package tests;
+
+import controller.TickScheduler;
+import controller.TickScheduler.OverrunPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickScheduler, driven by a fake clock so timing is exact.
+ */
+public class TickSchedulerTest {
+
+    private static final long PERIOD_MS = 100;
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(PERIOD_MS);
+
+    /** Fake nanosecond clock; sleeping and ticking advance it. */
+    private long myNow;
+
+    /** Start time of each tick, relative to the first. */
+    private final List<Long> myStarts = new ArrayList<>();
+
+    /** Degraded flag passed to each tick. */
+    private final List<Boolean> myDegradedFlags = new ArrayList<>();
+
+    private TickScheduler scheduler(OverrunPolicy thePolicy, long... theDurations) {
+        int[] index = {0};
+        return new TickScheduler(PERIOD_MS, thePolicy, 2, degraded -> {
+            myStarts.add(myNow);
+            myDegradedFlags.add(degraded);
+            long duration = index[0] < theDurations.length ? theDurations[index[0]] : 10;
+            index[0]++;
+            myNow += TimeUnit.MILLISECONDS.toNanos(duration);
+        }, () -> myNow, nanos -> myNow += nanos);
+    }
+
+    @Test
+    void ticksRunOnAFixedGrid() {
+        TickScheduler s = scheduler(OverrunPolicy.SKIP, 30, 60, 10);
+        s.run(3);
+
+        // A fixed delay would start the third tick at 60 + 100 + 100 + 30 ms
+        assertEquals(List.of(0L, PERIOD, 2 * PERIOD), myStarts);
+        assertEquals(0, s.getStats().overruns());
+    }
+
+    @Test
+    void skipDropsMissedTicks() {
+        TickScheduler s = scheduler(OverrunPolicy.SKIP, 350);
+        s.run(2);
+
+        // The first tick ends at 350 ms, so the ticks due at 100, 200 and 300 ms are dropped
+        assertEquals(4 * PERIOD, myStarts.get(1));
+        TickScheduler.TickStats stats = s.getStats();
+        assertEquals(1, stats.overruns());
+        assertEquals(3, stats.skipped());
+    }
+
+    @Test
+    void catchUpRunsABoundedBurst() {
+        TickScheduler s = scheduler(OverrunPolicy.CATCH_UP, 350);
+        s.run(4);
+
+        // Only two of the three missed ticks are run, back to back
+        long end = TimeUnit.MILLISECONDS.toNanos(350);
+        assertEquals(end, myStarts.get(1));
+        assertEquals(end + TimeUnit.MILLISECONDS.toNanos(10), myStarts.get(2));
+        assertEquals(4 * PERIOD, myStarts.get(3));
+        assertEquals(1, s.getStats().skipped());
+        assertFalse(myDegradedFlags.contains(true));
+    }
+
+    @Test
+    void degradeFlagsLateTicks() {
+        TickScheduler s = scheduler(OverrunPolicy.DEGRADE, 350);
+        s.run(4);
+
+        assertEquals(List.of(false, true, true, false), myDegradedFlags);
+        assertEquals(2, s.getStats().degraded());
+    }
+
+    @Test
+    void statsReportLatencyPercentiles() {
+        long[] durations = new long[100];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = i + 1;
+        }
+        TickScheduler s = scheduler(OverrunPolicy.SKIP, durations);
+        s.run(100);
+
+        TickScheduler.TickStats stats = s.getStats();
+        assertEquals(100, stats.ticks());
+        assertEquals(50.0, stats.p50(), 1e-9);
+        assertEquals(95.0, stats.p95(), 1e-9);
+        assertEquals(99.0, stats.p99(), 1e-9);
+        assertEquals(100.0, stats.max(), 1e-9);
+        assertFalse(stats.overBudget());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TickScheduler(0, OverrunPolicy.SKIP, 1, degraded -> { }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TickScheduler(100, OverrunPolicy.SKIP, 0, degraded -> { }));
+    }
+
+    @Test
+    void startAndStopOnTheSystemClock() throws Exception {
+        int[] ticks = {0};
+        TickScheduler s = new TickScheduler(5, OverrunPolicy.SKIP, 1, degraded -> ticks[0]++);
+        s.start();
+        Thread.sleep(100);
+        s.stop(1000);
+        int stopped = ticks[0];
+        Thread.sleep(50);
+
+        assertTrue(stopped > 0);
+        assertEquals(stopped, ticks[0]);
+    }
+}
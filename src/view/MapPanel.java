@@ -5,9 +5,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * This class represents and displays the drone's locations on a map.
@@ -45,14 +43,39 @@ class MapPanel extends JPanel {
     private static final Dimension SIZE = new Dimension(930, 530);
 
     /**
-     * This constant is a mapping between Drones' IDs and their locations.
+     * This constant is an alias for 2 to reference the flags of a drone
+     * in its entry of the drone table.
      */
-    private static final Map<Integer, int[]> ID_LOC_MAP = new HashMap<>();
+    private static final int FLAGS = 2;
 
     /**
-     * Set of dead drone IDs.
+     * Ints per drone in the drone table: longitude, latitude and flags.
      */
-    private static final Set<Integer> DEAD_DRONES = new java.util.HashSet<>();
+    private static final int STRIDE = 3;
+
+    /**
+     * Flag of a drone ID that has a location on the map.
+     */
+    private static final int MAPPED = 1;
+
+    /**
+     * Flag of a drone that is dead.
+     */
+    private static final int DEAD = 2;
+
+    /**
+     * Drone IDs the table has room for at first.
+     */
+    private static final int INITIAL_DRONES = 64;
+
+    /**
+     * Table of drone locations indexed by drone ID: the longitude,
+     * latitude and flags of drone ID n are at n * STRIDE + LON, LAT
+     * and FLAGS. Drone IDs are small and dense, so this replaces a
+     * hash map and boxed keys. Replaced whole when it grows, so the
+     * paint thread always sees a complete table.
+     */
+    private static volatile int[] myDrones = new int[INITIAL_DRONES * STRIDE];
 
     /**
      * This constant is a reference to the GridPanel that draws the grid and drones.
@@ -62,7 +85,14 @@ class MapPanel extends JPanel {
     /**
      * Currently selected drone id, -1 if no drone selected;
      */
-    private static int mySelectedID;
+    private static volatile int mySelectedID;
+
+    /**
+     * Longitude and latitude bounds of the part of the map last drawn on
+     * screen, as {min lon, min lat, max lon, max lat}, or null before the
+     * first paint. Replaced whole, so other threads can read it.
+     */
+    private static volatile float[] myVisibleArea;
 
     /**
      * Constructor to initialize panel.
@@ -87,7 +117,41 @@ class MapPanel extends JPanel {
         if (theID < 0) {
             throw new IllegalArgumentException("Drone ID must not be negative.");
         }
-        ID_LOC_MAP.put(theID, formatLocation(theLoc));
+        int[] loc = formatLocation(theLoc);
+        int[] drones = table(theID);
+        int at = theID * STRIDE;
+        drones[at + LON] = loc[LON];
+        drones[at + LAT] = loc[LAT];
+        drones[at + FLAGS] |= MAPPED;
+        repaint();
+    }
+
+    /**
+     * Stores the locations of many drones at once, for large fleets. Existing
+     * entries are updated in place and the panel is repainted once. Drones whose
+     * location is out of bounds are skipped, and drones that are not alive are
+     * marked dead.
+     *
+     * @param theIDs the id numbers of the drones.
+     * @param theLons the longitudes of the drones.
+     * @param theLats the latitudes of the drones.
+     * @param theAlive whether each drone is alive.
+     * @param theCount the number of drones in the arrays to store.
+     */
+    void setDroneMappings(final int[] theIDs, final float[] theLons, final float[] theLats,
+                          final boolean[] theAlive, final int theCount) {
+        for (int i = 0; i < theCount; i++) {
+            float lon = theLons[i];
+            float lat = theLats[i];
+            if (theIDs[i] < 0 || lon > LON_MAX || lon < -LON_MAX || lat > LAT_MAX || lat < -LAT_MAX) {
+                continue;
+            }
+            int[] drones = table(theIDs[i]);
+            int at = theIDs[i] * STRIDE;
+            drones[at + LON] = (int) Math.floor(lon);
+            drones[at + LAT] = (int) Math.floor(-lat);
+            drones[at + FLAGS] |= theAlive[i] ? MAPPED : MAPPED | DEAD;
+        }
         repaint();
     }
 
@@ -97,13 +161,49 @@ class MapPanel extends JPanel {
      * @param theID the id of the dead drone.
      */
     void markDroneDead(final int theID) {
-        DEAD_DRONES.add(theID);
-        repaint();
+        if (theID >= 0) {
+            table(theID)[theID * STRIDE + FLAGS] |= DEAD;
+            repaint();
+        }
     }
 
+    /**
+     * Removes a drone from the map.
+     *
+     * @param theID the id of the drone to remove.
+     */
     void removeDrone(final int theID) {
-        ID_LOC_MAP.remove(theID);
-        DEAD_DRONES.remove(theID);
+        int[] drones = myDrones;
+        if (theID >= 0 && theID * STRIDE < drones.length) {
+            drones[theID * STRIDE + FLAGS] = 0;
+        }
+    }
+
+    /**
+     * Returns whether the given drone ID has a location on the map.
+     *
+     * @param theID the drone ID.
+     * @return true if the drone is on the map.
+     */
+    private static boolean isMapped(final int theID) {
+        int[] drones = myDrones;
+        return theID >= 0 && theID * STRIDE < drones.length && (drones[theID * STRIDE + FLAGS] & MAPPED) != 0;
+    }
+
+    /**
+     * Returns the drone table, grown first if it has no room for the given ID.
+     *
+     * @param theID a non-negative drone ID.
+     * @return a table with an entry for the ID.
+     */
+    private static int[] table(final int theID) {
+        int[] drones = myDrones;
+        if (theID >= drones.length / STRIDE) {
+            int length = Math.max(theID + 1, drones.length / STRIDE * 2);
+            drones = Arrays.copyOf(drones, length * STRIDE);
+            myDrones = drones;
+        }
+        return drones;
     }
 
     /**
@@ -114,7 +214,7 @@ class MapPanel extends JPanel {
      * @throws IllegalArgumentException if the map does not contain the given ID.
      */
     public boolean setSelectedID(final int theID) {
-        if (!ID_LOC_MAP.containsKey(theID)) {
+        if (!isMapped(theID)) {
             throw new IllegalArgumentException("Location map does not contain given key (Drone ID).");
         }
         boolean isSelected = mySelectedID == theID;
@@ -128,6 +228,26 @@ class MapPanel extends JPanel {
         return isSelected;
     }
 
+    /**
+     * Returns the id of the selected drone.
+     *
+     * @return the selected drone id, or -1 if no drone is selected.
+     */
+    int getSelectedID() {
+        return mySelectedID;
+    }
+
+    /**
+     * Returns the bounds of the part of the map on screen. Safe to call from
+     * any thread.
+     *
+     * @return {min lon, min lat, max lon, max lat}, or null if the map has not been drawn yet.
+     */
+    float[] getVisibleArea() {
+        float[] area = myVisibleArea;
+        return area == null ? null : area.clone();
+    }
+
     /**
      * Sets up the size and border for the panel.
      */
@@ -293,6 +413,22 @@ class MapPanel extends JPanel {
 
             drawGrid(g2D);
             drawDrones(g2D);
+            updateVisibleArea();
+        }
+
+        /**
+         * Stores the bounds of the part of the map on screen, working the
+         * drawing done in {@link #drawDrones} backwards from the corners of
+         * the grid. A drone's dot reaches a little past its location, so
+         * the bounds are widened by one dot.
+         */
+        private void updateVisibleArea() {
+            double scale = 1.0 * myCellSize / LABEL_STEP;
+            float minLon = (float) ((BUFFER.width - myDelta.x - BUFFER.height) / scale) - DIAMETER;
+            float maxLon = (float) ((getWidth() - BUFFER.width - myDelta.x - BUFFER.height) / scale) + DIAMETER;
+            float maxLat = (float) (-(BUFFER.height - myDelta.y - BUFFER.width) / scale) + DIAMETER;
+            float minLat = (float) (-(getHeight() - BUFFER.height - myDelta.y - BUFFER.width) / scale) - DIAMETER;
+            myVisibleArea = new float[] {minLon, minLat, maxLon, maxLat};
         }
 
         /**
@@ -360,14 +496,19 @@ class MapPanel extends JPanel {
                 throw new IllegalArgumentException("Graphics object must not be null.");
             }
             double scale = 1.0 * myCellSize / LABEL_STEP;
-            for (int id : ID_LOC_MAP.keySet()) {
-                int[] loc = ID_LOC_MAP.get(id);
-                int d = (int) Math.floor(DIAMETER * scale);
-                int x = (int) Math.floor(loc[LON] * scale + myDelta.x - d / 2.0 + BUFFER.height);
-                int y = (int) Math.floor(loc[LAT] * scale + myDelta.y - d / 2.0 + BUFFER.width);
+            int[] drones = myDrones;
+            int d = (int) Math.floor(DIAMETER * scale);
+            for (int id = 0; id < drones.length / STRIDE; id++) {
+                int at = id * STRIDE;
+                int flags = drones[at + FLAGS];
+                if ((flags & MAPPED) == 0) {
+                    continue;
+                }
+                int x = (int) Math.floor(drones[at + LON] * scale + myDelta.x - d / 2.0 + BUFFER.height);
+                int y = (int) Math.floor(drones[at + LAT] * scale + myDelta.y - d / 2.0 + BUFFER.width);
                 
                 // Set color: dead > selected > normal
-                if (DEAD_DRONES.contains(id)) {
+                if ((flags & DEAD) != 0) {
                     theG2D.setColor(ColorScheme.DRONE_DEAD);
                 } else if (id == mySelectedID) {
                     theG2D.setColor(ColorScheme.DRONE_SELECTED);
@@ -410,12 +551,13 @@ class MapPanel extends JPanel {
          * @throws IllegalArgumentException if the map does not contain the given drone ID.
          */
         public void focusOnSelected(final int theID) {
-            if (!ID_LOC_MAP.containsKey(theID)) {
+            if (!isMapped(theID)) {
                 throw new IllegalArgumentException("Given Drone ID is not in location mapping.");
             }
+            int[] drones = myDrones;
             int scale = myCellSize / LABEL_STEP;
-            myDelta.x = -ID_LOC_MAP.get(theID)[LON] * scale + getWidth() / 2;
-            myDelta.y = -ID_LOC_MAP.get(theID)[LAT] * scale + getHeight() / 2;
+            myDelta.x = -drones[theID * STRIDE + LON] * scale + getWidth() / 2;
+            myDelta.y = -drones[theID * STRIDE + LAT] * scale + getHeight() / 2;
             clampPan();
         }
     }
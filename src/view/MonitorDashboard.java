@@ -5,6 +5,8 @@ import java.awt.*;
 import java.awt.event.WindowEvent;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class is the main window / dashboard for the autonomous drone monitoring
@@ -39,6 +41,9 @@ public class MonitorDashboard extends PropertyEnabledJFrame {
     /** the number of milliseconds in one second for the clock timer. */
     private static final int MILLI_IN_SEC = 1000;
 
+    /** The latest fleet positions waiting to be drawn, or null if none are waiting. */
+    private static final AtomicReference<FleetFrame> PENDING_FRAME = new AtomicReference<>();
+
     /** Clock for displaying the current time. */
     private static JMenuItem myClock;
 
@@ -95,6 +100,37 @@ public class MonitorDashboard extends PropertyEnabledJFrame {
         });
     }
 
+    /**
+     * Draws the locations of a whole fleet on the map panel with one UI update.
+     * <p>
+     * The arrays are copied, so the caller may reuse them for the next tick. If
+     * the previous fleet has not been drawn yet when this is called, it is
+     * replaced and only the latest positions are drawn. Telemetry entries are
+     * not updated, which keeps the UI responsive with tens of thousands of drones.
+     * </p>
+     *
+     * @param theIDs the drones' unique id values.
+     * @param theLons the drones' longitudes.
+     * @param theLats the drones' latitudes.
+     * @param theAlive whether each drone is alive.
+     * @param theCount the number of drones in the arrays to draw.
+     */
+    public void drawFleet(final int[] theIDs, final float[] theLons, final float[] theLats,
+                          final boolean[] theAlive, final int theCount) {
+        FleetFrame frame = new FleetFrame(Arrays.copyOf(theIDs, theCount), Arrays.copyOf(theLons, theCount),
+                Arrays.copyOf(theLats, theCount), Arrays.copyOf(theAlive, theCount));
+        // Only post a redraw if none is waiting; a waiting one will pick up this frame.
+        if (PENDING_FRAME.getAndSet(frame) == null) {
+            SwingUtilities.invokeLater(() -> {
+                FleetFrame latest = PENDING_FRAME.getAndSet(null);
+                MAP_PANEL.setDroneMappings(latest.ids(), latest.lons(), latest.lats(),
+                        latest.alive(), latest.ids().length);
+                MAP_PANEL.revalidate();
+                MAP_PANEL.repaint();
+            });
+        }
+    }
+
     /**
      * Removes all traces of drones with the given ID from the front end.
      *
@@ -126,6 +162,25 @@ public class MonitorDashboard extends PropertyEnabledJFrame {
         return MAP_PANEL.setSelectedID(theID);
     }
 
+    /**
+     * Returns the drone selected on the map. Safe to call from any thread.
+     *
+     * @return the selected drone's ID, or -1 if no drone is selected.
+     */
+    public int getSelectedDrone() {
+        return MAP_PANEL.getSelectedID();
+    }
+
+    /**
+     * Returns the part of the map currently on screen, so the simulation can
+     * put its effort where the user is looking. Safe to call from any thread.
+     *
+     * @return {min lon, min lat, max lon, max lat}, or null if the map has not been drawn yet.
+     */
+    public float[] getVisibleArea() {
+        return MAP_PANEL.getVisibleArea();
+    }
+
     /**
      * Marks a drone as dead so it displays with a different color.
      *
@@ -269,4 +324,14 @@ public class MonitorDashboard extends PropertyEnabledJFrame {
         bottomPanel.add(DETAILS_PANEL, BorderLayout.EAST);
         add(bottomPanel, BorderLayout.SOUTH);
     }
+
+    /**
+     * Copied fleet positions waiting to be drawn.
+     *
+     * @param ids the drones' id values.
+     * @param lons the drones' longitudes.
+     * @param lats the drones' latitudes.
+     * @param alive whether each drone is alive.
+     */
+    private record FleetFrame(int[] ids, float[] lons, float[] lats, boolean[] alive) { }
 }
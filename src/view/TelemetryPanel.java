@@ -4,8 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.*;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * This class displays the telemetry data for the mapped drones under the map.
@@ -23,9 +22,16 @@ class TelemetryPanel extends JPanel {
     private static final JPanel SCROLL_VIEW = new JPanel();
 
     /**
-     * This constant is a mapping between drone IDs and their associated entries.
+     * Drone IDs the entry table has room for at first.
      */
-    private static final Map<Integer, TelemetryEntry> ID_ENTRY_MAP = new HashMap<>();
+    private static final int INITIAL_DRONES = 64;
+
+    /**
+     * The entries of the drones, indexed by drone ID, null for IDs without
+     * one. Drone IDs are small and dense, so this replaces a hash map and
+     * boxed keys, and walking it visits the entries in ID order.
+     */
+    private static TelemetryEntry[] idEntries = new TelemetryEntry[INITIAL_DRONES];
 
     /**
      * This constant is the scroll pane for the telemetry entries.
@@ -66,13 +72,16 @@ class TelemetryPanel extends JPanel {
             scrollPosition = 0;
         }
 
-        if (ID_ENTRY_MAP.containsKey(theID)) {
+        if (theID >= idEntries.length) {
+            idEntries = Arrays.copyOf(idEntries, Math.max(theID + 1, idEntries.length * 2));
+        }
+        if (idEntries[theID] != null) {
             // update existing entry
-            ID_ENTRY_MAP.get(theID).setText(theData);
+            idEntries[theID].setText(theData);
         } else {
             // add new entry in sorted order by ID
             TelemetryEntry e = new TelemetryEntry(theID, theData);
-            ID_ENTRY_MAP.put(theID, e);
+            idEntries[theID] = e;
             
             // Find the correct insertion index to maintain sorted order
             int insertIndex = 0;
@@ -98,18 +107,19 @@ class TelemetryPanel extends JPanel {
     }
 
     void removeTelemetryEntry(final int theID) {
-        remove(ID_ENTRY_MAP.get(theID));
+        if (theID >= 0 && theID < idEntries.length) {
+            remove(idEntries[theID]);
+        }
         sortEntries();
     }
 
     private void sortEntries() {
-        for (TelemetryEntry e : ID_ENTRY_MAP.values()) {
-            SCROLL_VIEW.remove(e);
-        }
-        List<TelemetryEntry> entries = new ArrayList<>(List.copyOf(ID_ENTRY_MAP.values()));
-        entries.sort(Comparator.comparingInt(a -> a.myID));
-        for (TelemetryEntry e : entries) {
-            SCROLL_VIEW.add(e);
+        // The table is in ID order already.
+        for (TelemetryEntry e : idEntries) {
+            if (e != null) {
+                SCROLL_VIEW.remove(e);
+                SCROLL_VIEW.add(e);
+            }
         }
     }
 
@@ -198,7 +208,11 @@ class TelemetryPanel extends JPanel {
                 public void mouseClicked(final MouseEvent theE) {
                     boolean isSelected = MonitorDashboard.setSelectedDrone(myID);
                     // Reset all entries to default colors
-                    ID_ENTRY_MAP.values().forEach(e -> e.setSelected(false));
+                    for (TelemetryEntry e : idEntries) {
+                        if (e != null) {
+                            e.setSelected(false);
+                        }
+                    }
                     // Set this entry as selected if it wasn't already
                     if (!isSelected) {
                         setSelected(true);